@@ -20,6 +20,7 @@ import org.gradle.api.Action
 import org.gradle.api.plugins.buildcomparison.fixtures.ProjectOutcomesBuilder
 import org.gradle.api.plugins.buildcomparison.outcome.internal.archive.GeneratedArchiveBuildOutcome
 import org.gradle.api.plugins.buildcomparison.outcome.internal.unknown.UnknownBuildOutcome
+import org.gradle.internal.hash.HashValue
 import org.gradle.internal.resource.local.DefaultLocallyAvailableResource
 import org.gradle.internal.resource.local.FileStore
 import org.gradle.internal.resource.local.LocallyAvailableResource
@@ -40,6 +41,10 @@ class GradleBuildOutcomeSetTransformerTest extends Specification {
             new DefaultLocallyAvailableResource(source)
         }
 
+        LocallyAvailableResource move(String key, File source, HashValue sha1) {
+            move(key, source)
+        }
+
         LocallyAvailableResource add(String key, Action<File> addAction) {
             throw new UnsupportedOperationException()
         }
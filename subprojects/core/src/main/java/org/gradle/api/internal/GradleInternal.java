@@ -68,6 +68,11 @@ public interface GradleInternal extends Gradle, PluginAwareInternal {
      */
     ProjectEvaluationListener getProjectEvaluationBroadcaster();
 
+    /**
+     * Returns true when a {@link ProjectEvaluationListener} or a before or after project action has been registered with this build.
+     */
+    boolean hasProjectEvaluationListeners();
+
     /**
      * The settings for this build.
      *
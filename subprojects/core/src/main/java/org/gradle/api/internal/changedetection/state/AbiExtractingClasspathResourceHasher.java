@@ -19,6 +19,7 @@ import com.google.common.io.ByteStreams;
 import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hasher;
@@ -35,12 +36,36 @@ import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.zip.ZipEntry;
 
+/**
+ * Hashes class files by their ABI.
+ *
+ * <p>When given a cache, the ABI hashes of the class files in jars are cached by the content hash of the class file. A rebuilt jar in which
+ * few classes changed then only needs the ABI of those classes to be extracted, while the other classes only need to be read and hashed.</p>
+ */
 public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
     private static final Logger LOGGER = Logging.getLogger(AbiExtractingClasspathResourceHasher.class);
 
+    private final ResourceSnapshotterCacheService zipEntryCache;
+    private final HashCode zipEntryConfigurationHash;
+
+    public AbiExtractingClasspathResourceHasher() {
+        this(null);
+    }
+
+    public AbiExtractingClasspathResourceHasher(@Nullable ResourceSnapshotterCacheService zipEntryCache) {
+        this.zipEntryCache = zipEntryCache;
+        Hasher hasher = Hashing.newHasher();
+        appendConfigurationToHasher(hasher);
+        hasher.putString("zip entry");
+        this.zipEntryConfigurationHash = hasher.hash();
+    }
+
     private HashCode hashClassBytes(InputStream inputStream) throws IOException {
+        return hashClassBytes(ByteStreams.toByteArray(inputStream));
+    }
+
+    private HashCode hashClassBytes(byte[] classBytes) {
         // Use the ABI as the hash
-        byte[] classBytes = ByteStreams.toByteArray(inputStream);
         ApiClassExtractor extractor = new ApiClassExtractor(Collections.<String>emptySet());
         ClassReader reader = new ClassReader(classBytes);
         if (extractor.shouldExtractApiClassFrom(reader)) {
@@ -76,7 +101,16 @@ public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
         if (!isClassFile(zipEntry.getName())) {
             return null;
         }
-        return hashClassBytes(zipInput);
+        if (zipEntryCache == null) {
+            return hashClassBytes(zipInput);
+        }
+        final byte[] classBytes = ByteStreams.toByteArray(zipInput);
+        return zipEntryCache.hashContent(Hashing.hashBytes(classBytes), zipEntryConfigurationHash, new Factory<HashCode>() {
+            @Override
+            public HashCode create() {
+                return hashClassBytes(classBytes);
+            }
+        });
     }
 
     private boolean isClassFile(String name) {
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.changedetection.state;
 
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.hash.Hashing;
@@ -31,8 +32,18 @@ public class DefaultResourceSnapshotterCacheService implements ResourceSnapshott
     }
 
     @Override
-    public HashCode hashFile(RegularFileSnapshot fileSnapshot, RegularFileHasher hasher, HashCode configurationHash) {
-        HashCode resourceHashCacheKey = resourceHashCacheKey(fileSnapshot.getHash(), configurationHash);
+    public HashCode hashFile(final RegularFileSnapshot fileSnapshot, final RegularFileHasher hasher, HashCode configurationHash) {
+        return hashContent(fileSnapshot.getHash(), configurationHash, new Factory<HashCode>() {
+            @Override
+            public HashCode create() {
+                return hasher.hash(fileSnapshot);
+            }
+        });
+    }
+
+    @Override
+    public HashCode hashContent(HashCode contentHash, HashCode configurationHash, Factory<HashCode> hasher) {
+        HashCode resourceHashCacheKey = resourceHashCacheKey(contentHash, configurationHash);
 
         HashCode resourceHash = persistentCache.get(resourceHashCacheKey);
         if (resourceHash != null) {
@@ -42,7 +53,7 @@ public class DefaultResourceSnapshotterCacheService implements ResourceSnapshott
             return resourceHash;
         }
 
-        resourceHash = hasher.hash(fileSnapshot);
+        resourceHash = hasher.create();
 
         if (resourceHash != null) {
             persistentCache.put(resourceHashCacheKey, resourceHash);
@@ -16,9 +16,19 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.snapshot.RegularFileSnapshot;
 
+import javax.annotation.Nullable;
+
 public interface ResourceSnapshotterCacheService {
     HashCode hashFile(RegularFileSnapshot fileSnapshot, RegularFileHasher hasher, HashCode configurationHash);
+
+    /**
+     * Returns the normalized hash of a resource that is not a file on disk, such as a zip entry, given the hash of its content.
+     * The normalized hash is only created when it is not cached yet. The absence of a hash is cached too.
+     */
+    @Nullable
+    HashCode hashContent(HashCode contentHash, HashCode configurationHash, Factory<HashCode> hasher);
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.snapshot.RegularFileSnapshot;
 import org.gradle.internal.snapshot.WellKnownFileLocations;
@@ -23,6 +24,8 @@ import org.gradle.internal.snapshot.WellKnownFileLocations;
 /**
  * A {@link ResourceSnapshotterCacheService} that delegates to the global service for immutable files
  * and uses the local service for all other files. This ensures optimal cache utilization.
+ * Resources that are not files, such as the entries of a jar, are hashed using the local service, as the global service already caches the
+ * hashes of immutable jars as a whole.
  */
 public class SplitResourceSnapshotterCacheService implements ResourceSnapshotterCacheService {
     private final ResourceSnapshotterCacheService globalCache;
@@ -43,4 +46,9 @@ public class SplitResourceSnapshotterCacheService implements ResourceSnapshotter
             return localCache.hashFile(fileSnapshot, hasher, configurationHash);
         }
     }
+
+    @Override
+    public HashCode hashContent(HashCode contentHash, HashCode configurationHash, Factory<HashCode> hasher) {
+        return localCache.hashContent(contentHash, configurationHash, hasher);
+    }
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.initialization.loadercache;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.Factory;
+import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.internal.snapshot.WellKnownFileLocations;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Keeps a snapshot of the class paths of the class loaders in the {@link DefaultClassLoaderCache}, so that a new long-living process can warm up
+ * the state needed to recreate those class loaders.
+ *
+ * <p>The snapshot is written at the end of each build session when the class paths have changed, so it survives a daemon that is killed or a machine that reboots.
+ * When a long-living process starts, the class paths of the snapshot are hashed in the background. This populates the in-memory file hash, file system
+ * and classpath fingerprint caches that the first build would otherwise have to populate before it can create the class loaders for its build scripts and plugins.</p>
+ *
+ * <p>Only class paths whose files all live in immutable locations controlled by Gradle, such as the distribution and the dependency cache, are warmed up.
+ * The snapshots of other files are only discarded from the file system mirror at the end of a build, so warming them up while the first build runs
+ * could leave stale snapshots of files that the build changes, such as buildSrc jars or the outputs of other projects.</p>
+ */
+public class ClassLoaderCacheWarmState implements SessionLifecycleListener, Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(ClassLoaderCacheWarmState.class);
+    private static final int MAX_CLASS_PATHS = 100;
+
+    private final PersistentCache cache;
+    private final File stateFile;
+    private final ClasspathHasher classpathHasher;
+    private final ExecutorFactory executorFactory;
+    private final WellKnownFileLocations wellKnownFileLocations;
+    private final boolean warmUp;
+    private DefaultClassLoaderCache classLoaderCache;
+    private ManagedExecutor warmUpExecutor;
+    private List<ClassPath> recorded = Collections.emptyList();
+    private volatile boolean stopped;
+
+    public ClassLoaderCacheWarmState(CacheRepository cacheRepository, ClasspathHasher classpathHasher, ExecutorFactory executorFactory, WellKnownFileLocations wellKnownFileLocations, boolean warmUp) {
+        this.cache = cacheRepository
+            .cache("classloaders")
+            .withDisplayName("class loader cache warm state")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .open();
+        this.stateFile = new File(cache.getBaseDir(), "classpaths.bin");
+        this.classpathHasher = classpathHasher;
+        this.executorFactory = executorFactory;
+        this.wellKnownFileLocations = wellKnownFileLocations;
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Attaches the class loader cache whose class paths are recorded, and starts warming up the class paths recorded by a previous process.
+     */
+    public void attach(DefaultClassLoaderCache classLoaderCache) {
+        this.classLoaderCache = classLoaderCache;
+        if (warmUp) {
+            warmUpExecutor = executorFactory.create("Class loader cache warm up");
+            warmUpExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    warmUp();
+                }
+            });
+        }
+    }
+
+    private void warmUp() {
+        List<ClassPath> classPaths = read();
+        int warmedUp = 0;
+        for (ClassPath classPath : classPaths) {
+            if (stopped) {
+                return;
+            }
+            if (!allFilesImmutableAndExist(classPath)) {
+                continue;
+            }
+            try {
+                classpathHasher.hash(classPath);
+                warmedUp++;
+            } catch (Exception e) {
+                LOGGER.debug("Could not warm up class path {}.", classPath, e);
+            }
+        }
+        LOGGER.debug("Warmed up {} of {} class paths of the class loader cache.", warmedUp, classPaths.size());
+    }
+
+    private boolean allFilesImmutableAndExist(ClassPath classPath) {
+        for (File file : classPath.getAsFiles()) {
+            if (!wellKnownFileLocations.isImmutable(file.getAbsolutePath()) || !file.exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterStart() {
+    }
+
+    @Override
+    public void beforeComplete() {
+        if (classLoaderCache == null) {
+            return;
+        }
+        List<ClassPath> classPaths = classLoaderCache.getClassPaths();
+        if (classPaths.size() > MAX_CLASS_PATHS) {
+            classPaths = classPaths.subList(0, MAX_CLASS_PATHS);
+        }
+        if (!classPaths.isEmpty() && !classPaths.equals(recorded)) {
+            write(classPaths);
+            recorded = classPaths;
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        CompositeStoppable.stoppable(warmUpExecutor, cache).stop();
+    }
+
+    private List<ClassPath> read() {
+        return cache.useCache(new Factory<List<ClassPath>>() {
+            @Override
+            public List<ClassPath> create() {
+                if (!stateFile.isFile()) {
+                    return Collections.emptyList();
+                }
+                try {
+                    KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(stateFile));
+                    try {
+                        return readClassPaths(decoder);
+                    } finally {
+                        decoder.close();
+                    }
+                } catch (Exception e) {
+                    LOGGER.debug("Could not read the class loader cache warm state from {}.", stateFile, e);
+                    return Collections.emptyList();
+                }
+            }
+        });
+    }
+
+    private void write(final List<ClassPath> classPaths) {
+        cache.useCache(new Runnable() {
+            @Override
+            public void run() {
+                File tempFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp");
+                try {
+                    KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile));
+                    try {
+                        writeClassPaths(encoder, classPaths);
+                    } finally {
+                        encoder.close();
+                    }
+                    if (!tempFile.renameTo(stateFile) && !(stateFile.delete() && tempFile.renameTo(stateFile))) {
+                        LOGGER.debug("Could not write the class loader cache warm state to {}.", stateFile);
+                    }
+                } catch (Exception e) {
+                    LOGGER.debug("Could not write the class loader cache warm state to {}.", stateFile, e);
+                }
+            }
+        });
+    }
+
+    private static List<ClassPath> readClassPaths(Decoder decoder) throws Exception {
+        int count = decoder.readSmallInt();
+        List<ClassPath> classPaths = new ArrayList<ClassPath>(count);
+        for (int i = 0; i < count; i++) {
+            int fileCount = decoder.readSmallInt();
+            List<File> files = new ArrayList<File>(fileCount);
+            for (int j = 0; j < fileCount; j++) {
+                files.add(new File(decoder.readString()));
+            }
+            classPaths.add(DefaultClassPath.of(files));
+        }
+        return classPaths;
+    }
+
+    private static void writeClassPaths(Encoder encoder, List<ClassPath> classPaths) throws Exception {
+        encoder.writeSmallInt(classPaths.size());
+        for (ClassPath classPath : classPaths) {
+            List<File> files = classPath.getAsFiles();
+            encoder.writeSmallInt(files.size());
+            for (File file : files) {
+                encoder.writeString(file.getAbsolutePath());
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
@@ -35,6 +36,7 @@ import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.hash.HashCode;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -126,6 +128,24 @@ public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable, Ses
         return cachedLoader.retain(id);
     }
 
+    /**
+     * Returns the distinct class paths of the class loaders in this cache.
+     */
+    public List<ClassPath> getClassPaths() {
+        synchronized (lock) {
+            Set<ClassPath> classPaths = Sets.newLinkedHashSet();
+            for (ClassLoaderSpec spec : bySpec.keySet()) {
+                if (spec instanceof ManagedClassLoaderSpec) {
+                    ClassPath classPath = ((ManagedClassLoaderSpec) spec).classPath;
+                    if (!classPath.isEmpty()) {
+                        classPaths.add(classPath);
+                    }
+                }
+            }
+            return Lists.newArrayList(classPaths);
+        }
+    }
+
     @VisibleForTesting
     public int size() {
         synchronized (lock) {
@@ -199,6 +199,8 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     private ListenerBroadcast<ProjectEvaluationListener> evaluationListener = newProjectEvaluationListenerBroadcast();
 
+    private volatile boolean hasEvaluationListeners;
+
     private final ListenerBroadcast<RuleBasedPluginListener> ruleBasedPluginListenerBroadcast = new ListenerBroadcast<RuleBasedPluginListener>(RuleBasedPluginListener.class);
 
     private ExtensibleDynamicObject extensibleDynamicObject;
@@ -980,27 +982,36 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         return evaluationListener.getSource();
     }
 
+    @Override
+    public boolean hasEvaluationListeners() {
+        return hasEvaluationListeners;
+    }
+
     @Override
     public void beforeEvaluate(Action<? super Project> action) {
         assertMutatingMethodAllowed("beforeEvaluate(Action)");
+        hasEvaluationListeners = true;
         evaluationListener.add("beforeEvaluate", getListenerBuildOperationDecorator().decorate("Project.beforeEvaluate", action));
     }
 
     @Override
     public void afterEvaluate(Action<? super Project> action) {
         assertMutatingMethodAllowed("afterEvaluate(Action)");
+        hasEvaluationListeners = true;
         evaluationListener.add("afterEvaluate", getListenerBuildOperationDecorator().decorate("Project.afterEvaluate", action));
     }
 
     @Override
     public void beforeEvaluate(Closure closure) {
         assertMutatingMethodAllowed("beforeEvaluate(Closure)");
+        hasEvaluationListeners = true;
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("beforeEvaluate", getListenerBuildOperationDecorator().decorate("Project.beforeEvaluate", closure)));
     }
 
     @Override
     public void afterEvaluate(Closure closure) {
         assertMutatingMethodAllowed("afterEvaluate(Closure)");
+        hasEvaluationListeners = true;
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("afterEvaluate", getListenerBuildOperationDecorator().decorate("Project.afterEvaluate", closure)));
     }
 
@@ -16,9 +16,15 @@
 
 package org.gradle.api.internal.project;
 
+import org.gradle.configuration.ConfigurationCache;
 import org.gradle.initialization.ProjectAccessListener;
 
 public class DefaultProjectAccessListener implements ProjectAccessListener {
+    private final ConfigurationCache configurationCache;
+
+    public DefaultProjectAccessListener(ConfigurationCache configurationCache) {
+        this.configurationCache = configurationCache;
+    }
 
     public void beforeRequestingTaskByPath(ProjectInternal targetProject) {
         evaluateProjectAndDiscoverTasks(targetProject);
@@ -29,6 +35,7 @@ public class DefaultProjectAccessListener implements ProjectAccessListener {
     }
 
     private synchronized void evaluateProjectAndDiscoverTasks(final ProjectInternal targetProject) {
+        configurationCache.projectAccessed(targetProject);
         targetProject.evaluate();
         targetProject.getTasks().discoverTasks();
     }
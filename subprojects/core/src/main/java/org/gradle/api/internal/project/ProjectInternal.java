@@ -81,6 +81,11 @@ public interface ProjectInternal extends Project, ProjectIdentifier, HasFileOper
 
     ProjectEvaluationListener getProjectEvaluationBroadcaster();
 
+    /**
+     * Returns true when a before or after evaluate action has been registered with this project, by the project itself or by another project.
+     */
+    boolean hasEvaluationListeners();
+
     void addRuleBasedPluginListener(RuleBasedPluginListener listener);
 
     void prepareForRuleBasedPlugins();
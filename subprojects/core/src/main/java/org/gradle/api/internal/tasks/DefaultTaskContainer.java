@@ -41,6 +41,8 @@ import org.gradle.api.internal.project.taskfactory.TaskInstantiator;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskCollection;
 import org.gradle.api.tasks.TaskProvider;
+import org.gradle.configuration.internal.UserCodeApplicationContext;
+import org.gradle.configuration.internal.UserCodeApplicationId;
 import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.internal.Actions;
 import org.gradle.internal.Cast;
@@ -90,6 +92,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final NamedEntityInstantiator<Task> taskInstantiator;
     private final ProjectAccessListener projectAccessListener;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final UserCodeApplicationContext userCodeApplicationContext;
 
     private final TaskStatistics statistics;
     private final boolean eagerlyCreateLazyTasks;
@@ -103,7 +106,8 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
                                 TaskStatistics statistics,
                                 BuildOperationExecutor buildOperationExecutor,
                                 CrossProjectConfigurator crossProjectConfigurator,
-                                CollectionCallbackActionDecorator callbackDecorator) {
+                                CollectionCallbackActionDecorator callbackDecorator,
+                                UserCodeApplicationContext userCodeApplicationContext) {
         super(Task.class, instantiator, project, MutationGuards.of(crossProjectConfigurator), callbackDecorator);
         this.taskFactory = taskFactory;
         taskInstantiator = new TaskInstantiator(taskFactory, project);
@@ -111,6 +115,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         this.statistics = statistics;
         this.eagerlyCreateLazyTasks = Boolean.getBoolean(EAGERLY_CREATE_LAZY_TASKS_PROPERTY);
         this.buildOperationExecutor = buildOperationExecutor;
+        this.userCodeApplicationContext = userCodeApplicationContext;
     }
 
     public Task create(Map<String, ?> options) {
@@ -139,10 +144,12 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         final Class<? extends TaskInternal> type = Cast.uncheckedCast(actualArgs.get(Task.TASK_TYPE));
 
         final TaskIdentity<? extends TaskInternal> identity = TaskIdentity.create(name, type, project);
+        final UserCodeApplicationId applicationId = userCodeApplicationContext.current();
+        beforeEagerRealization(identity, applicationId, true);
         return buildOperationExecutor.call(new CallableBuildOperation<Task>() {
             @Override
             public BuildOperationDescriptor.Builder description() {
-                return realizeDescriptor(identity, replace, true);
+                return realizeDescriptor(identity, replace, true, applicationId);
             }
 
             @Override
@@ -295,6 +302,8 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
     private <T extends Task> T doCreate(final String name, final Class<T> type, final Object[] constructorArgs, final Action<? super T> configureAction) throws InvalidUserDataException {
         final TaskIdentity<T> identity = TaskIdentity.create(name, type, project);
+        final UserCodeApplicationId applicationId = userCodeApplicationContext.current();
+        beforeEagerRealization(identity, applicationId, true);
         return buildOperationExecutor.call(new CallableBuildOperation<T>() {
             @Override
             public T call(BuildOperationContext context) {
@@ -312,7 +321,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
             @Override
             public BuildOperationDescriptor.Builder description() {
-                return realizeDescriptor(identity, false, true);
+                return realizeDescriptor(identity, false, true, applicationId);
             }
         });
     }
@@ -427,6 +436,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     public <T extends Task> T replace(final String name, final Class<T> type) {
         assertMutable("replace(String, Class)");
         final TaskIdentity<T> identity = TaskIdentity.create(name, type, project);
+        final UserCodeApplicationId applicationId = userCodeApplicationContext.current();
         return buildOperationExecutor.call(new CallableBuildOperation<T>() {
             @Override
             public T call(BuildOperationContext context) {
@@ -442,7 +452,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
             @Override
             public BuildOperationDescriptor.Builder description() {
-                return realizeDescriptor(identity, true, true);
+                return realizeDescriptor(identity, true, true, applicationId);
             }
         });
     }
@@ -661,6 +671,8 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
         @Override
         protected void tryCreate() {
+            final UserCodeApplicationId applicationId = userCodeApplicationContext.current();
+            beforeEagerRealization(identity, applicationId, false);
             buildOperationExecutor.run(new RunnableBuildOperation() {
                 @Override
                 public void run(BuildOperationContext context) {
@@ -675,7 +687,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
                 @Override
                 public BuildOperationDescriptor.Builder description() {
-                    return realizeDescriptor(identity, false, false);
+                    return realizeDescriptor(identity, false, false, applicationId);
                 }
             });
         }
@@ -703,9 +715,19 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return new TaskCreationException(String.format("Could not create task '%s'.", project.identityPath(name)), cause);
     }
 
-    private static BuildOperationDescriptor.Builder realizeDescriptor(TaskIdentity<?> identity, boolean replacement, boolean eager) {
+    /**
+     * Records a task that is created or realized by a script or plugin while its project is still being configured, rather than on demand
+     * when the task graph is calculated.
+     */
+    private void beforeEagerRealization(TaskIdentity<?> identity, @Nullable UserCodeApplicationId applicationId, boolean created) {
+        if (statistics.isTrackingEagerRealization() && (project.getState().isConfiguring() || project.getState().isUnconfigured())) {
+            statistics.eagerRealization(identity.identityPath, applicationId, created);
+        }
+    }
+
+    private static BuildOperationDescriptor.Builder realizeDescriptor(TaskIdentity<?> identity, boolean replacement, boolean eager, @Nullable UserCodeApplicationId applicationId) {
         return BuildOperationDescriptor.displayName("Realize task " + identity.identityPath)
-            .details(new RealizeDetails(identity, replacement, eager));
+            .details(new RealizeDetails(identity, replacement, eager, applicationId));
     }
 
     private static BuildOperationDescriptor.Builder registerDescriptor(TaskIdentity<?> identity) {
@@ -781,11 +803,13 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         private final TaskIdentity<?> identity;
         private final boolean replacement;
         private final boolean eager;
+        private final UserCodeApplicationId applicationId;
 
-        RealizeDetails(TaskIdentity<?> identity, boolean replacement, boolean eager) {
+        RealizeDetails(TaskIdentity<?> identity, boolean replacement, boolean eager, @Nullable UserCodeApplicationId applicationId) {
             this.identity = identity;
             this.replacement = replacement;
             this.eager = eager;
+            this.applicationId = applicationId;
         }
 
         @Override
@@ -813,6 +837,12 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
             return eager;
         }
 
+        @Nullable
+        @Override
+        public Long getApplicationId() {
+            return applicationId == null ? null : applicationId.longValue();
+        }
+
     }
 
     private static final class RegisterDetails implements RegisterTaskBuildOperationType.Details {
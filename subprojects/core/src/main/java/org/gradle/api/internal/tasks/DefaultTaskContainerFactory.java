@@ -23,6 +23,7 @@ import org.gradle.api.internal.project.CrossProjectConfigurator;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
 import org.gradle.api.tasks.TaskContainer;
+import org.gradle.configuration.internal.UserCodeApplicationContext;
 import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.internal.BiAction;
 import org.gradle.internal.Factory;
@@ -54,6 +55,7 @@ public class DefaultTaskContainerFactory implements Factory<TaskContainerInterna
     private final TaskStatistics statistics;
     private final BuildOperationExecutor buildOperationExecutor;
     private final CrossProjectConfigurator crossProjectConfigurator;
+    private final UserCodeApplicationContext userCodeApplicationContext;
 
     public DefaultTaskContainerFactory(ModelRegistry modelRegistry,
                                        Instantiator instantiator,
@@ -63,7 +65,8 @@ public class DefaultTaskContainerFactory implements Factory<TaskContainerInterna
                                        TaskStatistics statistics,
                                        BuildOperationExecutor buildOperationExecutor,
                                        CrossProjectConfigurator crossProjectConfigurator,
-                                       CollectionCallbackActionDecorator callbackDecorator) {
+                                       CollectionCallbackActionDecorator callbackDecorator,
+                                       UserCodeApplicationContext userCodeApplicationContext) {
         this.modelRegistry = modelRegistry;
         this.instantiator = instantiator;
         this.taskFactory = taskFactory;
@@ -73,10 +76,11 @@ public class DefaultTaskContainerFactory implements Factory<TaskContainerInterna
         this.buildOperationExecutor = buildOperationExecutor;
         this.crossProjectConfigurator = crossProjectConfigurator;
         this.callbackDecorator = callbackDecorator;
+        this.userCodeApplicationContext = userCodeApplicationContext;
     }
 
     public TaskContainerInternal create() {
-        DefaultTaskContainer tasks = instantiator.newInstance(DefaultTaskContainer.class, project, instantiator, taskFactory, projectAccessListener, statistics, buildOperationExecutor, crossProjectConfigurator, callbackDecorator);
+        DefaultTaskContainer tasks = instantiator.newInstance(DefaultTaskContainer.class, project, instantiator, taskFactory, projectAccessListener, statistics, buildOperationExecutor, crossProjectConfigurator, callbackDecorator, userCodeApplicationContext);
         bridgeIntoSoftwareModelWhenNeeded(tasks);
         return tasks;
     }
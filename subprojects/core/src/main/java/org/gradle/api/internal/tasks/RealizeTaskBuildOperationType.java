@@ -19,6 +19,8 @@ package org.gradle.api.internal.tasks;
 import org.gradle.internal.operations.BuildOperationType;
 import org.gradle.internal.scan.UsedByScanPlugin;
 
+import javax.annotation.Nullable;
+
 /**
  * Represents a creation request for a task. Actual task may be realized later.
  *
@@ -40,6 +42,16 @@ public final class RealizeTaskBuildOperationType implements BuildOperationType<R
         boolean isReplacement();
 
         boolean isEager();
+
+        /**
+         * The application ID of the script or plugin that caused the task to be realized, or null when the task was realized by Gradle,
+         * for example while calculating the task graph.
+         *
+         * @see org.gradle.configuration.internal.UserCodeApplicationId
+         * @since 5.2
+         */
+        @Nullable
+        Long getApplicationId();
     }
 
     @UsedByScanPlugin
@@ -17,11 +17,16 @@
 package org.gradle.api.internal.tasks;
 
 import com.google.common.collect.Maps;
+import org.gradle.api.InvalidUserCodeException;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.configuration.internal.UserCodeApplicationId;
+import org.gradle.internal.DisplayName;
 import org.gradle.internal.IoActions;
 import org.gradle.util.CollectionUtils;
+import org.gradle.util.Path;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -34,18 +39,26 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class TaskStatistics implements Closeable {
     private final static Logger LOGGER = Logging.getLogger(TaskStatistics.class);
     private final static String TASK_STATISTICS_PROPERTY = "org.gradle.internal.tasks.stats";
+    private final static String STRICT_REALIZATION_PROPERTY = "org.gradle.internal.tasks.strict-realization";
+    private final static String UNKNOWN_SOURCE = "unknown";
 
     private final AtomicInteger eagerTasks = new AtomicInteger();
     private final AtomicInteger lazyTasks = new AtomicInteger();
     private final AtomicInteger lazyRealizedTasks = new AtomicInteger();
     private final Map<Class, Integer> typeCounts = Maps.newHashMap();
     private final Map<Class, Integer> realizedTypeCounts = Maps.newHashMap();
+    private final Map<String, Integer> eagerSourceCounts = Maps.newHashMap();
     private final boolean collectStatistics;
+    private final boolean strictRealization;
 
     private PrintWriter lazyTaskLog;
 
     public TaskStatistics() {
-        String taskStatistics = System.getProperty(TASK_STATISTICS_PROPERTY);
+        this(System.getProperty(TASK_STATISTICS_PROPERTY), Boolean.getBoolean(STRICT_REALIZATION_PROPERTY));
+    }
+
+    TaskStatistics(@Nullable String taskStatistics, boolean strictRealization) {
+        this.strictRealization = strictRealization;
         if (taskStatistics!=null) {
             collectStatistics = true;
             if (!taskStatistics.isEmpty()) {
@@ -64,6 +77,39 @@ public class TaskStatistics implements Closeable {
         return collectStatistics;
     }
 
+    /**
+     * Returns true when tasks created or realized while their project is being configured need to be reported through {@link #eagerRealization(Path, UserCodeApplicationId, boolean)}.
+     */
+    public boolean isTrackingEagerRealization() {
+        return collectStatistics || strictRealization;
+    }
+
+    /**
+     * Called when a task is created or realized while its project is being configured, rather than when the task graph is calculated.
+     *
+     * @param applicationId the script or plugin that caused the task to be created or realized, or null when not known.
+     * @throws InvalidUserCodeException when strict realization is enabled and a script or plugin is responsible.
+     */
+    public void eagerRealization(Path taskPath, @Nullable UserCodeApplicationId applicationId, boolean created) {
+        DisplayName source = applicationId == null ? null : applicationId.getDisplayName();
+        if (strictRealization && applicationId != null) {
+            throw new InvalidUserCodeException(String.format("Task %s was %s eagerly by %s. Use register(), named() or configureEach() on the task container so that the task is only created when it is required.",
+                taskPath, created ? "created" : "realized", source == null ? "a script or plugin" : source.getDisplayName()));
+        }
+        if (collectStatistics) {
+            String key = source == null ? UNKNOWN_SOURCE : source.getDisplayName();
+            synchronized (eagerSourceCounts) {
+                Integer count = eagerSourceCounts.get(key);
+                if (count == null) {
+                    count = 1;
+                } else {
+                    count = count + 1;
+                }
+                eagerSourceCounts.put(key, count);
+            }
+        }
+    }
+
     public void eagerTask(Class<?> type) {
         if (collectStatistics) {
             eagerTasks.incrementAndGet();
@@ -117,20 +163,21 @@ public class TaskStatistics implements Closeable {
 
             printTypeCounts("\nTask types that were created with the old API", typeCounts);
             printTypeCounts("\nTask types that were registered with the new API but were created anyways", realizedTypeCounts);
+            printTypeCounts("\nScripts and plugins that created or realized tasks while configuring projects", eagerSourceCounts);
             IoActions.closeQuietly(lazyTaskLog);
         }
     }
 
-    private void printTypeCounts(String header, Map<Class, Integer> typeCounts) {
+    private <K> void printTypeCounts(String header, Map<K, Integer> typeCounts) {
         if (!typeCounts.isEmpty()) {
             LOGGER.lifecycle(header);
-            List<Map.Entry<Class, Integer>> sorted = CollectionUtils.sort(typeCounts.entrySet(), new Comparator<Map.Entry<Class, Integer>>() {
+            List<Map.Entry<K, Integer>> sorted = CollectionUtils.sort(typeCounts.entrySet(), new Comparator<Map.Entry<K, Integer>>() {
                 @Override
-                public int compare(Map.Entry<Class, Integer> a, Map.Entry<Class, Integer> b) {
+                public int compare(Map.Entry<K, Integer> a, Map.Entry<K, Integer> b) {
                     return b.getValue().compareTo(a.getValue());
                 }
             });
-            for (Map.Entry<Class, Integer> typeCount : sorted) {
+            for (Map.Entry<K, Integer> typeCount : sorted) {
                 LOGGER.lifecycle(typeCount.getKey() + " " + typeCount.getValue());
             }
         }
@@ -20,6 +20,7 @@ import org.gradle.api.Action;
 import org.gradle.configuration.internal.UserCodeApplicationContext;
 import org.gradle.configuration.internal.UserCodeApplicationId;
 import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.Describables;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -60,7 +61,7 @@ public class BuildOperationScriptPlugin implements ScriptPlugin {
             //no operation, if there is no script code provided
             decorated.apply(target);
         } else {
-            userCodeApplicationContext.apply(new Action<UserCodeApplicationId>() {
+            userCodeApplicationContext.apply(Describables.of(getSource().getDisplayName()), new Action<UserCodeApplicationId>() {
                 @Override
                 public void execute(final UserCodeApplicationId userCodeApplicationId) {
                     buildOperationExecutor.run(new RunnableBuildOperation() {
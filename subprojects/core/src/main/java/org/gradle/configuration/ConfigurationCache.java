@@ -0,0 +1,385 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.StartParameter;
+import org.gradle.TaskExecutionRequest;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.execution.TaskExecutionGraphListener;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.initialization.IGradlePropertiesLoader;
+import org.gradle.internal.Factory;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.SingleMessageLogger;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Remembers which projects of the root build own the tasks of the task graph or are accessed from another project, so that a later build with
+ * the same invocation and unchanged configuration inputs can skip the configuration of the other projects.
+ *
+ * <p>An entry is keyed by the invocation: the requested and excluded tasks, the system properties given on the command line, the project
+ * properties from all sources, the project hierarchy and the class loader of the root project. It records the content hash of each configuration
+ * input, which are the settings script, the init scripts, the {@code gradle.properties} files of the build, of the Gradle user home and of each
+ * project, the build script of each project and every script that was executed while configuring the build. The entry is only used when none of
+ * these inputs has changed.</p>
+ *
+ * <p>Which projects can actually be skipped is decided by the {@link org.gradle.execution.ProjectConfigurer}. A project that is referenced by
+ * a project dependency or a task path is still configured on demand, as for configuration on demand, and such a project is always configured
+ * by a later build. When a skipped project turns out to have been configured by another project, the entry is {@link #discard(ProjectInternal) discarded}
+ * and the remaining projects are configured as usual.</p>
+ */
+public class ConfigurationCache implements ScriptExecutionListener, Stoppable {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.configuration-cache";
+    private static final Logger LOGGER = Logging.getLogger(ConfigurationCache.class);
+    private static final String MISSING = "";
+    private static final int ENTRY_VERSION = 3;
+
+    private final CacheRepository cacheRepository;
+    private final FileHasher fileHasher;
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final IGradlePropertiesLoader propertiesLoader;
+    private final boolean enabled;
+    private final Set<String> executedScripts = new LinkedHashSet<String>();
+    private final Set<String> accessedProjects = new TreeSet<String>();
+    private boolean loaded;
+    private Set<String> projectsToConfigure;
+    private File entryFile;
+    private boolean cacheable = true;
+    private PersistentCache cache;
+
+    public ConfigurationCache(CacheRepository cacheRepository, FileHasher fileHasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher, IGradlePropertiesLoader propertiesLoader, boolean enabled) {
+        this.cacheRepository = cacheRepository;
+        this.fileHasher = fileHasher;
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        this.propertiesLoader = propertiesLoader;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void scriptClassLoaded(ScriptSource source, Class<? extends Script> scriptClass) {
+        if (!enabled) {
+            return;
+        }
+        File file = source.getResource().getFile();
+        synchronized (executedScripts) {
+            if (file == null) {
+                // A remote or generated script, whose content cannot be checked before configuring the build
+                cacheable = false;
+            } else {
+                executedScripts.add(file.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Called when a task of the given project is requested by path, or when a project dependency on it is resolved.
+     */
+    public void projectAccessed(ProjectInternal project) {
+        if (!enabled || project.getGradle().getParent() != null) {
+            return;
+        }
+        synchronized (accessedProjects) {
+            accessedProjects.add(project.getPath());
+        }
+    }
+
+    /**
+     * Returns the paths of the projects that owned a task of the task graph of a previous build with the same invocation and inputs, or were accessed from
+     * another project during that build, or null when there is no such build. When null is returned, these projects are recorded for this build once the task
+     * graph has been populated.
+     */
+    @Nullable
+    public Set<String> getProjectsToConfigure(final GradleInternal gradle) {
+        if (!enabled || gradle.getParent() != null) {
+            return null;
+        }
+        if (loaded) {
+            return projectsToConfigure;
+        }
+        loaded = true;
+        SingleMessageLogger.incubatingFeatureUsed("Configuration cache");
+
+        final String key = keyFor(gradle);
+        if (key == null) {
+            LOGGER.info("Configuration cache disabled as the class loader of the root project cannot be hashed.");
+            return null;
+        }
+        entryFile = new File(getCache(gradle).getBaseDir(), key + ".bin");
+        projectsToConfigure = read(entryFile);
+        if (projectsToConfigure != null) {
+            LOGGER.lifecycle("Reusing configuration cache entry, {} of {} projects own the tasks to run or are used by other projects.", projectsToConfigure.size(), gradle.getRootProject().getAllprojects().size());
+        }
+        gradle.getTaskGraph().addTaskExecutionGraphListener(new TaskExecutionGraphListener() {
+            @Override
+            public void graphPopulated(TaskExecutionGraph graph) {
+                if (projectsToConfigure != null) {
+                    verify(graph);
+                } else {
+                    store(gradle, graph);
+                }
+            }
+        });
+        return projectsToConfigure;
+    }
+
+    /**
+     * Stops using the entry of a previous build, as the given project was skipped but has been configured by another project. Every project is configured
+     * from now on, and a new entry is recorded for this build once the task graph has been populated.
+     */
+    public void discard(ProjectInternal project) {
+        if (projectsToConfigure == null) {
+            return;
+        }
+        LOGGER.lifecycle("Not reusing configuration cache entry, as {} has been configured by another project.", project.getDisplayName());
+        projectsToConfigure = null;
+        deleteEntry();
+    }
+
+    @Override
+    public void stop() {
+        CompositeStoppable.stoppable(cache).stop();
+    }
+
+    private PersistentCache getCache(GradleInternal gradle) {
+        if (cache == null) {
+            cache = cacheRepository
+                .cache(gradle, "configuration-cache")
+                .withDisplayName("configuration cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .open();
+        }
+        return cache;
+    }
+
+    @Nullable
+    private String keyFor(GradleInternal gradle) {
+        HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(gradle.getRootProject().getBaseClassLoaderScope().getExportClassLoader());
+        if (classLoaderHash == null) {
+            return null;
+        }
+        StartParameter startParameter = gradle.getStartParameter();
+        Hasher hasher = Hashing.newHasher();
+        hasher.putInt(ENTRY_VERSION);
+        hasher.putHash(classLoaderHash);
+        hasher.putString(startParameter.getCurrentDir().getAbsolutePath());
+        for (TaskExecutionRequest request : startParameter.getTaskRequests()) {
+            hasher.putString(String.valueOf(request.getProjectPath()));
+            hasher.putString(String.valueOf(request.getRootDir()));
+            hasher.putInt(request.getArgs().size());
+            for (String arg : request.getArgs()) {
+                hasher.putString(arg);
+            }
+        }
+        hasher.putNull();
+        for (String excludedTaskName : new TreeSet<String>(startParameter.getExcludedTaskNames())) {
+            hasher.putString(excludedTaskName);
+        }
+        hasher.putNull();
+        // The project properties given on the command line, by environment variables and system properties, and by the gradle.properties files of the build
+        putProperties(hasher, propertiesLoader.mergeProperties(new HashMap<String, String>()));
+        putProperties(hasher, startParameter.getSystemPropertiesArgs());
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            hasher.putString(project.getPath());
+            hasher.putString(project.getProjectDir().getAbsolutePath());
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putProperties(Hasher hasher, Map<String, String> properties) {
+        for (Map.Entry<String, String> entry : new TreeMap<String, String>(properties).entrySet()) {
+            hasher.putString(entry.getKey());
+            hasher.putString(String.valueOf(entry.getValue()));
+        }
+        hasher.putNull();
+    }
+
+    private Map<String, String> inputsOf(GradleInternal gradle) {
+        Map<String, String> inputs = new TreeMap<String, String>();
+        StartParameter startParameter = gradle.getStartParameter();
+        addInput(inputs, gradle.getSettings().getSettingsScript().getResource().getFile());
+        for (File initScript : startParameter.getAllInitScripts()) {
+            addInput(inputs, initScript);
+        }
+        addInput(inputs, new File(gradle.getRootProject().getProjectDir(), Project.GRADLE_PROPERTIES));
+        addInput(inputs, new File(startParameter.getGradleUserHomeDir(), Project.GRADLE_PROPERTIES));
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            addInput(inputs, project.getBuildFile());
+            addInput(inputs, new File(project.getProjectDir(), Project.GRADLE_PROPERTIES));
+        }
+        synchronized (executedScripts) {
+            for (String script : executedScripts) {
+                addInput(inputs, new File(script));
+            }
+        }
+        return inputs;
+    }
+
+    private void addInput(Map<String, String> inputs, @Nullable File file) {
+        if (file != null) {
+            inputs.put(file.getAbsolutePath(), hashOf(file));
+        }
+    }
+
+    private String hashOf(File file) {
+        return file.isFile() ? fileHasher.hash(file).toString() : MISSING;
+    }
+
+    private void store(GradleInternal gradle, TaskExecutionGraph graph) {
+        final Set<String> projects = new TreeSet<String>();
+        for (Task task : graph.getAllTasks()) {
+            projects.add(task.getProject().getPath());
+        }
+        synchronized (executedScripts) {
+            if (!cacheable || projects.isEmpty()) {
+                return;
+            }
+        }
+        synchronized (accessedProjects) {
+            projects.addAll(accessedProjects);
+        }
+        final Map<String, String> inputs = inputsOf(gradle);
+        cache.useCache(new Runnable() {
+            @Override
+            public void run() {
+                File tempFile = new File(entryFile.getParentFile(), entryFile.getName() + ".tmp");
+                try {
+                    KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile));
+                    try {
+                        writeEntry(encoder, inputs, projects);
+                    } finally {
+                        encoder.close();
+                    }
+                    if (!tempFile.renameTo(entryFile) && !(entryFile.delete() && tempFile.renameTo(entryFile))) {
+                        LOGGER.debug("Could not write the configuration cache entry {}.", entryFile);
+                    }
+                } catch (Exception e) {
+                    LOGGER.debug("Could not write the configuration cache entry {}.", entryFile, e);
+                }
+            }
+        });
+    }
+
+    @Nullable
+    private Set<String> read(final File entryFile) {
+        return cache.useCache(new Factory<Set<String>>() {
+            @Override
+            public Set<String> create() {
+                if (!entryFile.isFile()) {
+                    return null;
+                }
+                try {
+                    KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(entryFile));
+                    try {
+                        return readEntry(decoder);
+                    } finally {
+                        decoder.close();
+                    }
+                } catch (Exception e) {
+                    LOGGER.debug("Could not read the configuration cache entry {}.", entryFile, e);
+                    return null;
+                }
+            }
+        });
+    }
+
+    private static void writeEntry(Encoder encoder, Map<String, String> inputs, Set<String> projects) throws Exception {
+        encoder.writeSmallInt(inputs.size());
+        for (Map.Entry<String, String> input : inputs.entrySet()) {
+            encoder.writeString(input.getKey());
+            encoder.writeString(input.getValue());
+        }
+        encoder.writeSmallInt(projects.size());
+        for (String project : projects) {
+            encoder.writeString(project);
+        }
+    }
+
+    @Nullable
+    private Set<String> readEntry(Decoder decoder) throws Exception {
+        int inputCount = decoder.readSmallInt();
+        for (int i = 0; i < inputCount; i++) {
+            String path = decoder.readString();
+            String hash = decoder.readString();
+            if (!hash.equals(hashOf(new File(path)))) {
+                LOGGER.info("Not reusing configuration cache entry as {} has changed.", path);
+                return null;
+            }
+        }
+        int projectCount = decoder.readSmallInt();
+        Set<String> projects = new TreeSet<String>();
+        for (int i = 0; i < projectCount; i++) {
+            projects.add(decoder.readString());
+        }
+        return Collections.unmodifiableSet(projects);
+    }
+
+    private void verify(TaskExecutionGraph graph) {
+        for (Task task : graph.getAllTasks()) {
+            ProjectInternal project = (ProjectInternal) task.getProject();
+            if (!project.getState().getExecuted()) {
+                // A task was added to a skipped project after the projects were configured. The next build configures every project again.
+                LOGGER.warn("The configuration cache entry for this build is out of date, as {} was not configured but owns task {}. The entry has been discarded.", project.getDisplayName(), task.getPath());
+                deleteEntry();
+                return;
+            }
+        }
+    }
+
+    private void deleteEntry() {
+        cache.useCache(new Runnable() {
+            @Override
+            public void run() {
+                GFileUtils.deleteQuietly(entryFile);
+            }
+        });
+    }
+}
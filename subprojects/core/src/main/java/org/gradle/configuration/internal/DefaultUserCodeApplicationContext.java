@@ -18,6 +18,7 @@ package org.gradle.configuration.internal;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.gradle.api.Action;
+import org.gradle.internal.DisplayName;
 
 import javax.annotation.Nullable;
 import java.util.ArrayDeque;
@@ -42,8 +43,13 @@ public class DefaultUserCodeApplicationContext implements UserCodeApplicationCon
 
     @Override
     public void apply(Action<? super UserCodeApplicationId> action) {
+        apply(null, action);
+    }
+
+    @Override
+    public void apply(@Nullable DisplayName displayName, Action<? super UserCodeApplicationId> action) {
         Deque<UserCodeApplicationId> stack = stackThreadLocal.get();
-        UserCodeApplicationId id = push(stack);
+        UserCodeApplicationId id = push(stack, displayName);
         try {
             action.execute(id);
         } finally {
@@ -84,7 +90,7 @@ public class DefaultUserCodeApplicationContext implements UserCodeApplicationCon
 
     @VisibleForTesting
     UserCodeApplicationId push() {
-        return push(stackThreadLocal.get());
+        return push(stackThreadLocal.get(), null);
     }
 
     @VisibleForTesting
@@ -92,14 +98,14 @@ public class DefaultUserCodeApplicationContext implements UserCodeApplicationCon
         stackThreadLocal.get().pop();
     }
 
-    private UserCodeApplicationId push(Deque<UserCodeApplicationId> stack) {
-        UserCodeApplicationId id = id();
+    private UserCodeApplicationId push(Deque<UserCodeApplicationId> stack, @Nullable DisplayName displayName) {
+        UserCodeApplicationId id = id(displayName);
         stack.push(id);
         return id;
     }
 
-    private static UserCodeApplicationId id() {
-        return new UserCodeApplicationId(COUNTER.incrementAndGet());
+    private static UserCodeApplicationId id(@Nullable DisplayName displayName) {
+        return new UserCodeApplicationId(COUNTER.incrementAndGet(), displayName);
     }
 
 }
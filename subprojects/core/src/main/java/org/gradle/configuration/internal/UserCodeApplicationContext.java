@@ -17,6 +17,7 @@
 package org.gradle.configuration.internal;
 
 import org.gradle.api.Action;
+import org.gradle.internal.DisplayName;
 
 import javax.annotation.Nullable;
 
@@ -27,6 +28,11 @@ public interface UserCodeApplicationContext {
 
     void apply(Action<? super UserCodeApplicationId> action);
 
+    /**
+     * Applies some user code, described by the given display name.
+     */
+    void apply(DisplayName displayName, Action<? super UserCodeApplicationId> action);
+
     void reapply(UserCodeApplicationId id, Runnable runnable);
 
     <T> Action<T> decorateWithCurrent(Action<T> action);
@@ -16,16 +16,30 @@
 
 package org.gradle.configuration.internal;
 
+import org.gradle.internal.DisplayName;
+
+import javax.annotation.Nullable;
+
 public class UserCodeApplicationId {
 
     private final long id;
+    private final DisplayName displayName;
 
-    UserCodeApplicationId(long id) {
+    UserCodeApplicationId(long id, @Nullable DisplayName displayName) {
         this.id = id;
+        this.displayName = displayName;
     }
 
     public long longValue() {
         return id;
     }
 
+    /**
+     * The script or plugin that is applied, when known.
+     */
+    @Nullable
+    public DisplayName getDisplayName() {
+        return displayName;
+    }
+
 }
@@ -26,9 +26,11 @@ import org.slf4j.LoggerFactory;
 public class BuildScriptProcessor implements ProjectConfigureAction {
     private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptProcessor.class);
     private final ScriptPluginFactory configurerFactory;
+    private final ProjectScriptPrecompiler scriptPrecompiler;
 
-    public BuildScriptProcessor(ScriptPluginFactory configurerFactory) {
+    public BuildScriptProcessor(ScriptPluginFactory configurerFactory, ProjectScriptPrecompiler scriptPrecompiler) {
         this.configurerFactory = configurerFactory;
+        this.scriptPrecompiler = scriptPrecompiler;
     }
 
     public void execute(final ProjectInternal project) {
@@ -36,6 +38,7 @@ public class BuildScriptProcessor implements ProjectConfigureAction {
             LOGGER.info("Evaluating {} using {}.", project, project.getBuildScriptSource().getDisplayName());
         }
         final Timer clock = Time.startTimer();
+        scriptPrecompiler.beforeConfigure(project);
         try {
             final ScriptPlugin configurer = configurerFactory.create(project.getBuildScriptSource(), project.getBuildscript(), project.getClassLoaderScope(), project.getBaseClassLoaderScope(), true);
             project.getMutationState().withMutableState(new Runnable() {
@@ -44,6 +47,7 @@ public class BuildScriptProcessor implements ProjectConfigureAction {
                     configurer.apply(project);
                 }
             });
+            scriptPrecompiler.afterConfigure(project);
         } finally {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Timing: Running the build script took {}", clock.getElapsed());
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.configuration.CompileOperationFactory;
+import org.gradle.configuration.ProjectScriptTarget;
+import org.gradle.groovy.scripts.CachingScriptSource;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler;
+import org.gradle.internal.Actions;
+import org.gradle.internal.scripts.ScriptingLanguages;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+import org.gradle.scripts.ScriptingLanguage;
+
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the build scripts of the projects of a build in the background, ahead of the configuration of each project.
+ *
+ * <p>The first pass of a build script, which only contains the {@code buildscript {}} and {@code plugins {}} blocks, is compiled against the
+ * class loader of the build, so the first pass of every project can be compiled as soon as the root project starts configuring.</p>
+ *
+ * <p>The second pass is compiled against the class loader scope of the project, which is only known once the classpath blocks of the project
+ * have been evaluated. When a project does not declare a classpath block, its class loader scope is that of its parent. So once a project has been
+ * configured, the second pass of those of its children which do not mention {@code buildscript} or {@code plugins} is compiled as well.</p>
+ */
+public class ProjectScriptPrecompiler {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.script-precompilation";
+    private static final Logger LOGGER = Logging.getLogger(ProjectScriptPrecompiler.class);
+    private static final Pattern CLASSPATH_BLOCK = Pattern.compile("\\b(buildscript|plugins)\\b");
+
+    private final FileCacheBackedScriptClassCompiler scriptClassCompiler;
+    private final CompileOperationFactory compileOperationFactory;
+    private final boolean enabled;
+
+    public ProjectScriptPrecompiler(FileCacheBackedScriptClassCompiler scriptClassCompiler, CompileOperationFactory compileOperationFactory, boolean enabled) {
+        this.scriptClassCompiler = scriptClassCompiler;
+        this.compileOperationFactory = compileOperationFactory;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Called before the given project is configured.
+     */
+    public void beforeConfigure(ProjectInternal project) {
+        if (!enabled || project.getParent() != null) {
+            return;
+        }
+        ClassLoaderScope baseScope = project.getBaseClassLoaderScope();
+        if (!baseScope.isLocked()) {
+            return;
+        }
+        ClassLoader classLoader = baseScope.getExportClassLoader();
+        for (Project candidate : project.getAllprojects()) {
+            ProjectInternal target = (ProjectInternal) candidate;
+            ScriptSource source = groovyBuildScriptOf(target);
+            if (source != null) {
+                ProjectScriptTarget scriptTarget = new ProjectScriptTarget(target);
+                scriptClassCompiler.precompile(source, classLoader, compileOperationFactory.getPluginsBlockCompileOperation(source, scriptTarget), scriptTarget.getScriptClass(), Actions.doNothing());
+            }
+        }
+    }
+
+    /**
+     * Called after the build script of the given project has been applied.
+     */
+    public void afterConfigure(ProjectInternal project) {
+        if (!enabled || project.getChildProjects().isEmpty()) {
+            return;
+        }
+        ClassLoaderScope scope = project.getClassLoaderScope();
+        if (!scope.isLocked()) {
+            return;
+        }
+        ClassLoader classLoader = scope.getExportClassLoader();
+        for (Project candidate : project.getChildProjects().values()) {
+            ProjectInternal child = (ProjectInternal) candidate;
+            ScriptSource source = groovyBuildScriptOf(child);
+            if (source != null && !CLASSPATH_BLOCK.matcher(source.getResource().getText()).find()) {
+                ProjectScriptTarget scriptTarget = new ProjectScriptTarget(child);
+                scriptClassCompiler.precompile(source, classLoader, compileOperationFactory.getScriptCompileOperation(source, scriptTarget), scriptTarget.getScriptClass(), ClosureCreationInterceptingVerifier.INSTANCE);
+            }
+        }
+    }
+
+    private static ScriptSource groovyBuildScriptOf(ProjectInternal project) {
+        ScriptSource source = project.getBuildScriptSource();
+        for (ScriptingLanguage scriptingLanguage : ScriptingLanguages.all()) {
+            if (scriptingLanguage.getProvider() != null && source.getFileName().endsWith(scriptingLanguage.getExtension())) {
+                return null;
+            }
+        }
+        try {
+            ScriptSource cached = CachingScriptSource.of(source);
+            return cached.getResource().getExists() && !cached.getResource().getHasEmptyContent() ? cached : null;
+        } catch (Exception e) {
+            LOGGER.debug("Could not read {}.", source.getDisplayName(), e);
+            return null;
+        }
+    }
+}
@@ -16,16 +16,92 @@
 
 package org.gradle.execution;
 
+import org.gradle.StartParameter;
+import org.gradle.api.Action;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.configuration.ConfigurationCache;
+import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.SingleMessageLogger;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
+    /**
+     * When set to true and parallel project execution is enabled, the projects of a hierarchy whose build scripts do not reach into other projects
+     * are configured in parallel.
+     */
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.internal.parallel-configuration";
+
+    private static final Logger LOGGER = Logging.getLogger(TaskPathProjectEvaluator.class);
+
+    // Anything in a build script that may read or mutate another project, or run code we cannot see
+    private static final Pattern CROSS_PROJECT_ACCESS = Pattern.compile(
+        "(?<![\\w.])(project\\s*\\(|apply\\s*\\(?\\s*from\\b|(rootProject|parent|allprojects|subprojects|childProjects|evaluationDependsOn|findProject|gradle"
+            + "|getRootProject|getParent|getAllprojects|getSubprojects|getChildProjects|getGradle)\\b)");
+
+    // Hooks that an ancestor may register to run code while its descendants are configured
+    private static final Pattern EVALUATION_HOOK = Pattern.compile("\\b(beforeEvaluate|afterEvaluate|beforeProject|afterProject)\\b");
+
+    // Hooks that a settings or init script may register to run code while any project is configured
+    private static final Pattern BUILD_EVALUATION_HOOK = Pattern.compile(
+        "\\b(beforeEvaluate|afterEvaluate|beforeProject|afterProject|allprojects|projectsLoaded|addListener|addProjectEvaluationListener)\\b|\\brootProject\\s*[({]");
+
+    // Projects that resolve a build script class path of their own, which may change without a change to any configuration input
+    private static final Pattern BUILDSCRIPT_BLOCK = Pattern.compile("\\bbuildscript\\b");
+
+    // Configuration that an ancestor may inject into its descendants, and which may in turn reach back into the ancestor or other projects
+    private static final Pattern CONFIGURES_DESCENDANTS = Pattern.compile(
+        "(?<![\\w.])(configure\\s*\\(|(allprojects|subprojects|childProjects|getAllprojects|getSubprojects|getChildProjects)\\b)");
+
     private final BuildCancellationToken cancellationToken;
+    private final ConfigurationCache configurationCache;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final boolean parallel;
 
     public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+        this(cancellationToken, null, null, false);
+    }
+
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, @Nullable ConfigurationCache configurationCache, @Nullable BuildOperationExecutor buildOperationExecutor, boolean parallel) {
         this.cancellationToken = cancellationToken;
+        this.configurationCache = configurationCache;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.parallel = parallel && buildOperationExecutor != null;
+    }
+
+    /**
+     * Returns true when parallel configuration has been requested and can be used by the given build. Without parallel project execution, every project
+     * is configured while holding the lock of the whole build, so the projects would only take turns configuring.
+     */
+    public static boolean isParallelConfigurationEnabled(StartParameter startParameter) {
+        if (!"true".equals(System.getProperty(PARALLEL_CONFIGURATION_PROPERTY))) {
+            return false;
+        }
+        if (!startParameter.isParallelProjectExecutionEnabled()) {
+            LOGGER.info("Parallel project configuration is only used together with parallel project execution (--parallel). Configuring projects sequentially.");
+            return false;
+        }
+        return true;
     }
 
     public void configure(ProjectInternal project) {
@@ -57,9 +133,234 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
     }
 
     public void configureHierarchy(ProjectInternal project) {
-        configure(project);
+        List<ProjectInternal> subprojects = subprojectsToConfigure(project);
+        if (parallel) {
+            configureHierarchyInParallel(project, subprojects);
+        } else {
+            configure(project);
+            for (ProjectInternal sub : subprojects) {
+                configure(sub);
+            }
+        }
+        if (subprojects.size() < project.getSubprojects().size()) {
+            configureSkippedProjectsIfUsed(project, subprojects);
+        }
+    }
+
+    /**
+     * Configures the projects that were skipped using the configuration cache, when one of them has been configured by another project. Its own build
+     * script may then contribute to the tasks of the build, for example through a plugin that another project applied to it.
+     */
+    private void configureSkippedProjectsIfUsed(ProjectInternal project, List<ProjectInternal> configured) {
+        List<ProjectInternal> skipped = new ArrayList<ProjectInternal>();
+        for (Project sub : project.getSubprojects()) {
+            if (!configured.contains(sub)) {
+                skipped.add((ProjectInternal) sub);
+            }
+        }
+        for (ProjectInternal subproject : skipped) {
+            if (!subproject.getState().getExecuted() && (!subproject.getTasks().getNames().isEmpty() || !subproject.getPlugins().isEmpty())) {
+                configurationCache.discard(subproject);
+                for (ProjectInternal sub : skipped) {
+                    configure(sub);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the subprojects of the given project that need to be configured. When the configuration cache has an entry for this build,
+     * these are the projects that owned the tasks of the previous build or were accessed from another project, the projects that may affect
+     * other projects, and their ancestors.
+     */
+    private List<ProjectInternal> subprojectsToConfigure(ProjectInternal project) {
+        List<ProjectInternal> subprojects = new ArrayList<ProjectInternal>();
         for (Project sub : project.getSubprojects()) {
-            configure((ProjectInternal) sub);
+            subprojects.add((ProjectInternal) sub);
+        }
+        Set<String> projectsToConfigure = configurationCache == null ? null : configurationCache.getProjectsToConfigure(project.getGradle());
+        if (projectsToConfigure == null) {
+            return subprojects;
+        }
+
+        Set<String> required = new HashSet<String>();
+        for (ProjectInternal subproject : subprojects) {
+            if (projectsToConfigure.contains(subproject.getPath()) || !canSkip(subproject)) {
+                for (ProjectInternal ancestor = subproject; ancestor != null; ancestor = ancestor.getParent()) {
+                    required.add(ancestor.getPath());
+                }
+            }
+        }
+        List<ProjectInternal> result = new ArrayList<ProjectInternal>();
+        for (ProjectInternal subproject : subprojects) {
+            if (required.contains(subproject.getPath())) {
+                result.add(subproject);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A project can only be skipped when its own build script does not affect other projects and no ancestor injects configuration into it,
+     * as that configuration may register callbacks which contribute to the tasks of another project, such as an aggregating report.
+     */
+    private static boolean canSkip(ProjectInternal project) {
+        if (!isIsolated(project) || mayAccessOtherProjects(project.getBuildScriptSource(), BUILDSCRIPT_BLOCK)) {
+            return false;
+        }
+        for (ProjectInternal ancestor = project.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (mayAccessOtherProjects(ancestor.getBuildScriptSource(), CONFIGURES_DESCENDANTS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Configures the hierarchy one level at a time, so that a project is always configured after its parent. Within a level, the projects whose build
+     * script does not access other projects are configured concurrently first. The projects whose build script may access another project are then
+     * configured one after another, in their usual order, so they see the projects of the level they access already configured.
+     *
+     * <p>Evaluation hooks run on the thread that configures the project, so the projects of a level are all configured one after another when a hook
+     * may run for them. This is the case when a settings or init script may register a hook, when a hook has been registered with the build, or when a hook
+     * has been registered with the project or one of its ancestors by a build script or a plugin.</p>
+     */
+    private void configureHierarchyInParallel(ProjectInternal project, List<ProjectInternal> subprojects) {
+        SingleMessageLogger.incubatingFeatureUsed("Parallel project configuration");
+        configure(project);
+
+        Map<Integer, List<ProjectInternal>> levels = new TreeMap<Integer, List<ProjectInternal>>();
+        for (ProjectInternal subproject : subprojects) {
+            List<ProjectInternal> level = levels.get(subproject.getDepth());
+            if (level == null) {
+                level = new ArrayList<ProjectInternal>();
+                levels.put(subproject.getDepth(), level);
+            }
+            level.add(subproject);
+        }
+
+        boolean buildScriptsRegisterHooks = settingsOrInitScriptsMayRegisterHooks(project.getGradle());
+        for (List<ProjectInternal> level : levels.values()) {
+            // Hooks registered with the build run for every project, and may be registered while configuring the previous level
+            boolean buildHasHooks = buildScriptsRegisterHooks || project.getGradle().hasProjectEvaluationListeners();
+            List<ProjectInternal> isolated = new ArrayList<ProjectInternal>();
+            List<ProjectInternal> shared = new ArrayList<ProjectInternal>();
+            for (ProjectInternal subproject : level) {
+                if (!buildHasHooks && isIsolated(subproject) && !hasEvaluationListeners(subproject)) {
+                    isolated.add(subproject);
+                } else {
+                    shared.add(subproject);
+                }
+            }
+            configureConcurrently(isolated);
+            for (ProjectInternal subproject : shared) {
+                configure(subproject);
+            }
+        }
+    }
+
+    private static boolean settingsOrInitScriptsMayRegisterHooks(GradleInternal gradle) {
+        if (mayAccessOtherProjects(gradle.getSettings().getSettingsScript(), BUILD_EVALUATION_HOOK)) {
+            return true;
+        }
+        for (File initScript : gradle.getStartParameter().getAllInitScripts()) {
+            try {
+                if (BUILD_EVALUATION_HOOK.matcher(GFileUtils.readFile(initScript)).find()) {
+                    return true;
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Could not read {}.", initScript, e);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true when the given project or one of its ancestors has evaluation hooks registered, including those that another project or a plugin
+     * registered, which cannot be found by looking at the build scripts.
+     */
+    private static boolean hasEvaluationListeners(ProjectInternal project) {
+        for (ProjectInternal current = project; current != null; current = current.getParent()) {
+            if (current.hasEvaluationListeners()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void configureConcurrently(final List<ProjectInternal> projects) {
+        if (projects.size() < 2) {
+            for (ProjectInternal project : projects) {
+                configure(project);
+            }
+            return;
+        }
+        final RuntimeException[] failures = new RuntimeException[projects.size()];
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                for (int i = 0; i < projects.size(); i++) {
+                    queue.add(new ConfigureProject(projects.get(i), failures, i));
+                }
+            }
+        });
+        // Report the failure of the first project in the hierarchy, as when configuring sequentially
+        for (RuntimeException failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static boolean isIsolated(ProjectInternal project) {
+        if (mayAccessOtherProjects(project.getBuildScriptSource(), CROSS_PROJECT_ACCESS)) {
+            return false;
+        }
+        for (ProjectInternal ancestor = project.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (mayAccessOtherProjects(ancestor.getBuildScriptSource(), EVALUATION_HOOK)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean mayAccessOtherProjects(ScriptSource source, Pattern pattern) {
+        try {
+            if (!source.getResource().getExists()) {
+                return false;
+            }
+            return pattern.matcher(source.getResource().getText()).find();
+        } catch (Exception e) {
+            LOGGER.debug("Could not read {}.", source.getDisplayName(), e);
+            return true;
+        }
+    }
+
+    private class ConfigureProject implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final RuntimeException[] failures;
+        private final int index;
+
+        ConfigureProject(ProjectInternal project, RuntimeException[] failures, int index) {
+            this.project = project;
+            this.failures = failures;
+            this.index = index;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            try {
+                configure(project);
+            } catch (RuntimeException e) {
+                failures[index] = e;
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + project.getDisplayName() + " in parallel");
         }
     }
 
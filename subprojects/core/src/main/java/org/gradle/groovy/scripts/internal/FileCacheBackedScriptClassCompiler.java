@@ -19,20 +19,27 @@ import com.google.common.io.Files;
 import groovy.lang.Script;
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classanalysis.AsmConstants;
 import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.model.dsl.internal.transform.RuleVisitor;
+import org.gradle.util.GFileUtils;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
@@ -47,11 +54,24 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 /**
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
+ *
+ * <p>Scripts can also be {@link #precompile precompiled} in the background. The cache directories are initialized while holding the lock of the
+ * cache factory, so precompiled scripts are compiled into a separate directory first and moved into the cache when the script is compiled.</p>
  */
 public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler, Closeable {
+    private static final Logger LOGGER = Logging.getLogger(FileCacheBackedScriptClassCompiler.class);
     private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
     private final ScriptCompilationHandler scriptCompilationHandler;
     private final ProgressLoggerFactory progressLoggerFactory;
@@ -59,16 +79,28 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     private final ScriptSourceHasher hasher;
     private final ClassLoaderCache classLoaderCache;
     private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final ScriptClassBuildCache scriptClassBuildCache;
+    private final ExecutorFactory executorFactory;
+    private final int maxPrecompileThreads;
+    private final ConcurrentMap<String, Future<File>> precompiledScripts = new ConcurrentHashMap<String, Future<File>>();
+    // Guarded by this
+    private ManagedExecutor precompileExecutor;
+    private PersistentCache scriptsStore;
+    private File precompileDir;
 
     public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, ScriptCompilationHandler scriptCompilationHandler,
                                               ProgressLoggerFactory progressLoggerFactory, ScriptSourceHasher hasher, ClassLoaderCache classLoaderCache,
-                                              ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+                                              ClassLoaderHierarchyHasher classLoaderHierarchyHasher, ScriptClassBuildCache scriptClassBuildCache,
+                                              ExecutorFactory executorFactory, int maxPrecompileThreads) {
         this.cacheRepository = cacheRepository;
         this.scriptCompilationHandler = scriptCompilationHandler;
         this.progressLoggerFactory = progressLoggerFactory;
         this.hasher = hasher;
         this.classLoaderCache = classLoaderCache;
         this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        this.scriptClassBuildCache = scriptClassBuildCache;
+        this.executorFactory = executorFactory;
+        this.maxPrecompileThreads = maxPrecompileThreads;
     }
 
     @Override
@@ -115,20 +147,159 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         }
     }
 
+    /**
+     * Compiles the given script in the background, so that a later call to {@link #compile} for the same script, operation and class loader
+     * does not need to compile it. Does nothing when the script has already been compiled into the cache.
+     *
+     * <p>The content of the source must be cached. Failures are ignored here, and reported when the script is compiled.</p>
+     */
+    public <T extends Script, M> void precompile(final ScriptSource source,
+                                                 final ClassLoader classLoader,
+                                                 final CompileOperation<M> operation,
+                                                 final Class<T> scriptBaseClass,
+                                                 final Action<? super ClassNode> verifier) {
+        assert source.getResource().isContentCached();
+        if (source.getResource().getHasEmptyContent()) {
+            return;
+        }
+        HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(classLoader);
+        if (classLoaderHash == null) {
+            return;
+        }
+        String sourceHash = HashUtil.compactStringFor(hasher.hash(source));
+        String dslId = operation.getId();
+        String classpathHash = dslId + classLoaderHash;
+        String key = precompiledScriptKey(sourceHash, dslId, classpathHash);
+
+        final File targetDir;
+        final ManagedExecutor executor;
+        synchronized (this) {
+            if (precompileExecutor == null) {
+                scriptsStore = cacheRepository.cache("scripts")
+                    .withDisplayName("precompiled scripts")
+                    .withLockOptions(mode(FileLockManager.LockMode.None))
+                    .open();
+                precompileDir = new File(scriptsStore.getBaseDir(), "precompiled-" + UUID.randomUUID());
+                precompileExecutor = executorFactory.create("Script precompiler", maxPrecompileThreads);
+            }
+            if (new File(new File(scriptsStore.getBaseDir(), key), "cache.properties").isFile()) {
+                // Already compiled by an earlier build
+                return;
+            }
+            targetDir = new File(precompileDir, sourceHash + "-" + dslId + "-" + classLoaderHash);
+            executor = precompileExecutor;
+        }
+
+        FutureTask<File> task = new FutureTask<File>(new Callable<File>() {
+            @Override
+            public File call() {
+                try {
+                    scriptCompilationHandler.compileToDir(new RemappingScriptSource(source), classLoader, classesDir(targetDir), metadataDir(targetDir), operation, scriptBaseClass, verifier);
+                    return targetDir;
+                } catch (Exception e) {
+                    LOGGER.debug("Could not precompile {}.", source.getDisplayName(), e);
+                    GFileUtils.deleteDirectory(targetDir);
+                    return null;
+                }
+            }
+        });
+        if (precompiledScripts.putIfAbsent(key, task) == null) {
+            executor.execute(task);
+        }
+    }
+
+    private static String precompiledScriptKey(String sourceHash, String dslId, String classpathHash) {
+        // Same as the relative path of the cross build cache of the script
+        return sourceHash + "/" + dslId + "/" + classpathHash;
+    }
+
+    /**
+     * Moves the classes of a precompiled script into the given directories, waiting for the precompilation to complete when required.
+     *
+     * @return true when the script was precompiled, false when it needs to be compiled.
+     */
+    private boolean usePrecompiled(String sourceHash, String dslId, String classpathHash, File classesDir, File metadataDir) {
+        Future<File> precompiled = precompiledScripts.remove(precompiledScriptKey(sourceHash, dslId, classpathHash));
+        if (precompiled == null) {
+            return false;
+        }
+        File precompiledDir;
+        try {
+            precompiledDir = precompiled.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            return false;
+        }
+        if (precompiledDir == null) {
+            return false;
+        }
+        try {
+            moveDir(classesDir(precompiledDir), classesDir);
+            moveDir(metadataDir(precompiledDir), metadataDir);
+            return true;
+        } catch (Exception e) {
+            LOGGER.debug("Could not use precompiled classes from {}.", precompiledDir, e);
+            GFileUtils.deleteDirectory(classesDir);
+            GFileUtils.deleteDirectory(metadataDir);
+            return false;
+        } finally {
+            GFileUtils.deleteDirectory(precompiledDir);
+        }
+    }
+
+    private static void moveDir(File source, File target) {
+        GFileUtils.deleteDirectory(target);
+        if (!source.isDirectory()) {
+            return;
+        }
+        if (!source.renameTo(target)) {
+            GFileUtils.copyDirectory(source, target);
+        }
+    }
+
     private <T extends Script, M> CompiledScript<T, M> emptyCompiledScript(ClassLoaderId classLoaderId, CompileOperation<M> operation) {
         classLoaderCache.remove(classLoaderId);
         return new EmptyCompiledScript<T, M>(operation);
     }
 
     public void close() {
+        ManagedExecutor executor;
+        PersistentCache store;
+        File dir;
+        synchronized (this) {
+            executor = precompileExecutor;
+            store = scriptsStore;
+            dir = precompileDir;
+            precompileExecutor = null;
+            scriptsStore = null;
+            precompileDir = null;
+        }
+        for (Future<File> precompiled : precompiledScripts.values()) {
+            precompiled.cancel(false);
+        }
+        precompiledScripts.clear();
+        CompositeStoppable.stoppable(executor).stop();
+        if (dir != null) {
+            GFileUtils.deleteDirectory(dir);
+        }
+        CompositeStoppable.stoppable(store).stop();
     }
 
     private File classesDir(PersistentCache cache) {
-        return new File(cache.getBaseDir(), "classes");
+        return classesDir(cache.getBaseDir());
     }
 
     private File metadataDir(PersistentCache cache) {
-        return new File(cache.getBaseDir(), "metadata");
+        return metadataDir(cache.getBaseDir());
+    }
+
+    private static File classesDir(File baseDir) {
+        return new File(baseDir, "classes");
+    }
+
+    private static File metadataDir(File baseDir) {
+        return new File(baseDir, "metadata");
     }
 
     private class CompileToCrossBuildCacheAction implements Action<PersistentCache> {
@@ -137,10 +308,16 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         private final ClassLoader classLoader;
         private final CompileOperation<?> transformer;
         private final ScriptSource source;
+        private final String sourceHash;
+        private final String dslId;
+        private final String classpathHash;
 
-        public <T extends Script> CompileToCrossBuildCacheAction(ScriptSource source, ClassLoader classLoader, CompileOperation<?> transformer,
+        public <T extends Script> CompileToCrossBuildCacheAction(ScriptSource source, String sourceHash, String dslId, String classpathHash, ClassLoader classLoader, CompileOperation<?> transformer,
                                                                  Action<? super ClassNode> verifier, Class<T> scriptBaseClass) {
             this.source = source;
+            this.sourceHash = sourceHash;
+            this.dslId = dslId;
+            this.classpathHash = classpathHash;
             this.classLoader = classLoader;
             this.transformer = transformer;
             this.verifier = verifier;
@@ -150,7 +327,13 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         public void execute(PersistentCache cache) {
             File classesDir = classesDir(cache);
             File metadataDir = metadataDir(cache);
-            scriptCompilationHandler.compileToDir(source, classLoader, classesDir, metadataDir, transformer, scriptBaseClass, verifier);
+            if (!usePrecompiled(sourceHash, dslId, classpathHash, classesDir, metadataDir)) {
+                if (scriptClassBuildCache.load(sourceHash, dslId, classpathHash, classesDir, metadataDir)) {
+                    return;
+                }
+                scriptCompilationHandler.compileToDir(source, classLoader, classesDir, metadataDir, transformer, scriptBaseClass, verifier);
+            }
+            scriptClassBuildCache.store(sourceHash, dslId, classpathHash, classesDir, metadataDir);
         }
     }
 
@@ -417,7 +600,7 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
                 .withDisplayName(dslId + " generic class cache for " + source.getDisplayName())
                 .withInitializer(new ProgressReportingInitializer(
                     progressLoggerFactory,
-                    new CompileToCrossBuildCacheAction(remapped, classLoader, operation, verifier, scriptBaseClass),
+                    new CompileToCrossBuildCacheAction(remapped, sourceHash, dslId, classpathHash, classLoader, operation, verifier, scriptBaseClass),
                     "Compiling script into cache",
                     "Compiling " + source.getDisplayName() + " to cross build script cache"))
                 .open();
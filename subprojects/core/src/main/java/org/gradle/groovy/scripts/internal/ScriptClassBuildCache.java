@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.scripts.internal;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.internal.controller.BuildCacheController;
+import org.gradle.caching.internal.controller.BuildCacheLoadCommand;
+import org.gradle.caching.internal.controller.BuildCacheStoreCommand;
+import org.gradle.caching.internal.controller.RootBuildCacheControllerRef;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Stores the generic classes of compiled scripts in the build cache of the root build, and loads them from there, so that a build running in a new
+ * Gradle user home does not need to compile scripts that were compiled by another build before.
+ *
+ * <p>Entries are keyed by the hash of the script source, the compile operation and the hash of the compile class loader hierarchy, together with
+ * the Gradle version. The build cache is only used once the root build has configured it, so init scripts and settings scripts are always compiled locally.</p>
+ */
+public class ScriptClassBuildCache {
+    private static final Logger LOGGER = Logging.getLogger(ScriptClassBuildCache.class);
+    private static final String CLASSES_PREFIX = "classes/";
+    private static final String METADATA_PREFIX = "metadata/";
+
+    private final RootBuildCacheControllerRef rootControllerRef;
+
+    public ScriptClassBuildCache(RootBuildCacheControllerRef rootControllerRef) {
+        this.rootControllerRef = rootControllerRef;
+    }
+
+    /**
+     * Loads the classes and metadata of the given script into the given directories.
+     *
+     * @return true when the script was found in the build cache, false when it needs to be compiled.
+     */
+    public boolean load(String sourceHash, String dslId, String classpathHash, final File classesDir, final File metadataDir) {
+        BuildCacheController controller = getController();
+        if (controller == null) {
+            return false;
+        }
+        final BuildCacheKey key = new ScriptBuildCacheKey(sourceHash, dslId, classpathHash);
+        try {
+            Boolean loaded = controller.load(new BuildCacheLoadCommand<Boolean>() {
+                @Override
+                public BuildCacheKey getKey() {
+                    return key;
+                }
+
+                @Override
+                public Result<Boolean> load(InputStream inputStream) throws IOException {
+                    return unpack(inputStream, classesDir, metadataDir);
+                }
+            });
+            return loaded != null && loaded;
+        } catch (Exception e) {
+            LOGGER.debug("Could not load {} from the build cache.", key.getDisplayName(), e);
+            GFileUtils.deleteDirectory(classesDir);
+            GFileUtils.deleteDirectory(metadataDir);
+            return false;
+        }
+    }
+
+    /**
+     * Stores the compiled classes and metadata of the given script in the build cache.
+     */
+    public void store(String sourceHash, String dslId, String classpathHash, final File classesDir, final File metadataDir) {
+        BuildCacheController controller = getController();
+        if (controller == null) {
+            return;
+        }
+        final BuildCacheKey key = new ScriptBuildCacheKey(sourceHash, dslId, classpathHash);
+        try {
+            controller.store(new BuildCacheStoreCommand() {
+                @Override
+                public BuildCacheKey getKey() {
+                    return key;
+                }
+
+                @Override
+                public Result store(OutputStream outputStream) throws IOException {
+                    return pack(outputStream, classesDir, metadataDir);
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.debug("Could not store {} in the build cache.", key.getDisplayName(), e);
+        }
+    }
+
+    private BuildCacheController getController() {
+        if (!rootControllerRef.isSet()) {
+            return null;
+        }
+        BuildCacheController controller = rootControllerRef.getForNonRootBuild();
+        return controller.isEnabled() ? controller : null;
+    }
+
+    private static BuildCacheStoreCommand.Result pack(OutputStream outputStream, File classesDir, File metadataDir) throws IOException {
+        ZipOutputStream zipOutput = new ZipOutputStream(outputStream);
+        try {
+            final long entryCount = packDir(zipOutput, CLASSES_PREFIX, classesDir) + packDir(zipOutput, METADATA_PREFIX, metadataDir);
+            return new BuildCacheStoreCommand.Result() {
+                @Override
+                public long getArtifactEntryCount() {
+                    return entryCount;
+                }
+            };
+        } finally {
+            zipOutput.close();
+        }
+    }
+
+    private static long packDir(ZipOutputStream zipOutput, String prefix, File dir) throws IOException {
+        // Compiled scripts are written as a flat directory of class files, see RemapBuildScriptsAction
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        long entryCount = 0;
+        for (File file : files) {
+            if (file.isFile()) {
+                zipOutput.putNextEntry(new ZipEntry(prefix + file.getName()));
+                Files.copy(file, zipOutput);
+                zipOutput.closeEntry();
+                entryCount++;
+            }
+        }
+        return entryCount;
+    }
+
+    private static BuildCacheLoadCommand.Result<Boolean> unpack(InputStream inputStream, File classesDir, File metadataDir) throws IOException {
+        GFileUtils.deleteDirectory(classesDir);
+        GFileUtils.deleteDirectory(metadataDir);
+        GFileUtils.mkdirs(classesDir);
+        GFileUtils.mkdirs(metadataDir);
+        ZipInputStream zipInput = new ZipInputStream(inputStream);
+        try {
+            long entryCount = 0;
+            ZipEntry entry;
+            while ((entry = zipInput.getNextEntry()) != null) {
+                File target = targetFor(entry.getName(), classesDir, metadataDir);
+                OutputStream output = new FileOutputStream(target);
+                try {
+                    ByteStreams.copy(zipInput, output);
+                } finally {
+                    output.close();
+                }
+                entryCount++;
+            }
+            final long loadedEntryCount = entryCount;
+            return new BuildCacheLoadCommand.Result<Boolean>() {
+                @Override
+                public long getArtifactEntryCount() {
+                    return loadedEntryCount;
+                }
+
+                @Override
+                public Boolean getMetadata() {
+                    return true;
+                }
+            };
+        } finally {
+            zipInput.close();
+        }
+    }
+
+    private static File targetFor(String entryName, File classesDir, File metadataDir) throws IOException {
+        File dir;
+        String fileName;
+        if (entryName.startsWith(CLASSES_PREFIX)) {
+            dir = classesDir;
+            fileName = entryName.substring(CLASSES_PREFIX.length());
+        } else if (entryName.startsWith(METADATA_PREFIX)) {
+            dir = metadataDir;
+            fileName = entryName.substring(METADATA_PREFIX.length());
+        } else {
+            throw new IOException("Unexpected entry " + entryName + " in compiled script cache entry.");
+        }
+        if (fileName.isEmpty() || fileName.contains("/") || fileName.contains("\\") || fileName.equals("..")) {
+            throw new IOException("Unexpected entry " + entryName + " in compiled script cache entry.");
+        }
+        return new File(dir, fileName);
+    }
+
+    private static class ScriptBuildCacheKey implements BuildCacheKey {
+        private final String hashCode;
+        private final String displayName;
+
+        ScriptBuildCacheKey(String sourceHash, String dslId, String classpathHash) {
+            Hasher hasher = Hashing.newHasher();
+            hasher.putString(ScriptClassBuildCache.class.getName());
+            hasher.putString(GradleVersion.current().getVersion());
+            hasher.putString(sourceHash);
+            hasher.putString(dslId);
+            hasher.putString(classpathHash);
+            this.hashCode = hasher.hash().toString();
+            this.displayName = dslId + " classes for script " + sourceHash;
+        }
+
+        @Override
+        public String getHashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+}
@@ -34,7 +34,7 @@ public class DefaultCompileClasspathFingerprinter extends AbstractFileCollection
     public DefaultCompileClasspathFingerprinter(ResourceSnapshotterCacheService cacheService, FileSystemSnapshotter fileSystemSnapshotter, StringInterner stringInterner) {
         super(stringInterner, fileSystemSnapshotter);
         this.fingerprintingStrategy = ClasspathFingerprintingStrategy.compileClasspath(
-            new CachingResourceHasher(new AbiExtractingClasspathResourceHasher(), cacheService),
+            new CachingResourceHasher(new AbiExtractingClasspathResourceHasher(cacheService), cacheService),
             cacheService,
             stringInterner
         );
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local;
+
+import org.gradle.cache.internal.UnlinkedFilesCacheCleanup;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+
+/**
+ * Keeps one copy of each distinct file content, named by its SHA-1, and hard links it to the entries of other file stores that have the same content.
+ * When the file system does not support hard links, each entry keeps its own copy. No blobs are created when the file system does not report the
+ * link count of files, as there would be no way to tell when a blob is no longer used.
+ *
+ * Blobs are never modified once added, so they can be shared without locking. A blob that is no longer linked from any entry can be removed
+ * using {@link org.gradle.cache.internal.UnlinkedFilesCacheCleanup}.
+ */
+public class ContentAddressedBlobStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentAddressedBlobStore.class);
+
+    public static final int FILE_TREE_DEPTH_TO_CLEANUP = 2;
+
+    private final File baseDir;
+    private final boolean linkCountSupported;
+
+    public ContentAddressedBlobStore(File baseDir) {
+        this(baseDir, UnlinkedFilesCacheCleanup.isLinkCountSupported(baseDir));
+    }
+
+    ContentAddressedBlobStore(File baseDir, boolean linkCountSupported) {
+        this.baseDir = baseDir;
+        this.linkCountSupported = linkCountSupported;
+    }
+
+    public File getBaseDir() {
+        return baseDir;
+    }
+
+    /**
+     * Moves the source file with the given SHA-1 to the destination, which must not exist yet.
+     * The destination shares its content with the existing blob when there is one, otherwise it becomes the blob for its content.
+     */
+    public void moveTo(File source, HashValue sha1, File destination) {
+        if (!linkCountSupported) {
+            GFileUtils.moveExistingFile(source, destination);
+            return;
+        }
+        File blob = getBlobFile(sha1);
+        if (blob.isFile() && link(destination, blob)) {
+            GFileUtils.deleteQuietly(source);
+            return;
+        }
+        GFileUtils.moveExistingFile(source, destination);
+        if (!blob.exists()) {
+            GFileUtils.parentMkdirs(blob);
+            link(blob, destination);
+        }
+    }
+
+    File getBlobFile(HashValue sha1) {
+        String hash = sha1.asZeroPaddedHexString(40);
+        return new File(new File(baseDir, hash.substring(0, 2)), hash);
+    }
+
+    private static boolean link(File link, File existing) {
+        try {
+            Files.createLink(link.toPath(), existing.toPath());
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            // Added concurrently
+            return false;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        } catch (IOException e) {
+            LOGGER.debug("Could not link {} to {}.", link, existing, e);
+            return false;
+        }
+    }
+}
@@ -19,12 +19,17 @@ import org.gradle.api.Action;
 import org.gradle.api.Namer;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.util.GFileUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Set;
 
 /**
  * A file store that stores items grouped by some provided function over the key and an SHA1 hash of the value. This means that files are only ever added and never modified once added, so a resource from this store can be used without locking. Locking is required to add entries.
+ *
+ * When a {@link ContentAddressedBlobStore} is given, entries with the same content share a single copy through hard links.
  */
 public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStoreSearcher<K> {
 
@@ -35,9 +40,15 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
     private final Grouper<K> grouper;
     private final Namer<K> namer;
     private final FileAccessTracker checksumDirAccessTracker;
+    private final ContentAddressedBlobStore blobStore;
 
     public GroupedAndNamedUniqueFileStore(File baseDir, TemporaryFileProvider temporaryFileProvider, FileAccessTimeJournal fileAccessTimeJournal, Grouper<K> grouper, Namer<K> namer) {
+        this(baseDir, null, temporaryFileProvider, fileAccessTimeJournal, grouper, namer);
+    }
+
+    public GroupedAndNamedUniqueFileStore(File baseDir, @Nullable ContentAddressedBlobStore blobStore, TemporaryFileProvider temporaryFileProvider, FileAccessTimeJournal fileAccessTimeJournal, Grouper<K> grouper, Namer<K> namer) {
         this.delegate = new UniquePathKeyFileStore(baseDir);
+        this.blobStore = blobStore;
         this.temporaryFileProvider = temporaryFileProvider;
         this.grouper = grouper;
         this.namer = namer;
@@ -45,7 +56,23 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
     }
 
     public LocallyAvailableResource move(K key, File source) {
-        return markAccessed(delegate.move(toPath(key, getChecksum(source)), source));
+        return move(key, source, HashUtil.sha1(source));
+    }
+
+    public LocallyAvailableResource move(K key, final File source, final HashValue sha1) {
+        String path = toPath(key, sha1.asHexString());
+        if (blobStore == null) {
+            return markAccessed(delegate.move(path, source));
+        }
+        LocallyAvailableResource entry = delegate.add(path, new Action<File>() {
+            @Override
+            public void execute(File file) {
+                blobStore.moveTo(source, sha1, file);
+            }
+        });
+        // The entry may already have been present
+        GFileUtils.deleteQuietly(source);
+        return markAccessed(entry);
     }
 
     public Set<? extends LocallyAvailableResource> search(K key) {
@@ -63,10 +90,6 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
         return group + "/" + checksumPart + "/" + name;
     }
 
-    private String getChecksum(File contentFile) {
-        return HashUtil.createHash(contentFile, "SHA1").asHexString();
-    }
-
     private File getTempFile() {
         return temporaryFileProvider.createTemporaryFile("filestore", "bin");
     }
@@ -76,8 +99,7 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
         //and reexecuting the action isn't acceptable
         final File tempFile = getTempFile();
         addAction.execute(tempFile);
-        final String groupedAndNamedKey = toPath(key, getChecksum(tempFile));
-        return markAccessed(delegate.move(groupedAndNamedKey, tempFile));
+        return move(key, tempFile);
     }
 
     private LocallyAvailableResource markAccessed(LocallyAvailableResource resource) {
@@ -77,7 +77,10 @@ import org.gradle.api.provider.ProviderFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.FileLockManager;
 import org.gradle.caching.internal.BuildCacheServices;
+import org.gradle.caching.internal.controller.RootBuildCacheControllerRef;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.CompileOperationFactory;
+import org.gradle.configuration.ConfigurationCache;
 import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultInitScriptProcessor;
 import org.gradle.configuration.DefaultScriptPluginFactory;
@@ -91,6 +94,7 @@ import org.gradle.configuration.project.DelayedConfigurationActions;
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
 import org.gradle.configuration.project.ProjectEvaluator;
+import org.gradle.configuration.project.ProjectScriptPrecompiler;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
@@ -102,6 +106,7 @@ import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCa
 import org.gradle.groovy.scripts.internal.DefaultScriptCompilationHandler;
 import org.gradle.groovy.scripts.internal.DefaultScriptRunnerFactory;
 import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler;
+import org.gradle.groovy.scripts.internal.ScriptClassBuildCache;
 import org.gradle.groovy.scripts.internal.ScriptSourceHasher;
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.initialization.BuildLoader;
@@ -240,10 +245,15 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
+    protected ProjectScriptPrecompiler createProjectScriptPrecompiler(FileCacheBackedScriptClassCompiler scriptClassCompiler, DocumentationRegistry documentationRegistry, StartParameter startParameter) {
+        boolean enabled = !startParameter.isConfigureOnDemand() && !"false".equals(System.getProperty(ProjectScriptPrecompiler.ENABLED_PROPERTY));
+        return new ProjectScriptPrecompiler(scriptClassCompiler, new CompileOperationFactory(documentationRegistry), enabled);
+    }
+
+    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory, ProjectScriptPrecompiler projectScriptPrecompiler) {
         ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
             PluginsProjectConfigureActions.from(cachingServiceLocator),
-            new BuildScriptProcessor(scriptPluginFactory),
+            new BuildScriptProcessor(scriptPluginFactory, projectScriptPrecompiler),
             new DelayedConfigurationActions()
         );
         return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
@@ -265,7 +275,9 @@ public class BuildScopeServices extends DefaultServiceRegistry {
 
     protected ScriptCompilerFactory createScriptCompileFactory(ListenerManager listenerManager,
                                                                FileCacheBackedScriptClassCompiler scriptCompiler,
-                                                               CrossBuildInMemoryCachingScriptClassCache cache) {
+                                                               CrossBuildInMemoryCachingScriptClassCache cache,
+                                                               ConfigurationCache configurationCache) {
+        // The configuration cache is created first, so that it is notified about every script of the build
         ScriptExecutionListener scriptExecutionListener = listenerManager.getBroadcaster(ScriptExecutionListener.class);
         return new DefaultScriptCompilerFactory(
             new BuildScopeInMemoryCachingScriptClassCompiler(cache, scriptCompiler),
@@ -280,7 +292,7 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         CacheRepository cacheRepository, final StartParameter startParameter,
         ProgressLoggerFactory progressLoggerFactory, ClassLoaderCache classLoaderCache, ImportsReader importsReader,
         ScriptSourceHasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher,
-        BuildOperationExecutor buildOperationExecutor) {
+        BuildOperationExecutor buildOperationExecutor, RootBuildCacheControllerRef rootBuildCacheControllerRef, ExecutorFactory executorFactory) {
         return new FileCacheBackedScriptClassCompiler(
             cacheRepository,
             new BuildOperationBackedScriptCompilationHandler(
@@ -288,7 +300,10 @@ public class BuildScopeServices extends DefaultServiceRegistry {
             progressLoggerFactory,
             hasher,
             classLoaderCache,
-            classLoaderHierarchyHasher);
+            classLoaderHierarchyHasher,
+            new ScriptClassBuildCache(rootBuildCacheControllerRef),
+            executorFactory,
+            startParameter.getMaxWorkerCount());
     }
 
     protected ScriptPluginFactory createScriptPluginFactory(InstantiatorFactory instantiatorFactory, BuildOperationExecutor buildOperationExecutor, UserCodeApplicationContext userCodeApplicationContext) {
@@ -385,16 +400,27 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected ConfigurationCache createConfigurationCache(CacheRepository cacheRepository, FileHasher fileHasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher, IGradlePropertiesLoader propertiesLoader,
+                                                          ListenerManager listenerManager, StartParameter startParameter) {
+        boolean enabled = !startParameter.isConfigureOnDemand() && "true".equals(System.getProperty(ConfigurationCache.ENABLED_PROPERTY));
+        ConfigurationCache configurationCache = new ConfigurationCache(cacheRepository, fileHasher, classLoaderHierarchyHasher, propertiesLoader, enabled);
+        if (enabled) {
+            listenerManager.addListener(configurationCache);
+        }
+        return configurationCache;
+    }
+
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, ConfigurationCache configurationCache, BuildOperationExecutor buildOperationExecutor, StartParameter startParameter) {
+        boolean parallel = TaskPathProjectEvaluator.isParallelConfigurationEnabled(startParameter);
+        return new TaskPathProjectEvaluator(cancellationToken, configurationCache, buildOperationExecutor, parallel);
     }
 
     protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer, BuildStateRegistry buildStateRegistry) {
         return new DefaultBuildConfigurer(projectConfigurer, buildStateRegistry);
     }
 
-    protected ProjectAccessListener createProjectAccessListener() {
-        return new DefaultProjectAccessListener();
+    protected ProjectAccessListener createProjectAccessListener(ConfigurationCache configurationCache) {
+        return new DefaultProjectAccessListener(configurationCache);
     }
 
     protected PluginRegistry createPluginRegistry(ClassLoaderScopeRegistry scopeRegistry, PluginInspector pluginInspector) {
@@ -32,6 +32,7 @@ import org.gradle.api.internal.changedetection.state.ResourceSnapshotterCacheSer
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCacheWarmState;
 import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
@@ -63,6 +64,7 @@ import org.gradle.internal.classpath.CachedClasspathTransformer;
 import org.gradle.internal.classpath.CachedJarFileStore;
 import org.gradle.internal.classpath.DefaultCachedClasspathTransformer;
 import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.environment.GradleBuildEnvironment;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.OutputChangeListener;
 import org.gradle.internal.execution.timeout.TimeoutHandler;
@@ -210,9 +212,16 @@ public class GradleUserHomeScopeServices {
         return new DefaultHashingClassLoaderFactory(classpathHasher);
     }
 
-    ClassLoaderCache createClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, ListenerManager listenerManager) {
+    ClassLoaderCacheWarmState createClassLoaderCacheWarmState(CacheRepository cacheRepository, ClasspathHasher classpathHasher, ExecutorFactory executorFactory, WellKnownFileLocations wellKnownFileLocations, GradleBuildEnvironment environment, ListenerManager listenerManager) {
+        ClassLoaderCacheWarmState warmState = new ClassLoaderCacheWarmState(cacheRepository, classpathHasher, executorFactory, wellKnownFileLocations, environment.isLongLivingProcess());
+        listenerManager.addListener(warmState);
+        return warmState;
+    }
+
+    ClassLoaderCache createClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, ListenerManager listenerManager, ClassLoaderCacheWarmState warmState) {
         DefaultClassLoaderCache cache = new DefaultClassLoaderCache(classLoaderFactory, classpathHasher);
         listenerManager.addListener(cache);
+        warmState.attach(cache);
         return cache;
     }
 
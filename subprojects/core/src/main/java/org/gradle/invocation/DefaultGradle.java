@@ -81,6 +81,7 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
     private Path identityPath;
     private final ClassLoaderScope classLoaderScope;
     private BuildType buildType = BuildType.NONE;
+    private volatile boolean hasProjectEvaluationListeners;
 
     public DefaultGradle(GradleInternal parent, StartParameter startParameter, ServiceRegistryFactory parentRegistry) {
         this.parent = parent;
@@ -272,6 +273,7 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
 
     @Override
     public ProjectEvaluationListener addProjectEvaluationListener(ProjectEvaluationListener listener) {
+        hasProjectEvaluationListeners = true;
         addListener("Gradle.addProjectEvaluationListener", listener);
         return listener;
     }
@@ -288,24 +290,28 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
     @Override
     public void beforeProject(Closure closure) {
         assertProjectMutatingMethodAllowed("beforeProject(Closure)");
+        hasProjectEvaluationListeners = true;
         projectEvaluationListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("beforeEvaluate", getListenerBuildOperationDecorator().decorate("Gradle.beforeProject", closure)));
     }
 
     @Override
     public void beforeProject(Action<? super Project> action) {
         assertProjectMutatingMethodAllowed("beforeProject(Action)");
+        hasProjectEvaluationListeners = true;
         projectEvaluationListenerBroadcast.add("beforeEvaluate", getListenerBuildOperationDecorator().decorate("Gradle.beforeProject", action));
     }
 
     @Override
     public void afterProject(Closure closure) {
         assertProjectMutatingMethodAllowed("afterProject(Closure)");
+        hasProjectEvaluationListeners = true;
         projectEvaluationListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("afterEvaluate", getListenerBuildOperationDecorator().decorate("Gradle.afterProject", closure)));
     }
 
     @Override
     public void afterProject(Action<? super Project> action) {
         assertProjectMutatingMethodAllowed("afterProject(Action)");
+        hasProjectEvaluationListeners = true;
         projectEvaluationListenerBroadcast.add("afterEvaluate", getListenerBuildOperationDecorator().decorate("Gradle.afterProject", action));
     }
 
@@ -365,6 +371,9 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
 
     @Override
     public void addListener(Object listener) {
+        if (listener instanceof ProjectEvaluationListener) {
+            hasProjectEvaluationListeners = true;
+        }
         addListener("Gradle.addListener", listener);
     }
 
@@ -388,6 +397,11 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
         return projectEvaluationListenerBroadcast.getSource();
     }
 
+    @Override
+    public boolean hasProjectEvaluationListeners() {
+        return hasProjectEvaluationListeners;
+    }
+
     @Override
     public void addBuildListener(BuildListener buildListener) {
         addListener("Gradle.addBuildListener", buildListener);
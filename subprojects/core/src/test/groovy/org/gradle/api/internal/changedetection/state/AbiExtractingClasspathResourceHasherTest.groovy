@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.serialize.HashCodeSerializer
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import spock.lang.Specification
+
+import java.util.zip.ZipEntry
+
+class AbiExtractingClasspathResourceHasherTest extends Specification {
+    def classBytes = getClass().getResourceAsStream("${getClass().simpleName}.class").bytes
+    def classEntry = new ZipEntry("org/gradle/Foo.class")
+
+    def "hashes zip entries using the cache by content hash"() {
+        def cacheService = Mock(ResourceSnapshotterCacheService)
+        def hasher = new AbiExtractingClasspathResourceHasher(cacheService)
+        def cachedHash = HashCode.fromInt(123)
+
+        when:
+        def hash = hasher.hash(classEntry, new ByteArrayInputStream(classBytes))
+
+        then:
+        1 * cacheService.hashContent(Hashing.hashBytes(classBytes), _, _) >> cachedHash
+        0 * _
+
+        and:
+        hash == cachedHash
+    }
+
+    def "cached ABI hash of a zip entry is the same as the uncached hash"() {
+        def cachingHasher = new AbiExtractingClasspathResourceHasher(new DefaultResourceSnapshotterCacheService(new InMemoryIndexedCache(new HashCodeSerializer())))
+        def hasher = new AbiExtractingClasspathResourceHasher()
+
+        when:
+        def expected = hasher.hash(classEntry, new ByteArrayInputStream(classBytes))
+
+        then:
+        expected != null
+        cachingHasher.hash(classEntry, new ByteArrayInputStream(classBytes)) == expected
+        cachingHasher.hash(new ZipEntry("org/gradle/Bar.class"), new ByteArrayInputStream(classBytes)) == expected
+    }
+
+    def "ignores zip entries that are not class files"() {
+        def cacheService = Mock(ResourceSnapshotterCacheService)
+        def hasher = new AbiExtractingClasspathResourceHasher(cacheService)
+
+        when:
+        def hash = hasher.hash(new ZipEntry("org/gradle/foo.properties"), new ByteArrayInputStream(classBytes))
+
+        then:
+        0 * _
+
+        and:
+        hash == null
+    }
+}
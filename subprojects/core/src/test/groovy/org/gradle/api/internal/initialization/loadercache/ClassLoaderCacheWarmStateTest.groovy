@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.initialization.loadercache
+
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.cache.internal.DefaultCacheScopeMapping
+import org.gradle.internal.classloader.ClasspathHasher
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.snapshot.WellKnownFileLocations
+import org.gradle.test.fixtures.ConcurrentTestUtil
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryCacheFactory
+import org.gradle.util.GradleVersion
+import org.junit.Rule
+import spock.lang.Specification
+
+class ClassLoaderCacheWarmStateTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def cacheRepository = new DefaultCacheRepository(new DefaultCacheScopeMapping(tmpDir.createDir("user-home"), null, GradleVersion.current()), new InMemoryCacheFactory())
+    def executorFactory = new DefaultExecutorFactory()
+    def classpathHasher = Mock(ClasspathHasher)
+    def classLoaderCache = Mock(DefaultClassLoaderCache)
+    def immutableDir = tmpDir.createDir("immutable")
+    def wellKnownFileLocations = Stub(WellKnownFileLocations) {
+        isImmutable(_) >> { String path -> path.startsWith(immutableDir.absolutePath) }
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "warms up the class paths recorded by a previous process"() {
+        def classPath1 = classPath("a.jar", "b.jar")
+        def classPath2 = classPath("c.jar")
+        def missing = DefaultClassPath.of(immutableDir.file("missing.jar"))
+
+        given:
+        def previous = new ClassLoaderCacheWarmState(cacheRepository, classpathHasher, executorFactory, wellKnownFileLocations, false)
+        previous.attach(classLoaderCache)
+        classLoaderCache.getClassPaths() >> [classPath1, missing, classPath2]
+        previous.beforeComplete()
+        previous.stop()
+
+        when:
+        def warmState = new ClassLoaderCacheWarmState(cacheRepository, classpathHasher, executorFactory, wellKnownFileLocations, true)
+        warmState.attach(classLoaderCache)
+        warmState.stop()
+
+        then:
+        1 * classpathHasher.hash(classPath1)
+        1 * classpathHasher.hash(classPath2)
+        0 * classpathHasher._
+    }
+
+    def "does not warm up class paths when not running in a long-living process"() {
+        given:
+        def previous = new ClassLoaderCacheWarmState(cacheRepository, classpathHasher, executorFactory, wellKnownFileLocations, false)
+        previous.attach(classLoaderCache)
+        classLoaderCache.getClassPaths() >> [classPath("a.jar")]
+        previous.beforeComplete()
+        previous.stop()
+
+        when:
+        def warmState = new ClassLoaderCacheWarmState(cacheRepository, classpathHasher, executorFactory, wellKnownFileLocations, false)
+        warmState.attach(classLoaderCache)
+        warmState.stop()
+
+        then:
+        0 * classpathHasher._
+    }
+
+    def "does nothing when there is no recorded state"() {
+        when:
+        def warmState = new ClassLoaderCacheWarmState(cacheRepository, classpathHasher, executorFactory, wellKnownFileLocations, true)
+        warmState.attach(classLoaderCache)
+        warmState.stop()
+
+        then:
+        0 * classpathHasher._
+    }
+
+    def "does not warm up class paths that contain files which may change between builds"() {
+        def buildSrcJar = tmpDir.createFile("buildSrc/build/libs/buildSrc.jar")
+        def mutable = DefaultClassPath.of(buildSrcJar)
+        def mixed = DefaultClassPath.of(immutableDir.createFile("d.jar"), buildSrcJar)
+        def immutable = classPath("e.jar")
+
+        given:
+        buildSrcJar.text = "first build"
+        def previous = new ClassLoaderCacheWarmState(cacheRepository, classpathHasher, executorFactory, wellKnownFileLocations, false)
+        previous.attach(classLoaderCache)
+        classLoaderCache.getClassPaths() >> [mutable, mixed, immutable]
+        previous.beforeComplete()
+        previous.stop()
+
+        when:
+        buildSrcJar.text = "second build"
+        def hashed = [].asSynchronized()
+        def warmState = new ClassLoaderCacheWarmState(cacheRepository, Stub(ClasspathHasher) {
+            hash(_) >> { ClassPath classPath -> hashed << classPath; null }
+        }, executorFactory, wellKnownFileLocations, true)
+        warmState.attach(classLoaderCache)
+
+        then:
+        ConcurrentTestUtil.poll {
+            assert hashed == [immutable]
+        }
+
+        cleanup:
+        warmState?.stop()
+    }
+
+    ClassPath classPath(String... names) {
+        DefaultClassPath.of(names.collect { immutableDir.createFile(it) } as Iterable<File>)
+    }
+}
@@ -228,4 +228,16 @@ class DefaultClassLoaderCacheTest extends Specification {
         then:
         cache.size() == 1
     }
+
+    def "provides the distinct class paths of the cached loaders"() {
+        def root = classLoader(classPath("root"))
+        def filter = new FilteringClassLoader.Spec([], [], [], [], [], [], [])
+
+        when:
+        cache.get(id1, classPath("c1"), root, null)
+        cache.get(id2, classPath("c1", "c2"), root, filter)
+
+        then:
+        cache.classPaths as Set == [classPath("c1"), classPath("c1", "c2")] as Set
+    }
 }
@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks
 import org.gradle.api.Action
 import org.gradle.api.DefaultTask
 import org.gradle.api.GradleException
+import org.gradle.api.InvalidUserCodeException
 import org.gradle.api.InvalidUserDataException
 import org.gradle.api.PolymorphicDomainObjectContainer
 import org.gradle.api.Rule
@@ -30,6 +31,7 @@ import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.project.BuildOperationCrossProjectConfigurator
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
 import org.gradle.api.internal.project.taskfactory.ITaskFactory
 import org.gradle.api.internal.project.taskfactory.TaskFactory
 import org.gradle.api.internal.project.taskfactory.TaskIdentity
@@ -38,6 +40,7 @@ import org.gradle.api.model.ObjectFactory
 import org.gradle.api.provider.Provider
 import org.gradle.api.tasks.TaskDependency
 import org.gradle.initialization.ProjectAccessListener
+import org.gradle.internal.Describables
 import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.model.internal.registry.ModelRegistry
@@ -65,17 +68,7 @@ class DefaultTaskContainerTest extends AbstractPolymorphicDomainObjectContainerS
     }
     private taskCount = 1
     private accessListener = Mock(ProjectAccessListener)
-    private container = new DefaultTaskContainerFactory(
-        modelRegistry,
-        DirectInstantiator.INSTANCE,
-        taskFactory,
-        project,
-        accessListener,
-        new TaskStatistics(),
-        buildOperationExecutor,
-        new BuildOperationCrossProjectConfigurator(buildOperationExecutor),
-        callbackActionDecorator
-    ).create()
+    private container = createContainer(new TaskStatistics())
 
     final boolean supportsBuildOperations = true
 
@@ -1930,6 +1923,110 @@ class DefaultTaskContainerTest extends AbstractPolymorphicDomainObjectContainerS
         ex.message == "The domain object 'obj' (DefaultTask) for this provider is no longer present in its container."
     }
 
+    void "realize operation identifies the script or plugin that realized the task"() {
+        given:
+        taskFactory.create(_ as TaskIdentity) >> task("task", DefaultTask)
+        def provider = container.register("task", DefaultTask)
+        def applicationId = null
+
+        when:
+        userCodeApplicationContext.apply(Describables.of("plugin", "test")) { id ->
+            applicationId = id
+            provider.get()
+        }
+
+        then:
+        buildOperationExecutor.log.mostRecentDetails(RealizeTaskBuildOperationType).applicationId == applicationId.longValue()
+    }
+
+    void "realize operation has no application id when the task is realized by Gradle"() {
+        given:
+        taskFactory.create(_ as TaskIdentity) >> task("task", DefaultTask)
+        def provider = container.register("task", DefaultTask)
+
+        when:
+        provider.get()
+
+        then:
+        buildOperationExecutor.log.mostRecentDetails(RealizeTaskBuildOperationType).applicationId == null
+    }
+
+    void "fails when a plugin realizes a task while the project is configuring and strict realization is enabled"() {
+        given:
+        project.getState() >> configuringState()
+        taskFactory.create(_ as TaskIdentity) >> task("task", DefaultTask)
+        def strictContainer = createContainer(new TaskStatistics(null, true))
+        def provider = strictContainer.register("task", DefaultTask)
+
+        when:
+        userCodeApplicationContext.apply(Describables.of("plugin", "test")) {
+            provider.get()
+        }
+
+        then:
+        def e = thrown(InvalidUserCodeException)
+        e.message.startsWith("Task :project:task was realized eagerly by plugin test.")
+    }
+
+    void "fails when a script creates a task while the project is configuring and strict realization is enabled"() {
+        given:
+        project.getState() >> configuringState()
+        def strictContainer = createContainer(new TaskStatistics(null, true))
+
+        when:
+        userCodeApplicationContext.apply(Describables.of("build file 'build.gradle'")) {
+            strictContainer.create("task")
+        }
+
+        then:
+        def e = thrown(InvalidUserCodeException)
+        e.message.startsWith("Task :project:task was created eagerly by build file 'build.gradle'.")
+
+        and:
+        0 * taskFactory.create(_ as TaskIdentity)
+    }
+
+    void "does not fail when a task is realized after the project has been configured and strict realization is enabled"() {
+        given:
+        def state = configuringState()
+        state.configured()
+        project.getState() >> state
+        taskFactory.create(_ as TaskIdentity) >> task("task", DefaultTask)
+        def strictContainer = createContainer(new TaskStatistics(null, true))
+        def provider = strictContainer.register("task", DefaultTask)
+
+        when:
+        userCodeApplicationContext.apply(Describables.of("plugin", "test")) {
+            provider.get()
+        }
+
+        then:
+        noExceptionThrown()
+        strictContainer.findByName("task") != null
+    }
+
+    private TaskContainerInternal createContainer(TaskStatistics statistics) {
+        return new DefaultTaskContainerFactory(
+            modelRegistry,
+            DirectInstantiator.INSTANCE,
+            taskFactory,
+            project,
+            accessListener,
+            statistics,
+            buildOperationExecutor,
+            new BuildOperationCrossProjectConfigurator(buildOperationExecutor),
+            callbackActionDecorator,
+            userCodeApplicationContext
+        ).create()
+    }
+
+    private static ProjectStateInternal configuringState() {
+        def state = new ProjectStateInternal()
+        state.toBeforeEvaluate()
+        state.toEvaluate()
+        return state
+    }
+
     private ProjectInternal expectTaskLookupInOtherProject(final String projectPath, final String taskName, def task) {
         def otherProject = Mock(ProjectInternal)
         def otherTaskContainer = Mock(TaskContainerInternal)
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.StartParameter
+import org.gradle.api.Task
+import org.gradle.api.execution.TaskExecutionGraph
+import org.gradle.api.execution.TaskExecutionGraphListener
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.SettingsInternal
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.cache.internal.DefaultCacheScopeMapping
+import org.gradle.execution.taskgraph.TaskExecutionGraphInternal
+import org.gradle.groovy.scripts.Script
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.initialization.IGradlePropertiesLoader
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.resource.TextResource
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryCacheFactory
+import org.gradle.util.GradleVersion
+import org.junit.Rule
+import spock.lang.Specification
+
+class ConfigurationCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def cacheRepository = new DefaultCacheRepository(new DefaultCacheScopeMapping(tmpDir.createDir("user-home"), null, GradleVersion.current()), new InMemoryCacheFactory())
+    def fileHasher = Stub(FileHasher) {
+        hash(_) >> { File file -> Hashing.hashString(file.text) }
+    }
+    def classLoaderHierarchyHasher = Stub(ClassLoaderHierarchyHasher) {
+        getClassLoaderHash(_) >> Hashing.hashString("classloader")
+    }
+    def projectProperties = [:]
+    def propertiesLoader = Stub(IGradlePropertiesLoader) {
+        mergeProperties(_) >> { Map properties -> projectProperties + properties }
+    }
+    def rootDir = tmpDir.createDir("root")
+    def settingsFile = rootDir.createFile("settings.gradle")
+    def rootBuildFile = rootDir.createFile("build.gradle")
+    def childBuildFile = rootDir.createFile("child/build.gradle")
+    def startParameter = new StartParameter()
+    def graphListeners = []
+    ProjectInternal rootProject
+    ProjectInternal child
+    GradleInternal gradle
+
+    def setup() {
+        startParameter.currentDir = rootDir
+        startParameter.gradleUserHomeDir = tmpDir.createDir("gradle-home")
+        startParameter.taskNames = ["build"]
+        rootProject = project(":", rootDir, rootBuildFile)
+        child = project(":child", childBuildFile.parentFile, childBuildFile)
+        rootProject.allprojects >> [rootProject, child]
+        rootProject.baseClassLoaderScope >> Stub(ClassLoaderScope)
+        def taskGraph = Stub(TaskExecutionGraphInternal) {
+            addTaskExecutionGraphListener(_) >> { TaskExecutionGraphListener listener -> graphListeners << listener }
+        }
+        def settings = Stub(SettingsInternal) {
+            getSettingsScript() >> scriptSource(settingsFile)
+        }
+        gradle = Stub(GradleInternal) {
+            getParent() >> null
+            getRootProject() >> rootProject
+            getStartParameter() >> startParameter
+            getSettings() >> settings
+            getTaskGraph() >> taskGraph
+        }
+    }
+
+    def "reuses the projects that owned the tasks of a previous build with unchanged inputs"() {
+        given:
+        runBuild(task(child, ":child:build"))
+
+        expect:
+        newCache().getProjectsToConfigure(gradle) == [":child"] as Set
+    }
+
+    def "reuses the projects that were accessed from other projects during a previous build"() {
+        def other = project(":other", rootDir.createDir("other"), rootDir.file("other/build.gradle"))
+
+        given:
+        def cache = newCache()
+        cache.getProjectsToConfigure(gradle)
+        cache.projectAccessed(other)
+        graphListeners.last().graphPopulated(graph(task(child, ":child:build")))
+        cache.stop()
+
+        expect:
+        newCache().getProjectsToConfigure(gradle) == [":child", ":other"] as Set
+    }
+
+    def "does not reuse the projects of a previous build when a build script has changed"() {
+        given:
+        runBuild(task(child, ":child:build"))
+        childBuildFile.text = "apply plugin: 'java'"
+
+        expect:
+        newCache().getProjectsToConfigure(gradle) == null
+    }
+
+    def "does not reuse the projects of a previous build when the gradle.properties of a project has changed"() {
+        given:
+        runBuild(task(child, ":child:build"))
+        childBuildFile.parentFile.file("gradle.properties").text = "applyJava=true"
+
+        expect:
+        newCache().getProjectsToConfigure(gradle) == null
+    }
+
+    def "does not reuse the projects of a previous build when a project property has changed"() {
+        given:
+        projectProperties.applyJava = "false"
+        runBuild(task(child, ":child:build"))
+        projectProperties.applyJava = "true"
+
+        expect:
+        newCache().getProjectsToConfigure(gradle) == null
+    }
+
+    def "does not reuse the projects of a previous build when other tasks are requested"() {
+        given:
+        runBuild(task(child, ":child:build"))
+        startParameter.taskNames = ["test"]
+
+        expect:
+        newCache().getProjectsToConfigure(gradle) == null
+    }
+
+    def "tracks the scripts executed while configuring the build"() {
+        def appliedScript = rootDir.createFile("gradle/common.gradle")
+
+        given:
+        def cache = newCache()
+        cache.getProjectsToConfigure(gradle)
+        cache.scriptClassLoaded(scriptSource(appliedScript), Script)
+        graphListeners.last().graphPopulated(graph(task(child, ":child:build")))
+        cache.stop()
+
+        when:
+        appliedScript.text = "subprojects { }"
+
+        then:
+        newCache().getProjectsToConfigure(gradle) == null
+    }
+
+    def "does not store an entry when a script without a file was executed"() {
+        given:
+        def cache = newCache()
+        cache.getProjectsToConfigure(gradle)
+        cache.scriptClassLoaded(scriptSource(null), Script)
+        graphListeners.last().graphPopulated(graph(task(child, ":child:build")))
+        cache.stop()
+
+        expect:
+        newCache().getProjectsToConfigure(gradle) == null
+    }
+
+    def "discards the entry when a project that was not configured owns a task"() {
+        def other = project(":other", rootDir.createDir("other"), rootDir.file("other/build.gradle"))
+
+        given:
+        runBuild(task(child, ":child:build"))
+        def cache = newCache()
+        assert cache.getProjectsToConfigure(gradle) != null
+
+        when:
+        graphListeners.last().graphPopulated(graph(task(child, ":child:build"), task(other, ":other:build", false)))
+        cache.stop()
+
+        then:
+        newCache().getProjectsToConfigure(gradle) == null
+    }
+
+    def "configures every project and records a new entry when the entry is discarded"() {
+        def other = project(":other", rootDir.createDir("other"), rootDir.file("other/build.gradle"))
+
+        given:
+        runBuild(task(child, ":child:build"))
+        def cache = newCache()
+        assert cache.getProjectsToConfigure(gradle) == [":child"] as Set
+
+        when:
+        cache.discard(other)
+
+        then:
+        cache.getProjectsToConfigure(gradle) == null
+
+        when:
+        graphListeners.last().graphPopulated(graph(task(child, ":child:build"), task(other, ":other:build")))
+        cache.stop()
+
+        then:
+        newCache().getProjectsToConfigure(gradle) == [":child", ":other"] as Set
+    }
+
+    def "does nothing when disabled"() {
+        given:
+        def cache = new ConfigurationCache(cacheRepository, fileHasher, classLoaderHierarchyHasher, propertiesLoader, false)
+
+        expect:
+        cache.getProjectsToConfigure(gradle) == null
+        graphListeners.empty
+    }
+
+    private ConfigurationCache newCache() {
+        return new ConfigurationCache(cacheRepository, fileHasher, classLoaderHierarchyHasher, propertiesLoader, true)
+    }
+
+    private void runBuild(Task... tasks) {
+        def cache = newCache()
+        assert cache.getProjectsToConfigure(gradle) == null
+        graphListeners.last().graphPopulated(graph(tasks))
+        cache.stop()
+    }
+
+    private TaskExecutionGraph graph(Task... tasks) {
+        return Stub(TaskExecutionGraph) {
+            getAllTasks() >> (tasks as List)
+        }
+    }
+
+    private Task task(ProjectInternal project, String path, boolean configured = true) {
+        def state = new ProjectStateInternal()
+        if (configured) {
+            state.configured()
+        }
+        project.getState() >> state
+        return Stub(Task) {
+            getProject() >> project
+            getPath() >> path
+        }
+    }
+
+    private ProjectInternal project(String path, File projectDir, File buildFile) {
+        return Stub(ProjectInternal) {
+            getPath() >> path
+            getDisplayName() >> "project '$path'"
+            getProjectDir() >> projectDir
+            getBuildFile() >> buildFile
+            getGradle() >> { gradle }
+        }
+    }
+
+    private ScriptSource scriptSource(TestFile file) {
+        return Stub(ScriptSource) {
+            getResource() >> Stub(TextResource) {
+                getFile() >> file
+            }
+        }
+    }
+}
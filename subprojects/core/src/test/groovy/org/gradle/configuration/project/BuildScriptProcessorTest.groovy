@@ -32,7 +32,8 @@ public class BuildScriptProcessorTest extends Specification {
     def targetScope = Mock(ClassLoaderScope)
     def baseScope = Mock(ClassLoaderScope)
     def projectState = Mock(ProjectState)
-    def BuildScriptProcessor buildScriptProcessor = new BuildScriptProcessor(configurerFactory)
+    def scriptPrecompiler = Mock(ProjectScriptPrecompiler)
+    def BuildScriptProcessor buildScriptProcessor = new BuildScriptProcessor(configurerFactory, scriptPrecompiler)
     private ScriptHandler scriptHandler;
 
     def "setup"() {
@@ -49,8 +50,14 @@ public class BuildScriptProcessorTest extends Specification {
         when:
         buildScriptProcessor.execute(project)
 
+        then:
+        1 * scriptPrecompiler.beforeConfigure(project)
+
         then:
         1 * configurerFactory.create(scriptSource, scriptHandler, targetScope, baseScope, true) >> scriptPlugin
         1 * scriptPlugin.apply(project)
+
+        then:
+        1 * scriptPrecompiler.afterConfigure(project)
     }
 }
@@ -16,12 +16,25 @@
 
 package org.gradle.execution
 
+import org.gradle.StartParameter
 import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.SettingsInternal
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.api.internal.tasks.TaskContainerInternal
+import org.gradle.api.plugins.PluginContainer
+import org.gradle.configuration.ConfigurationCache
+import org.gradle.groovy.scripts.StringScriptSource
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
 class TaskPathProjectEvaluatorTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
     private cancellationToken = Mock(BuildCancellationToken)
     private project = Mock(ProjectInternal)
     private evaluator = new TaskPathProjectEvaluator(cancellationToken)
@@ -60,4 +73,328 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1.evaluate()
         0 * child2._
     }
+
+    def "configures projects whose build scripts may access other projects after the isolated projects of the same level"() {
+        def buildOperationExecutor = new TestBuildOperationExecutor()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, null, buildOperationExecutor, true)
+        def isolated1 = subproject(":isolated1", 1, "apply plugin: 'java'", project)
+        def shared = subproject(":shared", 1, "dependencies { compile project(':isolated1') }", project)
+        def isolated2 = subproject(":isolated2", 1, "", project)
+        def nested = subproject(":isolated1:nested", 2, "version = '1.0'", isolated1)
+
+        given:
+        project.gradle >> gradle()
+        project.buildScriptSource >> new StringScriptSource("root", "description = 'root'")
+        project.subprojects >> [isolated1, isolated2, nested, shared]
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+
+        then:
+        1 * isolated1.evaluate()
+        1 * isolated2.evaluate()
+
+        then:
+        1 * shared.evaluate()
+
+        then:
+        1 * nested.evaluate()
+
+        and:
+        buildOperationExecutor.log.records*.descriptor*.displayName == ["Configure :isolated1 in parallel", "Configure :isolated2 in parallel"]
+    }
+
+    def "only configures projects in parallel when requested and parallel project execution is enabled"() {
+        def startParameter = new StartParameter()
+
+        expect:
+        !TaskPathProjectEvaluator.isParallelConfigurationEnabled(startParameter)
+
+        when:
+        System.setProperty(TaskPathProjectEvaluator.PARALLEL_CONFIGURATION_PROPERTY, "true")
+
+        then:
+        !TaskPathProjectEvaluator.isParallelConfigurationEnabled(startParameter)
+
+        when:
+        startParameter.parallelProjectExecutionEnabled = true
+
+        then:
+        TaskPathProjectEvaluator.isParallelConfigurationEnabled(startParameter)
+    }
+
+    def "does not configure the children of a project that registers evaluation hooks in parallel"() {
+        def buildOperationExecutor = new TestBuildOperationExecutor()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, null, buildOperationExecutor, true)
+        def child1 = subproject(":child1", 1, "", project)
+        def child2 = subproject(":child2", 1, "", project)
+
+        given:
+        project.gradle >> gradle()
+        project.buildScriptSource >> new StringScriptSource("root", "subprojects { afterEvaluate { } }")
+        project.subprojects >> [child1, child2]
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+
+        then:
+        1 * child1.evaluate()
+
+        then:
+        1 * child2.evaluate()
+
+        and:
+        buildOperationExecutor.log.records.empty
+    }
+
+    def "does not configure projects in parallel when a hook is registered with the build"() {
+        def buildOperationExecutor = new TestBuildOperationExecutor()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, null, buildOperationExecutor, true)
+        def child1 = subproject(":child1", 1, "", project)
+        def child2 = subproject(":child2", 1, "", project)
+
+        given:
+        project.gradle >> gradle(settingsScript, hasHooks)
+        project.buildScriptSource >> new StringScriptSource("root", "")
+        project.subprojects >> [child1, child2]
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+
+        then:
+        1 * child1.evaluate()
+
+        then:
+        1 * child2.evaluate()
+
+        and:
+        buildOperationExecutor.log.records.empty
+
+        where:
+        settingsScript                                           | hasHooks
+        "include 'child1', 'child2'"                             | true
+        "gradle.beforeProject { }"                               | false
+        "gradle.allprojects { afterEvaluate { } }"               | false
+        "gradle.rootProject { subprojects { apply from: 'x' } }" | false
+    }
+
+    def "does not configure a project in parallel when another project or a plugin registered evaluation hooks for it"() {
+        def buildOperationExecutor = new TestBuildOperationExecutor()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, null, buildOperationExecutor, true)
+        def child1 = subproject(":child1", 1, "", project)
+        def child2 = subproject(":child2", 1, "", project)
+        def child3 = subproject(":child3", 1, "", project)
+
+        given:
+        project.gradle >> gradle("rootProject.name = 'root'")
+        project.buildScriptSource >> new StringScriptSource("root", "")
+        project.subprojects >> [child1, child2, child3]
+        child1.hasEvaluationListeners() >> true
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * child2.evaluate()
+        1 * child3.evaluate()
+
+        then:
+        1 * child1.evaluate()
+
+        and:
+        buildOperationExecutor.log.records*.descriptor*.displayName == ["Configure :child2 in parallel", "Configure :child3 in parallel"]
+    }
+
+    def "configures all isolated projects of a level before reporting the failure of the first one"() {
+        def buildOperationExecutor = new TestBuildOperationExecutor()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, null, buildOperationExecutor, true)
+        def child1 = subproject(":child1", 1, "", project)
+        def child2 = subproject(":child2", 1, "", project)
+        def child3 = subproject(":child3", 1, "", project)
+        def failure1 = new RuntimeException("broken 1")
+        def failure3 = new RuntimeException("broken 3")
+
+        given:
+        project.gradle >> gradle()
+        project.buildScriptSource >> new StringScriptSource("root", "")
+        project.subprojects >> [child1, child2, child3]
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * child1.evaluate() >> { throw failure1 }
+        1 * child2.evaluate()
+        1 * child3.evaluate() >> { throw failure3 }
+
+        and:
+        def e = thrown(RuntimeException)
+        e.is(failure1)
+    }
+
+    def "only configures the projects that owned tasks and the projects that may affect other projects when the configuration cache has an entry"() {
+        def gradle = Mock(GradleInternal)
+        def configurationCache = Mock(ConfigurationCache)
+        def cachingEvaluator = new TaskPathProjectEvaluator(cancellationToken, configurationCache, null, false)
+        def app = subproject(":app", 1, "apply plugin: 'java'", project)
+        def lib = subproject(":app:lib", 2, "apply plugin: 'java'", app)
+        def unused = subproject(":unused", 1, "apply plugin: 'java'", project)
+        def shared = subproject(":shared", 1, "rootProject.tasks.build.dependsOn 'check'", project)
+        def withClasspath = subproject(":withClasspath", 1, "buildscript { }", project)
+
+        given:
+        project.gradle >> gradle
+        project.buildScriptSource >> new StringScriptSource("root", "")
+        project.subprojects >> [app, lib, shared, unused, withClasspath]
+        configurationCache.getProjectsToConfigure(gradle) >> ([":app:lib"] as Set)
+
+        when:
+        cachingEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+        1 * app.evaluate()
+        1 * lib.evaluate()
+        1 * shared.evaluate()
+        1 * withClasspath.evaluate()
+        0 * unused.evaluate()
+    }
+
+    def "configures the descendants of a project that injects configuration into them when the configuration cache has an entry"() {
+        def gradle = Mock(GradleInternal)
+        def configurationCache = Mock(ConfigurationCache)
+        def cachingEvaluator = new TaskPathProjectEvaluator(cancellationToken, configurationCache, null, false)
+        def docs = subproject(":docs", 1, "apply plugin: 'java'", project)
+        def libs = subproject(":libs", 1, "configure(childProjects.values()) { apply plugin: 'java' }", project)
+        def lib = subproject(":libs:lib", 2, "", libs)
+
+        given:
+        project.gradle >> gradle
+        project.buildScriptSource >> new StringScriptSource("root", "subprojects { plugins.withType(JavaPlugin) { rootProject.aggregateJavadoc.source sourceSets.main.allJava } }")
+        project.subprojects >> [docs, libs, lib]
+        configurationCache.getProjectsToConfigure(gradle) >> ([] as Set)
+
+        when:
+        cachingEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+        1 * docs.evaluate()
+        1 * libs.evaluate()
+        1 * lib.evaluate()
+    }
+
+    def "skips only the projects that no ancestor injects configuration into when the configuration cache has an entry"() {
+        def gradle = Mock(GradleInternal)
+        def configurationCache = Mock(ConfigurationCache)
+        def cachingEvaluator = new TaskPathProjectEvaluator(cancellationToken, configurationCache, null, false)
+        def app = subproject(":app", 1, "apply plugin: 'java'", project)
+        def libs = subproject(":libs", 1, "subprojects { apply plugin: 'java' }", project)
+        def lib = subproject(":libs:lib", 2, "", libs)
+
+        given:
+        project.gradle >> gradle
+        project.buildScriptSource >> new StringScriptSource("root", "")
+        project.subprojects >> [app, libs, lib]
+        configurationCache.getProjectsToConfigure(gradle) >> ([] as Set)
+
+        when:
+        cachingEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+        1 * libs.evaluate()
+        1 * lib.evaluate()
+        0 * app.evaluate()
+    }
+
+    def "configures the skipped projects when another project has configured one of them"() {
+        def gradle = Mock(GradleInternal)
+        def configurationCache = Mock(ConfigurationCache)
+        def cachingEvaluator = new TaskPathProjectEvaluator(cancellationToken, configurationCache, null, false)
+        def app = subproject(":app", 1, "apply plugin: 'java'", project)
+        def unused = subproject(":unused", 1, "apply plugin: 'java'", project)
+        def withPlugin = subproject(":withPlugin", 1, "apply plugin: 'java'", project, true)
+
+        given:
+        project.gradle >> gradle
+        project.buildScriptSource >> new StringScriptSource("root", "")
+        project.subprojects >> [app, unused, withPlugin]
+        configurationCache.getProjectsToConfigure(gradle) >> ([":app"] as Set)
+
+        when:
+        cachingEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+        1 * app.evaluate()
+
+        then:
+        1 * configurationCache.discard(withPlugin)
+
+        then:
+        1 * unused.evaluate()
+        1 * withPlugin.evaluate()
+    }
+
+    def "configures all projects when the configuration cache has no entry"() {
+        def gradle = Mock(GradleInternal)
+        def configurationCache = Mock(ConfigurationCache)
+        def cachingEvaluator = new TaskPathProjectEvaluator(cancellationToken, configurationCache, null, false)
+        def child1 = subproject(":child1", 1, "", project)
+        def child2 = subproject(":child2", 1, "", project)
+
+        given:
+        project.gradle >> gradle
+        project.buildScriptSource >> new StringScriptSource("root", "")
+        project.subprojects >> [child1, child2]
+        configurationCache.getProjectsToConfigure(gradle) >> null
+
+        when:
+        cachingEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+        1 * child1.evaluate()
+        1 * child2.evaluate()
+    }
+
+    private GradleInternal gradle(String settingsScript = "", boolean hasHooks = false) {
+        def startParameter = new StartParameter()
+        startParameter.gradleUserHomeDir = new File("does-not-exist")
+        def settings = Stub(SettingsInternal) {
+            getSettingsScript() >> new StringScriptSource("settings", settingsScript)
+        }
+        return Stub(GradleInternal) {
+            getSettings() >> settings
+            getStartParameter() >> startParameter
+            hasProjectEvaluationListeners() >> hasHooks
+        }
+    }
+
+    private ProjectInternal subproject(String path, int depth, String buildScript, ProjectInternal parent, boolean configuredByOtherProject = false) {
+        def subproject = Mock(ProjectInternal)
+        _ * subproject.path >> path
+        _ * subproject.displayName >> path
+        _ * subproject.depth >> depth
+        _ * subproject.parent >> parent
+        _ * subproject.buildScriptSource >> new StringScriptSource(path, buildScript)
+        _ * subproject.state >> new ProjectStateInternal()
+        _ * subproject.tasks >> Stub(TaskContainerInternal) {
+            getNames() >> new TreeSet<String>()
+        }
+        _ * subproject.plugins >> Stub(PluginContainer) {
+            isEmpty() >> !configuredByOtherProject
+        }
+        return subproject
+    }
 }
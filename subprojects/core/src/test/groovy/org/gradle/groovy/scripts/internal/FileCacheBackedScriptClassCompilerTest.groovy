@@ -25,13 +25,19 @@ import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
 import org.gradle.internal.classloader.ClassLoaderHierarchyHasher
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.logging.progress.ProgressLogger
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
 import org.gradle.internal.resource.TextResource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class FileCacheBackedScriptClassCompilerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     final ScriptCompilationHandler scriptCompilationHandler = Mock()
     final CacheRepository cacheRepository = Mock()
     final CacheBuilder localCacheBuilder = Mock()
@@ -45,13 +51,15 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
     final CompileOperation<?> operation = Mock()
     final ScriptSourceHasher hasher = Mock()
     final ClassLoaderCache classLoaderCache = Mock()
+    final ScriptClassBuildCache scriptClassBuildCache = Mock()
+    final executorFactory = new DefaultExecutorFactory()
     final classLoaderHierarchyHasher = Mock(ClassLoaderHierarchyHasher) {
         getClassLoaderHash(classLoader) >> HashCode.fromInt(9999)
     }
     final File localDir = new File("local-dir")
     final File globalDir = new File("global-dir")
     final File classesDir = new File(globalDir, "classes")
-    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, scriptCompilationHandler, Stub(ProgressLoggerFactory), hasher, classLoaderCache, classLoaderHierarchyHasher)
+    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, scriptCompilationHandler, Stub(ProgressLoggerFactory), hasher, classLoaderCache, classLoaderHierarchyHasher, scriptClassBuildCache, executorFactory, 2)
     final Action verifier = Stub()
     final CompiledScript compiledScript = Stub() {
         loadClass() >> Script
@@ -71,6 +79,11 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         _ * globalCache.baseDir >> globalDir
     }
 
+    def cleanup() {
+        compiler.close()
+        executorFactory.stop()
+    }
+
     def "loads classes from cache directory"() {
         def initializer
 
@@ -135,11 +148,51 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
             globalCache
         }
 
+        1 * scriptClassBuildCache.load(_, 'TransformerId', _, classesDir, metadataDir) >> false
         1 * scriptCompilationHandler.compileToDir({ it instanceof RemappingScriptSource }, classLoader, classesDir, metadataDir, operation, Script, verifier)
+        1 * scriptClassBuildCache.store(_, 'TransformerId', _, classesDir, metadataDir)
         1 * scriptCompilationHandler.loadFromDir(source, _, classLoader, localClassesDir, localMetadataDir, operation, Script, classLoaderId) >> compiledScript
         0 * scriptCompilationHandler._
     }
 
+    def "loads classes from build cache instead of compiling them when cache is invalid"() {
+        def initializer, globalInitializer
+        def metadataDir = new File(globalDir, "metadata")
+
+        when:
+        def result = compiler.compile(source, classLoader, classLoaderId, operation, Script, verifier).loadClass()
+
+        then:
+        result == Script
+        1 * hasher.hash(source) >> HashCode.fromInt(0x0123)
+        1 * cacheRepository.cache({ it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" }) >> localCacheBuilder
+        1 * localCacheBuilder.withInitializer(!null) >> { args ->
+            initializer = args[0]
+            localCacheBuilder
+        }
+        1 * localCacheBuilder.withDisplayName(!null) >> localCacheBuilder
+        1 * localCacheBuilder.open() >> {
+            initializer.execute(localCache)
+            localCache
+        }
+
+        1 * cacheRepository.cache({ it =~ "scripts/\\p{XDigit}+/TransformerId/TransformerId\\p{XDigit}+" }) >> globalCacheBuilder
+        1 * globalCacheBuilder.withDisplayName(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.withInitializer(!null) >> { args ->
+            globalInitializer = args[0]
+            globalCacheBuilder
+        }
+        1 * globalCacheBuilder.open() >> {
+            globalInitializer.execute(globalCache)
+            globalCache
+        }
+
+        1 * scriptClassBuildCache.load(_, 'TransformerId', _, classesDir, metadataDir) >> true
+        0 * scriptClassBuildCache.store(_, _, _, _, _)
+        1 * scriptCompilationHandler.loadFromDir(source, _, classLoader, new File(localDir, 'classes'), new File(localDir, 'metadata'), operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+    }
+
     def "reports compilation progress even in case of a failure"() {
         def factory = Mock(ProgressLoggerFactory)
         def delegate = Mock(Action)
@@ -164,4 +217,90 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         then:
         1 * logger.completed()
     }
+
+    def "uses precompiled classes instead of compiling the script when cache is invalid"() {
+        def initializer, globalInitializer
+        def storeBuilder = Mock(CacheBuilder)
+        def store = Mock(PersistentCache)
+        def scriptsDir = tmpDir.createDir("scripts")
+        def cacheDir = tmpDir.createDir("global-cache")
+        def precompiledClassesDir
+
+        given:
+        _ * hasher.hash(source) >> HashCode.fromInt(0x0123)
+        _ * resource.hasEmptyContent >> false
+        1 * cacheRepository.cache("scripts") >> storeBuilder
+        1 * storeBuilder.withDisplayName(!null) >> storeBuilder
+        1 * storeBuilder.withLockOptions(!null) >> storeBuilder
+        1 * storeBuilder.open() >> store
+        _ * store.baseDir >> scriptsDir
+
+        when:
+        compiler.precompile(source, classLoader, operation, Script, verifier)
+        def result = compiler.compile(source, classLoader, classLoaderId, operation, Script, verifier).loadClass()
+
+        then:
+        result == Script
+        1 * scriptCompilationHandler.compileToDir({ it instanceof RemappingScriptSource }, classLoader, _, _, operation, Script, verifier) >> { args ->
+            precompiledClassesDir = args[2]
+            new File(precompiledClassesDir, "Script.class").with {
+                parentFile.mkdirs()
+                text = "compiled"
+            }
+        }
+
+        1 * cacheRepository.cache({ it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" }) >> localCacheBuilder
+        1 * localCacheBuilder.withInitializer(!null) >> { args ->
+            initializer = args[0]
+            localCacheBuilder
+        }
+        1 * localCacheBuilder.withDisplayName(!null) >> localCacheBuilder
+        1 * localCacheBuilder.open() >> {
+            initializer.execute(localCache)
+            localCache
+        }
+
+        1 * cacheRepository.cache({ it =~ "scripts/\\p{XDigit}+/TransformerId/TransformerId\\p{XDigit}+" }) >> globalCacheBuilder
+        1 * globalCacheBuilder.withDisplayName(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.withInitializer(!null) >> { args ->
+            globalInitializer = args[0]
+            globalCacheBuilder
+        }
+        1 * globalCacheBuilder.open() >> {
+            globalInitializer.execute(globalCache)
+            globalCache
+        }
+        _ * globalCache.baseDir >> cacheDir
+
+        0 * scriptClassBuildCache.load(_, _, _, _, _)
+        1 * scriptClassBuildCache.store(_, 'TransformerId', _, new File(cacheDir, "classes"), new File(cacheDir, "metadata"))
+        1 * scriptCompilationHandler.loadFromDir(source, _, classLoader, new File(localDir, 'classes'), new File(localDir, 'metadata'), operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+
+        and:
+        new File(cacheDir, "classes/Script.class").text == "compiled"
+        !precompiledClassesDir.exists()
+    }
+
+    def "does not precompile scripts that are already in the cache"() {
+        def storeBuilder = Mock(CacheBuilder)
+        def store = Mock(PersistentCache)
+        def scriptsDir = tmpDir.createDir("scripts")
+
+        given:
+        _ * hasher.hash(source) >> HashCode.fromInt(0x0123)
+        _ * cacheRepository.cache("scripts") >> storeBuilder
+        _ * storeBuilder.withDisplayName(!null) >> storeBuilder
+        _ * storeBuilder.withLockOptions(!null) >> storeBuilder
+        _ * storeBuilder.open() >> store
+        _ * store.baseDir >> scriptsDir
+        def sourceHash = HashUtil.compactStringFor(HashCode.fromInt(0x0123))
+        scriptsDir.file("${sourceHash}/TransformerId/TransformerId${HashCode.fromInt(9999)}/cache.properties").createFile()
+
+        when:
+        compiler.precompile(source, classLoader, operation, Script, verifier)
+
+        then:
+        0 * scriptCompilationHandler._
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.scripts.internal
+
+import org.gradle.caching.internal.controller.BuildCacheController
+import org.gradle.caching.internal.controller.BuildCacheLoadCommand
+import org.gradle.caching.internal.controller.BuildCacheStoreCommand
+import org.gradle.caching.internal.controller.RootBuildCacheControllerRef
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ScriptClassBuildCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def entries = [:]
+    def controller = new InMemoryBuildCacheController(entries: entries)
+    def rootControllerRef = new RootBuildCacheControllerRef()
+    def cache = new ScriptClassBuildCache(rootControllerRef)
+
+    def "loads classes and metadata stored by another build"() {
+        def classesDir = tmpDir.createDir("compiled/classes")
+        def metadataDir = tmpDir.createDir("compiled/metadata")
+        classesDir.file("Script.class").text = "script"
+        classesDir.file("Script\$_run_closure1.class").text = "closure"
+        metadataDir.file("metadata.bin").text = "metadata"
+        def loadedClassesDir = tmpDir.file("loaded/classes")
+        def loadedMetadataDir = tmpDir.file("loaded/metadata")
+
+        given:
+        rootControllerRef.set(controller)
+
+        when:
+        cache.store("source", "dsl", "classpath", classesDir, metadataDir)
+
+        then:
+        entries.size() == 1
+
+        when:
+        def loaded = cache.load("source", "dsl", "classpath", loadedClassesDir, loadedMetadataDir)
+
+        then:
+        loaded
+        loadedClassesDir.file("Script.class").text == "script"
+        loadedClassesDir.file("Script\$_run_closure1.class").text == "closure"
+        loadedMetadataDir.file("metadata.bin").text == "metadata"
+
+        and:
+        !cache.load("source", "dsl", "other-classpath", loadedClassesDir, loadedMetadataDir)
+        !cache.load("other-source", "dsl", "classpath", loadedClassesDir, loadedMetadataDir)
+        !cache.load("source", "other-dsl", "classpath", loadedClassesDir, loadedMetadataDir)
+    }
+
+    def "does not use the build cache before the root build has configured it"() {
+        def classesDir = tmpDir.createDir("compiled/classes")
+        def metadataDir = tmpDir.createDir("compiled/metadata")
+        classesDir.file("Script.class").text = "script"
+
+        when:
+        cache.store("source", "dsl", "classpath", classesDir, metadataDir)
+
+        then:
+        entries.isEmpty()
+
+        and:
+        !cache.load("source", "dsl", "classpath", tmpDir.file("loaded/classes"), tmpDir.file("loaded/metadata"))
+    }
+
+    def "does not use the build cache when it is disabled"() {
+        def classesDir = tmpDir.createDir("compiled/classes")
+        def metadataDir = tmpDir.createDir("compiled/metadata")
+        classesDir.file("Script.class").text = "script"
+
+        given:
+        controller.enabled = false
+        rootControllerRef.set(controller)
+
+        when:
+        cache.store("source", "dsl", "classpath", classesDir, metadataDir)
+
+        then:
+        entries.isEmpty()
+    }
+
+    def "ignores invalid build cache entries"() {
+        def loadedClassesDir = tmpDir.file("loaded/classes")
+        def loadedMetadataDir = tmpDir.file("loaded/metadata")
+
+        given:
+        rootControllerRef.set(controller)
+        controller.failOnLoad = true
+
+        expect:
+        !cache.load("source", "dsl", "classpath", loadedClassesDir, loadedMetadataDir)
+        !loadedClassesDir.exists()
+        !loadedMetadataDir.exists()
+    }
+
+    static class InMemoryBuildCacheController implements BuildCacheController {
+        Map<String, byte[]> entries
+        boolean enabled = true
+        boolean failOnLoad
+
+        @Override
+        boolean isEnabled() {
+            return enabled
+        }
+
+        @Override
+        boolean isEmitDebugLogging() {
+            return false
+        }
+
+        @Override
+        <T> T load(BuildCacheLoadCommand<T> command) {
+            if (failOnLoad) {
+                throw new RuntimeException("broken")
+            }
+            def bytes = entries[command.key.hashCode]
+            if (bytes == null) {
+                return null
+            }
+            return command.load(new ByteArrayInputStream(bytes)).metadata
+        }
+
+        @Override
+        void store(BuildCacheStoreCommand command) {
+            def output = new ByteArrayOutputStream()
+            command.store(output)
+            entries[command.key.hashCode] = output.toByteArray()
+        }
+
+        @Override
+        void close() {
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local
+
+import org.gradle.internal.hash.HashUtil
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.file.Files
+
+@Requires(TestPrecondition.UNIX_DERIVATIVE)
+class ContentAddressedBlobStoreTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    @Subject ContentAddressedBlobStore blobStore = new ContentAddressedBlobStore(tmpDir.file("blobs"))
+
+    def "creates blob when content is moved for the first time"() {
+        given:
+        def source = tmpDir.createFile("source.txt")
+        source.text = "content"
+        def sha1 = HashUtil.sha1(source)
+        def destination = tmpDir.file("store/destination.txt")
+        destination.parentFile.mkdirs()
+
+        when:
+        blobStore.moveTo(source, sha1, destination)
+
+        then:
+        source.assertDoesNotExist()
+        destination.text == "content"
+        def blob = blobStore.getBlobFile(sha1)
+        blob.parentFile.name == sha1.asZeroPaddedHexString(40).substring(0, 2)
+        Files.isSameFile(blob.toPath(), destination.toPath())
+    }
+
+    def "links to existing blob when the same content is moved again"() {
+        given:
+        def source1 = tmpDir.createFile("source1.txt")
+        source1.text = "content"
+        def source2 = tmpDir.createFile("source2.txt")
+        source2.text = "content"
+        def sha1 = HashUtil.sha1(source1)
+        def destination1 = tmpDir.createDir("store/1").file("destination.txt")
+        def destination2 = tmpDir.createDir("store/2").file("destination.txt")
+
+        when:
+        blobStore.moveTo(source1, sha1, destination1)
+        blobStore.moveTo(source2, sha1, destination2)
+
+        then:
+        source1.assertDoesNotExist()
+        source2.assertDoesNotExist()
+        destination2.text == "content"
+        Files.isSameFile(destination1.toPath(), destination2.toPath())
+        Files.getAttribute(destination2.toPath(), "unix:nlink") == 3
+    }
+
+    def "moves content without creating a blob when the file system does not report link counts"() {
+        given:
+        def store = new ContentAddressedBlobStore(tmpDir.file("blobs"), false)
+        def source = tmpDir.createFile("source.txt")
+        source.text = "content"
+        def sha1 = HashUtil.sha1(source)
+        def destination = tmpDir.createDir("store").file("destination.txt")
+
+        when:
+        store.moveTo(source, sha1, destination)
+
+        then:
+        source.assertDoesNotExist()
+        destination.text == "content"
+        store.getBlobFile(sha1).assertDoesNotExist()
+    }
+}
@@ -20,10 +20,14 @@ import org.gradle.api.internal.file.DefaultTemporaryFileProvider
 import org.gradle.api.internal.file.TemporaryFileProvider
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
 import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.nio.file.Files
+
 class GroupedAndNamedUniqueFileStoreTest extends Specification {
 
     @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
@@ -70,4 +74,20 @@ class GroupedAndNamedUniqueFileStoreTest extends Specification {
         then:
         1 * fileAccessTimeJournal.setLastAccessTime(baseDir.file('group'), _)
     }
+
+    @Requires(TestPrecondition.UNIX_DERIVATIVE)
+    def "shares content between entries when a blob store is used"() {
+        given:
+        def blobStore = new ContentAddressedBlobStore(tmpDir.file("blobs"))
+        def store = new GroupedAndNamedUniqueFileStore<String>(baseDir, blobStore, temporaryFileProvider, fileAccessTimeJournal, grouper, { key -> key })
+
+        when:
+        def first = store.add('1.txt', { it.text = 'Hello, World!' })
+        def second = store.add('2.txt', { it.text = 'Hello, World!' })
+
+        then:
+        first.file != second.file
+        second.file.text == 'Hello, World!'
+        Files.isSameFile(first.file.toPath(), second.file.toPath())
+    }
 }
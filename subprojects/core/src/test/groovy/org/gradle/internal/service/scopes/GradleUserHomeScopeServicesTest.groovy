@@ -25,6 +25,7 @@ import org.gradle.api.internal.classpath.ModuleRegistry
 import org.gradle.api.internal.file.TemporaryFileProvider
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCacheWarmState
 import org.gradle.cache.CacheDecorator
 import org.gradle.cache.PersistentCache
 import org.gradle.cache.internal.CacheFactory
@@ -40,6 +41,7 @@ import org.gradle.internal.classloader.HashingClassLoaderFactory
 import org.gradle.internal.classpath.CachedClasspathTransformer
 import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.concurrent.ParallelismConfigurationManager
+import org.gradle.internal.environment.GradleBuildEnvironment
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.hash.FileHasher
 import org.gradle.internal.hash.StreamHasher
@@ -125,6 +127,7 @@ class GradleUserHomeScopeServicesTest extends WorkspaceTest {
         expectParentServiceLocated(ClassLoaderRegistry)
         expectParentServiceLocated(DirectoryFileTreeFactory)
         expectParentServiceLocated(StreamHasher)
+        expectParentServiceLocated(GradleBuildEnvironment)
 
         expect:
         findsAndCachesService(serviceType)
@@ -142,6 +145,7 @@ class GradleUserHomeScopeServicesTest extends WorkspaceTest {
             FileSystemSnapshotter,
             HashingClassLoaderFactory,
             ClassLoaderCache,
+            ClassLoaderCacheWarmState,
             CachedClasspathTransformer,
             WorkerProcessFactory,
             ClassPathRegistry,
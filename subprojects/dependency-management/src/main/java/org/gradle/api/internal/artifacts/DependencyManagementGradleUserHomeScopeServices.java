@@ -20,6 +20,7 @@ import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetadata;
 import org.gradle.api.internal.artifacts.ivyservice.DefaultArtifactCacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.DefaultArtifactCacheMetadata;
+import org.gradle.api.internal.artifacts.ivyservice.ReadOnlyArtifactCacheLocator;
 import org.gradle.api.internal.artifacts.transform.ImmutableCachingTransformationWorkspaceProvider;
 import org.gradle.api.internal.artifacts.transform.ImmutableTransformationWorkspaceProvider;
 import org.gradle.api.internal.cache.StringInterner;
@@ -40,9 +41,13 @@ public class DependencyManagementGradleUserHomeScopeServices {
         return new DefaultArtifactCacheMetadata(cacheScopeMapping);
     }
 
-    ArtifactCacheLockingManager createArtifactCacheLockingManager(CacheRepository cacheRepository, ArtifactCacheMetadata artifactCacheMetadata, FileAccessTimeJournal fileAccessTimeJournal,
-                                                                  UsedGradleVersions usedGradleVersions) {
-        return new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions);
+    ReadOnlyArtifactCacheLocator createReadOnlyArtifactCacheLocator() {
+        return ReadOnlyArtifactCacheLocator.fromEnvironment();
+    }
+
+    ArtifactCacheLockingManager createArtifactCacheLockingManager(CacheRepository cacheRepository, ArtifactCacheMetadata artifactCacheMetadata, ReadOnlyArtifactCacheLocator readOnlyArtifactCacheLocator,
+                                                                  FileAccessTimeJournal fileAccessTimeJournal, UsedGradleVersions usedGradleVersions) {
+        return new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, readOnlyArtifactCacheLocator.getCacheMetadata(), fileAccessTimeJournal, usedGradleVersions);
     }
 
     ExecutionHistoryCacheAccess createExecutionHistoryCacheAccess(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
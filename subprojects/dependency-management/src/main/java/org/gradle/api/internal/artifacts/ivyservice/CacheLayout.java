@@ -57,6 +57,8 @@ public enum CacheLayout {
 
     RESOURCES(ROOT, "resources", introducedIn("1.9-rc-1")),
 
+    BLOBS(ROOT, "blobs", introducedIn("5.2-rc-1")),
+
     TRANSFORMS(null, "transforms", introducedIn("3.5-rc-1")
         .changedTo(2, "5.1")),
 
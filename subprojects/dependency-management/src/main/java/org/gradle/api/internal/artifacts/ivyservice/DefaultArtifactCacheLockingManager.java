@@ -27,10 +27,13 @@ import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.CompositeCleanupAction;
 import org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup;
 import org.gradle.cache.internal.SingleDepthFilesFinder;
+import org.gradle.cache.internal.UnlinkedFilesCacheCleanup;
 import org.gradle.cache.internal.UnusedVersionsCacheCleanup;
 import org.gradle.cache.internal.UsedGradleVersions;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.resource.cached.ExternalResourceFileStore;
+import org.gradle.internal.resource.local.ContentAddressedBlobStore;
 import org.gradle.internal.resource.local.FileAccessTimeJournal;
 import org.gradle.internal.serialize.Serializer;
 
@@ -42,9 +45,19 @@ import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingManager, Closeable {
     private final PersistentCache cache;
+    private final ReadOnlyArtifactCacheLockingManager readOnlyCache;
 
     public DefaultArtifactCacheLockingManager(CacheRepository cacheRepository, ArtifactCacheMetadata cacheMetaData, FileAccessTimeJournal fileAccessTimeJournal,
                                               UsedGradleVersions usedGradleVersions) {
+        this(cacheRepository, cacheMetaData, null, fileAccessTimeJournal, usedGradleVersions);
+    }
+
+    /**
+     * @param readOnlyCacheMetaData an additional cache to look up entries in when this cache does not have them, or null. Entries are always written to this cache.
+     */
+    public DefaultArtifactCacheLockingManager(CacheRepository cacheRepository, ArtifactCacheMetadata cacheMetaData, @Nullable ArtifactCacheMetadata readOnlyCacheMetaData,
+                                              FileAccessTimeJournal fileAccessTimeJournal, UsedGradleVersions usedGradleVersions) {
+        readOnlyCache = readOnlyCacheMetaData == null ? null : new ReadOnlyArtifactCacheLockingManager(readOnlyCacheMetaData);
         cache = cacheRepository
                 .cache(cacheMetaData.getCacheDir())
                 .withCrossVersionCache(CacheBuilder.LockTarget.CacheDirectory)
@@ -64,6 +77,10 @@ public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingM
                 .add(cacheMetaData.getFileStoreDirectory(),
                     UnusedVersionsCacheCleanup.create(CacheLayout.FILE_STORE.getName(), CacheLayout.FILE_STORE.getVersionMapping(), usedGradleVersions),
                     new LeastRecentlyUsedCacheCleanup(new SingleDepthFilesFinder(ArtifactIdentifierFileStore.FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP), fileAccessTimeJournal, maxAgeInDays))
+                // Runs after the file stores have been cleaned up, so that blobs they no longer use can be deleted
+                .add(cacheMetaData.getBlobStoreDirectory(),
+                    UnusedVersionsCacheCleanup.create(CacheLayout.BLOBS.getName(), CacheLayout.BLOBS.getVersionMapping(), usedGradleVersions),
+                    new UnlinkedFilesCacheCleanup(new SingleDepthFilesFinder(ContentAddressedBlobStore.FILE_TREE_DEPTH_TO_CLEANUP)))
                 .add(cacheMetaData.getMetaDataStoreDirectory().getParentFile(),
                     UnusedVersionsCacheCleanup.create(CacheLayout.META_DATA.getName(), CacheLayout.META_DATA.getVersionMapping(), usedGradleVersions))
                 .build();
@@ -71,7 +88,7 @@ public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingM
 
     @Override
     public void close() {
-        cache.close();
+        CompositeStoppable.stoppable(readOnlyCache, cache).stop();
     }
 
     @Override
@@ -98,7 +115,56 @@ public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingM
     public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
         String cacheFileInMetaDataStore = CacheLayout.META_DATA.getKey() + "/" + cacheName;
         final PersistentIndexedCache<K, V> persistentCache = cache.createCache(PersistentIndexedCacheParameters.of(cacheFileInMetaDataStore, keySerializer, valueSerializer));
-        return new CacheLockingPersistentCache<K, V>(persistentCache);
+        PersistentIndexedCache<K, V> lockingCache = new CacheLockingPersistentCache<K, V>(persistentCache);
+        if (readOnlyCache == null) {
+            return lockingCache;
+        }
+        return new ReadOnlyFallbackPersistentCache<K, V>(readOnlyCache.<K, V>createCache(cacheName, keySerializer, valueSerializer), lockingCache);
+    }
+
+    /**
+     * Looks up entries in the writable cache first and falls back to the read-only cache, which does not require any locking.
+     * An entry that has been refreshed into the writable cache, such as an expired dynamic version or changing module, takes precedence
+     * over the stale entry in the read-only cache. Removing an entry only removes it from the writable cache, so a read-only entry
+     * becomes visible again and is treated like any other cached entry by the caller.
+     */
+    private static class ReadOnlyFallbackPersistentCache<K, V> implements PersistentIndexedCache<K, V> {
+        private final PersistentIndexedCache<K, V> readOnlyCache;
+        private final PersistentIndexedCache<K, V> writableCache;
+
+        ReadOnlyFallbackPersistentCache(PersistentIndexedCache<K, V> readOnlyCache, PersistentIndexedCache<K, V> writableCache) {
+            this.readOnlyCache = readOnlyCache;
+            this.writableCache = writableCache;
+        }
+
+        @Nullable
+        @Override
+        public V get(K key) {
+            V value = writableCache.get(key);
+            if (value != null) {
+                return value;
+            }
+            return readOnlyCache.get(key);
+        }
+
+        @Override
+        public V get(K key, Transformer<? extends V, ? super K> producer) {
+            V value = get(key);
+            if (value != null) {
+                return value;
+            }
+            return writableCache.get(key, producer);
+        }
+
+        @Override
+        public void put(K key, V value) {
+            writableCache.put(key, value);
+        }
+
+        @Override
+        public void remove(K key) {
+            writableCache.remove(key);
+        }
     }
 
     private class CacheLockingPersistentCache<K, V> implements PersistentIndexedCache<K, V> {
@@ -35,6 +35,14 @@ public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, Cach
         transformsDir = cacheScopeMapping.getBaseDirectory(null, CacheLayout.TRANSFORMS.getKey(), VersionStrategy.SharedCache);
     }
 
+    /**
+     * Uses the layout of the given caches directory, which is laid out like the caches directory of a Gradle user home.
+     */
+    public DefaultArtifactCacheMetadata(File cachesDir) {
+        cacheDir = new File(cachesDir, CacheLayout.ROOT.getKey());
+        transformsDir = new File(cachesDir, CacheLayout.TRANSFORMS.getKey());
+    }
+
     @Override
     public File getCacheDir() {
         return cacheDir;
@@ -60,6 +68,11 @@ public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, Cach
         return createCacheRelativeDir(CacheLayout.RESOURCES);
     }
 
+    @Override
+    public File getBlobStoreDirectory() {
+        return createCacheRelativeDir(CacheLayout.BLOBS);
+    }
+
     @Override
     public File getMetaDataStoreDirectory() {
         return new File(createCacheRelativeDir(CacheLayout.META_DATA), "descriptors");
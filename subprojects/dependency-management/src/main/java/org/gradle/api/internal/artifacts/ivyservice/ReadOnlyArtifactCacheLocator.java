@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+
+/**
+ * Locates the read-only artifact cache to use in addition to the artifact cache of the Gradle user home, if any.
+ *
+ * <p>The read-only cache is a caches directory populated by a previous build, for example baked into the image of an ephemeral CI container.
+ * It is consulted when the writable cache has no entry, and is never written to or cleaned up. Since the cache entries refer to files using absolute paths,
+ * the directory must be made available at the same location it was populated at.</p>
+ */
+public class ReadOnlyArtifactCacheLocator {
+    public static final String READ_ONLY_CACHE_ENV_VAR = "GRADLE_RO_DEP_CACHE";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadOnlyArtifactCacheLocator.class);
+
+    private final ArtifactCacheMetadata cacheMetadata;
+
+    public static ReadOnlyArtifactCacheLocator fromEnvironment() {
+        return new ReadOnlyArtifactCacheLocator(System.getenv(READ_ONLY_CACHE_ENV_VAR));
+    }
+
+    public ReadOnlyArtifactCacheLocator(@Nullable String cachesDir) {
+        this.cacheMetadata = cachesDir == null || cachesDir.isEmpty() ? null : locate(new File(cachesDir));
+    }
+
+    @Nullable
+    private static ArtifactCacheMetadata locate(File cachesDir) {
+        DefaultArtifactCacheMetadata metadata = new DefaultArtifactCacheMetadata(cachesDir.getAbsoluteFile());
+        if (!metadata.getCacheDir().isDirectory()) {
+            LOGGER.warn("The read-only dependency cache is disabled because {} does not contain a '{}' directory.", cachesDir, CacheLayout.ROOT.getKey());
+            return null;
+        }
+        return metadata;
+    }
+
+    /**
+     * Returns the layout of the read-only cache, or null when no read-only cache is used.
+     */
+    @Nullable
+    public ArtifactCacheMetadata getCacheMetadata() {
+        return cacheMetadata;
+    }
+}
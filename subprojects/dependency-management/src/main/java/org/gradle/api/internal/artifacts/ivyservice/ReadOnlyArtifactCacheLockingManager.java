@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.Transformer;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.serialize.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides access to an artifact cache which is never written to, such as a prepopulated cache shared between machines.
+ * Since the content of such a cache does not change, no locks are taken when reading from it.
+ *
+ * <p>Entries which are missing or cannot be read are reported as absent, so that they are resolved again and stored in the writable cache.</p>
+ */
+public class ReadOnlyArtifactCacheLockingManager implements ArtifactCacheLockingManager, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadOnlyArtifactCacheLockingManager.class);
+
+    private final ArtifactCacheMetadata cacheMetaData;
+    private final List<ReadOnlyPersistentCache<?, ?>> caches = new ArrayList<ReadOnlyPersistentCache<?, ?>>();
+
+    public ReadOnlyArtifactCacheLockingManager(ArtifactCacheMetadata cacheMetaData) {
+        this.cacheMetaData = cacheMetaData;
+    }
+
+    public ArtifactCacheMetadata getCacheMetaData() {
+        return cacheMetaData;
+    }
+
+    @Override
+    public <T> T withFileLock(Factory<? extends T> action) {
+        return action.create();
+    }
+
+    @Override
+    public void withFileLock(Runnable action) {
+        action.run();
+    }
+
+    @Override
+    public <T> T useCache(Factory<? extends T> action) {
+        return action.create();
+    }
+
+    @Override
+    public void useCache(Runnable action) {
+        action.run();
+    }
+
+    @Override
+    public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        File cacheFile = new File(cacheMetaData.getCacheDir(), CacheLayout.META_DATA.getKey() + "/" + cacheName + ".bin");
+        ReadOnlyPersistentCache<K, V> cache = new ReadOnlyPersistentCache<K, V>(cacheFile, keySerializer, valueSerializer);
+        synchronized (caches) {
+            caches.add(cache);
+        }
+        return cache;
+    }
+
+    @Override
+    public void close() {
+        synchronized (caches) {
+            CompositeStoppable.stoppable(caches).stop();
+            caches.clear();
+        }
+    }
+
+    private static class ReadOnlyPersistentCache<K, V> implements PersistentIndexedCache<K, V>, Closeable {
+        private final File cacheFile;
+        private final Serializer<K> keySerializer;
+        private final Serializer<V> valueSerializer;
+        private BTreePersistentIndexedCache<K, V> cache;
+        private boolean failed;
+
+        ReadOnlyPersistentCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+            this.cacheFile = cacheFile;
+            this.keySerializer = keySerializer;
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Nullable
+        @Override
+        public synchronized V get(K key) {
+            if (failed) {
+                return null;
+            }
+            try {
+                if (cache == null) {
+                    if (!cacheFile.isFile()) {
+                        failed = true;
+                        return null;
+                    }
+                    cache = BTreePersistentIndexedCache.openReadOnly(cacheFile, keySerializer, valueSerializer);
+                }
+                return cache.get(key);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not read from read-only cache {}, ignoring it.", cacheFile, e);
+                failed = true;
+                return null;
+            }
+        }
+
+        @Override
+        public V get(K key, Transformer<? extends V, ? super K> producer) {
+            V value = get(key);
+            return value != null ? value : producer.transform(key);
+        }
+
+        @Override
+        public void put(K key, V value) {
+            // Read-only, ignore
+        }
+
+        @Override
+        public void remove(K key) {
+            // Read-only, ignore
+        }
+
+        @Override
+        public synchronized void close() {
+            if (cache != null) {
+                cache.close();
+                cache = null;
+            }
+        }
+    }
+}
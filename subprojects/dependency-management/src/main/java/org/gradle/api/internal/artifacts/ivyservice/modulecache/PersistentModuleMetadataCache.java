@@ -35,22 +35,30 @@ import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.util.BuildCommencedTimeProvider;
 
+import javax.annotation.Nullable;
+
 public class PersistentModuleMetadataCache extends AbstractModuleMetadataCache {
 
     private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache;
     private final ModuleMetadataStore moduleMetadataStore;
+    private final ModuleMetadataStore readOnlyModuleMetadataStore;
     private final ArtifactCacheLockingManager artifactCacheLockingManager;
 
     public PersistentModuleMetadataCache(BuildCommencedTimeProvider timeProvider,
                                          ArtifactCacheLockingManager artifactCacheLockingManager,
                                          ArtifactCacheMetadata artifactCacheMetadata,
+                                         @Nullable ArtifactCacheMetadata readOnlyArtifactCacheMetadata,
                                          ImmutableModuleIdentifierFactory moduleIdentifierFactory,
                                          AttributeContainerSerializer attributeContainerSerializer,
                                          MavenMutableModuleMetadataFactory mavenMetadataFactory,
                                          IvyMutableModuleMetadataFactory ivyMetadataFactory,
                                          Interner<String> stringInterner) {
         super(timeProvider);
-        moduleMetadataStore = new ModuleMetadataStore(new DefaultPathKeyFileStore(artifactCacheMetadata.getMetaDataStoreDirectory()), new ModuleMetadataSerializer(attributeContainerSerializer, mavenMetadataFactory, ivyMetadataFactory), moduleIdentifierFactory, stringInterner);
+        ModuleMetadataSerializer moduleMetadataSerializer = new ModuleMetadataSerializer(attributeContainerSerializer, mavenMetadataFactory, ivyMetadataFactory);
+        moduleMetadataStore = new ModuleMetadataStore(new DefaultPathKeyFileStore(artifactCacheMetadata.getMetaDataStoreDirectory()), moduleMetadataSerializer, moduleIdentifierFactory, stringInterner);
+        // Entries found in the read-only cache refer to descriptors stored next to it
+        readOnlyModuleMetadataStore = readOnlyArtifactCacheMetadata == null ? null
+            : new ModuleMetadataStore(new DefaultPathKeyFileStore(readOnlyArtifactCacheMetadata.getMetaDataStoreDirectory()), moduleMetadataSerializer, moduleIdentifierFactory, stringInterner);
         this.artifactCacheLockingManager = artifactCacheLockingManager;
     }
 
@@ -79,6 +87,9 @@ public class PersistentModuleMetadataCache extends AbstractModuleMetadataCache {
                     return new DefaultCachedMetadata(entry, null, timeProvider);
                 }
                 MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
+                if (metadata == null && readOnlyModuleMetadataStore != null) {
+                    metadata = readOnlyModuleMetadataStore.getModuleDescriptor(key);
+                }
                 if (metadata == null) {
                     // Descriptor file has been deleted - ignore the entry
                     cache.remove(key);
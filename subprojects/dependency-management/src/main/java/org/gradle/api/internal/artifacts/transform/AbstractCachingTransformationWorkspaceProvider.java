@@ -22,16 +22,30 @@ import com.google.common.collect.ImmutableList;
 import org.gradle.internal.Try;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.execution.history.ExecutionHistoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.File;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Runs each transformation at most once per build, no matter how many consumers in how many projects request it.
+ *
+ * <p>A request for a transformation which is currently being executed on behalf of another consumer waits for that execution to finish and shares its result,
+ * instead of running the transformation again.</p>
+ */
 @ThreadSafe
 public abstract class AbstractCachingTransformationWorkspaceProvider implements CachingTransformationWorkspaceProvider {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractCachingTransformationWorkspaceProvider.class);
 
     private final TransformationWorkspaceProvider delegate;
     private final Cache<TransformationWorkspaceIdentity, Try<ImmutableList<File>>> inMemoryResultCache = CacheBuilder.newBuilder().build();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong inFlightReuses = new AtomicLong();
+    private final AtomicLong completedReuses = new AtomicLong();
 
     public AbstractCachingTransformationWorkspaceProvider(TransformationWorkspaceProvider delegate) {
         this.delegate = delegate;
@@ -49,16 +63,57 @@ public abstract class AbstractCachingTransformationWorkspaceProvider implements
 
     @Override
     public Try<ImmutableList<File>> withWorkspace(TransformationWorkspaceIdentity identity, TransformationWorkspaceAction workspaceAction) {
+        Try<ImmutableList<File>> completedResult = inMemoryResultCache.getIfPresent(identity);
+        if (completedResult != null) {
+            completedReuses.incrementAndGet();
+            return completedResult;
+        }
+        AtomicBoolean executed = new AtomicBoolean();
         try {
-            return inMemoryResultCache.get(identity, () -> {
+            // Concurrent requests for the same identity block until the first one has produced the result
+            Try<ImmutableList<File>> result = inMemoryResultCache.get(identity, () -> {
+                    executed.set(true);
                     return delegate.withWorkspace(identity, workspaceAction);
                 });
+            if (executed.get()) {
+                executions.incrementAndGet();
+            } else {
+                inFlightReuses.incrementAndGet();
+            }
+            return result;
         } catch (ExecutionException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
     }
 
+    /**
+     * The number of transformations executed through this provider since the in-memory cache was last cleared.
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    /**
+     * The number of requests which shared the result of a transformation that was still executing for another consumer.
+     */
+    public long getInFlightReuseCount() {
+        return inFlightReuses.get();
+    }
+
+    /**
+     * The number of requests which reused the result of a transformation that had already completed.
+     */
+    public long getCompletedReuseCount() {
+        return completedReuses.get();
+    }
+
     public void clearInMemoryCache() {
+        if (executions.get() > 0) {
+            LOGGER.debug("Artifact transformations: {} executed, {} shared with an in-flight execution, {} reused from a completed execution.", executions.get(), inFlightReuses.get(), completedReuses.get());
+        }
+        executions.set(0);
+        inFlightReuses.set(0);
+        completedReuses.set(0);
         inMemoryResultCache.invalidateAll();
     }
 }
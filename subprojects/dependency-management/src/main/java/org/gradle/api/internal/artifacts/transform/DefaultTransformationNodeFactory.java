@@ -55,16 +55,16 @@ public class DefaultTransformationNodeFactory implements TransformationNodeFacto
     private TransformationNode getOrCreateInternal(ResolvableArtifact artifact, List<TransformationStep> transformationChain, ExecutionGraphDependenciesResolver dependenciesResolver) {
         ArtifactTransformKey key = new ArtifactTransformKey(artifact.getId(), transformationChain);
         TransformationNode transformationNode = transformations.get(key);
-        if (transformationNode == null) {
-            if (transformationChain.size() == 1) {
-                transformationNode = TransformationNode.initial(transformationChain.get(0), artifact, dependenciesResolver);
-            } else {
-                TransformationNode previous = getOrCreateInternal(artifact, transformationChain.subList(0, transformationChain.size() - 1), dependenciesResolver);
-                transformationNode = TransformationNode.chained(transformationChain.get(transformationChain.size() - 1), previous, dependenciesResolver);
-            }
-            transformations.put(key, transformationNode);
+        if (transformationNode != null) {
+            return transformationNode;
+        }
+        if (transformationChain.size() == 1) {
+            // Consumers in different projects may request the same transformation concurrently, make sure they share a single node
+            return transformations.computeIfAbsent(key, k -> TransformationNode.initial(transformationChain.get(0), artifact, dependenciesResolver));
         }
-        return transformationNode;
+        // Create the upstream node outside of computeIfAbsent(), which must not update the map recursively
+        TransformationNode previous = getOrCreateInternal(artifact, transformationChain.subList(0, transformationChain.size() - 1), dependenciesResolver);
+        return transformations.computeIfAbsent(key, k -> TransformationNode.chained(transformationChain.get(transformationChain.size() - 1), previous, dependenciesResolver));
     }
 
     private static List<TransformationStep> unpackTransformation(Transformation transformation) {
@@ -20,6 +20,7 @@ import org.gradle.api.Namer;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
 import org.gradle.internal.resource.local.FileAccessTimeJournal;
+import org.gradle.internal.resource.local.ContentAddressedBlobStore;
 import org.gradle.internal.resource.local.GroupedAndNamedUniqueFileStore;
 
 import java.io.File;
@@ -48,7 +49,7 @@ public class ArtifactIdentifierFileStore extends GroupedAndNamedUniqueFileStore<
         }
     };
 
-    public ArtifactIdentifierFileStore(File baseDir, TemporaryFileProvider temporaryFileProvider, FileAccessTimeJournal fileAccessTimeJournal) {
-        super(baseDir, temporaryFileProvider, fileAccessTimeJournal, GROUPER, NAMER);
+    public ArtifactIdentifierFileStore(File baseDir, ContentAddressedBlobStore blobStore, TemporaryFileProvider temporaryFileProvider, FileAccessTimeJournal fileAccessTimeJournal) {
+        super(baseDir, blobStore, temporaryFileProvider, fileAccessTimeJournal, GROUPER, NAMER);
     }
 }
@@ -19,6 +19,7 @@ import org.apache.commons.lang.StringUtils;
 import org.gradle.api.Namer;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.resource.local.FileAccessTimeJournal;
+import org.gradle.internal.resource.local.ContentAddressedBlobStore;
 import org.gradle.internal.resource.local.GroupedAndNamedUniqueFileStore;
 
 import java.io.File;
@@ -47,7 +48,7 @@ public class ExternalResourceFileStore extends GroupedAndNamedUniqueFileStore<St
         }
     };
 
-    public ExternalResourceFileStore(File baseDir, TemporaryFileProvider tmpProvider, FileAccessTimeJournal fileAccessTimeJournal) {
-        super(baseDir, tmpProvider, fileAccessTimeJournal, GROUPER, NAMER);
+    public ExternalResourceFileStore(File baseDir, ContentAddressedBlobStore blobStore, TemporaryFileProvider tmpProvider, FileAccessTimeJournal fileAccessTimeJournal) {
+        super(baseDir, blobStore, tmpProvider, fileAccessTimeJournal, GROUPER, NAMER);
     }
 }
@@ -50,6 +50,10 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExternalResourceAccessor {
 
@@ -186,7 +190,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             if (!localChecksum.equals(remoteChecksum)) {
                 return null;
             }
-            return moveIntoCache(source, destination, fileStore, remoteMetaData);
+            return moveIntoCache(source, destination, fileStore, remoteMetaData, localChecksum);
         } finally {
             destination.delete();
         }
@@ -206,16 +210,16 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
         // Move into cache
         try {
-            return moveIntoCache(source, downloadAction.destination, fileStore, downloadAction.metaData);
+            return moveIntoCache(source, downloadAction.destination, fileStore, downloadAction.metaData, downloadAction.sha1);
         } finally {
             downloadAction.destination.delete();
         }
     }
 
-    private LocallyAvailableExternalResource moveIntoCache(final ExternalResourceName source, final File destination, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData) {
+    private LocallyAvailableExternalResource moveIntoCache(final ExternalResourceName source, final File destination, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData, final HashValue sha1) {
         return artifactCacheLockingManager.useCache(new Factory<LocallyAvailableExternalResource>() {
             public LocallyAvailableExternalResource create() {
-                LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination);
+                LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination, sha1);
                 File fileInFileStore = cachedResource.getFile();
                 cachedExternalResourceIndex.store(source.toString(), fileInFileStore, metaData);
                 return fileResourceRepository.resource(fileInFileStore, source.getUri(), metaData);
@@ -231,6 +235,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         private final ExternalResourceName source;
         File destination;
         ExternalResourceMetaData metaData;
+        HashValue sha1;
 
         DownloadAction(ExternalResourceName source) {
             this.source = source;
@@ -244,13 +249,24 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             if (destination.getParentFile() != null) {
                 GFileUtils.mkdirs(destination.getParentFile());
             }
-            FileOutputStream outputStream = new FileOutputStream(destination);
+            // Calculate the checksum while downloading, so the file store doesn't need to read the content again
+            MessageDigest digest = createSha1Digest();
+            OutputStream outputStream = new DigestOutputStream(new FileOutputStream(destination), digest);
             try {
                 IOUtils.copyLarge(inputStream, outputStream);
             } finally {
                 outputStream.close();
             }
+            sha1 = new HashValue(digest.digest());
             return null;
         }
     }
+
+    private static MessageDigest createSha1Digest() {
+        try {
+            return MessageDigest.getInstance("SHA1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
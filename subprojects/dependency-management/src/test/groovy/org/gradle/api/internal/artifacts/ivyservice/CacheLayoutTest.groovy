@@ -62,6 +62,20 @@ class CacheLayoutTest extends Specification {
         cacheLayout.versionMapping.getVersionUsedBy(GradleVersion.version("1.9-rc-2")).get() == CacheVersion.of(2, 1)
     }
 
+    def "use blobs layout"() {
+        when:
+        CacheLayout cacheLayout = CacheLayout.BLOBS
+
+        then:
+        cacheLayout.name == 'blobs'
+        cacheLayout.key == 'blobs-1'
+        cacheLayout.version == CacheVersion.of(1)
+        cacheLayout.version.toString() == '1'
+        cacheLayout.getPath(new File('some/dir')) == new File('some/dir/blobs-1')
+        !cacheLayout.versionMapping.getVersionUsedBy(GradleVersion.version("5.1")).present
+        cacheLayout.versionMapping.getVersionUsedBy(GradleVersion.version("5.2-rc-1")).get() == CacheVersion.of(1)
+    }
+
     def "use transforms layout"() {
         when:
         CacheLayout cacheLayout = CacheLayout.TRANSFORMS
@@ -18,14 +18,20 @@ package org.gradle.api.internal.artifacts.ivyservice
 
 import org.gradle.cache.internal.DefaultCacheRepository
 import org.gradle.cache.internal.UsedGradleVersions
+import org.gradle.cache.internal.btree.BTreePersistentIndexedCache
+import org.gradle.internal.serialize.BaseSerializerFactory
 import org.gradle.internal.resource.local.ModificationTimeFileAccessTimeJournal
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.testfixtures.internal.InMemoryCacheFactory
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
 import org.junit.Rule
 import spock.lang.AutoCleanup
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.nio.file.Files
+
 class DefaultArtifactCacheLockingManagerTest extends Specification {
     @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
 
@@ -34,10 +40,12 @@ class DefaultArtifactCacheLockingManagerTest extends Specification {
     def resourcesDir = cacheDir.createDir(CacheLayout.RESOURCES.key)
     def filesDir = cacheDir.createDir(CacheLayout.FILE_STORE.key)
     def metaDataDir = cacheDir.createDir(CacheLayout.META_DATA.key)
+    def blobsDir = cacheDir.createDir(CacheLayout.BLOBS.key)
     def artifactCacheMetadata = Stub(ArtifactCacheMetadata) {
         getCacheDir() >> cacheDir
         getExternalResourcesStoreDirectory() >> resourcesDir
         getFileStoreDirectory() >> filesDir
+        getBlobStoreDirectory() >> blobsDir
         getMetaDataStoreDirectory() >> metaDataDir.file("descriptors")
     }
     def fileAccessTimeJournal = new ModificationTimeFileAccessTimeJournal()
@@ -80,6 +88,91 @@ class DefaultArtifactCacheLockingManagerTest extends Specification {
         file3.assertDoesNotExist()
     }
 
+    @Requires(TestPrecondition.UNIX_DERIVATIVE)
+    def "cleans up blobs which are no longer linked from a file store"() {
+        given:
+        def file1 = filesDir.createDir("group1/artifact1/1.0/abc").createFile("my.jar")
+        def file2 = filesDir.createDir("group1/artifact1/1.0/xyz").createFile("my.pom")
+        def blob1 = blobsDir.createDir("ab").file("abc")
+        def blob2 = blobsDir.createDir("xy").file("xyz")
+        Files.createLink(blob1.toPath(), file1.toPath())
+        Files.createLink(blob2.toPath(), file2.toPath())
+        file2.parentFile.lastModified = 0
+
+        when:
+        cacheLockingManager.close()
+
+        then:
+        file1.assertExists()
+        blob1.assertExists()
+        file2.assertDoesNotExist()
+        blob2.assertDoesNotExist()
+    }
+
+    def "looks up entries in writable cache before read-only cache"() {
+        given:
+        def layeredManager = layeredManager(shared: "read-only", readOnly: "read-only")
+
+        when:
+        def cache = layeredManager.createCache("resource-at-url", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        cache.put("shared", "writable")
+        cache.put("other", "writable")
+
+        then:
+        cache.get("shared") == "writable"
+        cache.get("other") == "writable"
+        cache.get("readOnly") == "read-only"
+        cache.get("missing") == null
+
+        when:
+        cache.remove("shared")
+
+        then:
+        cache.get("shared") == "read-only"
+
+        cleanup:
+        layeredManager?.close()
+    }
+
+    def "refreshes an expired dynamic version from the read-only cache only once"() {
+        given:
+        def layeredManager = layeredManager(("group:module:latest.release"): "1.0@0")
+        def cache = layeredManager.createCache("dynamic-revisions", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        def refreshes = 0
+        def resolve = { long now ->
+            def entry = cache.get("group:module:latest.release")
+            if (entry == null || now - (entry.substring(entry.indexOf('@') + 1) as long) > 100) {
+                refreshes++
+                entry = "2.0@" + now
+                cache.put("group:module:latest.release", entry)
+            }
+            entry.substring(0, entry.indexOf('@'))
+        }
+
+        expect:
+        resolve(1000) == "2.0"
+        resolve(1050) == "2.0"
+        refreshes == 1
+
+        and:
+        resolve(1200) == "2.0"
+        refreshes == 2
+
+        cleanup:
+        layeredManager?.close()
+    }
+
+    private DefaultArtifactCacheLockingManager layeredManager(Map<String, String> readOnlyEntries) {
+        def readOnlyCachesDir = temporaryFolder.createDir("read-only")
+        def readOnlyMetaDataDir = readOnlyCachesDir.file(CacheLayout.ROOT.key, CacheLayout.META_DATA.key)
+        ["resource-at-url", "dynamic-revisions"].each { cacheName ->
+            def readOnlyIndex = new BTreePersistentIndexedCache<String, String>(readOnlyMetaDataDir.file(cacheName + ".bin"), BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+            readOnlyEntries.each { key, value -> readOnlyIndex.put(key, value) }
+            readOnlyIndex.close()
+        }
+        return new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, new DefaultArtifactCacheMetadata(readOnlyCachesDir), fileAccessTimeJournal, usedGradleVersions)
+    }
+
     def "deletes old versions of cache dir"() {
         given:
         def oldCacheDir = cacheDir.getParentFile().createDir("modules-1")
@@ -51,4 +51,17 @@ class DefaultArtifactCacheMetadataTest extends Specification {
         then:
         metadataStore == new File(testCacheDir, CacheLayout.META_DATA.key + '/descriptors')
     }
+
+    def "uses layout of given caches directory"() {
+        given:
+        TestFile cachesDir = temporaryFolder.file("read-only/caches")
+
+        when:
+        def metaData = new DefaultArtifactCacheMetadata(cachesDir)
+
+        then:
+        metaData.cacheDir == new File(cachesDir, CacheLayout.ROOT.key)
+        metaData.fileStoreDirectory == new File(cachesDir, CacheLayout.ROOT.key + '/' + CacheLayout.FILE_STORE.key)
+        metaData.metaDataStoreDirectory == new File(cachesDir, CacheLayout.ROOT.key + '/' + CacheLayout.META_DATA.key + '/descriptors')
+    }
 }
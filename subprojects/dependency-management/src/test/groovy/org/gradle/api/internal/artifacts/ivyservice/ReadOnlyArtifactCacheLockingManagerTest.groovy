@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.cache.internal.btree.BTreePersistentIndexedCache
+import org.gradle.internal.Factory
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ReadOnlyArtifactCacheLockingManagerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    def cachesDir = temporaryFolder.createDir("read-only")
+    def cacheMetadata = new DefaultArtifactCacheMetadata(cachesDir)
+
+    @Subject @AutoCleanup
+    def cacheLockingManager = new ReadOnlyArtifactCacheLockingManager(cacheMetadata)
+
+    def "reads entries from existing cache file"() {
+        given:
+        populate("resource-at-url", ["key": "value"])
+
+        when:
+        def cache = cacheLockingManager.createCache("resource-at-url", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+
+        then:
+        cache.get("key") == "value"
+        cache.get("other") == null
+    }
+
+    def "ignores modifications"() {
+        given:
+        populate("resource-at-url", ["key": "value"])
+        def cache = cacheLockingManager.createCache("resource-at-url", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        cache.put("other", "value")
+        cache.remove("key")
+
+        then:
+        cache.get("key") == "value"
+        cache.get("other") == null
+    }
+
+    def "treats missing cache file as empty"() {
+        when:
+        def cache = cacheLockingManager.createCache("missing", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+
+        then:
+        cache.get("key") == null
+        cache.get("key", { "produced" }) == "produced"
+    }
+
+    def "treats unreadable cache file as empty"() {
+        given:
+        cachesDir.file(CacheLayout.ROOT.key, CacheLayout.META_DATA.key, "broken.bin").createFile()
+
+        when:
+        def cache = cacheLockingManager.createCache("broken", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+
+        then:
+        cache.get("key") == null
+    }
+
+    def "runs actions without locking"() {
+        given:
+        def action = Mock(Factory)
+
+        when:
+        def result = cacheLockingManager.useCache(action)
+
+        then:
+        result == "result"
+        1 * action.create() >> "result"
+    }
+
+    private void populate(String cacheName, Map<String, String> entries) {
+        def cacheFile = cachesDir.file(CacheLayout.ROOT.key, CacheLayout.META_DATA.key, cacheName + ".bin")
+        def cache = new BTreePersistentIndexedCache<String, String>(cacheFile, BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        entries.each { key, value -> cache.put(key, value) }
+        cache.close()
+    }
+}
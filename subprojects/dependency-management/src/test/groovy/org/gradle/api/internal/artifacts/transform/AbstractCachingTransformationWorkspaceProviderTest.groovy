@@ -53,6 +53,53 @@ class AbstractCachingTransformationWorkspaceProviderTest extends ConcurrentSpec
         noExceptionThrown()
     }
 
+    def "shares result of a single execution between concurrent requests"() {
+        def numberOfCalls = new AtomicInteger()
+
+        when:
+        async {
+            100.times {
+                start {
+                    this.workspaceProvider.withWorkspace(new TestWorkspaceIdentity("id")) { id, workspace ->
+                        numberOfCalls.incrementAndGet()
+                        return Try.successful(ImmutableList.of())
+                    }
+                }
+            }
+        }
+
+        then:
+        numberOfCalls.get() == 1
+        workspaceProvider.executionCount == 1
+        workspaceProvider.inFlightReuseCount + workspaceProvider.completedReuseCount == 99
+    }
+
+    def "executes again after in-memory cache has been cleared"() {
+        def numberOfCalls = new AtomicInteger()
+        def action = { id, workspace ->
+            numberOfCalls.incrementAndGet()
+            return Try.successful(ImmutableList.of())
+        } as TransformationWorkspaceProvider.TransformationWorkspaceAction
+
+        when:
+        workspaceProvider.withWorkspace(new TestWorkspaceIdentity("id"), action)
+        workspaceProvider.withWorkspace(new TestWorkspaceIdentity("id"), action)
+
+        then:
+        numberOfCalls.get() == 1
+        workspaceProvider.executionCount == 1
+        workspaceProvider.completedReuseCount == 1
+
+        when:
+        workspaceProvider.clearInMemoryCache()
+        workspaceProvider.withWorkspace(new TestWorkspaceIdentity("id"), action)
+
+        then:
+        numberOfCalls.get() == 2
+        workspaceProvider.executionCount == 1
+        workspaceProvider.completedReuseCount == 0
+    }
+
     def "runs actions for different identities in parallel"() {
         when:
         async {
@@ -129,7 +129,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         }
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, _) >> localResource
         1 * index.store("thing", cachedFile, metaData)
         1 * fileRepository.resource(cachedFile, location.uri, metaData) >> cachedResource
         0 * _._
@@ -199,7 +199,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, _) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -287,7 +287,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, _) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -331,7 +331,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, _) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -378,7 +378,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, _) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -430,7 +430,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
 
         and:
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, _) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
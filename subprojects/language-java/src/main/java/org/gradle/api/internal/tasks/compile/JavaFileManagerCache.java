@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.os.OperatingSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps javac file managers for reuse by later compilations in the same process, which is either the build daemon or a compiler daemon.
+ *
+ * <p>A javac file manager keeps the jars it has read open, along with an index of their content. Reusing the file manager means that later compilations
+ * do not open and index the JDK class library and unchanged classpath jars again. The file manager is only reused when none of the jars it has read
+ * has changed since, judged by file length and modification time, and has its locations reset before each use.</p>
+ *
+ * <p>This is opt-in, using the {@value #REUSE_FILE_MANAGERS_PROPERTY} system property, as the open jars can no longer be deleted on Windows and
+ * are held open for the lifetime of the process elsewhere. It has no effect on Windows.</p>
+ */
+class JavaFileManagerCache {
+    static final String REUSE_FILE_MANAGERS_PROPERTY = "org.gradle.java.compile.reuse-file-managers";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerCache.class);
+    private static final int MAX_IDLE_FILE_MANAGERS = 4;
+    private static final JavaFileManagerCache INSTANCE = new JavaFileManagerCache();
+
+    // Locations are referenced by name, as the module oriented locations are only available from Java 9
+    private static final Set<String> RESETTABLE_LOCATIONS = ImmutableSet.of(
+        "CLASS_OUTPUT", "SOURCE_OUTPUT", "NATIVE_HEADER_OUTPUT",
+        "CLASS_PATH", "SOURCE_PATH", "PLATFORM_CLASS_PATH", "ANNOTATION_PROCESSOR_PATH",
+        "MODULE_PATH", "UPGRADE_MODULE_PATH", "SYSTEM_MODULES", "ANNOTATION_PROCESSOR_MODULE_PATH");
+    private static final Set<String> UNRESETTABLE_LOCATIONS = ImmutableSet.of("MODULE_SOURCE_PATH", "PATCH_MODULE_PATH");
+
+    private final LinkedList<Entry> idle = new LinkedList<Entry>();
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(REUSE_FILE_MANAGERS_PROPERTY) && !OperatingSystem.current().isWindows();
+    }
+
+    static JavaFileManagerCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a file manager for a compilation with the given classpath. The file manager must be returned by stopping the lease once the compilation has finished.
+     */
+    Lease acquire(JavaCompiler compiler, @Nullable Charset charset, Iterable<File> classpath) {
+        Map<File, JarState> jars = snapshot(classpath);
+        Entry reusable = null;
+        LinkedList<Entry> stale = new LinkedList<Entry>();
+        synchronized (idle) {
+            for (Iterator<Entry> iterator = idle.iterator(); iterator.hasNext();) {
+                Entry entry = iterator.next();
+                if (!entry.isUpToDate(jars)) {
+                    iterator.remove();
+                    stale.add(entry);
+                } else if (reusable == null && entry.compilerType == compiler.getClass() && equal(entry.charset, charset)) {
+                    iterator.remove();
+                    reusable = entry;
+                }
+            }
+        }
+        CompositeStoppable.stoppable(stale).stop();
+
+        if (reusable != null && reusable.reset()) {
+            LOGGER.debug("Reusing javac file manager.");
+        } else {
+            CompositeStoppable.stoppable(reusable).stop();
+            reusable = new Entry(compiler.getClass(), charset, compiler.getStandardFileManager(null, null, charset));
+        }
+        reusable.jars.putAll(jars);
+        return new Lease(reusable);
+    }
+
+    private void release(Entry entry) {
+        Entry evicted = null;
+        synchronized (idle) {
+            idle.addFirst(entry);
+            if (idle.size() > MAX_IDLE_FILE_MANAGERS) {
+                evicted = idle.removeLast();
+            }
+        }
+        CompositeStoppable.stoppable(evicted).stop();
+    }
+
+    private static Map<File, JarState> snapshot(Iterable<File> classpath) {
+        Map<File, JarState> jars = new HashMap<File, JarState>();
+        for (File file : classpath) {
+            if (file.isFile()) {
+                jars.put(file, new JarState(file));
+            }
+        }
+        return jars;
+    }
+
+    private static boolean equal(@Nullable Object a, @Nullable Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    class Lease implements Stoppable {
+        private final Entry entry;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        StandardJavaFileManager getFileManager() {
+            return entry.fileManager;
+        }
+
+        /**
+         * Returns the file manager for use by later compilations.
+         */
+        @Override
+        public void stop() {
+            release(entry);
+        }
+    }
+
+    private static class Entry implements Stoppable {
+        final Class<?> compilerType;
+        final Charset charset;
+        final StandardJavaFileManager fileManager;
+        final Map<File, JarState> jars = new HashMap<File, JarState>();
+
+        Entry(Class<?> compilerType, @Nullable Charset charset, StandardJavaFileManager fileManager) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+            this.fileManager = fileManager;
+        }
+
+        /**
+         * Returns false when any of the jars previously read by the file manager has changed, as the file manager would use its stale index of the jar.
+         */
+        boolean isUpToDate(Map<File, JarState> current) {
+            for (Map.Entry<File, JarState> jar : jars.entrySet()) {
+                JarState currentState = current.get(jar.getKey());
+                if (currentState == null) {
+                    currentState = new JarState(jar.getKey());
+                }
+                if (!currentState.equals(jar.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Resets the locations set by the previous compilation to their defaults, as a compilation only sets the locations it uses.
+         *
+         * <p>Only the locations that compilations set are reset, as some module oriented locations cannot be unset. A file manager that has had one of those
+         * locations set is not reused.</p>
+         */
+        boolean reset() {
+            try {
+                for (StandardLocation location : StandardLocation.values()) {
+                    if (UNRESETTABLE_LOCATIONS.contains(location.name())) {
+                        if (fileManager.hasLocation(location)) {
+                            return false;
+                        }
+                    } else if (RESETTABLE_LOCATIONS.contains(location.name())) {
+                        fileManager.setLocation(location, null);
+                    }
+                }
+                return true;
+            } catch (Exception e) {
+                // Some locations cannot be reset by some javac versions, do not reuse the file manager
+                LOGGER.debug("Could not reset the locations of the javac file manager.", e);
+                return false;
+            }
+        }
+
+        @Override
+        public void stop() {
+            CompositeStoppable.stoppable(fileManager).stop();
+        }
+    }
+
+    private static class JarState {
+        final long length;
+        final long lastModified;
+
+        JarState(File file) {
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof JarState)) {
+                return false;
+            }
+            JarState other = (JarState) obj;
+            return length == other.length && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (length ^ lastModified);
+        }
+    }
+}
@@ -27,8 +27,10 @@ import org.slf4j.LoggerFactory;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -58,7 +60,15 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
         JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
         MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+        JavaFileManagerCache.Lease fileManagerLease = null;
+        StandardJavaFileManager standardFileManager;
+        if (JavaFileManagerCache.isEnabled()) {
+            fileManagerLease = JavaFileManagerCache.getInstance().acquire(compiler, charset, jarsOf(spec));
+            standardFileManager = fileManagerLease.getFileManager();
+        } else {
+            standardFileManager = compiler.getStandardFileManager(null, null, charset);
+        }
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSourceFiles());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
@@ -68,10 +78,22 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
 
         Set<AnnotationProcessorDeclaration> annotationProcessors = spec.getEffectiveAnnotationProcessors();
         task = new AnnotationProcessingCompileTask(task, annotationProcessors, spec.getAnnotationProcessorPath(), result.getAnnotationProcessingResult());
-        task = new ResourceCleaningCompilationTask(task, fileManager);
+        if (fileManagerLease != null) {
+            task = new ResourceCleaningCompilationTask(task, fileManagerLease);
+        } else {
+            task = new ResourceCleaningCompilationTask(task, fileManager);
+        }
         return task;
     }
 
+    private static List<File> jarsOf(JavaCompileSpec spec) {
+        List<File> jars = new ArrayList<File>(spec.getModulePath());
+        if (spec.getCompileClasspath() != null) {
+            jars.addAll(spec.getCompileClasspath());
+        }
+        return jars;
+    }
+
     private static boolean emptySourcepathIn(List<String> options) {
         Iterator<String> optionsIter = options.iterator();
         while (optionsIter.hasNext()) {
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
 
 import javax.annotation.processing.Processor;
 import javax.tools.DiagnosticListener;
@@ -30,11 +31,24 @@ import java.util.Locale;
  */
 class ResourceCleaningCompilationTask implements JavaCompiler.CompilationTask {
     private final JavaCompiler.CompilationTask delegate;
-    private final StandardJavaFileManager fileManager;
+    private final Stoppable resources;
 
-    ResourceCleaningCompilationTask(JavaCompiler.CompilationTask delegate, StandardJavaFileManager fileManager) {
+    ResourceCleaningCompilationTask(JavaCompiler.CompilationTask delegate, final StandardJavaFileManager fileManager) {
+        this(delegate, new Stoppable() {
+            @Override
+            public void stop() {
+                CompositeStoppable.stoppable(fileManager).stop();
+                cleanupZipCache();
+            }
+        });
+    }
+
+    /**
+     * Stops the given resources after compilation, rather than closing the file manager. Used when the file manager is kept for reuse.
+     */
+    ResourceCleaningCompilationTask(JavaCompiler.CompilationTask delegate, Stoppable resources) {
         this.delegate = delegate;
-        this.fileManager = fileManager;
+        this.resources = resources;
     }
 
     @Override
@@ -56,8 +70,7 @@ class ResourceCleaningCompilationTask implements JavaCompiler.CompilationTask {
         try {
             return delegate.call();
         } finally {
-            CompositeStoppable.stoppable(fileManager).stop();
-            cleanupZipCache();
+            resources.stop();
         }
     }
 
@@ -68,7 +81,7 @@ class ResourceCleaningCompilationTask implements JavaCompiler.CompilationTask {
      * method does not take arguments, so the cache can't be turned off.
      * So instead we clean it ourselves using reflection.
      */
-    private void cleanupZipCache() {
+    private static void cleanupZipCache() {
         try {
             Class<?> zipFileIndexCache = Class.forName("com.sun.tools.javac.file.ZipFileIndexCache");
             Object instance = zipFileIndexCache.getMethod("getSharedInstance").invoke(null);
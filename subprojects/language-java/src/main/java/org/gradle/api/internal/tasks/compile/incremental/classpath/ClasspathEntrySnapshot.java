@@ -25,6 +25,7 @@ import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisDa
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.internal.hash.HashCode;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -32,11 +33,10 @@ import java.util.Set;
 public class ClasspathEntrySnapshot {
 
     private final ClasspathEntrySnapshotData data;
-    private final ClassSetAnalysis analysis;
+    private ClassSetAnalysis analysis;
 
     public ClasspathEntrySnapshot(ClasspathEntrySnapshotData data) {
         this.data = data;
-        this.analysis = new ClassSetAnalysis(data.getClassAnalysis());
     }
 
     public DependentsSet getAllClasses() {
@@ -118,10 +118,23 @@ public class ClasspathEntrySnapshot {
         return data.getHashes();
     }
 
-    public ClassSetAnalysis getClassAnalysis() {
+    public synchronized ClassSetAnalysis getClassAnalysis() {
+        if (analysis == null) {
+            analysis = new ClassSetAnalysis(data.getClassAnalysis());
+        }
         return analysis;
     }
 
+    /**
+     * Returns the classes of this entry that directly extend or implement the given class.
+     */
+    public Set<String> getChildren(String className) {
+        if (!data.getSuperTypes().contains(className)) {
+            return Collections.emptySet();
+        }
+        return data.getClassAnalysis().getChildren(className);
+    }
+
     public Set<String> getClasses() {
         return data.getHashes().keySet();
     }
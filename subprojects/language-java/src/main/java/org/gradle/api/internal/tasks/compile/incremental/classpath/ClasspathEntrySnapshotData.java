@@ -17,15 +17,27 @@
 package org.gradle.api.internal.tasks.compile.incremental.classpath;
 
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashCode;
 
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * The class hashes and class analysis of a classpath entry.
+ *
+ * <p>The class analysis of an entry is only needed when the entry has changed, or when one of its classes extends a class that has changed,
+ * which is rare for the bulk of a large classpath. So when read from the cache, the analysis is kept in its encoded form and is only
+ * decoded on first use. The super types of the classes in the entry are always decoded, so the entry can be skipped when looking for
+ * subclasses of a changed class.</p>
+ */
 public class ClasspathEntrySnapshotData {
 
     private final Map<String, HashCode> hashes;
-    private final ClassSetAnalysisData classAnalyisis;
+    private final Set<String> superTypes;
     private final HashCode hash;
+    private Factory<ClassSetAnalysisData> classAnalysisFactory;
+    private ClassSetAnalysisData classAnalysis;
 
     /**
      * @param hash of this entry
@@ -33,21 +45,51 @@ public class ClasspathEntrySnapshotData {
      * @param classAnalysis of classes analysis in this entry
      */
     public ClasspathEntrySnapshotData(HashCode hash, Map<String, HashCode> hashes, ClassSetAnalysisData classAnalysis) {
-        assert hash != null;
-        assert hashes != null;
         assert classAnalysis != null;
 
         this.hash = hash;
         this.hashes = hashes;
-        this.classAnalyisis = classAnalysis;
+        this.superTypes = classAnalysis.getSuperTypes();
+        this.classAnalysis = classAnalysis;
+        validate();
+    }
+
+    /**
+     * @param hash of this entry
+     * @param hashes hashes of all classes from the entry
+     * @param superTypes the super types of the classes in this entry
+     * @param classAnalysis creates the class analysis of this entry when it is first used
+     */
+    public ClasspathEntrySnapshotData(HashCode hash, Map<String, HashCode> hashes, Set<String> superTypes, Factory<ClassSetAnalysisData> classAnalysis) {
+        assert classAnalysis != null;
+
+        this.hash = hash;
+        this.hashes = hashes;
+        this.superTypes = superTypes;
+        this.classAnalysisFactory = classAnalysis;
+        validate();
+    }
+
+    private void validate() {
+        assert hash != null;
+        assert hashes != null;
+        assert superTypes != null;
     }
 
     public Map<String, HashCode> getHashes() {
         return hashes;
     }
 
-    public ClassSetAnalysisData getClassAnalysis() {
-        return classAnalyisis;
+    public Set<String> getSuperTypes() {
+        return superTypes;
+    }
+
+    public synchronized ClassSetAnalysisData getClassAnalysis() {
+        if (classAnalysis == null) {
+            classAnalysis = classAnalysisFactory.create();
+            classAnalysisFactory = null;
+        }
+        return classAnalysis;
     }
 
     public HashCode getHash() {
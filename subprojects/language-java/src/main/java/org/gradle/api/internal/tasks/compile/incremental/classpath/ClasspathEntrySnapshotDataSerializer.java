@@ -19,6 +19,8 @@ package org.gradle.api.internal.tasks.compile.incremental.classpath;
 import com.google.common.base.Objects;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
@@ -27,18 +29,30 @@ import org.gradle.internal.serialize.HashCodeSerializer;
 import org.gradle.internal.serialize.InterningStringSerializer;
 import org.gradle.internal.serialize.MapSerializer;
 import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SetSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Writes the class analysis of an entry as a nested binary blob after the class hashes, so that it can be decoded lazily, see {@link ClasspathEntrySnapshotData}.
+ */
 public class ClasspathEntrySnapshotDataSerializer extends AbstractSerializer<ClasspathEntrySnapshotData> {
 
     private final MapSerializer<String, HashCode> mapSerializer;
+    private final SetSerializer<String> superTypesSerializer;
     private final Serializer<ClassSetAnalysisData> analysisSerializer;
     private final HashCodeSerializer hashCodeSerializer;
 
     public ClasspathEntrySnapshotDataSerializer(StringInterner interner) {
         hashCodeSerializer = new HashCodeSerializer();
-        mapSerializer = new MapSerializer<String, HashCode>(new InterningStringSerializer(interner), hashCodeSerializer);
+        InterningStringSerializer stringSerializer = new InterningStringSerializer(interner);
+        mapSerializer = new MapSerializer<String, HashCode>(stringSerializer, hashCodeSerializer);
+        superTypesSerializer = new SetSerializer<String>(stringSerializer, false);
         analysisSerializer = new ClassSetAnalysisData.Serializer(interner);
     }
 
@@ -46,15 +60,38 @@ public class ClasspathEntrySnapshotDataSerializer extends AbstractSerializer<Cla
     public ClasspathEntrySnapshotData read(Decoder decoder) throws Exception {
         HashCode hash = hashCodeSerializer.read(decoder);
         Map<String, HashCode> hashes = mapSerializer.read(decoder);
-        ClassSetAnalysisData data = analysisSerializer.read(decoder);
-        return new ClasspathEntrySnapshotData(hash, hashes, data);
+        Set<String> superTypes = superTypesSerializer.read(decoder);
+        final byte[] encodedAnalysis = decoder.readBinary();
+        return new ClasspathEntrySnapshotData(hash, hashes, superTypes, new Factory<ClassSetAnalysisData>() {
+            @Override
+            public ClassSetAnalysisData create() {
+                return decodeAnalysis(encodedAnalysis);
+            }
+        });
     }
 
     @Override
     public void write(Encoder encoder, ClasspathEntrySnapshotData value) throws Exception {
         hashCodeSerializer.write(encoder, value.getHash());
         mapSerializer.write(encoder, value.getHashes());
-        analysisSerializer.write(encoder, value.getClassAnalysis());
+        superTypesSerializer.write(encoder, value.getSuperTypes());
+        encoder.writeBinary(encodeAnalysis(value.getClassAnalysis()));
+    }
+
+    private byte[] encodeAnalysis(ClassSetAnalysisData analysis) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+        analysisSerializer.write(encoder, analysis);
+        encoder.flush();
+        return outputStream.toByteArray();
+    }
+
+    private ClassSetAnalysisData decodeAnalysis(byte[] encodedAnalysis) {
+        try {
+            return analysisSerializer.read(new KryoBackedDecoder(new ByteArrayInputStream(encodedAnalysis)));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
     }
 
     @Override
@@ -65,12 +102,13 @@ public class ClasspathEntrySnapshotDataSerializer extends AbstractSerializer<Cla
 
         ClasspathEntrySnapshotDataSerializer rhs = (ClasspathEntrySnapshotDataSerializer) obj;
         return Objects.equal(mapSerializer, rhs.mapSerializer)
+            && Objects.equal(superTypesSerializer, rhs.superTypesSerializer)
             && Objects.equal(analysisSerializer, rhs.analysisSerializer)
             && Objects.equal(hashCodeSerializer, rhs.hashCodeSerializer);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(super.hashCode(), mapSerializer, analysisSerializer, hashCodeSerializer);
+        return Objects.hashCode(super.hashCode(), mapSerializer, superTypesSerializer, analysisSerializer, hashCodeSerializer);
     }
 }
@@ -15,7 +15,10 @@
  */
 package org.gradle.api.internal.tasks.compile.incremental.classpath;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import org.gradle.api.Action;
+import org.gradle.api.file.EmptyFileVisitor;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.file.FileOperations;
@@ -28,26 +31,43 @@ import org.gradle.internal.IoActions;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
 public class DefaultClasspathEntrySnapshotter {
     private static final Logger LOGGER = Logging.getLogger(DefaultClasspathEntrySnapshotter.class);
+    private static final int CLASSES_PER_BATCH = 500;
 
     private final FileHasher fileHasher;
     private final StreamHasher hasher;
     private final ClassDependenciesAnalyzer analyzer;
     private final FileOperations fileOperations;
+    private final BuildOperationExecutor buildOperationExecutor;
 
     public DefaultClasspathEntrySnapshotter(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations) {
+        this(fileHasher, streamHasher, analyzer, fileOperations, null);
+    }
+
+    /**
+     * When a build operation executor is given, the classes of a directory are hashed and analyzed in parallel batches.
+     */
+    public DefaultClasspathEntrySnapshotter(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations, @Nullable BuildOperationExecutor buildOperationExecutor) {
         this.fileHasher = fileHasher;
         this.hasher = streamHasher;
         this.analyzer = analyzer;
         this.fileOperations = fileOperations;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public ClasspathEntrySnapshot createSnapshot(HashCode hash, File classpathEntry) {
@@ -71,7 +91,97 @@ public class DefaultClasspathEntrySnapshotter {
             fileOperations.zipTree(classpathEntry).visit(new JarEntryVisitor(accumulator, hashes));
         }
         if (classpathEntry.isDirectory()) {
-            fileOperations.fileTree(classpathEntry).visit(new DirectoryEntryVisitor(accumulator, hashes));
+            if (buildOperationExecutor == null) {
+                fileOperations.fileTree(classpathEntry).visit(new DirectoryEntryVisitor(accumulator, hashes));
+            } else {
+                visitInParallel(classpathEntry, hashes, accumulator);
+            }
+        }
+    }
+
+    private void visitInParallel(File classpathEntry, Map<String, HashCode> hashes, ClassDependentsAccumulator accumulator) {
+        final List<FileVisitDetails> classFiles = Lists.newArrayList();
+        fileOperations.fileTree(classpathEntry).visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                if (fileDetails.getName().endsWith(".class")) {
+                    classFiles.add(fileDetails);
+                }
+            }
+        });
+
+        final List<AnalyzeClasses> batches = Lists.newArrayList();
+        for (int start = 0; start < classFiles.size(); start += CLASSES_PER_BATCH) {
+            batches.add(new AnalyzeClasses(classpathEntry, classFiles.subList(start, Math.min(start + CLASSES_PER_BATCH, classFiles.size()))));
+        }
+        if (batches.size() == 1) {
+            batches.get(0).analyze();
+        } else if (batches.size() > 1) {
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<AnalyzeClasses>>() {
+                @Override
+                public void execute(BuildOperationQueue<AnalyzeClasses> buildOperationQueue) {
+                    for (AnalyzeClasses batch : batches) {
+                        buildOperationQueue.add(batch);
+                    }
+                }
+            });
+        }
+
+        // Accumulate in visiting order, so the result does not depend on the order the batches completed in
+        for (AnalyzeClasses batch : batches) {
+            for (int i = 0; i < batch.classFiles.size(); i++) {
+                addClass(batch.classFiles.get(i), batch.hashes[i], batch.analyses[i], batch.failures[i], accumulator, hashes);
+            }
+        }
+    }
+
+    private static void addClass(FileVisitDetails fileDetails, HashCode classFileHash, ClassAnalysis analysis, Exception failure, ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
+        if (failure != null) {
+            accumulator.fullRebuildNeeded(fileDetails.getName() + " could not be analyzed for incremental compilation. See the debug log for more details");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Could not analyze " + fileDetails.getName() + " for incremental compilation", failure);
+            }
+            return;
+        }
+        accumulator.addClass(analysis);
+        hashes.put(analysis.getClassName(), classFileHash);
+    }
+
+    private class AnalyzeClasses implements RunnableBuildOperation {
+        private final File classpathEntry;
+        private final List<FileVisitDetails> classFiles;
+        private final HashCode[] hashes;
+        private final ClassAnalysis[] analyses;
+        private final Exception[] failures;
+
+        AnalyzeClasses(File classpathEntry, List<FileVisitDetails> classFiles) {
+            this.classpathEntry = classpathEntry;
+            this.classFiles = classFiles;
+            this.hashes = new HashCode[classFiles.size()];
+            this.analyses = new ClassAnalysis[classFiles.size()];
+            this.failures = new Exception[classFiles.size()];
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            analyze();
+        }
+
+        void analyze() {
+            for (int i = 0; i < classFiles.size(); i++) {
+                FileVisitDetails classFile = classFiles.get(i);
+                hashes[i] = fileHasher.hash(classFile);
+                try {
+                    analyses[i] = analyzer.getClassAnalysis(hashes[i], classFile);
+                } catch (Exception e) {
+                    failures[i] = e;
+                }
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Analyze " + classFiles.size() + " classes of " + classpathEntry);
         }
     }
 
@@ -94,16 +204,14 @@ public class DefaultClasspathEntrySnapshotter {
 
             HashCode classFileHash = getHashCode(fileDetails);
 
+            ClassAnalysis analysis = null;
+            Exception failure = null;
             try {
-                ClassAnalysis analysis = analyzer.getClassAnalysis(classFileHash, fileDetails);
-                accumulator.addClass(analysis);
-                hashes.put(analysis.getClassName(), classFileHash);
+                analysis = analyzer.getClassAnalysis(classFileHash, fileDetails);
             } catch (Exception e) {
-                accumulator.fullRebuildNeeded(fileDetails.getName() + " could not be analyzed for incremental compilation. See the debug log for more details");
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Could not analyze " + fileDetails.getName() + " for incremental compilation", e);
-                }
+                failure = e;
             }
+            addClass(fileDetails, classFileHash, analysis, failure, accumulator, hashes);
         }
 
         protected abstract HashCode getHashCode(FileVisitDetails fileDetails);
@@ -87,6 +87,13 @@ public class ClassSetAnalysisData {
         return children == null ? Collections.<String>emptySet() : children;
     }
 
+    /**
+     * Returns the super types of the classes in this set, i.e. the classes for which {@link #getChildren(String)} is not empty.
+     */
+    public Set<String> getSuperTypes() {
+        return classesToChildren.keySet();
+    }
+
     public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
 
         private final StringInterner interner;
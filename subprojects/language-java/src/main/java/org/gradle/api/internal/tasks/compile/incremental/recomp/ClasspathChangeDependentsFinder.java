@@ -22,7 +22,6 @@ import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.compile.incremental.classpath.ClasspathEntrySnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.classpath.ClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.deps.AffectedClasses;
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 
@@ -95,8 +94,7 @@ public class ClasspathChangeDependentsFinder {
                         if (classpathEntrySnapshot != previous) {
                             // we need to find classes in other entries that would potentially extend classes changed
                             // in the current snapshot (they are intermediates)
-                            ClassSetAnalysisData data = classpathEntrySnapshot.getData().getClassAnalysis();
-                            Set<String> children = data.getChildren(dependentClass);
+                            Set<String> children = classpathEntrySnapshot.getChildren(dependentClass);
                             for (String child : children) {
                                 if (dependentClasses.add(child)) {
                                     queue.add(child);
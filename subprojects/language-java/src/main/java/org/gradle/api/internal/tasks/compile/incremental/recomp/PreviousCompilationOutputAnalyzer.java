@@ -26,6 +26,7 @@ import org.gradle.api.logging.Logging;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.time.Time;
 import org.gradle.internal.time.Timer;
 
@@ -37,8 +38,8 @@ public class PreviousCompilationOutputAnalyzer {
 
     private final DefaultClasspathEntrySnapshotter snapshotter;
 
-    public PreviousCompilationOutputAnalyzer(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations) {
-        this.snapshotter = new DefaultClasspathEntrySnapshotter(fileHasher, streamHasher, analyzer, fileOperations);
+    public PreviousCompilationOutputAnalyzer(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations, BuildOperationExecutor buildOperationExecutor) {
+        this.snapshotter = new DefaultClasspathEntrySnapshotter(fileHasher, streamHasher, analyzer, fileOperations, buildOperationExecutor);
     }
 
     public ClassSetAnalysis getAnalysis(File classesDirectory) {
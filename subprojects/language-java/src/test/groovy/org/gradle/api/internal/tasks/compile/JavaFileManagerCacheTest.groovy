@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+import javax.tools.ToolProvider
+import java.nio.charset.Charset
+
+class JavaFileManagerCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def cache = new JavaFileManagerCache()
+    def compiler = Mock(JavaCompiler)
+    def jar = tmp.file("lib.jar").createFile()
+
+    def "reuses an idle file manager"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def lease1 = cache.acquire(compiler, null, [jar])
+        lease1.stop()
+        def lease2 = cache.acquire(compiler, null, [jar])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        lease1.fileManager == fileManager
+        lease2.fileManager == fileManager
+        (1.._) * fileManager.setLocation(_, null)
+        0 * fileManager.close()
+    }
+
+    def "does not hand out a file manager that is in use"() {
+        when:
+        def lease1 = cache.acquire(compiler, null, [jar])
+        def lease2 = cache.acquire(compiler, null, [jar])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+        lease1.fileManager != lease2.fileManager
+    }
+
+    def "does not reuse a file manager for a different encoding"() {
+        when:
+        cache.acquire(compiler, null, [jar]).stop()
+        cache.acquire(compiler, Charset.forName("UTF-8"), [jar])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        1 * compiler.getStandardFileManager(null, null, Charset.forName("UTF-8")) >> Mock(StandardJavaFileManager)
+    }
+
+    def "closes a file manager that has read a jar that has since changed"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+
+        when:
+        cache.acquire(compiler, null, [jar]).stop()
+        jar << "changed"
+        def lease = cache.acquire(compiler, null, [])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        1 * fileManager1.close()
+        lease.fileManager == fileManager2
+    }
+
+    def "does not reuse a file manager whose locations cannot be reset"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+
+        when:
+        cache.acquire(compiler, null, [jar]).stop()
+        def lease = cache.acquire(compiler, null, [jar])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        _ * fileManager1.setLocation(_, null) >> { throw new IllegalStateException() }
+        1 * fileManager1.close()
+        lease.fileManager == fileManager2
+    }
+
+    def "reuses a file manager of the system java compiler after a compilation has set its locations"() {
+        def systemCompiler = ToolProvider.getSystemJavaCompiler()
+        def classes = tmp.createDir("classes")
+        def sources = tmp.createDir("src")
+
+        when:
+        def lease1 = cache.acquire(systemCompiler, null, [jar])
+        lease1.fileManager.setLocation(StandardLocation.CLASS_PATH, [jar])
+        lease1.fileManager.setLocation(StandardLocation.SOURCE_PATH, [sources])
+        lease1.fileManager.setLocation(StandardLocation.CLASS_OUTPUT, [classes])
+        lease1.stop()
+        def lease2 = cache.acquire(systemCompiler, null, [jar])
+
+        then:
+        lease2.fileManager.is(lease1.fileManager)
+
+        cleanup:
+        lease2?.fileManager?.close()
+    }
+}
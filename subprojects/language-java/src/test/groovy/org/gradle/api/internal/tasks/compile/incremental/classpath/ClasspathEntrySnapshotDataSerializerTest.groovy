@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.classpath
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet
+import it.unimi.dsi.fastutil.ints.IntSet
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.serialize.InputStreamBackedDecoder
+import org.gradle.internal.serialize.OutputStreamBackedEncoder
+import spock.lang.Specification
+import spock.lang.Subject
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet.dependents
+
+class ClasspathEntrySnapshotDataSerializerTest extends Specification {
+
+    @Subject serializer = new ClasspathEntrySnapshotDataSerializer(new StringInterner())
+
+    def "serializes and decodes class analysis on first use"() {
+        def analysis = new ClassSetAnalysisData(["A", "B", "C"] as Set,
+            ["A": dependents("B"), "B": dependents(), "C": dependents()],
+            [C: new IntOpenHashSet([1, 2]) as IntSet],
+            ["A": ["B"] as Set, "I": ["B", "C"] as Set], null
+        )
+        def data = new ClasspathEntrySnapshotData(HashCode.fromInt(0x1234), ["A": HashCode.fromInt(0xaa), "B": HashCode.fromInt(0xbb), "C": HashCode.fromInt(0xcc)], analysis)
+
+        when:
+        def read = roundTrip(data)
+
+        then:
+        read.hash == data.hash
+        read.hashes == data.hashes
+        read.superTypes == ["A", "I"] as Set
+        read.@classAnalysis == null
+
+        when:
+        def readAnalysis = read.classAnalysis
+
+        then:
+        readAnalysis.getDependents("A").dependentClasses == ["B"] as Set
+        readAnalysis.getConstants("C") == [1, 2] as Set
+        readAnalysis.getChildren("I") == ["B", "C"] as Set
+        read.classAnalysis.is(readAnalysis)
+    }
+
+    def "does not decode class analysis when looking for children of a class that is not extended in the entry"() {
+        def analysis = new ClassSetAnalysisData(["A", "B"] as Set, [:], [:], ["A": ["B"] as Set], null)
+        def snapshot = new ClasspathEntrySnapshot(roundTrip(new ClasspathEntrySnapshotData(HashCode.fromInt(0x1234), ["A": HashCode.fromInt(0xaa), "B": HashCode.fromInt(0xbb)], analysis)))
+
+        expect:
+        snapshot.getChildren("Other").empty
+        snapshot.data.@classAnalysis == null
+        snapshot.getChildren("A") == ["B"] as Set
+        snapshot.data.@classAnalysis != null
+    }
+
+    private ClasspathEntrySnapshotData roundTrip(ClasspathEntrySnapshotData data) {
+        def os = new ByteArrayOutputStream()
+        def encoder = new OutputStreamBackedEncoder(os)
+        serializer.write(encoder, data)
+        encoder.flush()
+        return serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+    }
+}
@@ -18,7 +18,9 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.classpath
 
+import it.unimi.dsi.fastutil.ints.IntSets
 import org.gradle.api.file.ConfigurableFileTree
+import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.file.FileVisitor
 import org.gradle.api.internal.file.DefaultFileVisitDetails
 import org.gradle.api.internal.file.FileOperations
@@ -27,6 +29,7 @@ import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis
 import org.gradle.internal.hash.FileHasher
 import org.gradle.internal.hash.HashCode
 import org.gradle.internal.hash.StreamHasher
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
@@ -87,4 +90,54 @@ class DefaultClasspathEntrySnapshotterTest extends Specification {
         snapshot.hashes == ["Foo": f1Hash, "com.Foo2": f2Hash]
         snapshot.classAnalysis
     }
+
+    def "analyzes the classes of a directory in batches when a build operation executor is given"() {
+        def buildOperationExecutor = new TestBuildOperationExecutor()
+        def parallelSnapshotter = new DefaultClasspathEntrySnapshotter(fileHasher, streamHasher, classDependenciesAnalyzer, fileOperations, buildOperationExecutor)
+        def entry = temp.createDir("foo")
+        def classFiles = (0..<1200).collect { int i -> new DefaultFileVisitDetails(temp.file("foo/C${i}.class"), null, null) }
+        def analyses = classFiles.collectEntries { FileVisitDetails details ->
+            def className = details.name - ".class"
+            [details, Stub(ClassAnalysis) { getClassName() >> className }]
+        }
+        def fileTree = Mock(ConfigurableFileTree)
+
+        when:
+        def snapshot = parallelSnapshotter.createSnapshot(HashCode.fromInt(123), entry)
+
+        then:
+        1 * fileOperations.fileTree(entry) >> fileTree
+        1 * fileTree.visit(_) >> { FileVisitor visitor ->
+            classFiles.each { visitor.visitFile(it) }
+        }
+        1200 * fileHasher.hash(_) >> { FileVisitDetails details -> HashCode.fromInt(details.name.hashCode()) }
+        1200 * classDependenciesAnalyzer.getClassAnalysis(_, _) >> { HashCode hash, FileVisitDetails details -> analyses[details] }
+
+        and:
+        buildOperationExecutor.log.records.size() == 3
+        snapshot.hashes.size() == 1200
+        snapshot.hashes["C42"] == HashCode.fromInt("C42.class".hashCode())
+        snapshot.classAnalysis
+    }
+
+    def "requires a full rebuild when a class of a directory analyzed in batches cannot be analyzed"() {
+        def parallelSnapshotter = new DefaultClasspathEntrySnapshotter(fileHasher, streamHasher, classDependenciesAnalyzer, fileOperations, new TestBuildOperationExecutor())
+        def entry = temp.createDir("foo")
+        def fileTree = Mock(ConfigurableFileTree)
+
+        when:
+        def snapshot = parallelSnapshotter.createSnapshot(HashCode.fromInt(123), entry)
+
+        then:
+        1 * fileOperations.fileTree(entry) >> fileTree
+        1 * fileTree.visit(_) >> { FileVisitor visitor ->
+            visitor.visitFile(new DefaultFileVisitDetails(temp.file("foo/Foo.class"), null, null))
+        }
+        1 * fileHasher.hash(_) >> HashCode.fromInt(1)
+        1 * classDependenciesAnalyzer.getClassAnalysis(_, _) >> { throw new RuntimeException("broken") }
+
+        and:
+        snapshot.hashes.isEmpty()
+        snapshot.classAnalysis.getRelevantDependents("Foo", IntSets.EMPTY_SET).dependencyToAll
+    }
 }
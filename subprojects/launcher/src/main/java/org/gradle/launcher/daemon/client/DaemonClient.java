@@ -28,6 +28,7 @@ import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.invocation.BuildAction;
+import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.remote.internal.Connection;
@@ -44,6 +45,7 @@ import org.gradle.launcher.daemon.protocol.Finished;
 import org.gradle.launcher.daemon.protocol.ForwardInput;
 import org.gradle.launcher.daemon.protocol.Message;
 import org.gradle.launcher.daemon.protocol.OutputMessage;
+import org.gradle.launcher.daemon.protocol.OutputMessageBatch;
 import org.gradle.launcher.daemon.protocol.Result;
 import org.gradle.launcher.daemon.protocol.Stop;
 import org.gradle.launcher.daemon.server.api.DaemonStoppedException;
@@ -64,7 +66,7 @@ import java.util.UUID;
  * <li>The client creates a connection to daemon.</li>
  * <li>The client sends exactly one {@link Build} message.</li>
  * <li>The daemon sends exactly one {@link BuildStarted}, {@link Failure} or {@link DaemonUnavailable} message.</li>
- * <li>If the build is started, the daemon may send zero or more {@link OutputMessage} messages.</li>
+ * <li>If the build is started, the daemon may send zero or more {@link OutputMessage} or {@link OutputMessageBatch} messages.</li>
  * <li>If the build is started, the daemon may send zero or more {@link BuildEvent} messages.</li>
  * <li>If the build is started, the client may send zero or more {@link ForwardInput} messages followed by exactly one {@link CloseInput} message.</li>
  * <li>If the build is started, the client may send {@link org.gradle.launcher.daemon.protocol.Cancel} message before {@link CloseInput} message.</li>
@@ -215,6 +217,11 @@ public class DaemonClient implements BuildActionExecuter<BuildActionParameters>
 
                 if (object == null) {
                     return handleDaemonDisappearance(build, diagnostics);
+                } else if (object instanceof OutputMessageBatch) {
+                    List<OutputEvent> events = ((OutputMessageBatch) object).getEvents();
+                    for (int i = 0; i < events.size(); i++) {
+                        outputEventListener.onOutput(events.get(i));
+                    }
                 } else if (object instanceof OutputMessage) {
                     outputEventListener.onOutput(((OutputMessage) object).getEvent());
                 } else if (object instanceof BuildEvent) {
@@ -23,6 +23,8 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.Pair;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.internal.remote.internal.ConnectException;
@@ -46,8 +48,10 @@ import org.gradle.util.CollectionUtils;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static java.lang.Thread.sleep;
 import static org.gradle.launcher.daemon.server.api.DaemonStateControl.State.Canceled;
@@ -60,27 +64,32 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private static final Logger LOGGER = Logging.getLogger(DefaultDaemonConnector.class);
     public static final int DEFAULT_CONNECT_TIMEOUT = 30000;
     public static final int CANCELED_WAIT_TIMEOUT = 3000;
+    private static final int MAX_CONCURRENT_CONNECTS = 8;
+    private static final int STAGGERED_CONNECT_DELAY = 250;
     private final DaemonRegistry daemonRegistry;
     protected final OutgoingConnector connector;
     private final DaemonStarter daemonStarter;
     private final DaemonStartListener startListener;
     private final ProgressLoggerFactory progressLoggerFactory;
     private final Serializer<Message> serializer;
+    private final ExecutorFactory executorFactory;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
 
-    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, DaemonStartListener startListener, ProgressLoggerFactory progressLoggerFactory, Serializer<Message> serializer) {
+    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, DaemonStartListener startListener, ProgressLoggerFactory progressLoggerFactory, Serializer<Message> serializer, ExecutorFactory executorFactory) {
         this.serializer = serializer;
         Preconditions.checkNotNull(daemonRegistry);
         Preconditions.checkNotNull(connector);
         Preconditions.checkNotNull(daemonStarter);
         Preconditions.checkNotNull(startListener);
         Preconditions.checkNotNull(progressLoggerFactory);
+        Preconditions.checkNotNull(executorFactory);
 
         this.daemonRegistry = daemonRegistry;
         this.connector = connector;
         this.daemonStarter = daemonStarter;
         this.startListener = startListener;
         this.progressLoggerFactory = progressLoggerFactory;
+        this.executorFactory = executorFactory;
     }
 
     public void setConnectTimeout(long connectTimeout) {
@@ -192,6 +201,9 @@ public class DefaultDaemonConnector implements DaemonConnector {
     }
 
     private DaemonClientConnection findConnection(List<DaemonInfo> compatibleDaemons) {
+        if (compatibleDaemons.size() > 1) {
+            return findConnectionConcurrently(compatibleDaemons);
+        }
         for (DaemonInfo daemon : compatibleDaemons) {
             try {
                 return connectToDaemon(daemon, new CleanupOnStaleAddress(daemon, true));
@@ -202,6 +214,23 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return null;
     }
 
+    /**
+     * Attempts to connect to the given daemons one after the other, and returns the first connection made. The next attempt is started without waiting
+     * for the previous one when it fails, or when it has not completed after a short delay. This way a stale registry entry only costs a connect timeout
+     * when none of the other daemons can be connected to, while usually only one daemon is connected to. Attempts that are still running once a connection
+     * has been made are abandoned, and close any connection they make.
+     */
+    private DaemonClientConnection findConnectionConcurrently(List<DaemonInfo> compatibleDaemons) {
+        ConcurrentConnect concurrentConnect = new ConcurrentConnect();
+        ManagedExecutor executor = executorFactory.create("Daemon connector", Math.min(compatibleDaemons.size(), MAX_CONCURRENT_CONNECTS));
+        try {
+            return concurrentConnect.connectToFirst(compatibleDaemons.iterator(), executor);
+        } finally {
+            // Do not wait for the remaining attempts, they clean up after themselves
+            executor.requestStop();
+        }
+    }
+
     public DaemonClientConnection startDaemon(ExplainingSpec<DaemonContext> constraint) {
         return doStartDaemon(constraint, false);
     }
@@ -271,6 +300,82 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return new DaemonClientConnection(connection, daemon, staleAddressDetector);
     }
 
+    private class ConcurrentConnect {
+        private final Object lock = new Object();
+        private int started;
+        private int completed;
+        private boolean done;
+        private DaemonClientConnection connection;
+
+        DaemonClientConnection connectToFirst(Iterator<DaemonInfo> daemons, Executor executor) {
+            synchronized (lock) {
+                try {
+                    CountdownTimer staggerTimer = null;
+                    while (connection == null) {
+                        boolean pending = completed < started;
+                        if (daemons.hasNext() && (!pending || staggerTimer.hasExpired())) {
+                            start(daemons.next(), executor);
+                            staggerTimer = Time.startCountdownTimer(STAGGERED_CONNECT_DELAY);
+                        } else if (!pending) {
+                            return null;
+                        } else if (daemons.hasNext()) {
+                            lock.wait(Math.max(1, staggerTimer.getRemainingMillis()));
+                        } else {
+                            lock.wait();
+                        }
+                    }
+                    return connection;
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    done = true;
+                }
+            }
+        }
+
+        private void start(final DaemonInfo daemon, Executor executor) {
+            started++;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    connectTo(daemon);
+                }
+            });
+        }
+
+        private void connectTo(DaemonInfo daemon) {
+            synchronized (lock) {
+                if (done) {
+                    completed++;
+                    return;
+                }
+            }
+            DaemonClientConnection candidate = null;
+            try {
+                candidate = connectToDaemon(daemon, new CleanupOnStaleAddress(daemon, true));
+            } catch (ConnectException e) {
+                LOGGER.debug("Cannot connect to daemon {} due to {}. Trying a different daemon...", daemon, e);
+            } finally {
+                synchronized (lock) {
+                    completed++;
+                    if (candidate != null && connection == null && !done) {
+                        connection = candidate;
+                        candidate = null;
+                    }
+                    lock.notifyAll();
+                }
+            }
+            if (candidate != null) {
+                LOGGER.debug("Already connected to a different daemon. Closing connection to daemon {}.", daemon);
+                try {
+                    candidate.stop();
+                } catch (Exception e) {
+                    LOGGER.debug("Could not close connection to daemon {}.", daemon, e);
+                }
+            }
+        }
+    }
+
     private class CleanupOnStaleAddress implements DaemonClientConnection.StaleAddressDetector {
         private final DaemonConnectDetails daemon;
         private final boolean exposeAsStale;
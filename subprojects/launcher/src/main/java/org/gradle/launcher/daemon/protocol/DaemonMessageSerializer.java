@@ -57,6 +57,7 @@ import org.gradle.tooling.internal.provider.serialization.SerializedPayload;
 import org.gradle.tooling.internal.provider.serialization.SerializedPayloadSerializer;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -98,7 +99,9 @@ public class DaemonMessageSerializer {
         registry.register(ProgressCompleteEvent.class, new ProgressCompleteEventSerializer());
         registry.register(ProgressEvent.class, new ProgressEventSerializer());
         registry.register(LogLevelChangeEvent.class, new LogLevelChangeEventSerializer(logLevelSerializer));
-        registry.register(OutputMessage.class, new OutputMessageSerializer(registry.build(OutputEvent.class)));
+        Serializer<OutputEvent> outputEventSerializer = registry.build(OutputEvent.class);
+        registry.register(OutputMessage.class, new OutputMessageSerializer(outputEventSerializer));
+        registry.register(OutputMessageBatch.class, new OutputMessageBatchSerializer(outputEventSerializer));
 
         // Default for everything else
         registry.useJavaSerialization(Message.class);
@@ -244,6 +247,33 @@ public class DaemonMessageSerializer {
         }
     }
 
+    private static class OutputMessageBatchSerializer implements Serializer<OutputMessageBatch> {
+        private final Serializer<OutputEvent> eventSerializer;
+
+        OutputMessageBatchSerializer(Serializer<OutputEvent> eventSerializer) {
+            this.eventSerializer = eventSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, OutputMessageBatch message) throws Exception {
+            List<OutputEvent> events = message.getEvents();
+            encoder.writeSmallInt(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                eventSerializer.write(encoder, events.get(i));
+            }
+        }
+
+        @Override
+        public OutputMessageBatch read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            List<OutputEvent> events = new ArrayList<OutputEvent>(count);
+            for (int i = 0; i < count; i++) {
+                events.add(eventSerializer.read(decoder));
+            }
+            return new OutputMessageBatch(events);
+        }
+    }
+
     private static class BuildSerializer implements Serializer<Build> {
         private final Serializer<BuildAction> buildActionSerializer;
         private final Serializer<BuildActionParameters> buildActionParametersSerializer = new BuildActionParametersSerializer();
@@ -17,6 +17,7 @@
 package org.gradle.launcher.daemon.server;
 
 import org.gradle.launcher.daemon.protocol.OutputMessage;
+import org.gradle.launcher.daemon.protocol.OutputMessageBatch;
 import org.gradle.internal.remote.internal.MessageIOException;
 import org.gradle.internal.remote.internal.RemoteConnection;
 import org.slf4j.Logger;
@@ -38,7 +39,7 @@ public class SynchronizedDispatchConnection<T> implements RemoteConnection<T> {
     }
 
     public void dispatch(final T message) {
-        if (!(message instanceof OutputMessage)) {
+        if (!(message instanceof OutputMessage) && !(message instanceof OutputMessageBatch)) {
             LOGGER.debug("thread {}: dispatching {}", Thread.currentThread().getId(), message.getClass());
         }
         synchronized (lock) {
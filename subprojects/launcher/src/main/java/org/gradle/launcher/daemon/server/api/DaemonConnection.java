@@ -23,6 +23,7 @@ import org.gradle.launcher.daemon.protocol.DaemonUnavailable;
 import org.gradle.launcher.daemon.protocol.Result;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public interface DaemonConnection extends Stoppable {
@@ -85,6 +86,11 @@ public interface DaemonConnection extends Stoppable {
      */
     void logEvent(OutputEvent logEvent);
 
+    /**
+     * Dispatches a batch of log events to the client in a single message. The list may be reused by the caller once this method returns.
+     */
+    void logEvents(List<OutputEvent> logEvents);
+
     /**
      * Dispatches some build event to the client.
      */
@@ -53,6 +53,7 @@ public class LogAndCheckHealth implements DaemonCommandAction {
 
         logger.logHealth(stats, LOG);
         execution.proceed();
+        stats.buildFinished();
 
         // Execute the health check that should send out a DaemonExpiration event
         // if the daemon is unhealthy
@@ -30,14 +30,23 @@ import org.gradle.launcher.daemon.protocol.Build;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
 import org.gradle.launcher.daemon.server.api.DaemonConnection;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 
+/**
+ * Forwards the output of a build to the client. Events are sent from a dispatcher thread in batches, each batch holding the events queued since the previous one,
+ * and the dispatcher waits for the flush interval set by {@value #FLUSH_INTERVAL_PROPERTY} (in milliseconds) whenever the queue is empty.
+ */
 public class LogToClient extends BuildCommandOnly {
 
     public static final String DISABLE_OUTPUT = "org.gradle.daemon.disable-output";
+    public static final String FLUSH_INTERVAL_PROPERTY = "org.gradle.daemon.output.flush-interval";
     private static final Logger LOGGER = Logging.getLogger(LogToClient.class);
+    private static final int DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+    private static final int MAX_BATCH_SIZE = 1000;
 
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
@@ -70,8 +79,12 @@ public class LogToClient extends BuildCommandOnly {
         private final Queue<OutputEvent> eventQueue = new ConcurrentLinkedQueue<OutputEvent>();
         private final DaemonConnection connection;
         private final OutputEventListener listener;
+        private final int flushIntervalMillis = Integer.getInteger(FLUSH_INTERVAL_PROPERTY, DEFAULT_FLUSH_INTERVAL_MILLIS);
+        private final List<OutputEvent> batch = new ArrayList<OutputEvent>();
         private volatile boolean shouldStop;
         private boolean unableToSend;
+        private long eventsSent;
+        private long batchesSent;
 
         private AsynchronousLogDispatcher(DaemonConnection conn, final LogLevel buildLogLevel) {
             super("Asynchronous log dispatcher for " + conn);
@@ -103,11 +116,8 @@ public class LogToClient extends BuildCommandOnly {
         public void run() {
             try {
                 while (!shouldStop) {
-                    OutputEvent event = eventQueue.poll();
-                    if (event == null) {
-                        Thread.sleep(10);
-                    } else {
-                        dispatchAsync(event);
+                    if (!dispatchBatch()) {
+                        Thread.sleep(flushIntervalMillis);
                     }
                 }
             } catch (InterruptedException ex) {
@@ -121,18 +131,42 @@ public class LogToClient extends BuildCommandOnly {
         }
 
         private void sendRemainingEvents() {
+            while (dispatchBatch()) {
+                // Keep going until the queue is empty
+            }
+        }
+
+        /**
+         * @return false when there were no events to send.
+         */
+        private boolean dispatchBatch() {
             OutputEvent event;
-            while ((event = eventQueue.poll()) != null) {
-                dispatchAsync(event);
+            while (batch.size() < MAX_BATCH_SIZE && (event = eventQueue.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                return false;
             }
+            try {
+                dispatchAsync(batch);
+            } finally {
+                batch.clear();
+            }
+            return true;
         }
 
-        private void dispatchAsync(OutputEvent event) {
+        private void dispatchAsync(List<OutputEvent> events) {
             if (unableToSend) {
                 return;
             }
             try {
-                connection.logEvent(event);
+                if (events.size() == 1) {
+                    connection.logEvent(events.get(0));
+                } else {
+                    connection.logEvents(events);
+                }
+                eventsSent += events.size();
+                batchesSent++;
             } catch (Exception ex) {
                 shouldStop = true;
                 unableToSend = true;
@@ -148,7 +182,9 @@ public class LogToClient extends BuildCommandOnly {
                 completionLock.await();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+                return;
             }
+            LOGGER.info("Sent {} output events to the client in {} messages.", eventsSent, batchesSent);
         }
     }
 }
@@ -20,6 +20,8 @@ import com.google.common.annotations.VisibleForTesting;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.concurrent.ManagedScheduledExecutor;
+import org.gradle.internal.operations.BuildOperationListenerManager;
+import org.gradle.internal.time.Clock;
 import org.gradle.internal.util.NumberUtil;
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionInfo;
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionMonitor;
@@ -27,20 +29,33 @@ import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionStats;
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectorMonitoringStrategy;
 import org.gradle.launcher.daemon.server.stats.DaemonRunningStats;
 
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import static java.lang.String.format;
 
 public class DaemonHealthStats implements Stoppable {
+    private static final int TENURED_USAGE_HISTORY_SIZE = 5;
 
     private final DaemonRunningStats runningStats;
     private final ManagedScheduledExecutor scheduler;
     private final GarbageCollectionInfo gcInfo;
     private final GarbageCollectionMonitor gcMonitor;
+    private final BuildOperationListenerManager buildOperationListenerManager;
+    private final DaemonHeapTelemetry heapTelemetry;
+    private final LinkedList<Integer> tenuredUsageAfterBuilds = new LinkedList<Integer>();
 
-    public DaemonHealthStats(DaemonRunningStats runningStats, ExecutorFactory executorFactory) {
+    public DaemonHealthStats(DaemonRunningStats runningStats, ExecutorFactory executorFactory, BuildOperationListenerManager buildOperationListenerManager, Clock clock) {
         this.runningStats = runningStats;
         this.scheduler = executorFactory.createScheduled("Daemon health stats", 1);
         this.gcInfo = new GarbageCollectionInfo();
         this.gcMonitor = new GarbageCollectionMonitor(scheduler);
+        this.buildOperationListenerManager = buildOperationListenerManager;
+        this.heapTelemetry = new DaemonHeapTelemetry(buildOperationListenerManager.getBroadcaster(), clock, gcInfo);
+        buildOperationListenerManager.addListener(heapTelemetry);
+        scheduler.scheduleAtFixedRate(heapTelemetry, DaemonHeapTelemetry.SAMPLE_INTERVAL_SECONDS, DaemonHeapTelemetry.SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     @VisibleForTesting
@@ -49,10 +64,15 @@ public class DaemonHealthStats implements Stoppable {
         this.scheduler = null;
         this.gcInfo = gcInfo;
         this.gcMonitor = gcMonitor;
+        this.buildOperationListenerManager = null;
+        this.heapTelemetry = null;
     }
 
     @Override
     public void stop() {
+        if (heapTelemetry != null) {
+            buildOperationListenerManager.removeListener(heapTelemetry);
+        }
         if (scheduler != null) {
             scheduler.stop();
         }
@@ -62,6 +82,28 @@ public class DaemonHealthStats implements Stoppable {
         return gcMonitor;
     }
 
+    /**
+     * Records the tenured space usage of the daemon at the end of a build, to predict the usage of the following builds.
+     */
+    public void buildFinished() {
+        int usage = gcMonitor.getTenuredStats().getUsage();
+        synchronized (tenuredUsageAfterBuilds) {
+            tenuredUsageAfterBuilds.addLast(usage);
+            if (tenuredUsageAfterBuilds.size() > TENURED_USAGE_HISTORY_SIZE) {
+                tenuredUsageAfterBuilds.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * The tenured space usage percentage at the end of each of the most recent builds, oldest first. A value is -1 when there was no tenured space usage data for the build.
+     */
+    List<Integer> getTenuredUsageAfterBuilds() {
+        synchronized (tenuredUsageAfterBuilds) {
+            return new ArrayList<Integer>(tenuredUsageAfterBuilds);
+        }
+    }
+
     /**
      * elegant description of daemon's health
      */
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health;
+
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationListener;
+import org.gradle.internal.operations.OperationFinishEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.OperationProgressEvent;
+import org.gradle.internal.operations.OperationStartEvent;
+import org.gradle.internal.time.Clock;
+import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionInfo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Samples the heap usage, allocation rate and garbage collection activity of the daemon while a build runs, and reports each sample as a
+ * {@link DaemonHeapTelemetryProgressDetails} progress event of the root build operation.
+ *
+ * <p>Samples are taken each time this telemetry is run, which is done periodically by the daemon, and when the root build operation finishes.</p>
+ */
+public class DaemonHeapTelemetry implements BuildOperationListener, Runnable {
+    public static final int SAMPLE_INTERVAL_SECONDS = 1;
+
+    private final BuildOperationListener progressListener;
+    private final Clock clock;
+    private final GarbageCollectionInfo gcInfo;
+
+    // Guarded by this
+    private OperationIdentifier rootOperation;
+    private Sample buildStart;
+    private Sample previous;
+
+    public DaemonHeapTelemetry(BuildOperationListener progressListener, Clock clock, GarbageCollectionInfo gcInfo) {
+        this.progressListener = progressListener;
+        this.clock = clock;
+        this.gcInfo = gcInfo;
+    }
+
+    @Override
+    public synchronized void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        if (buildOperation.getParentId() == null && rootOperation == null) {
+            rootOperation = buildOperation.getId();
+            buildStart = takeSample();
+            previous = buildStart;
+        }
+    }
+
+    @Override
+    public void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+    }
+
+    @Override
+    public synchronized void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        if (buildOperation.getId().equals(rootOperation)) {
+            report();
+            rootOperation = null;
+            buildStart = null;
+            previous = null;
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        if (rootOperation != null) {
+            report();
+        }
+    }
+
+    private void report() {
+        Sample current = takeSample();
+        progressListener.progress(rootOperation, new OperationProgressEvent(current.timestamp, new DefaultDaemonHeapTelemetryProgressDetails(buildStart, previous, current)));
+        previous = current;
+    }
+
+    private Sample takeSample() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        return new Sample(clock.getCurrentTime(), heap.getUsed(), heap.getCommitted(), heap.getMax(), getAllocatedBytes(), gcInfo.getCollectionCount(), gcInfo.getCollectionTime());
+    }
+
+    /**
+     * Returns the number of bytes allocated by the live threads, or -1 when not supported by the JVM.
+     * Allocations made by threads that have since finished are not counted, so this is an approximation.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!allocationMXBean.isThreadAllocatedMemorySupported() || !allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long allocated = 0;
+        for (long bytes : allocationMXBean.getThreadAllocatedBytes(allocationMXBean.getAllThreadIds())) {
+            if (bytes > 0) {
+                allocated += bytes;
+            }
+        }
+        return allocated;
+    }
+
+    private static class Sample {
+        final long timestamp;
+        final long heapUsed;
+        final long heapCommitted;
+        final long heapMax;
+        final long allocatedBytes;
+        final long gcCount;
+        final long gcTime;
+
+        Sample(long timestamp, long heapUsed, long heapCommitted, long heapMax, long allocatedBytes, long gcCount, long gcTime) {
+            this.timestamp = timestamp;
+            this.heapUsed = heapUsed;
+            this.heapCommitted = heapCommitted;
+            this.heapMax = heapMax;
+            this.allocatedBytes = allocatedBytes;
+            this.gcCount = gcCount;
+            this.gcTime = gcTime;
+        }
+    }
+
+    private static class DefaultDaemonHeapTelemetryProgressDetails implements DaemonHeapTelemetryProgressDetails {
+        private final long heapUsed;
+        private final long heapCommitted;
+        private final long heapMax;
+        private final long allocatedBytes;
+        private final long allocationRate;
+        private final long gcCount;
+        private final long gcTime;
+
+        DefaultDaemonHeapTelemetryProgressDetails(Sample buildStart, Sample previous, Sample current) {
+            this.heapUsed = current.heapUsed;
+            this.heapCommitted = current.heapCommitted;
+            this.heapMax = current.heapMax;
+            this.allocatedBytes = current.allocatedBytes < 0 ? -1 : Math.max(0, current.allocatedBytes - buildStart.allocatedBytes);
+            long elapsed = current.timestamp - previous.timestamp;
+            this.allocationRate = current.allocatedBytes < 0 || elapsed <= 0 ? -1 : Math.max(0, current.allocatedBytes - previous.allocatedBytes) * 1000 / elapsed;
+            this.gcCount = current.gcCount - buildStart.gcCount;
+            this.gcTime = current.gcTime - buildStart.gcTime;
+        }
+
+        @Override
+        public long getHeapUsed() {
+            return heapUsed;
+        }
+
+        @Override
+        public long getHeapCommitted() {
+            return heapCommitted;
+        }
+
+        @Override
+        public long getHeapMax() {
+            return heapMax;
+        }
+
+        @Override
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        @Override
+        public long getAllocationRate() {
+            return allocationRate;
+        }
+
+        @Override
+        public long getGarbageCollectionCount() {
+            return gcCount;
+        }
+
+        @Override
+        public long getGarbageCollectionTime() {
+            return gcTime;
+        }
+    }
+}
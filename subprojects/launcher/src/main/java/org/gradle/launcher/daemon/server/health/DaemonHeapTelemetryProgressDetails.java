@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health;
+
+/**
+ * A sample of the heap and garbage collection activity of the daemon, taken while a build runs.
+ * Emitted as a progress event of the root build operation of the build.
+ *
+ * @since 5.2
+ */
+public interface DaemonHeapTelemetryProgressDetails {
+
+    /**
+     * The number of bytes of heap used when the sample was taken.
+     */
+    long getHeapUsed();
+
+    /**
+     * The number of bytes of heap committed when the sample was taken.
+     */
+    long getHeapCommitted();
+
+    /**
+     * The maximum number of bytes of heap that the daemon can use, or -1 when undefined.
+     */
+    long getHeapMax();
+
+    /**
+     * The approximate number of bytes allocated since the build started, or -1 when the JVM does not provide this.
+     */
+    long getAllocatedBytes();
+
+    /**
+     * The approximate number of bytes allocated per second since the previous sample, or -1 when the JVM does not provide this.
+     */
+    long getAllocationRate();
+
+    /**
+     * The number of garbage collections since the build started.
+     */
+    long getGarbageCollectionCount();
+
+    /**
+     * The approximate time in milliseconds spent in garbage collection since the build started.
+     */
+    long getGarbageCollectionTime();
+}
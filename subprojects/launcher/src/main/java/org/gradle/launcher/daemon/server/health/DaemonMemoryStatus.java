@@ -23,6 +23,8 @@ import org.gradle.api.specs.Spec;
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionStats;
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectorMonitoringStrategy;
 
+import java.util.List;
+
 import static java.lang.String.format;
 
 public class DaemonMemoryStatus {
@@ -34,6 +36,9 @@ public class DaemonMemoryStatus {
     public static final String TENURED_RATE_EXPIRE_AT = "org.gradle.daemon.performance.tenured-rate-expire-at";
     public static final String PERMGEN_USAGE_EXPIRE_AT = "org.gradle.daemon.performance.permgen-usage-expire-at";
     public static final String THRASHING_EXPIRE_AT = "org.gradle.daemon.performance.thrashing-expire-at";
+    public static final String ENABLE_PREDICTIVE_EXPIRATION = "org.gradle.daemon.performance.enable-predictive-expiration";
+
+    private static final int MIN_BUILDS_FOR_PREDICTION = 3;
 
     private static final String TENURED = "tenured";
     private static final String PERMGEN = "perm gen";
@@ -97,6 +102,37 @@ public class DaemonMemoryStatus {
         });
     }
 
+    /**
+     * Returns true when the tenured space usage has grown after each of the recent builds, and will reach the usage threshold during the next build if it keeps growing at the same pace.
+     * This allows the daemon to be replaced between builds, rather than once a build has started thrashing.
+     */
+    public boolean isTenuredSpaceExhaustionPredicted() {
+        if (!isEnabled() || !isPredictiveExpirationEnabled() || strategy == GarbageCollectorMonitoringStrategy.UNKNOWN || tenuredUsageThreshold == 0) {
+            return false;
+        }
+
+        List<Integer> usages = stats.getTenuredUsageAfterBuilds();
+        if (usages.size() < MIN_BUILDS_FOR_PREDICTION) {
+            return false;
+        }
+        int previous = 0;
+        for (int usage : usages) {
+            if (usage <= previous) {
+                return false;
+            }
+            previous = usage;
+        }
+
+        int first = usages.get(0);
+        int latest = usages.get(usages.size() - 1);
+        int predicted = latest + (latest - first) / (usages.size() - 1);
+        if (predicted >= tenuredUsageThreshold) {
+            LOGGER.debug(String.format("%s usage after recent builds: %s, predicted usage after next build: %s%%", TENURED, usages, predicted));
+            return true;
+        }
+        return false;
+    }
+
     private boolean exceedsThreshold(String pool, GarbageCollectionStats gcStats, Spec<GarbageCollectionStats> spec) {
         if (isEnabled()
             && strategy != GarbageCollectorMonitoringStrategy.UNKNOWN
@@ -119,6 +155,11 @@ public class DaemonMemoryStatus {
         return Boolean.parseBoolean(enabledValue);
     }
 
+    private boolean isPredictiveExpirationEnabled() {
+        String enabledValue = System.getProperty(ENABLE_PREDICTIVE_EXPIRATION, "true");
+        return Boolean.parseBoolean(enabledValue);
+    }
+
     private static int parseValue(String property, int defaultValue) {
         String expireAt = System.getProperty(property);
 
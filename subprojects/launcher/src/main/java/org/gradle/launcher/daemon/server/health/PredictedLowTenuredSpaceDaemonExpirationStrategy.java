@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult;
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy;
+
+import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.GRACEFUL_EXPIRE;
+
+/**
+ * Expires the daemon once it is idle, when its tenured space is predicted to be exhausted by the next build.
+ */
+public class PredictedLowTenuredSpaceDaemonExpirationStrategy implements DaemonExpirationStrategy {
+    private final DaemonMemoryStatus status;
+    private static final Logger LOG = Logging.getLogger(PredictedLowTenuredSpaceDaemonExpirationStrategy.class);
+
+    public static final String EXPIRATION_REASON = "before running out of JVM memory";
+    public static final String EXPIRE_DAEMON_MESSAGE = "Expiring Daemon because JVM Tenured space is predicted to be exhausted by the next build";
+
+    public PredictedLowTenuredSpaceDaemonExpirationStrategy(DaemonMemoryStatus status) {
+        this.status = status;
+    }
+
+    @Override
+    public DaemonExpirationResult checkExpiration() {
+        if (status.isTenuredSpaceExhaustionPredicted()) {
+            LOG.info(EXPIRE_DAEMON_MESSAGE);
+            return new DaemonExpirationResult(GRACEFUL_EXPIRE, EXPIRATION_REASON);
+        } else {
+            return DaemonExpirationResult.NOT_TRIGGERED;
+        }
+    }
+}
@@ -33,4 +33,18 @@ public class GarbageCollectionInfo {
         }
         return garbageCollectionTime;
     }
+
+    /**
+     * Number of garbage collections so far. See {@link GarbageCollectorMXBean}
+     */
+    public long getCollectionCount() {
+        long garbageCollectionCount = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long count = gc.getCollectionCount();
+            if (count >= 0) {
+                garbageCollectionCount += count;
+            }
+        }
+        return garbageCollectionCount;
+    }
 }
@@ -17,6 +17,7 @@ package org.gradle.launcher.daemon.client
 
 import org.gradle.api.internal.specs.ExplainingSpec
 import org.gradle.api.internal.specs.ExplainingSpecs
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
 import org.gradle.internal.remote.Address
 import org.gradle.internal.remote.internal.ConnectCompletion
@@ -40,10 +41,15 @@ class DefaultDaemonConnectorTest extends Specification {
     def javaHome = new File("tmp")
     def connectTimeoutSecs = 1
     def daemonCounter = 0
+    def executorFactory = new DefaultExecutorFactory()
+
+    def cleanup() {
+        executorFactory.stop()
+    }
 
     class OutgoingConnectorStub implements OutgoingConnector {
         ConnectCompletion connect(Address address) throws ConnectException {
-            def connection = [:] as RemoteConnection
+            def connection = [stop: {}] as RemoteConnection
             // unsure why I can't add this as property in the map-mock above
             connection.metaClass.num = address.num
             return { connection } as ConnectCompletion
@@ -65,7 +71,8 @@ class DefaultDaemonConnectorTest extends Specification {
                 { startBusyDaemon() } as DaemonStarter,
                 Stub(DaemonStartListener),
                 Stub(ProgressLoggerFactory),
-                Stub(Serializer)]
+                Stub(Serializer),
+                executorFactory]
         )
         connector.connectTimeout = connectTimeoutSecs * 1000
         connector
@@ -198,4 +205,40 @@ class DefaultDaemonConnectorTest extends Specification {
 
         registry.all.empty
     }
+
+    def "connect() uses a compatible daemon when the other compatible daemons cannot be connected to"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+        startIdleDaemon()
+
+        connector.connector.connect(_ as Address) >> { Address address ->
+            if (address.num != 1) {
+                throw new ConnectException("Problem!", new RuntimeException("foo"))
+            }
+            def connection = [stop: {}] as RemoteConnection
+            connection.metaClass.num = address.num
+            return { connection } as ConnectCompletion
+        }
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+
+        then:
+        connection && connection.connection.num == 1
+    }
+
+    def "connect() only connects to one of several compatible daemons when the first attempt succeeds"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+        startIdleDaemon()
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+
+        then:
+        connection != null
+        1 * connector.connector.connect(_ as Address)
+    }
 }
@@ -54,6 +54,17 @@ class DaemonMessageSerializerTest extends SerializerSpec {
         result.newLogLevel == LogLevel.LIFECYCLE
     }
 
+    def "can serialize OutputMessageBatch messages"() {
+        expect:
+        def events = [new LogLevelChangeEvent(LogLevel.INFO), new UserInputResumeEvent(), new LogLevelChangeEvent(LogLevel.LIFECYCLE)]
+        def result = serialize(new OutputMessageBatch(events), serializer)
+        result instanceof OutputMessageBatch
+        result.events.size() == 3
+        result.events[0].newLogLevel == LogLevel.INFO
+        result.events[1] instanceof UserInputResumeEvent
+        result.events[2].newLogLevel == LogLevel.LIFECYCLE
+    }
+
     def "can serialize Success message"() {
         expect:
         def message = new Success("result")
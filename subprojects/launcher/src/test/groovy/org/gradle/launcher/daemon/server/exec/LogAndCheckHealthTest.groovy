@@ -45,6 +45,12 @@ class LogAndCheckHealthTest extends Specification {
         when:
         tracker.execute(exec)
 
+        then:
+        1 * exec.proceed()
+
+        then:
+        1 * stats.buildFinished()
+
         then:
         1 * healthCheck.executeHealthCheck()
     }
@@ -76,4 +76,18 @@ class DaemonHealthStatsTest extends Specification {
         healthStats.healthInfo == "Starting 2nd build in daemon [uptime: 3 mins, performance: 98%, no major garbage collections]"
     }
 
+    def "records tenured usage of the most recent builds"() {
+        def usages = [10, 20, 30, 40, 50, 60, 70]
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> usages.remove(0)
+            }
+        }
+
+        when:
+        7.times { healthStats.buildFinished() }
+
+        then:
+        healthStats.tenuredUsageAfterBuilds == [30, 40, 50, 60, 70]
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health
+
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.BuildOperationListener
+import org.gradle.internal.operations.OperationFinishEvent
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.operations.OperationStartEvent
+import org.gradle.internal.time.Clock
+import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionInfo
+import spock.lang.Specification
+
+class DaemonHeapTelemetryTest extends Specification {
+    def progressListener = Mock(BuildOperationListener)
+    def clock = Stub(Clock)
+    def gcInfo = Stub(GarbageCollectionInfo)
+    def telemetry = new DaemonHeapTelemetry(progressListener, clock, gcInfo)
+
+    def rootId = new OperationIdentifier(1)
+    def root = BuildOperationDescriptor.displayName("Run build").build(rootId, null)
+    def child = BuildOperationDescriptor.displayName("child").build(new OperationIdentifier(2), rootId)
+
+    def "does not report samples when no build is running"() {
+        when:
+        telemetry.run()
+
+        then:
+        0 * progressListener._
+    }
+
+    def "reports samples as progress of the root build operation while it runs"() {
+        given:
+        gcInfo.getCollectionCount() >>> [3, 5, 8]
+        gcInfo.getCollectionTime() >>> [100, 150, 400]
+        clock.getCurrentTime() >>> [1000, 2000, 3000]
+
+        when:
+        telemetry.started(root, new OperationStartEvent(0))
+        telemetry.started(child, new OperationStartEvent(0))
+        telemetry.run()
+
+        then:
+        1 * progressListener.progress(rootId, { it.time == 2000 && it.details.garbageCollectionCount == 2 && it.details.garbageCollectionTime == 50 && it.details.heapUsed > 0 })
+        0 * progressListener._
+
+        when:
+        telemetry.finished(child, new OperationFinishEvent(0, 0, null, null))
+
+        then:
+        0 * progressListener._
+
+        when:
+        telemetry.finished(root, new OperationFinishEvent(0, 0, null, null))
+
+        then:
+        1 * progressListener.progress(rootId, { it.time == 3000 && it.details.garbageCollectionCount == 5 && it.details.garbageCollectionTime == 300 })
+        0 * progressListener._
+
+        when:
+        telemetry.run()
+
+        then:
+        0 * progressListener._
+    }
+}
@@ -148,6 +148,37 @@ class DaemonMemoryStatusTest extends Specification {
         10             | 90             | 15   | 0    | false
     }
 
+    @Unroll
+    def "predicts when tenured space will be exhausted by the next build (#usages)"() {
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT, "90")
+        stats.getTenuredUsageAfterBuilds() >> usages
+
+        then:
+        status.isTenuredSpaceExhaustionPredicted() == predicted
+
+        where:
+        usages           | predicted
+        [50, 65, 80]     | true
+        [60, 70, 80]     | true
+        [40, 60, 70, 85] | true
+        [70, 75, 80]     | false
+        [50, 80]         | false
+        [80, 70, 85]     | false
+        [85, 85, 85]     | false
+        [-1, 80, 85]     | false
+    }
+
+    def "can disable predictive expiration"() {
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT, "90")
+        System.setProperty(DaemonMemoryStatus.ENABLE_PREDICTIVE_EXPIRATION, "false")
+        stats.getTenuredUsageAfterBuilds() >> [50, 65, 80]
+
+        then:
+        !status.isTenuredSpaceExhaustionPredicted()
+    }
+
     def "can disable daemon performance monitoring"() {
         when:
         System.setProperty(DaemonMemoryStatus.ENABLE_PERFORMANCE_MONITORING, "false")
@@ -160,6 +191,9 @@ class DaemonMemoryStatusTest extends Specification {
 
         and:
         !status.isThrashing()
+
+        and:
+        !status.isTenuredSpaceExhaustionPredicted()
     }
 
     DaemonMemoryStatus getStatus() {
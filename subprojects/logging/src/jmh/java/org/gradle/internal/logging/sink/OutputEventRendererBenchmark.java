@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.sink;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.logging.events.LogEvent;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.time.Time;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the number of output events per second that many threads can log through the renderer, with synchronous and asynchronous rendering.
+ */
+@Fork(2)
+@Threads(64)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class OutputEventRendererBenchmark {
+
+    @Param({"false", "true"})
+    boolean asyncRendering;
+
+    private OutputEventRenderer renderer;
+    private LogEvent event;
+    // Only updated by the listeners, which are called while holding the renderer lock
+    private long rendered;
+
+    @Setup(Level.Trial)
+    public void setupRenderer() {
+        renderer = new OutputEventRenderer(Time.clock(), asyncRendering);
+        renderer.configure(LogLevel.LIFECYCLE);
+        for (int i = 0; i < 4; i++) {
+            renderer.addOutputEventListener(new OutputEventListener() {
+                @Override
+                public void onOutput(OutputEvent event) {
+                    rendered++;
+                }
+            });
+        }
+        event = new LogEvent(0, "category", LogLevel.LIFECYCLE, "message", null);
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        renderer.flush();
+    }
+
+    @Benchmark
+    public void log() {
+        renderer.onOutput(event);
+    }
+}
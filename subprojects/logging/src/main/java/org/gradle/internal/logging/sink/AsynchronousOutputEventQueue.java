@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.sink;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.OutputEventListener;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands output events from the threads that generate them to a single rendering thread, so that logging threads do not wait for each other while events are rendered.
+ *
+ * <p>Adding an event does not take any lock: events go onto a lock-free queue, and the rendering thread is only woken up when it is waiting for events.
+ * The rendering thread delivers events to the listener while holding the given lock, as does {@link #drain()}, so events are delivered by one thread at a time
+ * and in the order in which they were added.</p>
+ *
+ * <p>A failure to render an event on the rendering thread is rethrown by the next call to {@link #drain()}.</p>
+ */
+class AsynchronousOutputEventQueue {
+    private final Queue<OutputEvent> events = new ConcurrentLinkedQueue<OutputEvent>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    private final Object lock;
+    private final OutputEventListener listener;
+    private volatile Thread renderingThread;
+    private volatile boolean waiting;
+
+    AsynchronousOutputEventQueue(Object lock, OutputEventListener listener) {
+        this.lock = lock;
+        this.listener = listener;
+    }
+
+    public void add(OutputEvent event) {
+        events.add(event);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            start();
+        } else if (waiting) {
+            LockSupport.unpark(renderingThread);
+        }
+    }
+
+    /**
+     * Delivers all queued events to the listener on the calling thread. Must be called while holding the lock.
+     */
+    public void drain() {
+        Throwable renderingFailure = failure.getAndSet(null);
+        deliverQueuedEvents();
+        if (renderingFailure != null) {
+            throw UncheckedException.throwAsUncheckedException(renderingFailure);
+        }
+    }
+
+    private void deliverQueuedEvents() {
+        OutputEvent event;
+        while ((event = events.poll()) != null) {
+            listener.onOutput(event);
+        }
+    }
+
+    private void start() {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                render();
+            }
+        }, "Output event renderer");
+        thread.setDaemon(true);
+        renderingThread = thread;
+        thread.start();
+    }
+
+    private void render() {
+        while (true) {
+            synchronized (lock) {
+                try {
+                    deliverQueuedEvents();
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+            waiting = true;
+            if (events.isEmpty()) {
+                LockSupport.park(this);
+            }
+            waiting = false;
+        }
+    }
+}
@@ -60,14 +60,22 @@ import java.util.concurrent.atomic.AtomicReference;
 /**
  * A {@link OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>When asynchronous rendering is enabled, using the {@value #ASYNC_RENDERING_PROPERTY} system property, log and progress events are handed to a single
+ * rendering thread instead of being rendered by the thread that generated them while holding the renderer lock. Changes to the log level, flushes and
+ * changes to the listeners first render all pending events on the calling thread, so the listeners still see events in the order they were generated.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
+    public static final String ASYNC_RENDERING_PROPERTY = "org.gradle.internal.logging.async-rendering";
+
     private final Object lock = new Object();
     private final AtomicReference<LogLevel> logLevel = new AtomicReference<LogLevel>(LogLevel.LIFECYCLE);
     private final Clock clock;
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final OutputEventTransformer transformer = new OutputEventTransformer(formatters.getSource());
+    @Nullable
+    private final AsynchronousOutputEventQueue asyncQueue;
 
     private ColorMap colourMap;
     private OutputStream originalStdOut;
@@ -80,7 +88,12 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     private ListenerBroadcast<StandardOutputListener> userStderrListeners;
 
     public OutputEventRenderer(final Clock clock) {
+        this(clock, Boolean.getBoolean(ASYNC_RENDERING_PROPERTY));
+    }
+
+    public OutputEventRenderer(final Clock clock, boolean asyncRendering) {
         this.clock = clock;
+        this.asyncQueue = asyncRendering ? new AsynchronousOutputEventQueue(lock, transformer) : null;
     }
 
     @Override
@@ -112,11 +125,13 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     }
 
     private void addChain(OutputEventListener listener) {
+        renderPendingEvents();
         listener.onOutput(new LogLevelChangeEvent(logLevel.get()));
         formatters.add(listener);
     }
 
     private void removeChain(OutputEventListener listener) {
+        renderPendingEvents();
         formatters.remove(listener);
         listener.onOutput(new EndOutputEvent());
     }
@@ -435,11 +450,29 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
             }
             this.logLevel.set(newLogLevel);
         }
+        if (asyncQueue != null && !isControlEvent(event)) {
+            asyncQueue.add(event);
+            return;
+        }
         synchronized (lock) {
+            renderPendingEvents();
             transformer.onOutput(event);
         }
     }
 
+    /**
+     * Renders the events queued for asynchronous rendering on the calling thread. Must be called while holding the lock.
+     */
+    private void renderPendingEvents() {
+        if (asyncQueue != null) {
+            asyncQueue.drain();
+        }
+    }
+
+    private boolean isControlEvent(OutputEvent event) {
+        return event instanceof LogLevelChangeEvent || event instanceof FlushOutputEvent || event instanceof EndOutputEvent;
+    }
+
     private boolean isProgressEvent(OutputEvent event) {
         return event instanceof ProgressStartEvent || event instanceof ProgressEvent || event instanceof ProgressCompleteEvent;
     }
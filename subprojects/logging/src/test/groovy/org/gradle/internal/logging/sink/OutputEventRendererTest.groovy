@@ -23,8 +23,10 @@ import org.gradle.api.logging.configuration.ConsoleOutput
 import org.gradle.internal.logging.OutputSpecification
 import org.gradle.internal.logging.console.ConsoleStub
 import org.gradle.internal.logging.events.EndOutputEvent
+import org.gradle.internal.logging.events.FlushOutputEvent
 import org.gradle.internal.logging.events.LogEvent
 import org.gradle.internal.logging.events.LogLevelChangeEvent
+import org.gradle.internal.logging.events.OutputEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData
 import org.gradle.internal.operations.BuildOperationCategory
@@ -33,6 +35,8 @@ import org.gradle.util.RedirectStdOutAndErr
 import org.junit.Rule
 import spock.lang.Unroll
 
+import java.util.concurrent.CopyOnWriteArrayList
+
 class OutputEventRendererTest extends OutputSpecification {
     @Rule
     public final RedirectStdOutAndErr outputs = new RedirectStdOutAndErr()
@@ -229,6 +233,50 @@ class OutputEventRendererTest extends OutputSpecification {
         0 * listener._
     }
 
+    def rendersEventsInOrderWhenRenderingAsynchronously() {
+        def received = new CopyOnWriteArrayList<OutputEvent>()
+        def listener = { OutputEvent event -> received << event } as OutputEventListener
+        def events = (1..100).collect { event("message $it", LogLevel.INFO) }
+
+        given:
+        renderer = new OutputEventRenderer(Time.clock(), true)
+        renderer.configure(LogLevel.INFO)
+
+        when:
+        renderer.addOutputEventListener(listener)
+        events.each { renderer.onOutput(it) }
+        renderer.flush()
+
+        then:
+        received.findAll { it instanceof LogEvent } == events
+        received.last() instanceof FlushOutputEvent
+    }
+
+    def rendersEventsFromAllThreadsWhenRenderingAsynchronously() {
+        def received = new CopyOnWriteArrayList<OutputEvent>()
+        def listener = { OutputEvent event -> received << event } as OutputEventListener
+
+        given:
+        renderer = new OutputEventRenderer(Time.clock(), true)
+        renderer.configure(LogLevel.INFO)
+        renderer.addOutputEventListener(listener)
+
+        when:
+        def threads = (1..8).collect { thread ->
+            Thread.start {
+                100.times { renderer.onOutput(event("thread $thread message $it", LogLevel.INFO)) }
+            }
+        }
+        threads*.join()
+        renderer.removeOutputEventListener(listener)
+
+        then:
+        def messages = received.findAll { it instanceof LogEvent }.collect { it.message }
+        messages.size() == 800
+        (1..8).every { thread -> messages.findAll { it.startsWith("thread $thread ") } == (0..99).collect { "thread $thread message $it".toString() } }
+        received.last() instanceof EndOutputEvent
+    }
+
     def restoresLogLevelWhenChangedSinceSnapshotWasTaken() {
         def listener = new TestListener()
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Deletes files which are no longer hard linked from anywhere else, i.e. which have a single remaining link.
+ *
+ * <p>Files whose link count the file system does not report are deleted as well, as stores only create such files where {@link #isLinkCountSupported(File)}.
+ * Any such file is left over, for example by an earlier Gradle version. Deleting one link to a file does not affect its other links.</p>
+ */
+public class UnlinkedFilesCacheCleanup extends AbstractCacheCleanup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnlinkedFilesCacheCleanup.class);
+    private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+    public UnlinkedFilesCacheCleanup(FilesFinder eligibleFilesFinder) {
+        super(eligibleFilesFinder);
+    }
+
+    /**
+     * Returns true when the file system holding the given file or directory, which does not need to exist yet, reports the link count of its files.
+     */
+    public static boolean isLinkCountSupported(File file) {
+        File existing = file;
+        while (existing != null && !existing.exists()) {
+            existing = existing.getParentFile();
+        }
+        if (existing == null) {
+            return false;
+        }
+        try {
+            return Files.getAttribute(existing.toPath(), LINK_COUNT_ATTRIBUTE) instanceof Integer;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        } catch (IllegalArgumentException e) {
+            return false;
+        } catch (IOException e) {
+            LOGGER.debug("Could not determine the link count of {}.", existing, e);
+            return false;
+        }
+    }
+
+    @Override
+    protected boolean shouldDelete(File file) {
+        try {
+            Object linkCount = getLinkCount(file);
+            return !(linkCount instanceof Integer) || (Integer) linkCount <= 1;
+        } catch (UnsupportedOperationException e) {
+            return true;
+        } catch (IllegalArgumentException e) {
+            return true;
+        } catch (IOException e) {
+            LOGGER.debug("Could not determine the link count of {}.", file, e);
+            return false;
+        }
+    }
+
+    Object getLinkCount(File file) throws IOException {
+        return Files.getAttribute(file.toPath(), LINK_COUNT_ATTRIBUTE);
+    }
+
+    @Override
+    protected void handleDeletion(File file) {
+    }
+}
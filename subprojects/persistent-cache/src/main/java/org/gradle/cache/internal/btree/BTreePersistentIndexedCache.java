@@ -55,6 +55,7 @@ public class BTreePersistentIndexedCache<K, V> {
     private final short maxChildIndexEntries;
     private final int minIndexChildNodes;
     private final StateCheckBlockStore store;
+    private final boolean readOnly;
     private HeaderBlock header;
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
@@ -63,12 +64,25 @@ public class BTreePersistentIndexedCache<K, V> {
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
                                        short maxChildIndexEntries, int maxFreeListEntries) {
+        this(cacheFile, keySerializer, valueSerializer, maxChildIndexEntries, maxFreeListEntries, false);
+    }
+
+    /**
+     * Opens an existing cache file for reading only. The cache is not discarded when it is found to be corrupt, instead reading from it fails.
+     */
+    public static <K, V> BTreePersistentIndexedCache<K, V> openReadOnly(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer, (short) 512, 512, true);
+    }
+
+    private BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                                        short maxChildIndexEntries, int maxFreeListEntries, boolean readOnly) {
         this.cacheFile = cacheFile;
+        this.readOnly = readOnly;
         this.keyHasher = new KeyHasher<K>(keySerializer);
         this.serializer = valueSerializer;
         this.maxChildIndexEntries = maxChildIndexEntries;
         this.minIndexChildNodes = maxChildIndexEntries / 2;
-        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile), ImmutableSet.of(IndexBlock.class, FreeListBlockStore.FreeListBlock.class));
+        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile, readOnly), ImmutableSet.of(IndexBlock.class, FreeListBlockStore.FreeListBlock.class));
         this.store = new StateCheckBlockStore(new FreeListBlockStore(cachingStore, maxFreeListEntries));
         try {
             open();
@@ -137,6 +151,7 @@ public class BTreePersistentIndexedCache<K, V> {
     }
 
     public void put(K key, V value) {
+        assertWritable();
         try {
             long hashCode = keyHasher.getHashCode(key);
             Lookup lookup = header.getRoot().find(hashCode);
@@ -162,6 +177,7 @@ public class BTreePersistentIndexedCache<K, V> {
     }
 
     public void remove(K key) {
+        assertWritable();
         try {
             Lookup lookup = header.getRoot().find(key);
             if (lookup.entry == null) {
@@ -206,7 +222,16 @@ public class BTreePersistentIndexedCache<K, V> {
         return store.isOpen();
     }
 
+    private void assertWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException(String.format("Cannot modify read-only %s.", this));
+        }
+    }
+
     private void rebuild() throws Exception {
+        if (readOnly) {
+            throw new UncheckedIOException(String.format("Read-only %s is corrupt.", this));
+        }
         LOGGER.warn("{} is corrupt. Discarding.", this);
         clear();
     }
@@ -25,6 +25,7 @@ import java.io.RandomAccessFile;
 
 public class FileBackedBlockStore implements BlockStore {
     private final File cacheFile;
+    private final boolean readOnly;
     private RandomAccessFile file;
     private ByteOutput output;
     private ByteInput input;
@@ -33,7 +34,15 @@ public class FileBackedBlockStore implements BlockStore {
     private long currentFileSize;
 
     public FileBackedBlockStore(File cacheFile) {
+        this(cacheFile, false);
+    }
+
+    /**
+     * @param readOnly when true, the file is opened for reading only and must already exist. Any attempt to modify it fails.
+     */
+    public FileBackedBlockStore(File cacheFile, boolean readOnly) {
         this.cacheFile = cacheFile;
+        this.readOnly = readOnly;
     }
 
     @Override
@@ -44,8 +53,16 @@ public class FileBackedBlockStore implements BlockStore {
     public void open(Runnable runnable, Factory factory) {
         this.factory = factory;
         try {
-            cacheFile.getParentFile().mkdirs();
-            file = new RandomAccessFile(cacheFile, "rw");
+            if (readOnly) {
+                file = new RandomAccessFile(cacheFile, "r");
+                if (file.length() == 0) {
+                    file.close();
+                    throw new CorruptedCacheException(String.format("Read-only %s is empty.", this));
+                }
+            } else {
+                cacheFile.getParentFile().mkdirs();
+                file = new RandomAccessFile(cacheFile, "rw");
+            }
             output = new ByteOutput(file);
             input = new ByteInput(file);
             currentFileSize = file.length();
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal
+
+import org.gradle.cache.CleanableStore
+import org.gradle.cache.CleanupProgressMonitor
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class UnlinkedFilesCacheCleanupTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    def cacheDir = temporaryFolder.file("blobs").createDir()
+    def cleanableStore = Stub(CleanableStore) {
+        getBaseDir() >> cacheDir
+    }
+    def progressMonitor = Stub(CleanupProgressMonitor)
+
+    @Requires(TestPrecondition.UNIX_DERIVATIVE)
+    def "deletes files which are no longer linked from anywhere else"() {
+        given:
+        def linked = cacheDir.createDir("ab").createFile("abc")
+        def unlinked = cacheDir.createDir("xy").createFile("xyz")
+        Files.createLink(temporaryFolder.file("entry").toPath(), linked.toPath())
+
+        when:
+        new UnlinkedFilesCacheCleanup(new SingleDepthFilesFinder(2)).clean(cleanableStore, progressMonitor)
+
+        then:
+        linked.assertExists()
+        unlinked.assertDoesNotExist()
+    }
+
+    def "deletes files whose link count is not reported by the file system"() {
+        given:
+        def blob = cacheDir.createDir("ab").createFile("abc")
+        def cleanup = new UnlinkedFilesCacheCleanup(new SingleDepthFilesFinder(2)) {
+            @Override
+            Object getLinkCount(File file) throws IOException {
+                throw new UnsupportedOperationException("unix:nlink")
+            }
+        }
+
+        when:
+        cleanup.clean(cleanableStore, progressMonitor)
+
+        then:
+        blob.assertDoesNotExist()
+    }
+
+    def "keeps files whose link count cannot be read"() {
+        given:
+        def blob = cacheDir.createDir("ab").createFile("abc")
+        def cleanup = new UnlinkedFilesCacheCleanup(new SingleDepthFilesFinder(2)) {
+            @Override
+            Object getLinkCount(File file) throws IOException {
+                throw new IOException("broken")
+            }
+        }
+
+        when:
+        cleanup.clean(cleanableStore, progressMonitor)
+
+        then:
+        blob.assertExists()
+    }
+
+    @Requires(TestPrecondition.UNIX_DERIVATIVE)
+    def "reports link counts as supported for directories that do not exist yet"() {
+        expect:
+        UnlinkedFilesCacheCleanup.isLinkCountSupported(cacheDir.file("does-not-exist/yet"))
+    }
+}
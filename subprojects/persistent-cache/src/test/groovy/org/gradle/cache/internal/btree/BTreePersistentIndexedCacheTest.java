@@ -15,6 +15,7 @@
  */
 package org.gradle.cache.internal.btree;
 
+import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.serialize.DefaultSerializer;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.test.fixtures.file.TestFile;
@@ -38,6 +39,7 @@ import java.util.Map;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class BTreePersistentIndexedCacheTest {
     @Rule
@@ -387,6 +389,55 @@ public class BTreePersistentIndexedCacheTest {
         cache.close();
     }
 
+    @Test
+    public void canReadEntriesFromReadOnlyCacheFile() {
+        createCache();
+        cache.put("key_1", 1);
+        cache.put("key_2", 2);
+        cache.close();
+        cacheFile.setWritable(false);
+
+        BTreePersistentIndexedCache<String, Integer> readOnlyCache = BTreePersistentIndexedCache.openReadOnly(cacheFile, stringSerializer, integerSerializer);
+
+        assertThat(readOnlyCache.get("key_1"), equalTo(1));
+        assertThat(readOnlyCache.get("key_2"), equalTo(2));
+        assertNull(readOnlyCache.get("key_3"));
+
+        readOnlyCache.close();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cannotModifyReadOnlyCache() {
+        createCache();
+        cache.put("key_1", 1);
+        cache.close();
+
+        BTreePersistentIndexedCache<String, Integer> readOnlyCache = BTreePersistentIndexedCache.openReadOnly(cacheFile, stringSerializer, integerSerializer);
+        try {
+            readOnlyCache.put("key_2", 2);
+        } finally {
+            readOnlyCache.close();
+        }
+    }
+
+    @Test
+    public void doesNotDiscardTruncatedReadOnlyCacheFile() throws IOException {
+        createCache();
+        cache.put("key_1", 1);
+        cache.close();
+        RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+        file.setLength(0);
+        file.close();
+
+        try {
+            BTreePersistentIndexedCache.openReadOnly(cacheFile, stringSerializer, integerSerializer);
+            fail();
+        } catch (UncheckedIOException e) {
+            // Expected
+        }
+        assertThat(cacheFile.length(), equalTo(0L));
+    }
+
     private void checkAdds(Integer... values) {
         checkAdds(Arrays.asList(values));
     }
@@ -0,0 +1,456 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.gradle.cache.FileLock;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.LockTimeoutException;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.resource.transfer.ExternalResourceReadResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Downloads large resources from servers which accept byte ranges as several concurrent range requests into a preallocated file.
+ *
+ * <p>The partial file and the set of completed chunks are kept in the Gradle user home caches, keyed by the resource URI, so that a download
+ * which failed or was interrupted continues from the completed chunks, as long as the server still reports the same validator
+ * (strong ETag or Last-Modified) for the resource. When the server announces a SHA-1 for the resource, the assembled file is verified
+ * against it before it is handed out.</p>
+ *
+ * <p>The partial file of a resource is locked for as long as it is downloaded and read. When it cannot be locked, for example because another
+ * process or thread is downloading the same resource, it is treated as absent and the resource is downloaded into a file of its own, which cannot
+ * be resumed. The given file lock manager should give up right away on a lock that is held, rather than wait for it to be released.</p>
+ */
+public class ChunkedHttpDownloader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedHttpDownloader.class);
+    public static final String MIN_SIZE_SYSTEM_PROPERTY = "org.gradle.internal.http.chunkedDownload.minSize";
+    public static final String CHUNKS_SYSTEM_PROPERTY = "org.gradle.internal.http.chunkedDownload.chunks";
+    public static final long DEFAULT_MIN_SIZE = 64L * 1024 * 1024;
+    public static final int DEFAULT_CHUNKS = 4;
+    private static final int MAX_ATTEMPTS_PER_CHUNK = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final HttpClientHelper http;
+    private final ExecutorFactory executorFactory;
+    private final File partialDownloadsDir;
+    private final FileLockManager fileLockManager;
+    private final long minSize;
+    private final int chunks;
+
+    public ChunkedHttpDownloader(HttpClientHelper http, ExecutorFactory executorFactory, File partialDownloadsDir, FileLockManager fileLockManager, long minSize, int chunks) {
+        this.http = http;
+        this.executorFactory = executorFactory;
+        this.partialDownloadsDir = partialDownloadsDir;
+        this.fileLockManager = fileLockManager;
+        this.minSize = minSize;
+        this.chunks = chunks;
+    }
+
+    public static ChunkedHttpDownloader fromSystemProperties(HttpClientHelper http, ExecutorFactory executorFactory, File partialDownloadsDir, FileLockManager fileLockManager) {
+        long minSize = DEFAULT_MIN_SIZE;
+        int chunks = DEFAULT_CHUNKS;
+        String minSizeProperty = System.getProperty(MIN_SIZE_SYSTEM_PROPERTY);
+        String chunksProperty = System.getProperty(CHUNKS_SYSTEM_PROPERTY);
+        try {
+            if (!StringUtils.isBlank(minSizeProperty)) {
+                minSize = Long.parseLong(minSizeProperty);
+            }
+            if (!StringUtils.isBlank(chunksProperty)) {
+                chunks = Integer.parseInt(chunksProperty);
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid value for java system property '{}' or '{}'. Chunked downloads of at least {} bytes in {} chunks will be used.",
+                MIN_SIZE_SYSTEM_PROPERTY, CHUNKS_SYSTEM_PROPERTY, DEFAULT_MIN_SIZE, DEFAULT_CHUNKS);
+            minSize = DEFAULT_MIN_SIZE;
+            chunks = DEFAULT_CHUNKS;
+        }
+        if (chunks <= 0) {
+            LOGGER.warn("Invalid value for java system property '{}': {}. The number of chunks must be positive, {} chunks will be used.",
+                CHUNKS_SYSTEM_PROPERTY, chunks, DEFAULT_CHUNKS);
+            chunks = DEFAULT_CHUNKS;
+        }
+        return new ChunkedHttpDownloader(http, executorFactory, partialDownloadsDir, fileLockManager, minSize, chunks);
+    }
+
+    /**
+     * Returns true when the given response is large enough to be worth splitting, and the server allows resuming it using range requests.
+     */
+    public boolean canDownload(HttpResponseResource response) {
+        return chunks > 1
+            && response.getContentLength() >= minSize
+            && "bytes".equalsIgnoreCase(response.getHeaderValue(HttpHeaders.ACCEPT_RANGES))
+            && getValidator(response) != null;
+    }
+
+    /**
+     * Downloads the content of the given response. The first chunk is read from the response itself, which is aborted once that chunk
+     * is complete. Caller is responsible for closing the result.
+     */
+    public ExternalResourceReadResponse download(HttpResponseResource response, boolean revalidate) throws IOException {
+        URI uri = response.getURI();
+        ExternalResourceMetaData metaData = response.getMetaData();
+        String validator = getValidator(response);
+        long length = response.getContentLength();
+        long chunkSize = (length + chunks - 1) / chunks;
+
+        PartialFile partialFile = acquirePartialFile(uri);
+        try {
+            ChunkState state = ChunkState.load(partialFile.stateFile, validator, length, chunkSize);
+            if (state.isEmpty()) {
+                partialFile.partFile.delete();
+            } else {
+                LOGGER.info("Resuming download of {} ({} of {} chunks already downloaded).", uri, state.getCompletedCount(), chunks);
+            }
+
+            RandomAccessFile file = new RandomAccessFile(partialFile.partFile, "rw");
+            try {
+                file.setLength(length);
+                downloadChunks(response, revalidate, validator, length, chunkSize, file.getChannel(), state);
+            } finally {
+                response.abort();
+                file.close();
+            }
+
+            HashValue expectedSha1 = metaData.getSha1();
+            if (expectedSha1 != null) {
+                HashValue actualSha1 = HashUtil.sha1(partialFile.partFile);
+                if (!expectedSha1.equals(actualSha1)) {
+                    partialFile.discard();
+                    throw new IOException(String.format("Checksum of downloaded content for %s is %s but the server announced %s.", uri, actualSha1.asHexString(), expectedSha1.asHexString()));
+                }
+            }
+        } catch (IOException e) {
+            partialFile.release();
+            throw e;
+        } catch (RuntimeException e) {
+            partialFile.release();
+            throw e;
+        }
+        return new DownloadedFileResponse(partialFile, metaData);
+    }
+
+    /**
+     * Locks the partial file of the given resource, or creates a file of its own for this download when the partial file is in use.
+     */
+    private PartialFile acquirePartialFile(URI uri) throws IOException {
+        String key = HashUtil.createHash(uri.toString(), "SHA1").asHexString();
+        File partFile = new File(partialDownloadsDir, key + ".part");
+        partialDownloadsDir.mkdirs();
+        try {
+            FileLock lock = fileLockManager.lock(partFile, mode(FileLockManager.LockMode.Exclusive), "partial download of " + uri);
+            return new PartialFile(partFile, new File(partialDownloadsDir, key + ".chunks"), lock);
+        } catch (LockTimeoutException e) {
+            LOGGER.debug("Could not lock partial download of {}. Downloading it from the start.", uri, e);
+        } catch (IllegalStateException e) {
+            // Already locked by another download in this process
+            LOGGER.debug("Partial download of {} is in use. Downloading it from the start.", uri, e);
+        }
+        return new PartialFile(File.createTempFile(key, ".part", partialDownloadsDir), null, null);
+    }
+
+    private void downloadChunks(HttpResponseResource response, boolean revalidate, String validator, long length, long chunkSize, FileChannel channel, ChunkState state) throws IOException {
+        ManagedExecutor executor = executorFactory.create("Chunked download of " + response.getURI(), chunks);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>(chunks);
+            for (int index = 0; index < chunks; index++) {
+                long start = index * chunkSize;
+                long end = Math.min(length, start + chunkSize);
+                if (start >= end || state.isCompleted(index)) {
+                    continue;
+                }
+                HttpResponseResource initialResponse = index == 0 ? response : null;
+                results.add(executor.submit(new ChunkDownload(response.getURI(), revalidate, validator, index, start, end, initialResponse, channel, state)));
+            }
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw UncheckedException.throwAsUncheckedException(e.getCause());
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        } finally {
+            executor.stop();
+        }
+    }
+
+    @Nullable
+    private static String getValidator(HttpResponseResource response) {
+        String etag = response.getHeaderValue(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return response.getHeaderValue(HttpHeaders.LAST_MODIFIED);
+    }
+
+    /**
+     * The file a resource is downloaded into. A locked partial file is kept when released, so the download can be resumed. A file without a lock
+     * belongs to this download only, and is deleted when released.
+     */
+    private static class PartialFile {
+        private final File partFile;
+        private final File stateFile;
+        private final FileLock lock;
+        private boolean released;
+
+        PartialFile(File partFile, @Nullable File stateFile, @Nullable FileLock lock) {
+            this.partFile = partFile;
+            this.stateFile = stateFile;
+            this.lock = lock;
+        }
+
+        synchronized void discard() {
+            if (!released) {
+                partFile.delete();
+                if (stateFile != null) {
+                    stateFile.delete();
+                }
+            }
+            release();
+        }
+
+        synchronized void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (lock != null) {
+                lock.close();
+            } else {
+                partFile.delete();
+            }
+        }
+    }
+
+    private class ChunkDownload implements Callable<Void> {
+        private final URI uri;
+        private final boolean revalidate;
+        private final String validator;
+        private final int index;
+        private final long start;
+        private final long end;
+        private final FileChannel channel;
+        private final ChunkState state;
+        private HttpResponseResource initialResponse;
+
+        ChunkDownload(URI uri, boolean revalidate, String validator, int index, long start, long end, @Nullable HttpResponseResource initialResponse, FileChannel channel, ChunkState state) {
+            this.uri = uri;
+            this.revalidate = revalidate;
+            this.validator = validator;
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.initialResponse = initialResponse;
+            this.channel = channel;
+            this.state = state;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            long position = start;
+            IOException failure = null;
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS_PER_CHUNK && position < end; attempt++) {
+                try {
+                    position = transfer(position);
+                } catch (IOException e) {
+                    LOGGER.debug("Failed to download bytes {}-{} of {} (attempt {}).", position, end - 1, uri, attempt, e);
+                    failure = e;
+                }
+            }
+            if (position < end) {
+                throw failure != null ? failure : new IOException(String.format("Unexpected end of content for %s at byte %d.", uri, position));
+            }
+            state.completed(index);
+            return null;
+        }
+
+        /**
+         * Copies content into the file starting at the given position, returning the position reached.
+         */
+        private long transfer(long position) throws IOException {
+            HttpResponseResource source = initialResponse;
+            initialResponse = null;
+            if (source == null) {
+                HttpClientResponse response = http.performRangedGet(uri.toString(), position, end - 1, validator, revalidate);
+                source = new HttpResponseResource("GET", uri, response);
+                if (source.getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT) {
+                    source.abort();
+                    throw new IOException(String.format("Server did not return bytes %d-%d of %s (status %d). The resource may have changed.", position, end - 1, uri, source.getStatusCode()));
+                }
+            }
+            try {
+                InputStream inputStream = source.openStream();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (position < end) {
+                    int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, end - position));
+                    if (read < 0) {
+                        break;
+                    }
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                    while (byteBuffer.hasRemaining()) {
+                        position += channel.write(byteBuffer, position);
+                    }
+                }
+                return position;
+            } finally {
+                source.abort();
+            }
+        }
+    }
+
+    /**
+     * The chunks of a partial file which have been completely downloaded, persisted alongside the file.
+     */
+    private static class ChunkState {
+        private static final String VALIDATOR = "validator";
+        private static final String LENGTH = "length";
+        private static final String CHUNK_SIZE = "chunkSize";
+        private static final String COMPLETED = "completed";
+
+        private final File stateFile;
+        private final Properties properties;
+        private final BitSet completed;
+
+        private ChunkState(@Nullable File stateFile, Properties properties, BitSet completed) {
+            this.stateFile = stateFile;
+            this.properties = properties;
+            this.completed = completed;
+        }
+
+        static ChunkState load(@Nullable File stateFile, String validator, long length, long chunkSize) {
+            Properties properties = new Properties();
+            BitSet completed = new BitSet();
+            if (stateFile != null && stateFile.isFile()) {
+                try {
+                    InputStream inputStream = new FileInputStream(stateFile);
+                    try {
+                        properties.load(inputStream);
+                    } finally {
+                        inputStream.close();
+                    }
+                } catch (IOException e) {
+                    LOGGER.debug("Could not read partial download state from {}.", stateFile, e);
+                    properties.clear();
+                }
+                if (validator.equals(properties.getProperty(VALIDATOR))
+                    && String.valueOf(length).equals(properties.getProperty(LENGTH))
+                    && String.valueOf(chunkSize).equals(properties.getProperty(CHUNK_SIZE))) {
+                    for (String index : StringUtils.split(properties.getProperty(COMPLETED, ""), ',')) {
+                        completed.set(Integer.parseInt(index));
+                    }
+                }
+            }
+            properties.clear();
+            properties.setProperty(VALIDATOR, validator);
+            properties.setProperty(LENGTH, String.valueOf(length));
+            properties.setProperty(CHUNK_SIZE, String.valueOf(chunkSize));
+            return new ChunkState(stateFile, properties, completed);
+        }
+
+        boolean isEmpty() {
+            return completed.isEmpty();
+        }
+
+        synchronized int getCompletedCount() {
+            return completed.cardinality();
+        }
+
+        synchronized boolean isCompleted(int index) {
+            return completed.get(index);
+        }
+
+        synchronized void completed(int index) throws IOException {
+            completed.set(index);
+            StringBuilder indices = new StringBuilder();
+            for (int i = completed.nextSetBit(0); i >= 0; i = completed.nextSetBit(i + 1)) {
+                if (indices.length() > 0) {
+                    indices.append(',');
+                }
+                indices.append(i);
+            }
+            properties.setProperty(COMPLETED, indices.toString());
+            if (stateFile == null) {
+                return;
+            }
+            OutputStream outputStream = new FileOutputStream(stateFile);
+            try {
+                properties.store(outputStream, null);
+            } finally {
+                outputStream.close();
+            }
+        }
+    }
+
+    private static class DownloadedFileResponse implements ExternalResourceReadResponse {
+        private final PartialFile partialFile;
+        private final ExternalResourceMetaData metaData;
+
+        DownloadedFileResponse(PartialFile partialFile, ExternalResourceMetaData metaData) {
+            this.partialFile = partialFile;
+            this.metaData = metaData;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return new FileInputStream(partialFile.partFile);
+        }
+
+        @Override
+        public ExternalResourceMetaData getMetaData() {
+            return metaData;
+        }
+
+        @Override
+        public void close() {
+            partialFile.discard();
+        }
+    }
+}
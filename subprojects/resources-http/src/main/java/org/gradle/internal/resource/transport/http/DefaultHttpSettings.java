@@ -41,6 +41,7 @@ public class DefaultHttpSettings implements HttpSettings {
     private HttpProxySettings proxySettings;
     private HttpProxySettings secureProxySettings;
     private HttpTimeoutSettings timeoutSettings;
+    private HttpConnectionPoolSettings connectionPoolSettings;
 
     public static Builder builder() {
         return new Builder();
@@ -81,6 +82,14 @@ public class DefaultHttpSettings implements HttpSettings {
         return timeoutSettings;
     }
 
+    @Override
+    public HttpConnectionPoolSettings getConnectionPoolSettings() {
+        if (connectionPoolSettings == null) {
+            connectionPoolSettings = new JavaSystemPropertiesHttpConnectionPoolSettings();
+        }
+        return connectionPoolSettings;
+    }
+
     @Override
     public boolean isFollowRedirects() {
         return followRedirects;
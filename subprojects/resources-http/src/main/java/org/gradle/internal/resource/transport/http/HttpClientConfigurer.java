@@ -37,6 +37,8 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.DateUtils;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.util.PublicSuffixMatcher;
 import org.apache.http.conn.util.PublicSuffixMatcherLoader;
@@ -48,6 +50,7 @@ import org.apache.http.impl.auth.KerberosSchemeFactory;
 import org.apache.http.impl.auth.SPNegoSchemeFactory;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.SystemDefaultCredentialsProvider;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
 import org.apache.http.impl.cookie.DefaultCookieSpecProvider;
 import org.apache.http.impl.cookie.IgnoreSpecProvider;
@@ -80,7 +83,6 @@ import java.util.Collections;
 
 public class HttpClientConfigurer {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientConfigurer.class);
-    private static final int MAX_HTTP_CONNECTIONS = 20;
     private static final String[] SSL_PROTOCOLS;
 
     private static final String HTTPS_PROTOCOLS = "https.protocols";
@@ -97,29 +99,50 @@ public class HttpClientConfigurer {
     }
 
     private final HttpSettings httpSettings;
+    private final HttpConnectionPoolStatistics connectionPoolStatistics;
 
     public HttpClientConfigurer(HttpSettings httpSettings) {
+        this(httpSettings, new HttpConnectionPoolStatistics());
+    }
+
+    public HttpClientConfigurer(HttpSettings httpSettings, HttpConnectionPoolStatistics connectionPoolStatistics) {
         this.httpSettings = httpSettings;
+        this.connectionPoolStatistics = connectionPoolStatistics;
     }
 
     public void configure(HttpClientBuilder builder) {
         SystemDefaultCredentialsProvider credentialsProvider = new SystemDefaultCredentialsProvider();
-        configureSslSocketConnectionFactory(builder, httpSettings.getSslContextFactory(), httpSettings.getHostnameVerifier());
+        SSLConnectionSocketFactory sslSocketFactory = configureSslSocketConnectionFactory(builder, httpSettings.getSslContextFactory(), httpSettings.getHostnameVerifier());
         configureAuthSchemeRegistry(builder);
         configureCredentials(builder, credentialsProvider, httpSettings.getAuthenticationSettings());
         configureProxy(builder, credentialsProvider, httpSettings);
         configureUserAgent(builder);
         configureCookieSpecRegistry(builder);
         configureRequestConfig(builder);
-        configureSocketConfig(builder);
+        SocketConfig socketConfig = configureSocketConfig(builder);
+        configureConnectionManager(builder, sslSocketFactory, socketConfig);
         configureRedirectStrategy(builder);
         builder.setDefaultCredentialsProvider(credentialsProvider);
-        builder.setMaxConnTotal(MAX_HTTP_CONNECTIONS);
-        builder.setMaxConnPerRoute(MAX_HTTP_CONNECTIONS);
     }
 
-    private void configureSslSocketConnectionFactory(HttpClientBuilder builder, SslContextFactory sslContextFactory, HostnameVerifier hostnameVerifier) {
-        builder.setSSLSocketFactory(new SSLConnectionSocketFactory(sslContextFactory.createSslContext(), SSL_PROTOCOLS, null, hostnameVerifier));
+    private SSLConnectionSocketFactory configureSslSocketConnectionFactory(HttpClientBuilder builder, SslContextFactory sslContextFactory, HostnameVerifier hostnameVerifier) {
+        SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(sslContextFactory.createSslContext(), SSL_PROTOCOLS, null, hostnameVerifier);
+        builder.setSSLSocketFactory(sslSocketFactory);
+        return sslSocketFactory;
+    }
+
+    private void configureConnectionManager(HttpClientBuilder builder, SSLConnectionSocketFactory sslSocketFactory, SocketConfig socketConfig) {
+        // The builder ignores the socket factory, socket config and connection limits once a connection manager is set, so apply them here
+        HttpConnectionPoolSettings connectionPoolSettings = httpSettings.getConnectionPoolSettings();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", sslSocketFactory)
+            .build()
+        );
+        connectionManager.setDefaultSocketConfig(socketConfig);
+        connectionManager.setMaxTotal(connectionPoolSettings.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(connectionPoolSettings.getMaxConnectionsPerRoute());
+        builder.setConnectionManager(new InstrumentedHttpClientConnectionManager(connectionManager, connectionPoolStatistics));
     }
 
     private void configureAuthSchemeRegistry(HttpClientBuilder builder) {
@@ -245,9 +268,11 @@ public class HttpClientConfigurer {
         builder.setDefaultRequestConfig(config);
     }
 
-    private void configureSocketConfig(HttpClientBuilder builder) {
+    private SocketConfig configureSocketConfig(HttpClientBuilder builder) {
         HttpTimeoutSettings timeoutSettings = httpSettings.getTimeoutSettings();
-        builder.setDefaultSocketConfig(SocketConfig.custom().setSoTimeout(timeoutSettings.getSocketTimeoutMs()).setSoKeepAlive(true).build());
+        SocketConfig socketConfig = SocketConfig.custom().setSoTimeout(timeoutSettings.getSocketTimeoutMs()).setSoKeepAlive(true).build();
+        builder.setDefaultSocketConfig(socketConfig);
+        return socketConfig;
     }
 
     private void configureRedirectStrategy(HttpClientBuilder builder) {
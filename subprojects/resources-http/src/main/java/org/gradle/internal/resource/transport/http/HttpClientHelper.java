@@ -45,6 +45,7 @@ public class HttpClientHelper implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
     private CloseableHttpClient client;
     private final HttpSettings settings;
+    private final HttpConnectionPoolStatistics connectionPoolStatistics = new HttpConnectionPoolStatistics();
 
     /**
      * Maintains a queue of contexts which are shared between threads when authentication
@@ -80,6 +81,13 @@ public class HttpClientHelper implements Closeable {
         return processResponse(performRawGet(source, revalidate));
     }
 
+    public HttpClientResponse performRangedGet(String source, long first, long last, String ifRange, boolean revalidate) {
+        HttpGet request = new HttpGet(source);
+        request.addHeader(HttpHeaders.RANGE, "bytes=" + first + "-" + last);
+        request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        return performRequest(request, revalidate);
+    }
+
     public HttpClientResponse performRequest(HttpRequestBase request, boolean revalidate) {
         String method = request.getMethod();
         if (revalidate) {
@@ -166,15 +174,20 @@ public class HttpClientHelper implements Closeable {
     private synchronized CloseableHttpClient getClient() {
         if (client == null) {
             HttpClientBuilder builder = HttpClientBuilder.create();
-            new HttpClientConfigurer(settings).configure(builder);
+            new HttpClientConfigurer(settings, connectionPoolStatistics).configure(builder);
             this.client = builder.build();
         }
         return client;
     }
 
+    public HttpConnectionPoolStatistics getConnectionPoolStatistics() {
+        return connectionPoolStatistics;
+    }
+
     @Override
     public synchronized void close() throws IOException {
         if (client != null) {
+            LOGGER.debug("HTTP connection pool statistics: {}", connectionPoolStatistics);
             client.close();
             if (sharedContext != null) {
                 sharedContext.clear();
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts connection leases from an HTTP client's connection pool, how many of them reused a kept-alive connection
+ * and how long callers waited for a connection to become available.
+ */
+public class HttpConnectionPoolStatistics {
+    private final AtomicLong leasedConnections = new AtomicLong();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    void connectionLeased(boolean reused, long waitNanos) {
+        leasedConnections.incrementAndGet();
+        if (reused) {
+            reusedConnections.incrementAndGet();
+        }
+        totalWaitNanos.addAndGet(waitNanos);
+        long currentMax = maxWaitNanos.get();
+        while (waitNanos > currentMax && !maxWaitNanos.compareAndSet(currentMax, waitNanos)) {
+            currentMax = maxWaitNanos.get();
+        }
+    }
+
+    public long getLeasedConnections() {
+        return leasedConnections.get();
+    }
+
+    public long getReusedConnections() {
+        return reusedConnections.get();
+    }
+
+    public long getTotalWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    public long getMaxWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "leased connections: " + getLeasedConnections()
+            + ", reused connections: " + getReusedConnections()
+            + ", total wait for connection: " + getTotalWaitTimeMillis() + "ms"
+            + ", max wait for connection: " + getMaxWaitTimeMillis() + "ms";
+    }
+}
@@ -21,12 +21,15 @@ import org.gradle.authentication.Authentication;
 import org.gradle.authentication.http.BasicAuthentication;
 import org.gradle.authentication.http.DigestAuthentication;
 import org.gradle.authentication.http.HttpHeaderAuthentication;
+import org.gradle.cache.FileLockManager;
 import org.gradle.internal.authentication.AllSchemesAuthentication;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.resource.connector.ResourceConnectorSpecification;
 import org.gradle.internal.resource.transfer.DefaultExternalResourceConnector;
 import org.gradle.internal.resource.transfer.ExternalResourceConnector;
 
+import java.io.File;
 import java.util.Set;
 
 public class HttpConnectorFactory implements ResourceConnectorFactory {
@@ -39,9 +42,15 @@ public class HttpConnectorFactory implements ResourceConnectorFactory {
     );
 
     private SslContextFactory sslContextFactory;
+    private final ExecutorFactory executorFactory;
+    private final File partialDownloadsDir;
+    private final FileLockManager fileLockManager;
 
-    public HttpConnectorFactory(SslContextFactory sslContextFactory) {
+    public HttpConnectorFactory(SslContextFactory sslContextFactory, ExecutorFactory executorFactory, File partialDownloadsDir, FileLockManager fileLockManager) {
         this.sslContextFactory = sslContextFactory;
+        this.executorFactory = executorFactory;
+        this.partialDownloadsDir = partialDownloadsDir;
+        this.fileLockManager = fileLockManager;
     }
 
     @Override
@@ -61,7 +70,7 @@ public class HttpConnectorFactory implements ResourceConnectorFactory {
             .withSslContextFactory(sslContextFactory)
             .build()
         );
-        HttpResourceAccessor accessor = new HttpResourceAccessor(http);
+        HttpResourceAccessor accessor = new HttpResourceAccessor(http, ChunkedHttpDownloader.fromSystemProperties(http, executorFactory, partialDownloadsDir, fileLockManager));
         HttpResourceLister lister = new HttpResourceLister(accessor);
         HttpResourceUploader uploader = new HttpResourceUploader(http);
         return new DefaultExternalResourceConnector(accessor, lister, uploader);
@@ -17,31 +17,49 @@
 package org.gradle.internal.resource.transport.http;
 
 import org.gradle.internal.IoActions;
+import org.gradle.internal.resource.ResourceExceptions;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 import org.gradle.internal.resource.transfer.ExternalResourceAccessor;
+import org.gradle.internal.resource.transfer.ExternalResourceReadResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.net.URI;
 
 public class HttpResourceAccessor implements ExternalResourceAccessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpResourceAccessor.class);
     private final HttpClientHelper http;
+    private final ChunkedHttpDownloader chunkedDownloader;
 
     public HttpResourceAccessor(HttpClientHelper http) {
+        this(http, null);
+    }
+
+    public HttpResourceAccessor(HttpClientHelper http, @Nullable ChunkedHttpDownloader chunkedDownloader) {
         this.http = http;
+        this.chunkedDownloader = chunkedDownloader;
     }
 
     @Nullable
-    public HttpResponseResource openResource(final URI uri, boolean revalidate) {
+    public ExternalResourceReadResponse openResource(final URI uri, boolean revalidate) {
         String location = uri.toString();
         LOGGER.debug("Constructing external resource: {}", location);
 
         HttpClientResponse response = http.performGet(location, revalidate);
         if (response != null) {
-            return wrapResponse(uri, response);
+            HttpResponseResource resource = wrapResponse(uri, response);
+            if (chunkedDownloader != null && chunkedDownloader.canDownload(resource)) {
+                LOGGER.debug("Downloading external resource in chunks: {}", location);
+                try {
+                    return chunkedDownloader.download(resource, revalidate);
+                } catch (IOException e) {
+                    throw ResourceExceptions.getFailed(uri, e);
+                }
+            }
+            return resource;
         }
 
         return null;
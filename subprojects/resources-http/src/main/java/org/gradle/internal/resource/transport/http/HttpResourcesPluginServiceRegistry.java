@@ -19,19 +19,33 @@ package org.gradle.internal.resource.transport.http;
 import org.gradle.authentication.http.BasicAuthentication;
 import org.gradle.authentication.http.DigestAuthentication;
 import org.gradle.authentication.http.HttpHeaderAuthentication;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.internal.CacheScopeMapping;
+import org.gradle.cache.internal.DefaultFileLockManager;
+import org.gradle.cache.internal.DefaultProcessMetaDataProvider;
+import org.gradle.cache.internal.VersionStrategy;
+import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
 import org.gradle.internal.authentication.AuthenticationSchemeRegistry;
 import org.gradle.internal.authentication.DefaultBasicAuthentication;
 import org.gradle.internal.authentication.DefaultDigestAuthentication;
 import org.gradle.internal.authentication.DefaultHttpHeaderAuthentication;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 
+import java.io.File;
+
 public class HttpResourcesPluginServiceRegistry extends AbstractPluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.addProvider(new GlobalScopeServices());
     }
 
+    public void registerGradleUserHomeServices(ServiceRegistration registration) {
+        registration.addProvider(new GradleUserHomeServices());
+    }
+
     public void registerBuildServices(ServiceRegistration registration) {
         registration.addProvider(new AuthenticationSchemeAction());
     }
@@ -40,9 +54,16 @@ public class HttpResourcesPluginServiceRegistry extends AbstractPluginServiceReg
         SslContextFactory createSslContextFactory() {
             return new DefaultSslContextFactory();
         }
+    }
 
-        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory) {
-            return new HttpConnectorFactory(sslContextFactory);
+    private static class GradleUserHomeServices {
+        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory, ExecutorFactory executorFactory, CacheScopeMapping cacheScopeMapping,
+                                                            ProcessEnvironment processEnvironment, FileLockContentionHandler fileLockContentionHandler) {
+            // Partial downloads are shared by the builds using this Gradle user home, and guarded by file locks.
+            // A download does not wait for a partial download that is in use, but downloads into a file of its own instead.
+            File partialDownloadsDir = cacheScopeMapping.getBaseDirectory(null, "http-partial-downloads", VersionStrategy.SharedCache);
+            FileLockManager fileLockManager = new DefaultFileLockManager(new DefaultProcessMetaDataProvider(processEnvironment), 0, fileLockContentionHandler);
+            return new HttpConnectorFactory(sslContextFactory, executorFactory, partialDownloadsDir, fileLockManager);
         }
     }
 
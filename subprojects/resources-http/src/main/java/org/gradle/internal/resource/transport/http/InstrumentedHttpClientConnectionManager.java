@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records {@link HttpConnectionPoolStatistics} for the connections leased from a delegate connection manager.
+ */
+class InstrumentedHttpClientConnectionManager implements HttpClientConnectionManager {
+    private final HttpClientConnectionManager delegate;
+    private final HttpConnectionPoolStatistics statistics;
+
+    InstrumentedHttpClientConnectionManager(HttpClientConnectionManager delegate, HttpConnectionPoolStatistics statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest request = delegate.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                HttpClientConnection connection = request.get(timeout, tunit);
+                // A pooled connection which is still open has been kept alive from a previous request
+                statistics.connectionLeased(connection.isOpen(), System.nanoTime() - start);
+                return connection;
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {
+        delegate.releaseConnection(conn, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        delegate.connect(conn, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(conn, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.routeComplete(conn, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit tunit) {
+        delegate.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
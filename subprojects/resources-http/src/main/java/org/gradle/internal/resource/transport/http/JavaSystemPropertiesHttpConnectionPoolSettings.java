@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JavaSystemPropertiesHttpConnectionPoolSettings implements HttpConnectionPoolSettings {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaSystemPropertiesHttpConnectionPoolSettings.class);
+    public static final String MAX_CONNECTIONS_SYSTEM_PROPERTY = "org.gradle.internal.http.maxConnections";
+    public static final String MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY = "org.gradle.internal.http.maxConnectionsPerRoute";
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+
+    public JavaSystemPropertiesHttpConnectionPoolSettings() {
+        this.maxConnections = initLimit(MAX_CONNECTIONS_SYSTEM_PROPERTY, DEFAULT_MAX_CONNECTIONS);
+        // A single repository host is a single route, so by default it may use the whole pool
+        this.maxConnectionsPerRoute = initLimit(MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, maxConnections);
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    @Override
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    private int initLimit(String propertyName, int defaultValue) {
+        String systemProperty = System.getProperty(propertyName);
+
+        if (!StringUtils.isBlank(systemProperty)) {
+            try {
+                int value = Integer.parseInt(systemProperty);
+                if (value > 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through
+            }
+            LOGGER.warn("Invalid value for java system property '{}': {}. Default connection limit '{}' will be used.",
+                propertyName, systemProperty, defaultValue);
+        }
+
+        return defaultValue;
+    }
+}
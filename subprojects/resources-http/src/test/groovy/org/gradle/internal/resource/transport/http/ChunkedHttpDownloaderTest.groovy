@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.HttpVersion
+import org.apache.http.client.methods.CloseableHttpResponse
+import org.apache.http.entity.ByteArrayEntity
+import org.apache.http.message.BasicHeader
+import org.apache.http.message.BasicStatusLine
+import org.gradle.cache.FileLock
+import org.gradle.cache.FileLockManager
+import org.gradle.cache.internal.DefaultFileLockManagerTestHelper
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.HashUtil
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode
+
+class ChunkedHttpDownloaderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    @Rule SetSystemProperties setSystemProperties = new SetSystemProperties()
+    def uri = new URI("http://somewhere/large.zip")
+    def content = (0..<1000).collect { it as byte } as byte[]
+    def headers = ["Content-Length": "1000", "Accept-Ranges": "bytes", "ETag": '"abc"']
+    def http = Mock(HttpClientHelper)
+    def executorFactory = new DefaultExecutorFactory()
+    def partialDownloadsDir = tmpDir.file("caches/http-partial-downloads")
+    def fileLockManager = DefaultFileLockManagerTestHelper.createDefaultFileLockManager(0)
+    def downloader = new ChunkedHttpDownloader(http, executorFactory, partialDownloadsDir, fileLockManager, 100, 4)
+    FileLock otherLock
+
+    def cleanup() {
+        otherLock?.close()
+        executorFactory.stop()
+    }
+
+    def "downloads resources which are large enough and can be resumed"() {
+        expect:
+        downloader.canDownload(response(200, content, headers))
+        !downloader.canDownload(response(200, content, headers + ["Content-Length": "99"]))
+        !downloader.canDownload(response(200, content, headers + ["Accept-Ranges": "none"]))
+        !downloader.canDownload(response(200, content, headers + ["ETag": 'W/"abc"']))
+        downloader.canDownload(response(200, content, headers + ["ETag": 'W/"abc"', "Last-Modified": "Wed, 21 Oct 2015 07:28:00 GMT"]))
+    }
+
+    def "downloads remaining chunks using range requests"() {
+        when:
+        def result = downloader.download(response(200, content, headers), false)
+
+        then:
+        1 * http.performRangedGet(uri.toString(), 250, 499, '"abc"', false) >> clientResponse(206, content[250..499], [:])
+        1 * http.performRangedGet(uri.toString(), 500, 749, '"abc"', false) >> clientResponse(206, content[500..749], [:])
+        1 * http.performRangedGet(uri.toString(), 750, 999, '"abc"', false) >> clientResponse(206, content[750..999], [:])
+        0 * http._
+
+        and:
+        result.openStream().bytes == content
+        result.metaData.contentLength == 1000
+
+        cleanup:
+        result?.close()
+    }
+
+    def "resumes a failed download from the completed chunks"() {
+        when:
+        downloader.download(response(200, content, headers), false)
+
+        then:
+        _ * http.performRangedGet(uri.toString(), { it < 750 }, _, _, _) >> { String source, long first, long last, String ifRange, boolean revalidate ->
+            clientResponse(206, content[(int) first..(int) last], [:])
+        }
+        3 * http.performRangedGet(uri.toString(), 750, 999, _, _) >> { throw new IOException("broken") }
+        def e = thrown(IOException)
+        e.message == "broken"
+
+        when:
+        def result = downloader.download(response(200, content, headers), false)
+
+        then:
+        1 * http.performRangedGet(uri.toString(), 750, 999, '"abc"', false) >> clientResponse(206, content[750..999], [:])
+        0 * http._
+
+        and:
+        result.openStream().bytes == content
+
+        cleanup:
+        result?.close()
+    }
+
+    def "fails when resource changed between chunks"() {
+        when:
+        downloader.download(response(200, content, headers), false)
+
+        then:
+        _ * http.performRangedGet(*_) >> { clientResponse(200, content, headers) }
+        def e = thrown(IOException)
+        e.message.contains("The resource may have changed.")
+    }
+
+    def "verifies downloaded content against announced checksum"() {
+        def sha1 = HashUtil.sha1(content).asHexString()
+
+        when:
+        def result = downloader.download(response(200, content, headers + ["X-Checksum-Sha1": sha1]), false)
+
+        then:
+        3 * http.performRangedGet(*_) >> { String source, long first, long last, String ifRange, boolean revalidate ->
+            clientResponse(206, content[(int) first..(int) last], [:])
+        }
+        result.openStream().bytes == content
+
+        when:
+        result.close()
+        downloader.download(response(200, content, headers + ["X-Checksum-Sha1": "1234"]), false)
+
+        then:
+        3 * http.performRangedGet(*_) >> { String source, long first, long last, String ifRange, boolean revalidate ->
+            clientResponse(206, content[(int) first..(int) last], [:])
+        }
+        def e = thrown(IOException)
+        e.message.contains("but the server announced 1234")
+        partialDownloadsDir.list().findAll { !it.endsWith(".lock") }.empty
+    }
+
+    def "treats a partial download that is in use as absent"() {
+        def key = HashUtil.createHash(uri.toString(), "SHA1").asHexString()
+        def partFile = partialDownloadsDir.file("${key}.part")
+        def stateFile = partialDownloadsDir.file("${key}.chunks")
+
+        when:
+        downloader.download(response(200, content, headers), false)
+
+        then:
+        _ * http.performRangedGet(uri.toString(), { it < 750 }, _, _, _) >> { String source, long first, long last, String ifRange, boolean revalidate ->
+            clientResponse(206, content[(int) first..(int) last], [:])
+        }
+        3 * http.performRangedGet(uri.toString(), 750, 999, _, _) >> { throw new IOException("broken") }
+        thrown(IOException)
+
+        when:
+        // Another download of the same resource is in progress
+        otherLock = fileLockManager.lock(partFile, mode(FileLockManager.LockMode.Exclusive), "other download")
+        def stateBefore = stateFile.text
+        def result = downloader.download(response(200, content, headers), false)
+
+        then:
+        3 * http.performRangedGet(*_) >> { String source, long first, long last, String ifRange, boolean revalidate ->
+            clientResponse(206, content[(int) first..(int) last], [:])
+        }
+        result.openStream().bytes == content
+
+        when:
+        result.close()
+
+        then:
+        partFile.file
+        stateFile.text == stateBefore
+        partialDownloadsDir.list().findAll { it.endsWith(".part") } == ["${key}.part".toString()]
+    }
+
+    def "does not wait for a partial download that is locked by another process"() {
+        def key = HashUtil.createHash(uri.toString(), "SHA1").asHexString()
+        def partFile = partialDownloadsDir.file("${key}.part")
+        partialDownloadsDir.mkdirs()
+        otherLock = DefaultFileLockManagerTestHelper.createDefaultFileLockManager().lock(partFile, mode(FileLockManager.LockMode.Exclusive), "other download")
+
+        when:
+        def start = System.currentTimeMillis()
+        def result = downloader.download(response(200, content, headers), false)
+
+        then:
+        3 * http.performRangedGet(*_) >> { String source, long first, long last, String ifRange, boolean revalidate ->
+            clientResponse(206, content[(int) first..(int) last], [:])
+        }
+        result.openStream().bytes == content
+        System.currentTimeMillis() - start < 10000
+
+        cleanup:
+        result?.close()
+    }
+
+    def "uses the default number of chunks when the system property is not positive"() {
+        System.setProperty(ChunkedHttpDownloader.MIN_SIZE_SYSTEM_PROPERTY, "100")
+        System.setProperty(ChunkedHttpDownloader.CHUNKS_SYSTEM_PROPERTY, chunks)
+
+        expect:
+        ChunkedHttpDownloader.fromSystemProperties(http, executorFactory, partialDownloadsDir, fileLockManager).canDownload(response(200, content, headers))
+
+        where:
+        chunks << ["0", "-1"]
+    }
+
+    private HttpResponseResource response(int status, byte[] content, Map<String, String> headers) {
+        new HttpResponseResource("GET", uri, clientResponse(status, content as List<Byte>, headers))
+    }
+
+    private HttpClientResponse clientResponse(int status, List<Byte> content, Map<String, String> headers) {
+        CloseableHttpResponse httpResponse = Stub() {
+            getStatusLine() >> new BasicStatusLine(HttpVersion.HTTP_1_1, status, "")
+            getFirstHeader(_) >> { String name -> headers[name] == null ? null : new BasicHeader(name, headers[name]) }
+            getEntity() >> new ByteArrayEntity(content as byte[])
+        }
+        new HttpClientResponse("GET", uri, httpResponse)
+    }
+}
@@ -35,10 +35,15 @@ class HttpClientConfigurerTest extends Specification {
     HttpProxySettings proxySettings = Mock()
     HttpProxySettings secureProxySettings = Mock()
     HttpTimeoutSettings timeoutSettings = Mock()
+    HttpConnectionPoolSettings connectionPoolSettings = Mock() {
+        getMaxConnections() >> 20
+        getMaxConnectionsPerRoute() >> 20
+    }
     HttpSettings httpSettings = Mock() {
         getProxySettings() >> proxySettings
         getSecureProxySettings() >> secureProxySettings
         getTimeoutSettings() >> timeoutSettings
+        getConnectionPoolSettings() >> connectionPoolSettings
     }
     SslContextFactory sslContextFactory = Mock() {
         createSslContext() >> SSLContexts.createDefault()
@@ -153,4 +158,18 @@ class HttpClientConfigurerTest extends Specification {
         httpClientBuilder.defaultRequestConfig.socketTimeout == 30000
         httpClientBuilder.defaultSocketConfig.soKeepAlive
     }
+
+    def "configures http client with instrumented connection pool"() {
+        httpSettings.authenticationSettings >> []
+        httpSettings.sslContextFactory >> sslContextFactory
+
+        when:
+        configurer.configure(httpClientBuilder)
+
+        then:
+        httpClientBuilder.connManager instanceof InstrumentedHttpClientConnectionManager
+        def connectionManager = httpClientBuilder.connManager.delegate
+        connectionManager.maxTotal == 20
+        connectionManager.defaultMaxPerRoute == 20
+    }
 }
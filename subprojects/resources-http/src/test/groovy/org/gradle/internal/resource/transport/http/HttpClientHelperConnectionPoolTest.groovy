@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.ssl.SSLContexts
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.fixtures.server.http.HttpServer
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+class HttpClientHelperConnectionPoolTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    @Rule HttpServer httpServer = new HttpServer()
+    @Subject HttpClientHelper client = new HttpClientHelper(httpSettings)
+
+    def cleanup() {
+        client.close()
+    }
+
+    def "reuses kept-alive connections and records pool statistics"() {
+        given:
+        def file = tmpDir.file("file.txt") << "content"
+        httpServer.expectGet("/a", file)
+        httpServer.expectGet("/b", file)
+        httpServer.start()
+
+        when:
+        client.performGet("${httpServer.uri}/a", false).close()
+        client.performGet("${httpServer.uri}/b", false).close()
+
+        then:
+        def statistics = client.connectionPoolStatistics
+        statistics.leasedConnections == 2
+        statistics.reusedConnections == 1
+        statistics.maxWaitTimeMillis <= statistics.totalWaitTimeMillis
+    }
+
+    private HttpSettings getHttpSettings() {
+        Stub(HttpSettings) {
+            getProxySettings() >> Mock(HttpProxySettings)
+            getSecureProxySettings() >> Mock(HttpProxySettings)
+            getTimeoutSettings() >> { new JavaSystemPropertiesHttpTimeoutSettings() }
+            getConnectionPoolSettings() >> { new JavaSystemPropertiesHttpConnectionPoolSettings() }
+            getSslContextFactory() >> Mock(SslContextFactory) {
+                createSslContext() >> SSLContexts.createDefault()
+            }
+        }
+    }
+}
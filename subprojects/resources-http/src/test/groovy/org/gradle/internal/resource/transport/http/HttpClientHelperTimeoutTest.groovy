@@ -51,6 +51,7 @@ class HttpClientHelperTimeoutTest extends Specification {
             getProxySettings() >> Mock(HttpProxySettings)
             getSecureProxySettings() >> Mock(HttpProxySettings)
             getTimeoutSettings() >> { new JavaSystemPropertiesHttpTimeoutSettings() }
+            getConnectionPoolSettings() >> { new JavaSystemPropertiesHttpConnectionPoolSettings() }
             getSslContextFactory() >> Mock(SslContextFactory) {
                 createSslContext() >> SSLContexts.createDefault()
             }
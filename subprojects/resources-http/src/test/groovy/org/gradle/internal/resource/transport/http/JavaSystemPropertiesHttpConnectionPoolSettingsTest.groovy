@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.testing.internal.util.Specification
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+
+import static org.gradle.internal.resource.transport.http.JavaSystemPropertiesHttpConnectionPoolSettings.*
+
+class JavaSystemPropertiesHttpConnectionPoolSettingsTest extends Specification {
+
+    @Rule SetSystemProperties setSystemProperties = new SetSystemProperties()
+
+    def "can retrieve default values"() {
+        JavaSystemPropertiesHttpConnectionPoolSettings settings = new JavaSystemPropertiesHttpConnectionPoolSettings()
+
+        expect:
+        settings.maxConnections == DEFAULT_MAX_CONNECTIONS
+        settings.maxConnectionsPerRoute == DEFAULT_MAX_CONNECTIONS
+    }
+
+    def "can parse custom value from system property"() {
+        System.setProperty(MAX_CONNECTIONS_SYSTEM_PROPERTY, "64")
+        System.setProperty(MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, "32")
+        JavaSystemPropertiesHttpConnectionPoolSettings settings = new JavaSystemPropertiesHttpConnectionPoolSettings()
+
+        expect:
+        settings.maxConnections == 64
+        settings.maxConnectionsPerRoute == 32
+    }
+
+    def "connections per route default to max connections"() {
+        System.setProperty(MAX_CONNECTIONS_SYSTEM_PROPERTY, "64")
+        JavaSystemPropertiesHttpConnectionPoolSettings settings = new JavaSystemPropertiesHttpConnectionPoolSettings()
+
+        expect:
+        settings.maxConnectionsPerRoute == 64
+    }
+
+    def "uses default value if provided limit is not valid"() {
+        System.setProperty(MAX_CONNECTIONS_SYSTEM_PROPERTY, limit)
+        System.setProperty(MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, limit)
+        JavaSystemPropertiesHttpConnectionPoolSettings settings = new JavaSystemPropertiesHttpConnectionPoolSettings()
+
+        expect:
+        settings.maxConnections == DEFAULT_MAX_CONNECTIONS
+        settings.maxConnectionsPerRoute == DEFAULT_MAX_CONNECTIONS
+
+        where:
+        limit << ["", "abc", "0", "-1"]
+    }
+}
@@ -16,7 +16,9 @@
 
 package org.gradle.api.internal.tasks.testing;
 
+import org.gradle.StartParameter;
 import org.gradle.api.internal.tasks.testing.operations.TestExecutionBuildOperationBuildSessionScopeServices;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 
@@ -25,6 +27,11 @@ public class TestingBasePluginServiceRegistry extends AbstractPluginServiceRegis
     @Override
     public void registerBuildSessionServices(ServiceRegistration registration) {
         registration.addProvider(new TestExecutionBuildOperationBuildSessionScopeServices());
+        registration.addProvider(new Object() {
+            TestWorkerPool createTestWorkerPool(StartParameter startParameter) {
+                return new TestWorkerPool(Boolean.getBoolean(TestWorkerPool.REUSE_WORKERS_PROPERTY), startParameter.getMaxWorkerCount());
+            }
+        });
     }
 
 }
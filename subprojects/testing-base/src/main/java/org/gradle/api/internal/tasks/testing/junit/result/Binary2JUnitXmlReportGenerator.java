@@ -34,8 +34,14 @@ import org.gradle.util.GFileUtils;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Binary2JUnitXmlReportGenerator {
+    /**
+     * The maximum number of test class results held in memory while the reports are generated.
+     */
+    private static final int MAX_CLASSES_PER_BATCH = 1000;
 
     private final File testResultsDir;
     private final TestResultsProvider testResultsProvider;
@@ -74,19 +80,35 @@ public class Binary2JUnitXmlReportGenerator {
             }
         });
 
+        // Generate the reports in batches, so that the results of all test classes are not held in memory at the same time
+        final List<TestClassResult> batch = new ArrayList<TestClassResult>();
+        testResultsProvider.visitClasses(new Action<TestClassResult>() {
+            public void execute(final TestClassResult result) {
+                batch.add(result);
+                if (batch.size() == MAX_CLASSES_PER_BATCH) {
+                    generateReportFiles(batch);
+                    batch.clear();
+                }
+            }
+        });
+        generateReportFiles(batch);
+
+        LOG.info("Finished generating test XML results ({}) into: {}", clock.getElapsed(), testResultsDir);
+    }
+
+    private void generateReportFiles(final List<TestClassResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
         buildOperationExecutor.runAll(new Action<BuildOperationQueue<JUnitXmlReportFileGenerator>>() {
             @Override
             public void execute(final BuildOperationQueue<JUnitXmlReportFileGenerator> queue) {
-                testResultsProvider.visitClasses(new Action<TestClassResult>() {
-                    public void execute(final TestClassResult result) {
-                        final File reportFile = new File(testResultsDir, getReportFileName(result));
-                        queue.add(new JUnitXmlReportFileGenerator(result, reportFile, xmlWriter));
-                    }
-                });
+                for (TestClassResult result : results) {
+                    final File reportFile = new File(testResultsDir, getReportFileName(result));
+                    queue.add(new JUnitXmlReportFileGenerator(result, reportFile, xmlWriter));
+                }
             }
         });
-
-        LOG.info("Finished generating test XML results ({}) into: {}", clock.getElapsed(), testResultsDir);
     }
 
     private String getReportFileName(TestClassResult result) {
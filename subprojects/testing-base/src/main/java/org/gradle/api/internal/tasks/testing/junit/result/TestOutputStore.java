@@ -21,16 +21,24 @@ import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Stores the output of tests in a data file, along with an index of the regions of the data file that contain the output of each test class and test.
+ *
+ * <p>A {@link Reader} loads the index once and can be shared by multiple threads. Where possible, the data file is memory-mapped, so that reading the output
+ * of a test does not copy the data file through the heap.</p>
+ */
 public class TestOutputStore {
 
     private final File resultsDir;
@@ -217,9 +225,12 @@ public class TestOutputStore {
         }
     }
 
+    /**
+     * Reads the output of tests. Can be used concurrently by multiple threads.
+     */
     public class Reader implements Closeable {
         private final Index index;
-        private final RandomAccessFile dataFile;
+        private final OutputData data;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -263,8 +274,8 @@ public class TestOutputStore {
                 index = rootBuilder.build();
 
                 try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
-                } catch (FileNotFoundException e) {
+                    data = OutputData.open(outputsFile);
+                } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
             } else { // no outputs file
@@ -273,19 +284,19 @@ public class TestOutputStore {
                 }
 
                 index = null;
-                dataFile = null;
+                data = null;
             }
         }
 
         @Override
         public void close() throws IOException {
-            if (dataFile != null) {
-                dataFile.close();
+            if (data != null) {
+                data.close();
             }
         }
 
         public boolean hasOutput(long classId, TestOutputEvent.Destination destination) {
-            if (dataFile == null) {
+            if (data == null) {
                 return false;
             }
 
@@ -311,7 +322,7 @@ public class TestOutputStore {
         }
 
         private void doRead(long classId, long testId, boolean allClassOutput, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            if (dataFile == null) {
+            if (data == null) {
                 return;
             }
 
@@ -335,9 +346,9 @@ public class TestOutputStore {
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
                 long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
+                KryoBackedDecoder decoder = new KryoBackedDecoder(data.openStream(region.start));
+                byte[] stringBytes = new byte[256];
                 while (decoder.getReadPosition() <= maxPos) {
                     boolean readStdout = decoder.readBoolean();
                     long readClassId = decoder.readSmallLong();
@@ -362,17 +373,11 @@ public class TestOutputStore {
                     }
 
                     if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
+                        if (stringBytes.length < readLength) {
+                            stringBytes = new byte[readLength];
                         }
-
-                        writer.write(message);
+                        decoder.readBytes(stringBytes, 0, readLength);
+                        writer.write(new String(stringBytes, 0, readLength, messageStorageCharset));
                     } else {
                         decoder.skipBytes(readLength);
                     }
@@ -383,6 +388,97 @@ public class TestOutputStore {
         }
     }
 
+    /**
+     * Provides concurrent access to the content of the data file.
+     */
+    private static abstract class OutputData implements Closeable {
+        static OutputData open(File outputsFile) throws IOException {
+            FileChannel channel = new RandomAccessFile(outputsFile, "r").getChannel();
+            // A mapped file cannot be deleted or replaced on Windows until the mapping is garbage collected, and the output file is replaced by the next test execution
+            if (OperatingSystem.current().isWindows() || channel.size() > Integer.MAX_VALUE) {
+                return new ChannelOutputData(channel);
+            }
+            try {
+                return new MappedOutputData(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } finally {
+                // The mapping remains valid after the channel is closed
+                channel.close();
+            }
+        }
+
+        abstract InputStream openStream(long position);
+    }
+
+    private static class MappedOutputData extends OutputData {
+        private final ByteBuffer buffer;
+
+        MappedOutputData(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        InputStream openStream(long position) {
+            final ByteBuffer stream = buffer.duplicate();
+            stream.position((int) position);
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return stream.hasRemaining() ? stream.get() & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    if (!stream.hasRemaining()) {
+                        return -1;
+                    }
+                    int count = Math.min(length, stream.remaining());
+                    stream.get(bytes, offset, count);
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class ChannelOutputData extends OutputData {
+        private final FileChannel channel;
+
+        ChannelOutputData(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        InputStream openStream(final long position) {
+            return new InputStream() {
+                private long next = position;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] bytes = new byte[1];
+                    return read(bytes, 0, 1) < 0 ? -1 : bytes[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) throws IOException {
+                    // Positional reads do not change the position of the channel, so can be used by multiple threads
+                    int count = channel.read(ByteBuffer.wrap(bytes, offset, length), next);
+                    if (count > 0) {
+                        next += count;
+                    }
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
     // IMPORTANT: return must be closed when done with.
     public Reader reader() {
         return new Reader();
@@ -28,27 +28,49 @@ import org.gradle.internal.dispatch.DispatchException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors.
+ *
+ * <p>When test classes are assigned on demand, they are placed on a shared queue and each processor takes the next test class from the queue as soon as it
+ * is ready to accept it. Processors that block in {@link TestClassProcessor#processTestClass(TestClassRunInfo)} while busy, such as forked test workers that
+ * run each test class as it arrives, therefore receive test classes at the rate they are able to run them, rather than an equal share.</p>
+ *
+ * <p>Otherwise, a simple round-robin algorithm is used to assign test classes to processors. This suits processors that only collect the test classes and run
+ * them all when stopped, as such processors accept test classes straight away and the first one to start would take almost all of them.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
+    private static final TestClassRunInfo END_OF_QUEUE = new TestClassRunInfo() {
+        @Override
+        public String getTestClassName() {
+            throw new UnsupportedOperationException();
+        }
+    };
+
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
-    private TestResultProcessor resultProcessor;
+    private final BlockingQueue<TestClassRunInfo> sharedQueue;
+    private final List<BlockingQueue<TestClassRunInfo>> queues = new ArrayList<BlockingQueue<TestClassRunInfo>>();
     private int pos;
-    private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
-    private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
+    private TestResultProcessor resultProcessor;
+    private List<TestClassProcessor> rawProcessors = new CopyOnWriteArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
     private volatile boolean stoppedNow;
 
-    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+    /**
+     * @param assignOnDemand whether the processors run each test class before {@link TestClassProcessor#processTestClass(TestClassRunInfo)} returns,
+     * so that test classes can be assigned to whichever processor becomes available first.
+     */
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, boolean assignOnDemand) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.sharedQueue = assignOnDemand ? new LinkedBlockingQueue<TestClassRunInfo>() : null;
     }
 
     @Override
@@ -64,26 +86,33 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             return;
         }
 
-        TestClassProcessor processor;
-        if (processors.size() < maxProcessors) {
-            processor = factory.create();
+        BlockingQueue<TestClassRunInfo> queue;
+        if (actors.size() < maxProcessors) {
+            queue = sharedQueue != null ? sharedQueue : new LinkedBlockingQueue<TestClassRunInfo>();
+            queues.add(queue);
+            TestClassProcessor processor = factory.create();
             rawProcessors.add(processor);
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
+            // Pull test classes from the queue in the actor's thread
+            Actor actor = actorFactory.createActor(new QueueConsumer(processor, queue));
             actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
+            actor.getProxy(Runnable.class).run();
+        } else if (sharedQueue != null) {
+            queue = sharedQueue;
         } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+            queue = queues.get(pos);
+            pos = (pos + 1) % queues.size();
         }
-        processor.processTestClass(testClass);
+        queue.add(testClass);
     }
 
     @Override
     public void stop() {
+        // Each processor takes one end marker, including those sharing a queue
+        for (BlockingQueue<TestClassRunInfo> queue : queues) {
+            queue.add(END_OF_QUEUE);
+        }
         try {
-            CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
+            CompositeStoppable.stoppable(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
@@ -96,4 +125,40 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             processor.stopNow();
         }
     }
+
+    private class QueueConsumer implements Runnable {
+        private final TestClassProcessor processor;
+        private final BlockingQueue<TestClassRunInfo> queue;
+
+        QueueConsumer(TestClassProcessor processor, BlockingQueue<TestClassRunInfo> queue) {
+            this.processor = processor;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            processor.startProcessing(resultProcessor);
+            try {
+                while (true) {
+                    TestClassRunInfo testClass = takeNext();
+                    if (testClass == END_OF_QUEUE) {
+                        break;
+                    }
+                    if (!stoppedNow) {
+                        processor.processTestClass(testClass);
+                    }
+                }
+            } finally {
+                processor.stop();
+            }
+        }
+
+        private TestClassRunInfo takeNext() {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
 }
@@ -20,21 +20,37 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * In order to speed up the development feedback cycle, this class guarantee previous failed test classes
  * to be passed to its delegate first.
+ *
+ * <p>Within the previous failed and the other test classes, the test classes which took longest to run previously are passed first,
+ * so that parallel test workers do not end up waiting for a long running test class at the end of the run. Test classes without a previous
+ * duration are treated as the longest running ones.</p>
  */
 public class RunPreviousFailedFirstTestClassProcessor implements TestClassProcessor {
     private final Set<String> previousFailedTestClasses;
+    private final Map<String, Long> previousTestClassDurations;
     private final TestClassProcessor delegate;
     private final LinkedHashSet<TestClassRunInfo> prioritizedTestClasses = new LinkedHashSet<TestClassRunInfo>();
     private final LinkedHashSet<TestClassRunInfo> otherTestClasses = new LinkedHashSet<TestClassRunInfo>();
 
     public RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, TestClassProcessor delegate) {
+        this(previousFailedTestClasses, Collections.<String, Long>emptyMap(), delegate);
+    }
+
+    public RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, Map<String, Long> previousTestClassDurations, TestClassProcessor delegate) {
         this.previousFailedTestClasses = previousFailedTestClasses;
+        this.previousTestClassDurations = previousTestClassDurations;
         this.delegate = delegate;
     }
 
@@ -54,15 +70,37 @@ public class RunPreviousFailedFirstTestClassProcessor implements TestClassProces
 
     @Override
     public void stop() {
-        for (TestClassRunInfo test : prioritizedTestClasses) {
+        for (TestClassRunInfo test : longestFirst(prioritizedTestClasses)) {
             delegate.processTestClass(test);
         }
-        for (TestClassRunInfo test : otherTestClasses) {
+        for (TestClassRunInfo test : longestFirst(otherTestClasses)) {
             delegate.processTestClass(test);
         }
         delegate.stop();
     }
 
+    private Collection<TestClassRunInfo> longestFirst(Collection<TestClassRunInfo> testClasses) {
+        if (previousTestClassDurations.isEmpty()) {
+            return testClasses;
+        }
+        List<TestClassRunInfo> sorted = new ArrayList<TestClassRunInfo>(testClasses);
+        // Stable, so that test classes with the same duration keep the order in which they were found
+        Collections.sort(sorted, new Comparator<TestClassRunInfo>() {
+            @Override
+            public int compare(TestClassRunInfo o1, TestClassRunInfo o2) {
+                long duration1 = previousDuration(o1);
+                long duration2 = previousDuration(o2);
+                return duration1 > duration2 ? -1 : duration1 < duration2 ? 1 : 0;
+            }
+        });
+        return sorted;
+    }
+
+    private long previousDuration(TestClassRunInfo testClass) {
+        Long duration = previousTestClassDurations.get(testClass.getTestClassName());
+        return duration == null ? Long.MAX_VALUE : duration;
+    }
+
     @Override
     public void stopNow() {
         delegate.stopNow();
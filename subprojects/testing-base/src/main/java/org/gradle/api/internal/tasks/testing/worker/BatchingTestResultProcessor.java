@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+/**
+ * Collects the test events of a test worker into batches, so that tests that produce many events, such as tests that log heavily, do not flood the build
+ * process with small messages.
+ *
+ * <p>A batch is sent when it holds {@link #MAX_EVENTS} events or {@link #MAX_OUTPUT_CHARS} characters of test output, or when {@link #flush()} is called.
+ * The test worker flushes at least every {@link #MAX_DELAY_MILLIS} milliseconds and whenever it has finished with a test class.</p>
+ */
+class BatchingTestResultProcessor implements TestResultProcessor {
+    static final int MAX_EVENTS = 1000;
+    static final int MAX_OUTPUT_CHARS = 64 * 1024;
+    static final long MAX_DELAY_MILLIS = 100;
+
+    private final TestEventBatchProcessor target;
+    private final boolean compress;
+    private TestEventBatch batch;
+    private int outputChars;
+
+    BatchingTestResultProcessor(TestEventBatchProcessor target, boolean compress) {
+        this.target = target;
+        this.compress = compress;
+        this.batch = new TestEventBatch(compress);
+    }
+
+    @Override
+    public synchronized void started(TestDescriptorInternal test, TestStartEvent event) {
+        batch.started(test, event);
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void completed(Object testId, TestCompleteEvent event) {
+        batch.completed(testId, event);
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void output(Object testId, TestOutputEvent event) {
+        batch.output(testId, event);
+        outputChars += event.getMessage().length();
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void failure(Object testId, Throwable result) {
+        batch.failure(testId, result);
+        flushIfFull();
+    }
+
+    /**
+     * Sends the events collected so far, if any.
+     */
+    public synchronized void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Send while holding the lock, so that batches are sent in the order their events happened
+        target.process(batch);
+        batch = new TestEventBatch(compress);
+        outputChars = 0;
+    }
+
+    private void flushIfFull() {
+        if (batch.size() >= MAX_EVENTS || outputChars >= MAX_OUTPUT_CHARS) {
+            flush();
+        }
+    }
+}
@@ -23,6 +23,8 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.StreamCompletion;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.JavaForkOptions;
@@ -32,13 +34,30 @@ import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Runs test classes in a forked worker process.
+ *
+ * <p>At most {@link #MAX_CLASSES_IN_FLIGHT} test classes are handed to the worker at any time, so that {@link #processTestClass(TestClassRunInfo)}
+ * blocks while the worker is busy. This allows the caller to hand the remaining test classes to whichever worker becomes available first.</p>
+ *
+ * <p>When a {@link TestWorkerPool} is enabled, the test classes are run in a {@link TestWorker#reusable() reusable} worker taken from the pool, which is
+ * returned to the pool when the test classes have completed.</p>
+ */
 public class ForkingTestClassProcessor implements TestClassProcessor {
+    /**
+     * The test class being executed plus one queued test class, so that the worker does not wait for the next class to arrive.
+     */
+    static final int MAX_CLASSES_IN_FLIGHT = 2;
+
     private final WorkerLeaseRegistry.WorkerLease currentWorkerLease;
     private final WorkerProcessFactory workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
@@ -46,15 +65,25 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final TestWorkerPool workerPool;
+    private final boolean compressEvents = Boolean.getBoolean(TestEventBatch.COMPRESS_EVENTS_PROPERTY);
     private final Lock lock = new ReentrantLock();
+    private final Semaphore availableSlots = new Semaphore(MAX_CLASSES_IN_FLIGHT);
+    private final AtomicBoolean slotsReleased = new AtomicBoolean();
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
+    private TestEventBatchReceiver eventReceiver;
+    private ReusableTestWorker reusableWorker;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private DocumentationRegistry documentationRegistry;
     private boolean stoppedNow;
 
     public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry) {
+        this(parentWorkerLease, workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, documentationRegistry, null);
+    }
+
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry, @Nullable TestWorkerPool workerPool) {
         this.currentWorkerLease = parentWorkerLease;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
@@ -63,6 +92,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
         this.documentationRegistry = documentationRegistry;
+        this.workerPool = workerPool;
     }
 
     @Override
@@ -72,50 +102,90 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
+        try {
+            availableSlots.acquire();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+
         lock.lock();
         try {
             if (stoppedNow) {
                 return;
             }
 
-            if (remoteProcessor == null) {
+            if (remoteProcessor == null && reusableWorker == null) {
                 completion = currentWorkerLease.startChild();
                 try {
-                    remoteProcessor = forkProcess();
+                    if (workerPool != null && workerPool.isEnabled()) {
+                        reusableWorker = startSession();
+                    } else {
+                        remoteProcessor = forkProcess();
+                    }
                 } catch (RuntimeException e) {
                     completion.leaseFinish();
                     completion = null;
+                    availableSlots.release();
                     throw e;
                 }
             }
 
-            remoteProcessor.processTestClass(testClass);
+            if (reusableWorker != null) {
+                reusableWorker.processTestClass(testClass);
+            } else {
+                remoteProcessor.processTestClass(testClass);
+            }
         } finally {
             lock.unlock();
         }
     }
 
     RemoteTestClassProcessor forkProcess() {
-        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
-        builder.setBaseName("Gradle Test Executor");
-        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
+        WorkerProcessBuilder builder = createWorkerProcessBuilder(new TestWorker(processorFactory, compressEvents), getTestWorkerImplementationClasspath());
         builder.applicationClasspath(classPath);
-        options.copyTo(builder.getJavaCommand());
-        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
-        buildConfigAction.execute(builder);
 
         workerProcess = builder.build();
         workerProcess.start();
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializers(TestEventSerializer.create());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        eventReceiver = new TestEventBatchReceiver(resultProcessor);
+        connection.addIncoming(TestEventBatchProcessor.class, eventReceiver);
+        connection.addIncoming(TestWorkerProgressListener.class, new WorkerProgressListener());
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
         return remoteProcessor;
     }
 
+    /**
+     * Runs the test classes in a reusable worker, which loads the test classes itself rather than receiving them on the application classpath of the worker process.
+     */
+    ReusableTestWorker startSession() {
+        List<URL> implementationClasspath = getTestWorkerImplementationClasspath();
+        WorkerProcessBuilder builder = createWorkerProcessBuilder(TestWorker.reusable(compressEvents), implementationClasspath);
+
+        Object key = TestWorkerPool.keyFor(builder);
+        ReusableTestWorker worker = workerPool.acquire(key);
+        if (worker == null) {
+            worker = new ReusableTestWorker(key, builder.build());
+            worker.start();
+        }
+        workerProcess = worker.getWorkerProcess();
+        worker.startSession(new TestWorkerSessionSpec(processorFactory, classPath, implementationClasspath, builder.getSharedPackages()), resultProcessor, new WorkerProgressListener());
+        return worker;
+    }
+
+    private WorkerProcessBuilder createWorkerProcessBuilder(TestWorker worker, List<URL> implementationClasspath) {
+        WorkerProcessBuilder builder = workerFactory.create(worker);
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(implementationClasspath);
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+        buildConfigAction.execute(builder);
+        return builder;
+    }
+
     List<URL> getTestWorkerImplementationClasspath() {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core-api").getImplementationClasspath().getAsURLs(),
@@ -144,7 +214,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     @Override
     public void stop() {
         try {
-            if (remoteProcessor != null) {
+            if (reusableWorker != null) {
+                stopSession();
+            } else if (remoteProcessor != null) {
                 lock.lock();
                 try {
                     if (!stoppedNow) {
@@ -154,6 +226,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
                     lock.unlock();
                 }
                 workerProcess.waitForStop();
+                if (eventReceiver != null) {
+                    eventReceiver.reportAndReset();
+                }
             }
         } catch (ExecException e) {
             if (!stoppedNow) {
@@ -163,20 +238,62 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
                     + documentationRegistry.getDocumentationFor("java_testing", "sec:test_execution"), e.getCause());
             }
         } finally {
-            completion.leaseFinish();
+            releaseAllSlots();
+            if (completion != null) {
+                completion.leaseFinish();
+            }
+        }
+    }
+
+    private void stopSession() {
+        boolean stopped;
+        lock.lock();
+        try {
+            stopped = stoppedNow;
+        } finally {
+            lock.unlock();
+        }
+        if (!stopped && reusableWorker.stopSession()) {
+            workerPool.release(reusableWorker);
+        } else {
+            // The worker has stopped or crashed, report its failure, if any
+            workerProcess.waitForStop();
         }
     }
 
     @Override
     public void stopNow() {
+        releaseAllSlots();
         lock.lock();
         try {
             stoppedNow = true;
-            if (remoteProcessor != null) {
+            if (remoteProcessor != null || reusableWorker != null) {
                 workerProcess.stopNow();
             }
         } finally {
             lock.unlock();
         }
     }
+
+    /**
+     * Unblocks any caller waiting for the worker, once the worker will not acknowledge any further test classes.
+     */
+    private void releaseAllSlots() {
+        if (slotsReleased.compareAndSet(false, true)) {
+            availableSlots.release(Integer.MAX_VALUE / 2);
+        }
+    }
+
+    private class WorkerProgressListener implements TestWorkerProgressListener, StreamCompletion {
+        @Override
+        public void testClassProcessed() {
+            availableSlots.release();
+        }
+
+        @Override
+        public void endStream() {
+            // The worker has stopped or crashed
+            releaseAllSlots();
+        }
+    }
 }
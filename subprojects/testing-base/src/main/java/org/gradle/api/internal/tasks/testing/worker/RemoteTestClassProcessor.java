@@ -33,7 +33,17 @@ public interface RemoteTestClassProcessor {
     void processTestClass(TestClassRunInfo testClass);
 
     /**
-     * Does not block.
+     * Does not block. Used by a {@link TestWorker#reusable() reusable} worker instead of {@link #startProcessing()}, to start running the tests of a test task.
+     */
+    void startSession(TestWorkerSessionSpec spec);
+
+    /**
+     * Does not block. For a {@link TestWorker#reusable() reusable} worker, completes the tests of the current test task. Otherwise, stops the worker.
      */
     void stop();
+
+    /**
+     * Does not block. Stops a {@link TestWorker#reusable() reusable} worker once the current session, if any, has completed.
+     */
+    void shutdown();
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The build side of a {@link TestWorker#reusable() reusable} test worker process, which runs the tests of one test task after another.
+ *
+ * <p>The worker sends the results of every session through the same connection, so they are forwarded to the result processor of the current session.
+ * A session is complete once the worker has reported the completion of its root test suite and has acknowledged every test class sent to it.</p>
+ */
+class ReusableTestWorker implements TestResultProcessor, TestWorkerProgressListener, StreamCompletion, Stoppable {
+    private final Object key;
+    private final WorkerProcess workerProcess;
+    private final Lock lock = new ReentrantLock();
+    private final Condition sessionStateChanged = lock.newCondition();
+    private final TestEventBatchReceiver eventReceiver = new TestEventBatchReceiver(this);
+    private RemoteTestClassProcessor remoteProcessor;
+    private Session session;
+    private boolean disconnected;
+
+    ReusableTestWorker(Object key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public WorkerProcess getWorkerProcess() {
+        return workerProcess;
+    }
+
+    /**
+     * Starts the worker process. The worker process must run a {@link TestWorker#reusable() reusable} test worker.
+     */
+    void start() {
+        workerProcess.start();
+
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestEventBatchProcessor.class, eventReceiver);
+        connection.addIncoming(TestWorkerProgressListener.class, this);
+        remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
+        connection.connect();
+    }
+
+    /**
+     * Starts running the tests of a test task in this worker. The results are sent to the given processors until the session is stopped.
+     */
+    public void startSession(TestWorkerSessionSpec spec, TestResultProcessor resultProcessor, TestWorkerProgressListener progressListener) {
+        lock.lock();
+        try {
+            if (session != null) {
+                throw new IllegalStateException("A test worker session is already running.");
+            }
+            session = new Session(resultProcessor, progressListener);
+        } finally {
+            lock.unlock();
+        }
+        remoteProcessor.startSession(spec);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        lock.lock();
+        try {
+            session.dispatched++;
+        } finally {
+            lock.unlock();
+        }
+        remoteProcessor.processTestClass(testClass);
+    }
+
+    /**
+     * Completes the current session, blocking until the worker has reported all of its results.
+     *
+     * @return true when the worker can be used for another session, false when the worker process has disconnected.
+     */
+    public boolean stopSession() {
+        remoteProcessor.stop();
+        lock.lock();
+        try {
+            while (!disconnected && !session.isComplete()) {
+                sessionStateChanged.await();
+            }
+            session = null;
+            eventReceiver.reportAndReset();
+            return !disconnected;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Asks the worker process to exit and waits for it to do so.
+     */
+    @Override
+    public void stop() {
+        remoteProcessor.shutdown();
+        workerProcess.waitForStop();
+    }
+
+    public void stopNow() {
+        workerProcess.stopNow();
+    }
+
+    private Session currentSession() {
+        lock.lock();
+        try {
+            return session;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        Session current = currentSession();
+        if (current.rootSuiteId == null && event.getParentId() == null) {
+            current.rootSuiteId = test.getId();
+        }
+        current.resultProcessor.started(test, event);
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        Session current = currentSession();
+        current.resultProcessor.completed(testId, event);
+        if (testId.equals(current.rootSuiteId)) {
+            lock.lock();
+            try {
+                current.rootCompleted = true;
+                sessionStateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        currentSession().resultProcessor.output(testId, event);
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        currentSession().resultProcessor.failure(testId, result);
+    }
+
+    @Override
+    public void testClassProcessed() {
+        Session current;
+        lock.lock();
+        try {
+            current = session;
+            current.acknowledged++;
+            sessionStateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        current.progressListener.testClassProcessed();
+    }
+
+    @Override
+    public void endStream() {
+        // Called once for each incoming channel when the worker process disconnects
+        Session current;
+        lock.lock();
+        try {
+            disconnected = true;
+            current = session;
+            sessionStateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (current != null && current.progressListener instanceof StreamCompletion) {
+            ((StreamCompletion) current.progressListener).endStream();
+        }
+    }
+
+    private static class Session {
+        final TestResultProcessor resultProcessor;
+        final TestWorkerProgressListener progressListener;
+        // Only accessed by the thread that delivers test results
+        Object rootSuiteId;
+        // Guarded by the lock of the worker
+        boolean rootCompleted;
+        int dispatched;
+        int acknowledged;
+
+        Session(TestResultProcessor resultProcessor, TestWorkerProgressListener progressListener) {
+            this.resultProcessor = resultProcessor;
+            this.progressListener = progressListener;
+        }
+
+        boolean isComplete() {
+            return rootCompleted && acknowledged >= dispatched;
+        }
+    }
+}
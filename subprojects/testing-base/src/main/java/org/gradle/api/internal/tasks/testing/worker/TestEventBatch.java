@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of test events sent from a test worker to the build process as a single message, see {@link BatchingTestResultProcessor}.
+ */
+public class TestEventBatch {
+    /**
+     * Enables compression of large batches, which reduces the amount of data sent by tests that produce a lot of output at the cost of some CPU time.
+     */
+    public static final String COMPRESS_EVENTS_PROPERTY = "org.gradle.testing.compress-events";
+
+    static final byte STARTED = 0;
+    static final byte COMPLETED = 1;
+    static final byte OUTPUT = 2;
+    static final byte FAILURE = 3;
+
+    private final List<Event> events = new ArrayList<Event>();
+    private final boolean compress;
+    private int encodedSize;
+
+    public TestEventBatch(boolean compress) {
+        this.compress = compress;
+    }
+
+    /**
+     * Returns whether this batch should be compressed when sent.
+     */
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * Returns the size of this batch on the wire, when it has been received. Returns 0 otherwise.
+     */
+    public int getEncodedSize() {
+        return encodedSize;
+    }
+
+    void setEncodedSize(int encodedSize) {
+        this.encodedSize = encodedSize;
+    }
+
+    List<Event> getEvents() {
+        return events;
+    }
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        events.add(new Event(STARTED, test.getId(), test, event));
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        events.add(new Event(COMPLETED, testId, null, event));
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        events.add(new Event(OUTPUT, testId, null, event));
+    }
+
+    public void failure(Object testId, Throwable failure) {
+        events.add(new Event(FAILURE, testId, null, failure));
+    }
+
+    /**
+     * Passes the events of this batch to the given processor, in the order they were added.
+     */
+    public void replay(TestResultProcessor processor) {
+        for (Event event : events) {
+            switch (event.type) {
+                case STARTED:
+                    processor.started(event.descriptor, (TestStartEvent) event.payload);
+                    break;
+                case COMPLETED:
+                    processor.completed(event.testId, (TestCompleteEvent) event.payload);
+                    break;
+                case OUTPUT:
+                    processor.output(event.testId, (TestOutputEvent) event.payload);
+                    break;
+                case FAILURE:
+                    processor.failure(event.testId, (Throwable) event.payload);
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected test event type " + event.type);
+            }
+        }
+    }
+
+    static class Event {
+        final byte type;
+        final Object testId;
+        final TestDescriptorInternal descriptor;
+        final Object payload;
+
+        Event(byte type, Object testId, TestDescriptorInternal descriptor, Object payload) {
+            this.type = type;
+            this.testId = testId;
+            this.descriptor = descriptor;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes the test events received from a test worker to a result processor, and keeps track of how many events the worker has sent.
+ */
+class TestEventBatchReceiver implements TestEventBatchProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestEventBatchReceiver.class);
+
+    private final TestResultProcessor resultProcessor;
+    private long startTime = System.nanoTime();
+    private long events;
+    private long batches;
+    private long bytes;
+
+    TestEventBatchReceiver(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    @Override
+    public void process(TestEventBatch batch) {
+        batch.replay(resultProcessor);
+        synchronized (this) {
+            events += batch.size();
+            batches++;
+            bytes += batch.getEncodedSize();
+        }
+    }
+
+    public synchronized long getEvents() {
+        return events;
+    }
+
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Logs the throughput of the test worker since this receiver was created or last reset, and resets the counters.
+     */
+    public synchronized void reportAndReset() {
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Test worker sent {} test events in {} batches ({} KB) in {} ms, {} events/s.",
+                events, batches, bytes / 1024, elapsedMillis, events * 1000 / elapsedMillis);
+        }
+        startTime = System.nanoTime();
+        events = 0;
+        batches = 0;
+        bytes = 0;
+    }
+}
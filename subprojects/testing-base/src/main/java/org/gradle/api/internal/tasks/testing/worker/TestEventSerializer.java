@@ -21,6 +21,21 @@ import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.id.CompositeIdGenerator;
 import org.gradle.internal.serialize.*;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 public class TestEventSerializer {
     public static SerializerRegistry create() {
@@ -37,6 +52,7 @@ public class TestEventSerializer {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, factory.getSerializerFor(Throwable.class));
+        registry.register(TestEventBatch.class, new TestEventBatchSerializer(registry.build(TestDescriptorInternal.class), factory.getSerializerFor(Throwable.class)));
         return registry;
     }
 
@@ -234,4 +250,250 @@ public class TestEventSerializer {
             encoder.writeString(value.getName());
         }
     }
+
+    /**
+     * Writes the events of a batch into a single payload, optionally compressed. Strings that repeat within the batch, such as class and method names,
+     * are written once and then referred to by their index.
+     */
+    private static class TestEventBatchSerializer implements Serializer<TestEventBatch> {
+        private static final int MIN_COMPRESSED_SIZE = 1024;
+        private final Serializer<TestDescriptorInternal> descriptorSerializer;
+        private final Serializer<Throwable> throwableSerializer;
+        private final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        private final Serializer<TestStartEvent> startEventSerializer = new TestStartEventSerializer();
+        private final Serializer<TestCompleteEvent> completeEventSerializer = new TestCompleteEventSerializer();
+        private final Serializer<DefaultTestOutputEvent> outputEventSerializer = new DefaultTestOutputEventSerializer();
+
+        private TestEventBatchSerializer(Serializer<TestDescriptorInternal> descriptorSerializer, Serializer<Throwable> throwableSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+            this.throwableSerializer = throwableSerializer;
+        }
+
+        @Override
+        public TestEventBatch read(Decoder decoder) throws Exception {
+            boolean compressed = decoder.readBoolean();
+            byte[] payload = decoder.readBinary();
+            InputStream inputStream = new ByteArrayInputStream(payload);
+            if (compressed) {
+                inputStream = new InflaterInputStream(inputStream);
+            }
+            Decoder events = new StringTableDecoder(new KryoBackedDecoder(inputStream));
+            TestEventBatch batch = new TestEventBatch(compressed);
+            int count = events.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                byte type = events.readByte();
+                switch (type) {
+                    case TestEventBatch.STARTED:
+                        TestDescriptorInternal descriptor = descriptorSerializer.read(events);
+                        batch.started(descriptor, startEventSerializer.read(events));
+                        break;
+                    case TestEventBatch.COMPLETED:
+                        batch.completed(idSerializer.read(events), completeEventSerializer.read(events));
+                        break;
+                    case TestEventBatch.OUTPUT:
+                        batch.output(idSerializer.read(events), outputEventSerializer.read(events));
+                        break;
+                    case TestEventBatch.FAILURE:
+                        batch.failure(idSerializer.read(events), throwableSerializer.read(events));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected test event type " + type);
+                }
+            }
+            batch.setEncodedSize(payload.length);
+            return batch;
+        }
+
+        @Override
+        public void write(Encoder encoder, TestEventBatch value) throws Exception {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            KryoBackedEncoder kryoEncoder = new KryoBackedEncoder(outputStream);
+            Encoder events = new StringTableEncoder(kryoEncoder);
+            events.writeSmallInt(value.size());
+            for (TestEventBatch.Event event : value.getEvents()) {
+                events.writeByte(event.type);
+                switch (event.type) {
+                    case TestEventBatch.STARTED:
+                        descriptorSerializer.write(events, event.descriptor);
+                        startEventSerializer.write(events, (TestStartEvent) event.payload);
+                        break;
+                    case TestEventBatch.COMPLETED:
+                        idSerializer.write(events, (CompositeIdGenerator.CompositeId) event.testId);
+                        completeEventSerializer.write(events, (TestCompleteEvent) event.payload);
+                        break;
+                    case TestEventBatch.OUTPUT:
+                        idSerializer.write(events, (CompositeIdGenerator.CompositeId) event.testId);
+                        outputEventSerializer.write(events, (DefaultTestOutputEvent) event.payload);
+                        break;
+                    case TestEventBatch.FAILURE:
+                        idSerializer.write(events, (CompositeIdGenerator.CompositeId) event.testId);
+                        throwableSerializer.write(events, (Throwable) event.payload);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected test event type " + event.type);
+                }
+            }
+            kryoEncoder.flush();
+            byte[] payload = outputStream.toByteArray();
+
+            // Small batches are not worth compressing
+            boolean compressed = value.isCompress() && payload.length >= MIN_COMPRESSED_SIZE;
+            if (compressed) {
+                payload = deflate(payload);
+            }
+            encoder.writeBoolean(compressed);
+            encoder.writeBinary(payload);
+        }
+
+        private static byte[] deflate(byte[] payload) throws IOException {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(payload.length / 2);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream, deflater);
+                deflaterStream.write(payload);
+                deflaterStream.finish();
+            } finally {
+                deflater.end();
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    /**
+     * Writes each distinct string once. Long strings, such as most test output, are always written in full, as they rarely repeat.
+     */
+    private static class StringTableEncoder extends AbstractEncoder {
+        static final int MAX_TABLE_STRING_LENGTH = 512;
+        // Written in place of a string index
+        static final int INLINE = 0;
+        static final int NEW_ENTRY = 1;
+        static final int FIRST_INDEX = 2;
+        private final Encoder delegate;
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        StringTableEncoder(Encoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void writeString(CharSequence value) throws IOException {
+            if (value.length() > MAX_TABLE_STRING_LENGTH) {
+                delegate.writeSmallInt(INLINE);
+                delegate.writeString(value);
+                return;
+            }
+            String string = value.toString();
+            Integer index = strings.get(string);
+            if (index != null) {
+                delegate.writeSmallInt(FIRST_INDEX + index);
+            } else {
+                strings.put(string, strings.size());
+                delegate.writeSmallInt(NEW_ENTRY);
+                delegate.writeString(string);
+            }
+        }
+
+        @Override
+        public void writeByte(byte value) throws IOException {
+            delegate.writeByte(value);
+        }
+
+        @Override
+        public void writeBytes(byte[] bytes, int offset, int count) throws IOException {
+            delegate.writeBytes(bytes, offset, count);
+        }
+
+        @Override
+        public void writeLong(long value) throws IOException {
+            delegate.writeLong(value);
+        }
+
+        @Override
+        public void writeSmallLong(long value) throws IOException {
+            delegate.writeSmallLong(value);
+        }
+
+        @Override
+        public void writeInt(int value) throws IOException {
+            delegate.writeInt(value);
+        }
+
+        @Override
+        public void writeSmallInt(int value) throws IOException {
+            delegate.writeSmallInt(value);
+        }
+
+        @Override
+        public void writeBoolean(boolean value) throws IOException {
+            delegate.writeBoolean(value);
+        }
+    }
+
+    private static class StringTableDecoder extends AbstractDecoder {
+        private final Decoder delegate;
+        private final List<String> strings = new ArrayList<String>();
+
+        StringTableDecoder(Decoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String readString() throws EOFException, IOException {
+            int index = delegate.readSmallInt();
+            if (index == StringTableEncoder.INLINE) {
+                return delegate.readString();
+            }
+            if (index == StringTableEncoder.NEW_ENTRY) {
+                String string = delegate.readString();
+                strings.add(string);
+                return string;
+            }
+            return strings.get(index - StringTableEncoder.FIRST_INDEX);
+        }
+
+        @Override
+        public long readLong() throws EOFException, IOException {
+            return delegate.readLong();
+        }
+
+        @Override
+        public long readSmallLong() throws EOFException, IOException {
+            return delegate.readSmallLong();
+        }
+
+        @Override
+        public int readInt() throws EOFException, IOException {
+            return delegate.readInt();
+        }
+
+        @Override
+        public int readSmallInt() throws EOFException, IOException {
+            return delegate.readSmallInt();
+        }
+
+        @Override
+        public boolean readBoolean() throws EOFException, IOException {
+            return delegate.readBoolean();
+        }
+
+        @Override
+        public byte readByte() throws EOFException, IOException {
+            return delegate.readByte();
+        }
+
+        @Override
+        public void readBytes(byte[] buffer, int offset, int count) throws EOFException, IOException {
+            delegate.readBytes(buffer, offset, count);
+        }
+
+        @Override
+        protected int maybeReadBytes(byte[] buffer, int offset, int count) throws IOException {
+            return delegate.getInputStream().read(buffer, offset, count);
+        }
+
+        @Override
+        protected long maybeSkip(long count) throws IOException {
+            return delegate.getInputStream().skip(count);
+        }
+    }
 }
@@ -19,11 +19,11 @@ package org.gradle.api.internal.tasks.testing.worker;
 import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.actor.internal.DefaultActorFactory;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
@@ -42,17 +42,44 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.security.AccessControlException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable, Stoppable {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
     private final WorkerTestClassProcessorFactory factory;
+    private final boolean compressEvents;
     private CountDownLatch completed;
     private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private BatchingTestResultProcessor resultProcessor;
+    private TestWorkerProgressListener progressListener;
+    private transient WorkerProcessContext workerProcessContext;
+    private transient DefaultServiceRegistry sessionServices;
+    private transient TestWorkerSession session;
+    private transient volatile Throwable sessionFailure;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
+        this(factory, false);
+    }
+
+    /**
+     * @param compressEvents whether to compress the test events sent to the build process, which is worthwhile for tests that produce a lot of output.
+     */
+    public TestWorker(WorkerTestClassProcessorFactory factory, boolean compressEvents) {
         this.factory = factory;
+        this.compressEvents = compressEvents;
+    }
+
+    /**
+     * Creates a worker which runs the tests of several test tasks, one after another. Each test task is started using {@link #startSession(TestWorkerSessionSpec)}
+     * and loads its test framework and test classes into a fresh set of class loaders. The worker exits on {@link #shutdown()}.
+     */
+    public static TestWorker reusable() {
+        return reusable(false);
+    }
+
+    public static TestWorker reusable(boolean compressEvents) {
+        return new TestWorker(null, compressEvents);
     }
 
     @Override
@@ -64,6 +91,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         System.setProperty(WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
 
+        this.workerProcessContext = workerProcessContext;
         DefaultServiceRegistry testServices = new TestFrameworkServiceRegistry(workerProcessContext);
         startReceivingTests(workerProcessContext, testServices);
 
@@ -73,6 +101,10 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
             } catch (InterruptedException e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
+            if (sessionFailure != null) {
+                // Exit with a failure, so that the build reports it
+                throw UncheckedException.throwAsUncheckedException(sessionFailure);
+            }
         } finally {
             LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
 
@@ -84,25 +116,40 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
                     LOGGER.warn("Unable to reset SecurityManager. Continuing anyway...", e);
                 }
             }
+            endSession();
             testServices.close();
         }
     }
 
     private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
+        if (factory != null) {
+            processor = createProcessor(factory, testServices, workerProcessContext.getApplicationClassLoader());
+        }
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        this.resultProcessor = new BatchingTestResultProcessor(serverConnection.addOutgoing(TestEventBatchProcessor.class), compressEvents);
+        this.progressListener = serverConnection.addOutgoing(TestWorkerProgressListener.class);
+        serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
+        serverConnection.connect();
+
+        testServices.get(ExecutorFactory.class).createScheduled("Test event flusher", 1).scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                resultProcessor.flush();
+            }
+        }, BatchingTestResultProcessor.MAX_DELAY_MILLIS, BatchingTestResultProcessor.MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private TestClassProcessor createProcessor(WorkerTestClassProcessorFactory factory, ServiceRegistry testServices, ClassLoader applicationClassLoader) {
         TestClassProcessor targetProcessor = factory.create(testServices);
         IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
 
         targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
                 workerProcessContext.getDisplayName(), testServices.get(Clock.class));
         ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
-                TestClassProcessor.class, targetProcessor, workerProcessContext.getApplicationClassLoader());
-        processor = proxy.getSource();
-
-        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
-        serverConnection.useParameterSerializers(TestEventSerializer.create());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
-        serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
-        serverConnection.connect();
+                TestClassProcessor.class, targetProcessor, applicationClassLoader);
+        return proxy.getSource();
     }
 
     @Override
@@ -111,6 +158,21 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         processor.startProcessing(resultProcessor);
     }
 
+    @Override
+    public void startSession(TestWorkerSessionSpec spec) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            session = new TestWorkerSession(spec, getClass().getClassLoader());
+            sessionServices = new TestFrameworkServiceRegistry(workerProcessContext);
+            processor = createProcessor(session.getProcessorFactory(), sessionServices, session.getApplicationClassLoader());
+        } catch (Throwable t) {
+            sessionFailure = t;
+            completed.countDown();
+            return;
+        }
+        processor.startProcessing(resultProcessor);
+    }
+
     @Override
     public void processTestClass(final TestClassRunInfo testClass) {
         Thread.currentThread().setName("Test worker");
@@ -122,6 +184,9 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         } finally {
             // Clean the interrupted status
             Thread.interrupted();
+            // Send the results of the test class before asking for more work
+            resultProcessor.flush();
+            progressListener.testClassProcessed();
         }
     }
 
@@ -131,13 +196,35 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         try {
             processor.stop();
         } finally {
-            completed.countDown();
+            resultProcessor.flush();
+            if (factory != null) {
+                completed.countDown();
+            } else {
+                endSession();
+            }
             // Clean the interrupted status
             // because some test class processors do work here, e.g. JUnitPlatform
             Thread.interrupted();
         }
     }
 
+    @Override
+    public void shutdown() {
+        completed.countDown();
+    }
+
+    private void endSession() {
+        processor = null;
+        if (session != null) {
+            try {
+                CompositeStoppable.stoppable(sessionServices, session).stop();
+            } finally {
+                sessionServices = null;
+                session = null;
+            }
+        }
+    }
+
     private static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
         private final WorkerProcessContext workerProcessContext;
 
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Keeps test worker processes alive between test tasks, so that test tasks with compatible worker process settings do not each pay for JVM startup and warm-up.
+ *
+ * <p>This is opt-in, using the {@value #REUSE_WORKERS_PROPERTY} system property, as test code can observe that it no longer runs in the system class loader of
+ * a fresh JVM. A worker is only reused by a test task with the same Java executable, JVM arguments, system properties, working directory and environment.
+ * Each test task loads its test classes into new class loaders, see {@link TestWorkerSession}.</p>
+ */
+public class TestWorkerPool implements Stoppable {
+    public static final String REUSE_WORKERS_PROPERTY = "org.gradle.testing.reuse-workers";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestWorkerPool.class);
+
+    private final boolean enabled;
+    private final int maxIdleWorkers;
+    private final LinkedList<ReusableTestWorker> idleWorkers = new LinkedList<ReusableTestWorker>();
+
+    public TestWorkerPool(boolean enabled, int maxIdleWorkers) {
+        this.enabled = enabled;
+        this.maxIdleWorkers = maxIdleWorkers;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the key identifying the worker processes that can be used in place of the one configured by the given builder.
+     */
+    static Object keyFor(WorkerProcessBuilder builder) {
+        return Arrays.asList(
+            builder.getJavaCommand().getExecutable(),
+            builder.getJavaCommand().getAllJvmArgs(),
+            builder.getJavaCommand().getWorkingDir(),
+            builder.getJavaCommand().getEnvironment(),
+            builder.getLogLevel()
+        );
+    }
+
+    /**
+     * Takes an idle worker with the given key out of the pool, if there is one.
+     */
+    @Nullable
+    ReusableTestWorker acquire(Object key) {
+        synchronized (idleWorkers) {
+            for (Iterator<ReusableTestWorker> iterator = idleWorkers.iterator(); iterator.hasNext();) {
+                ReusableTestWorker worker = iterator.next();
+                if (worker.getKey().equals(key)) {
+                    iterator.remove();
+                    return worker;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a worker whose session has completed to the pool, stopping the least recently used idle worker when the pool is full.
+     */
+    void release(ReusableTestWorker worker) {
+        ReusableTestWorker evicted = null;
+        synchronized (idleWorkers) {
+            idleWorkers.addFirst(worker);
+            if (idleWorkers.size() > maxIdleWorkers) {
+                evicted = idleWorkers.removeLast();
+            }
+        }
+        if (evicted != null) {
+            LOGGER.debug("Stopping least recently used idle test worker.");
+            evicted.stop();
+        }
+    }
+
+    @Override
+    public void stop() {
+        List<ReusableTestWorker> workers;
+        synchronized (idleWorkers) {
+            workers = new ArrayList<ReusableTestWorker>(idleWorkers);
+            idleWorkers.clear();
+        }
+        CompositeStoppable.stoppable(workers).stop();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.base.Joiner;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classloader.MultiParentClassLoader;
+import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Properties;
+
+/**
+ * The class loaders and JVM state used by a {@link TestWorker#reusable() reusable} test worker while it runs the tests of a single test task.
+ *
+ * <p>Class loader hierarchy:</p>
+ * <pre>
+ *                       jvm system
+ *                    (GradleWorkerMain)
+ *                    /                \
+ *                   /                  \
+ *            application            worker implementation
+ *       (test runtime classpath)     (TestWorker, messaging)
+ *                  |                        |
+ *                filter                   filter
+ *           (shared packages)      (excludes test framework
+ *                   \                  integration)
+ *                    \                    /
+ *                     test framework integration
+ *           (JUnit, TestNG and JUnit Platform integration)
+ * </pre>
+ *
+ * <p>Stopping the session discards the class loaders and restores the system properties, so that the next session starts from a clean state.</p>
+ */
+class TestWorkerSession implements Stoppable {
+    private static final String[] TEST_FRAMEWORK_INTEGRATION_PACKAGES = {
+        "org.gradle.api.internal.tasks.testing.junit",
+        "org.gradle.api.internal.tasks.testing.testng",
+        "org.gradle.api.internal.tasks.testing.junitplatform"
+    };
+    private static final String[] WORKER_IMPLEMENTATION_PACKAGES = {
+        "org.gradle",
+        "org.slf4j",
+        "net.rubygrapefruit",
+        "com.esotericsoftware",
+        "org.apache.commons.lang"
+    };
+
+    private final Properties systemProperties;
+    private final ClassLoader applicationClassLoader;
+    private final ClassLoader frameworkClassLoader;
+    private final WorkerTestClassProcessorFactory processorFactory;
+
+    TestWorkerSession(TestWorkerSessionSpec spec, ClassLoader workerImplementationClassLoader) {
+        systemProperties = new Properties();
+        systemProperties.putAll(System.getProperties());
+        System.setProperty("java.class.path", Joiner.on(File.pathSeparator).join(spec.getApplicationClasspath()));
+
+        applicationClassLoader = new VisitableURLClassLoader("test-application", ClassLoader.getSystemClassLoader(), DefaultClassPath.of(spec.getApplicationClasspath()));
+
+        FilteringClassLoader.Spec sharedSpec = new FilteringClassLoader.Spec();
+        for (String sharedPackage : spec.getSharedPackages()) {
+            sharedSpec.allowPackage(sharedPackage);
+        }
+        FilteringClassLoader.Spec implementationSpec = new FilteringClassLoader.Spec();
+        for (String implementationPackage : WORKER_IMPLEMENTATION_PACKAGES) {
+            implementationSpec.allowPackage(implementationPackage);
+        }
+        for (String integrationPackage : TEST_FRAMEWORK_INTEGRATION_PACKAGES) {
+            implementationSpec.disallowPackage(integrationPackage);
+        }
+        ClassLoader parent = new MultiParentClassLoader(
+            new FilteringClassLoader(applicationClassLoader, sharedSpec),
+            new FilteringClassLoader(workerImplementationClassLoader, implementationSpec));
+        frameworkClassLoader = new VisitableURLClassLoader("test-framework", parent, spec.getImplementationClasspath());
+
+        try {
+            processorFactory = (WorkerTestClassProcessorFactory) new ClassLoaderObjectInputStream(new ByteArrayInputStream(spec.getSerializedProcessorFactory()), frameworkClassLoader).readObject();
+        } catch (Exception e) {
+            stop();
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public ClassLoader getApplicationClassLoader() {
+        return applicationClassLoader;
+    }
+
+    public WorkerTestClassProcessorFactory getProcessorFactory() {
+        return processorFactory;
+    }
+
+    @Override
+    public void stop() {
+        System.setProperties(systemProperties);
+        ClassLoaderUtils.tryClose(frameworkClassLoader);
+        ClassLoaderUtils.tryClose(applicationClassLoader);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.util.CollectionUtils;
+import org.gradle.util.GUtil;
+
+import java.io.File;
+import java.io.Serializable;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the tests of a test task to run in a {@link TestWorker#reusable() reusable} test worker.
+ *
+ * <p>The test framework is serialized up front, as its classes can only be loaded once the worker has set up the class loaders for the session.</p>
+ */
+public class TestWorkerSessionSpec implements Serializable {
+    private final byte[] serializedProcessorFactory;
+    private final List<File> applicationClasspath;
+    private final List<URL> implementationClasspath;
+    private final List<String> sharedPackages;
+
+    public TestWorkerSessionSpec(WorkerTestClassProcessorFactory processorFactory, Iterable<File> applicationClasspath, List<URL> implementationClasspath, Iterable<String> sharedPackages) {
+        this.serializedProcessorFactory = GUtil.serialize(processorFactory);
+        this.applicationClasspath = CollectionUtils.toList(applicationClasspath);
+        this.implementationClasspath = new ArrayList<URL>(implementationClasspath);
+        this.sharedPackages = CollectionUtils.toList(sharedPackages);
+    }
+
+    public byte[] getSerializedProcessorFactory() {
+        return serializedProcessorFactory;
+    }
+
+    public List<File> getApplicationClasspath() {
+        return applicationClasspath;
+    }
+
+    public List<URL> getImplementationClasspath() {
+        return implementationClasspath;
+    }
+
+    public List<String> getSharedPackages() {
+        return sharedPackages;
+    }
+}
@@ -145,6 +145,35 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reader can be used by multiple threads concurrently"() {
+        given:
+        def writer = output.writer()
+        (1..20).each { classId ->
+            (1..50).each { count ->
+                writer.onOutput(classId, 1, output(StdOut, "[${classId}-${count}]"))
+            }
+        }
+        writer.close()
+        def reader = output.reader()
+
+        when:
+        def results = Collections.synchronizedMap([:])
+        def threads = (1..20).collect { classId ->
+            Thread.start {
+                results[classId] = collectOutput(reader, classId, 1, StdOut)
+            }
+        }
+        threads*.join()
+
+        then:
+        (1..20).every { classId ->
+            results[classId] == (1..50).collect { count -> "[${classId}-${count}]" }.join('')
+        }
+
+        cleanup:
+        reader.close()
+    }
+
     def "can open empty reader"() {
         // neither file
         expect:
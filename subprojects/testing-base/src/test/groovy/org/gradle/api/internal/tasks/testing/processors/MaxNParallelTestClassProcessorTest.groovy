@@ -16,184 +16,159 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
-import org.gradle.internal.actor.Actor
-import org.gradle.internal.actor.ActorFactory
-import spock.lang.Specification
 import org.gradle.internal.Factory
+import org.gradle.internal.actor.internal.DefaultActorFactory
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
-class MaxNParallelTestClassProcessorTest extends Specification {
+import java.util.concurrent.CopyOnWriteArrayList
+
+class MaxNParallelTestClassProcessorTest extends ConcurrentSpec {
     private final Factory<TestClassProcessor> factory = Mock()
     private final TestResultProcessor resultProcessor = Mock()
-    private final TestResultProcessor asyncResultProcessor = Mock()
-    private final Actor resultProcessorActor = Mock()
-    private final ActorFactory actorFactory = Mock()
-    private final MaxNParallelTestClassProcessor processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory)
-
-    def createsThreadSafeWrapperForResultProcessorOnStart() {
-        when:
-        processor.startProcessing(resultProcessor)
+    private final DefaultActorFactory actorFactory = new DefaultActorFactory(executorFactory)
+    private final MaxNParallelTestClassProcessor processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, true)
 
-        then:
-        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
-        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+    def cleanup() {
+        actorFactory.stop()
     }
 
     def doesNothingWhenNoTestsProcessed() {
-        startProcessor()
-
         when:
+        processor.startProcessing(resultProcessor)
         processor.stop()
 
         then:
         0 * factory.create()
-        1 * resultProcessorActor.stop()
-    }
-
-    def startProcessor() {
-        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
-        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
-        processor.startProcessing(resultProcessor)
     }
 
     def startsProcessorsOnDemandAndStopsAtEnd() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
-        TestClassProcessor asyncProcessor1 = Mock()
-        Actor actor1 = Mock()
-
-        startProcessor()
 
         when:
+        processor.startProcessing(resultProcessor)
         processor.processTestClass(test)
-
-        then:
-        1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
-
-        when:
         processor.stop()
 
         then:
-        1 * asyncProcessor1.stop()
-        1 * actor1.stop()
-        1 * resultProcessorActor.stop()
+        1 * factory.create() >> processor1
+        1 * processor1.startProcessing(_)
+        1 * processor1.processTestClass(test)
+        1 * processor1.stop()
     }
 
-    def startsMultipleProcessorsOnDemandAndStopsAtEnd() {
+    def startsAtMostMaxProcessorsAndStopsAtEnd() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
         TestClassProcessor processor2 = Mock()
-        TestClassProcessor asyncProcessor1 = Mock()
-        TestClassProcessor asyncProcessor2 = Mock()
-        Actor actor1 = Mock()
-        Actor actor2 = Mock()
-
-        startProcessor()
 
         when:
-        processor.processTestClass(test)
+        processor.startProcessing(resultProcessor)
+        3.times { processor.processTestClass(test) }
+        processor.stop()
 
         then:
-        1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
+        2 * factory.create() >>> [processor1, processor2]
+        1 * processor1.startProcessing(_)
+        1 * processor2.startProcessing(_)
+        3 * _.processTestClass(test)
+        1 * processor1.stop()
+        1 * processor2.stop()
+    }
+
+    def "idle processor takes the next test class while another processor is busy"() {
+        def test1 = new DefaultTestClassRunInfo("Test1")
+        def test2 = new DefaultTestClassRunInfo("Test2")
+        def test3 = new DefaultTestClassRunInfo("Test3")
+        // Use hand written processors, as Spock mocks do not allow invocations to block
+        def processor1 = new RecordingTestClassProcessor({
+            instant.busy
+            thread.blockUntil.released
+        })
+        def processor2 = new RecordingTestClassProcessor({ TestClassRunInfo test ->
+            if (test == test3) {
+                instant.lastProcessed
+            }
+        })
+        factory.create() >>> [processor1, processor2]
 
         when:
-        processor.processTestClass(test)
+        async {
+            processor.startProcessing(resultProcessor)
+            processor.processTestClass(test1)
+            thread.blockUntil.busy
+            processor.processTestClass(test2)
+            processor.processTestClass(test3)
+            thread.blockUntil.lastProcessed
+            instant.released
+            processor.stop()
+        }
 
         then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
-        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
+        processor1.processed == [test1]
+        processor2.processed == [test2, test3]
+        processor1.stopped
+        processor2.stopped
+    }
+
+    def "spreads test classes evenly across processors that defer running them until stopped"() {
+        def tests = (1..6).collect { new DefaultTestClassRunInfo("Test" + it) }
+        // Collects test classes without blocking, like the JUnit Platform and TestNG processors do
+        def processor1 = new RecordingTestClassProcessor({})
+        def processor2 = new RecordingTestClassProcessor({})
+        factory.create() >>> [processor1, processor2]
+        def roundRobinProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, false)
 
         when:
-        processor.stop()
+        roundRobinProcessor.startProcessing(resultProcessor)
+        tests.each { roundRobinProcessor.processTestClass(it) }
+        roundRobinProcessor.stop()
 
         then:
-        1 * asyncProcessor1.stop()
-        1 * asyncProcessor2.stop()
+        processor1.processed == [tests[0], tests[2], tests[4]]
+        processor2.processed == [tests[1], tests[3], tests[5]]
+        processor1.stopped
+        processor2.stopped
     }
 
-    def roundRobinsTestClassesToProcessors() {
+    def "rethrows failure of processor on stop"() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
-        TestClassProcessor processor2 = Mock()
-        TestClassProcessor asyncProcessor1 = Mock()
-        TestClassProcessor asyncProcessor2 = Mock()
-        Actor actor1 = Mock()
-        Actor actor2 = Mock()
-
-        startProcessor()
+        def failure = new RuntimeException("broken")
 
         when:
+        processor.startProcessing(resultProcessor)
         processor.processTestClass(test)
+        processor.stop()
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
-
-        when:
-        processor.processTestClass(test)
-
-        then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
-        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
-
-        when:
-        processor.processTestClass(test)
-
-        then:
-        1 * asyncProcessor1.processTestClass(test)
-
-        when:
-        processor.processTestClass(test)
+        1 * processor1.processTestClass(test) >> { throw failure }
+        1 * processor1.stop()
 
-        then:
-        1 * asyncProcessor2.processTestClass(test)
+        and:
+        def e = thrown(RuntimeException)
+        e.is(failure)
     }
 
     def "stopNow propagates to factory created processors"() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
         TestClassProcessor processor2 = Mock()
-        TestClassProcessor asyncProcessor1 = Mock()
-        TestClassProcessor asyncProcessor2 = Mock()
-        Actor actor1 = Mock()
-        Actor actor2 = Mock()
 
-        startProcessor()
+        given:
+        processor.startProcessing(resultProcessor)
 
         when:
         processor.processTestClass(test)
-
-        then:
-        1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-
-        when:
         processor.processTestClass(test)
 
         then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        2 * factory.create() >>> [processor1, processor2]
 
         when:
         processor.stopNow()
@@ -201,5 +176,41 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         then:
         1 * processor1.stopNow()
         1 * processor2.stopNow()
+
+        when:
+        processor.stop()
+
+        then:
+        1 * processor1.stop()
+        1 * processor2.stop()
+    }
+
+    private static class RecordingTestClassProcessor implements TestClassProcessor {
+        final List<TestClassRunInfo> processed = new CopyOnWriteArrayList<TestClassRunInfo>()
+        final Closure action
+        volatile boolean stopped
+
+        RecordingTestClassProcessor(Closure action) {
+            this.action = action
+        }
+
+        @Override
+        void startProcessing(TestResultProcessor resultProcessor) {
+        }
+
+        @Override
+        void processTestClass(TestClassRunInfo testClass) {
+            processed << testClass
+            action.call(testClass)
+        }
+
+        @Override
+        void stop() {
+            stopped = true
+        }
+
+        @Override
+        void stopNow() {
+        }
     }
 }
@@ -46,4 +46,27 @@ class RunPreviousFailedFirstTestClassProcessorTest extends Specification {
         then:
         1 * delegate.stop()
     }
+
+    def 'longest running test classes should be passed to delegate first'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor(['Class4'] as Set, [Class1: 10L, Class2: 200L, Class4: 5L, Class5: 30L], delegate)
+
+        when:
+        processor.startProcessing(testResultProcessor)
+        ['Class1', 'Class2', 'Class3', 'Class4', 'Class5'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class4'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class5'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.stop()
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import spock.lang.Specification
+
+class BatchingTestResultProcessorTest extends Specification {
+    def target = Mock(TestEventBatchProcessor)
+    def processor = new BatchingTestResultProcessor(target, false)
+
+    def "sends collected events when flushed"() {
+        when:
+        processor.completed("1", new TestCompleteEvent(1))
+        processor.completed("2", new TestCompleteEvent(2))
+
+        then:
+        0 * target._
+
+        when:
+        processor.flush()
+
+        then:
+        1 * target.process({ it.size() == 2 })
+
+        when:
+        processor.flush()
+
+        then:
+        0 * target._
+    }
+
+    def "sends a batch once it holds the maximum number of events"() {
+        when:
+        (BatchingTestResultProcessor.MAX_EVENTS + 1).times {
+            processor.completed(it, new TestCompleteEvent(it))
+        }
+
+        then:
+        1 * target.process({ it.size() == BatchingTestResultProcessor.MAX_EVENTS })
+        0 * target._
+    }
+
+    def "sends a batch once it holds the maximum amount of output"() {
+        def output = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "x" * (BatchingTestResultProcessor.MAX_OUTPUT_CHARS / 2))
+
+        when:
+        processor.output("1", output)
+
+        then:
+        0 * target._
+
+        when:
+        processor.output("1", output)
+
+        then:
+        1 * target.process({ it.size() == 2 })
+    }
+}
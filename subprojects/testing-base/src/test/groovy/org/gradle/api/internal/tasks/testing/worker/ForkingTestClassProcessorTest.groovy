@@ -23,6 +23,7 @@ import org.gradle.api.internal.classpath.ModuleRegistry
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.dispatch.StreamCompletion
 import org.gradle.internal.remote.ObjectConnection
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.process.JavaForkOptions
@@ -33,6 +34,10 @@ import org.gradle.process.internal.worker.WorkerProcessBuilder
 import org.gradle.process.internal.worker.WorkerProcessFactory
 import spock.lang.Specification
 import spock.lang.Subject
+import spock.util.concurrent.BlockingVariable
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 
 class ForkingTestClassProcessorTest extends Specification {
     WorkerLeaseRegistry.WorkerLease workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
@@ -123,6 +128,82 @@ class ForkingTestClassProcessorTest extends Specification {
         notThrown(ExecException)
     }
 
+    def "blocks until the worker acknowledges a test class when the maximum number of test classes are in flight"() {
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        def listener = new BlockingVariable<TestWorkerProgressListener>()
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(_) >> remoteProcessor
+            addIncoming(TestWorkerProgressListener, _) >> { listener.set(it[1]) }
+        }
+        def dispatched = new CountDownLatch(1)
+
+        setup:
+        1 * workerProcess.getConnection() >> connection
+
+        when:
+        ForkingTestClassProcessor.MAX_CLASSES_IN_FLIGHT.times { processor.processTestClass(Mock(TestClassRunInfo)) }
+        def thread = Thread.start {
+            processor.processTestClass(Mock(TestClassRunInfo))
+            dispatched.countDown()
+        }
+
+        then:
+        !dispatched.await(200, TimeUnit.MILLISECONDS)
+
+        when:
+        listener.get().testClassProcessed()
+        thread.join(5000)
+
+        then:
+        dispatched.count == 0
+    }
+
+    def "does not block when the worker has stopped"() {
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
+        def listener = new BlockingVariable<TestWorkerProgressListener>()
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(_) >> Stub(RemoteTestClassProcessor)
+            addIncoming(TestWorkerProgressListener, _) >> { listener.set(it[1]) }
+        }
+
+        setup:
+        1 * workerProcess.getConnection() >> connection
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+        (listener.get() as StreamCompletion).endStream()
+        (ForkingTestClassProcessor.MAX_CLASSES_IN_FLIGHT + 1).times { processor.processTestClass(Mock(TestClassRunInfo)) }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "runs test classes in a reusable worker and returns it to the pool when complete"() {
+        def pool = new TestWorkerPool(true, 1)
+        def processor = Spy(ForkingTestClassProcessor, constructorArgs: [workerLease, workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), moduleRegistry, documentationRegistry, pool])
+        def reusableWorker = Mock(ReusableTestWorker) {
+            getKey() >> "key"
+        }
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        processor.stop()
+
+        then:
+        1 * workerLease.startChild() >> Mock(WorkerLeaseRegistry.WorkerLeaseCompletion)
+        1 * processor.startSession() >> reusableWorker
+        0 * processor.forkProcess()
+        1 * reusableWorker.processTestClass(test1)
+        1 * reusableWorker.processTestClass(test2)
+        1 * reusableWorker.stopSession() >> true
+        0 * reusableWorker.stop()
+        pool.acquire("key") == reusableWorker
+    }
+
     def module(String module) {
         return Stub(Module) {
             _ * getImplementationClasspath() >> {
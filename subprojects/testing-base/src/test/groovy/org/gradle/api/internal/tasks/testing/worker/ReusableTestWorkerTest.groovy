@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.process.internal.worker.WorkerProcess
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class ReusableTestWorkerTest extends ConcurrentSpec {
+    def remoteProcessor = Mock(RemoteTestClassProcessor)
+    def connection = Stub(ObjectConnection) {
+        addOutgoing(RemoteTestClassProcessor) >> remoteProcessor
+    }
+    def workerProcess = Stub(WorkerProcess) {
+        getConnection() >> connection
+    }
+    def worker = new ReusableTestWorker("key", workerProcess)
+    def spec = new TestWorkerSessionSpec(new TestWorkerTest.SessionProcessorFactory(), [], [], [])
+    def rootSuite = new DefaultTestSuiteDescriptor("root", "Gradle Test Executor 1")
+
+    def setup() {
+        worker.start()
+    }
+
+    def "forwards results to the processors of the current session"() {
+        def resultProcessor1 = Mock(TestResultProcessor)
+        def resultProcessor2 = Mock(TestResultProcessor)
+        def progressListener = Stub(TestWorkerProgressListener)
+        def testClass = Stub(TestClassRunInfo)
+
+        when:
+        worker.startSession(spec, resultProcessor1, progressListener)
+        worker.processTestClass(testClass)
+        worker.started(rootSuite, new TestStartEvent(0))
+        worker.testClassProcessed()
+        worker.completed("root", new TestCompleteEvent(1))
+        def reusable = worker.stopSession()
+
+        then:
+        reusable
+        1 * remoteProcessor.startSession(spec)
+        1 * remoteProcessor.processTestClass(testClass)
+        1 * remoteProcessor.stop()
+        1 * resultProcessor1.started(rootSuite, _)
+        1 * resultProcessor1.completed("root", _)
+        0 * resultProcessor2._
+
+        when:
+        worker.startSession(spec, resultProcessor2, progressListener)
+        worker.started(rootSuite, new TestStartEvent(2))
+
+        then:
+        1 * resultProcessor2.started(rootSuite, _)
+        0 * resultProcessor1._
+    }
+
+    def "stopping a session blocks until the worker has reported all results"() {
+        def progressListener = Mock(TestWorkerProgressListener)
+        worker.startSession(spec, Stub(TestResultProcessor), progressListener)
+        worker.processTestClass(Stub(TestClassRunInfo))
+        worker.started(rootSuite, new TestStartEvent(0))
+
+        when:
+        async {
+            start {
+                assert worker.stopSession()
+                instant.stopped
+            }
+            thread.blockUntil.stopRequested
+            instant.rootCompleted
+            worker.completed("root", new TestCompleteEvent(1))
+            thread.block()
+            instant.acknowledged
+            worker.testClassProcessed()
+        }
+
+        then:
+        instant.stopped > instant.acknowledged
+        instant.acknowledged > instant.rootCompleted
+
+        and:
+        1 * remoteProcessor.stop() >> { instant.stopRequested }
+        1 * progressListener.testClassProcessed()
+    }
+
+    def "worker cannot be reused once it has disconnected"() {
+        def progressListener = Mock(TestWorkerProgressListener)
+        worker.startSession(spec, Stub(TestResultProcessor), progressListener)
+        worker.processTestClass(Stub(TestClassRunInfo))
+
+        when:
+        worker.endStream()
+        def reusable = worker.stopSession()
+
+        then:
+        !reusable
+    }
+}
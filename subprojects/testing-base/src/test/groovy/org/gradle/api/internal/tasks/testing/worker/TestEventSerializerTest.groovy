@@ -175,6 +175,45 @@ class TestEventSerializerTest extends SerializerSpec {
         result.cause.message == "cause"
     }
 
+    def "serializes TestEventBatch"() {
+        def suiteId = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def testId = new CompositeIdGenerator.CompositeId(1L, 3L)
+        def batch = new TestEventBatch(compress)
+        batch.started(new DefaultTestClassDescriptor(suiteId, "org.gradle.SomeTest"), new TestStartEvent(100L, null))
+        batch.started(new DefaultTestMethodDescriptor(testId, "org.gradle.SomeTest", "someMethod"), new TestStartEvent(101L, suiteId))
+        batch.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "x" * 2000))
+        batch.failure(testId, new GradleException("broken"))
+        batch.completed(testId, new TestCompleteEvent(102L, TestResult.ResultType.FAILURE))
+        batch.completed(suiteId, new TestCompleteEvent(103L))
+        def resultProcessor = Mock(TestResultProcessor)
+
+        when:
+        def result = serialize(batch)
+        result.replay(resultProcessor)
+
+        then:
+        result.size() == 6
+        result.compress == compress
+        result.encodedSize > 0
+
+        then:
+        1 * resultProcessor.started({ it instanceof DefaultTestClassDescriptor && it.id == suiteId && it.className == "org.gradle.SomeTest" }, { it.startTime == 100L && it.parentId == null })
+        then:
+        1 * resultProcessor.started({ it instanceof DefaultTestMethodDescriptor && it.className == "org.gradle.SomeTest" && it.name == "someMethod" }, { it.parentId == suiteId })
+        then:
+        1 * resultProcessor.output(testId, { it.message == "x" * 2000 })
+        then:
+        1 * resultProcessor.failure(testId, { it instanceof GradleException && it.message == "broken" })
+        then:
+        1 * resultProcessor.completed(testId, { it.resultType == TestResult.ResultType.FAILURE })
+        then:
+        1 * resultProcessor.completed(suiteId, { it.endTime == 103L })
+        0 * resultProcessor._
+
+        where:
+        compress << [false, true]
+    }
+
     def Object serialize(Object source, Class type = source.getClass()) {
         return super.serialize(source, serializer.build(type))
     }
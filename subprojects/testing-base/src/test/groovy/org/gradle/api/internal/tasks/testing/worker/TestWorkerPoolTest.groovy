@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import spock.lang.Specification
+
+class TestWorkerPoolTest extends Specification {
+    def pool = new TestWorkerPool(true, 2)
+
+    def "reuses an idle worker with the same key"() {
+        def worker1 = worker("a")
+        def worker2 = worker("b")
+
+        when:
+        pool.release(worker1)
+        pool.release(worker2)
+
+        then:
+        pool.acquire("c") == null
+        pool.acquire("b") == worker2
+        pool.acquire("b") == null
+        pool.acquire("a") == worker1
+    }
+
+    def "stops the least recently used idle worker when the pool is full"() {
+        def worker1 = worker("a")
+        def worker2 = worker("a")
+        def worker3 = worker("a")
+
+        when:
+        pool.release(worker1)
+        pool.release(worker2)
+        pool.release(worker3)
+
+        then:
+        1 * worker1.stop()
+        0 * worker2.stop()
+        0 * worker3.stop()
+
+        and:
+        pool.acquire("a") == worker3
+        pool.acquire("a") == worker2
+        pool.acquire("a") == null
+    }
+
+    def "stops idle workers when stopped"() {
+        def worker1 = worker("a")
+        def worker2 = worker("b")
+        pool.release(worker1)
+        pool.release(worker2)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * worker1.stop()
+        1 * worker2.stop()
+        pool.acquire("a") == null
+    }
+
+    def worker(String key) {
+        return Mock(ReusableTestWorker) {
+            getKey() >> key
+        }
+    }
+}
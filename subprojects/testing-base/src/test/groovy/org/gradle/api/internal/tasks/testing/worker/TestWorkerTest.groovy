@@ -19,10 +19,10 @@ package org.gradle.api.internal.tasks.testing.worker
 
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
-import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.remote.ObjectConnection
 import org.gradle.internal.service.DefaultServiceRegistry
+import org.gradle.internal.service.ServiceRegistry
 import org.gradle.internal.time.Clock
 import org.gradle.internal.time.Time
 import org.gradle.process.internal.worker.WorkerProcessContext
@@ -37,7 +37,8 @@ public class TestWorkerTest extends ConcurrentSpec {
     def factory = Mock(WorkerTestClassProcessorFactory)
     def processor = Mock(TestClassProcessor)
     def test = Mock(TestClassRunInfo)
-    def resultProcessor = Mock(TestResultProcessor)
+    def eventProcessor = Mock(TestEventBatchProcessor)
+    def progressListener = Mock(TestWorkerProgressListener)
     def worker = new TestWorker(factory)
     def serviceRegistry = new DefaultServiceRegistry().add(Clock, Time.clock())
 
@@ -45,6 +46,7 @@ public class TestWorkerTest extends ConcurrentSpec {
         workerContext.workerId >> "<worker-id>"
         workerContext.serverConnection >> connection
         workerContext.serviceRegistry >> serviceRegistry
+        SessionProcessorFactory.processor = processor
     }
 
     def createsTestProcessorAndBlocksUntilEndOfProcessingReceived() {
@@ -60,7 +62,8 @@ public class TestWorkerTest extends ConcurrentSpec {
 
         and:
         1 * factory.create(_) >> processor
-        1 * connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        1 * connection.addOutgoing(TestEventBatchProcessor) >> eventProcessor
+        1 * connection.addOutgoing(TestWorkerProgressListener) >> progressListener
         1 * connection.addIncoming(RemoteTestClassProcessor, worker)
         1 * connection.useParameterSerializers(_)
         1 * connection.connect() >> {
@@ -74,6 +77,56 @@ public class TestWorkerTest extends ConcurrentSpec {
         }
         1 * processor.startProcessing(_)
         1 * processor.processTestClass(test)
+        1 * progressListener.testClassProcessed()
         1 * processor.stop()
     }
+
+    def "reusable worker runs the tests of one session after another until shut down"() {
+        def worker = TestWorker.reusable()
+        def spec = new TestWorkerSessionSpec(new SessionProcessorFactory(), [], [], [])
+        def propertiesAfterSession = []
+
+        when:
+        async {
+            worker.execute(workerContext)
+            instant.completed
+        }
+
+        then:
+        instant.completed > instant.shutdown
+        propertiesAfterSession == [null, null]
+
+        and:
+        1 * connection.addOutgoing(TestEventBatchProcessor) >> eventProcessor
+        1 * connection.addOutgoing(TestWorkerProgressListener) >> progressListener
+        1 * connection.addIncoming(RemoteTestClassProcessor, worker)
+        1 * connection.connect() >> {
+            start {
+                2.times {
+                    worker.startSession(spec)
+                    System.setProperty("org.gradle.test.session", "changed")
+                    worker.processTestClass(test)
+                    worker.stop()
+                    propertiesAfterSession << System.getProperty("org.gradle.test.session")
+                }
+                thread.block()
+                instant.shutdown
+                worker.shutdown()
+            }
+        }
+        2 * processor.startProcessing(_)
+        2 * processor.processTestClass(test)
+        2 * processor.stop()
+        2 * progressListener.testClassProcessed()
+        0 * factory._
+    }
+
+    static class SessionProcessorFactory implements WorkerTestClassProcessorFactory, Serializable {
+        static TestClassProcessor processor
+
+        @Override
+        TestClassProcessor create(ServiceRegistry serviceRegistry) {
+            return processor
+        }
+    }
 }
@@ -21,7 +21,10 @@ import org.gradle.api.file.FileTree;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.util.Path;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 public class JvmTestExecutionSpec implements TestExecutionSpec {
@@ -36,8 +39,18 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
     private final JavaForkOptions javaForkOptions;
     private final int maxParallelForks;
     private final Set<String> previousFailedTestClasses;
+    private final Map<String, Long> previousTestClassDurations;
+    private final Set<String> affectedTestClasses;
 
     public JvmTestExecutionSpec(TestFramework testFramework, Iterable<? extends File> classpath, FileTree candidateClassFiles, boolean scanForTestClasses, FileCollection testClassesDirs, String path, Path identityPath, long forkEvery, JavaForkOptions javaForkOptions, int maxParallelForks, Set<String> previousFailedTestClasses) {
+        this(testFramework, classpath, candidateClassFiles, scanForTestClasses, testClassesDirs, path, identityPath, forkEvery, javaForkOptions, maxParallelForks, previousFailedTestClasses, Collections.<String, Long>emptyMap());
+    }
+
+    public JvmTestExecutionSpec(TestFramework testFramework, Iterable<? extends File> classpath, FileTree candidateClassFiles, boolean scanForTestClasses, FileCollection testClassesDirs, String path, Path identityPath, long forkEvery, JavaForkOptions javaForkOptions, int maxParallelForks, Set<String> previousFailedTestClasses, Map<String, Long> previousTestClassDurations) {
+        this(testFramework, classpath, candidateClassFiles, scanForTestClasses, testClassesDirs, path, identityPath, forkEvery, javaForkOptions, maxParallelForks, previousFailedTestClasses, previousTestClassDurations, null);
+    }
+
+    public JvmTestExecutionSpec(TestFramework testFramework, Iterable<? extends File> classpath, FileTree candidateClassFiles, boolean scanForTestClasses, FileCollection testClassesDirs, String path, Path identityPath, long forkEvery, JavaForkOptions javaForkOptions, int maxParallelForks, Set<String> previousFailedTestClasses, Map<String, Long> previousTestClassDurations, @Nullable Set<String> affectedTestClasses) {
         this.testFramework = testFramework;
         this.classpath = classpath;
         this.candidateClassFiles = candidateClassFiles;
@@ -49,6 +62,8 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
         this.javaForkOptions = javaForkOptions;
         this.maxParallelForks = maxParallelForks;
         this.previousFailedTestClasses = previousFailedTestClasses;
+        this.previousTestClassDurations = previousTestClassDurations;
+        this.affectedTestClasses = affectedTestClasses;
     }
 
     public TestFramework getTestFramework() {
@@ -94,4 +109,19 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
     public Set<String> getPreviousFailedTestClasses() {
         return previousFailedTestClasses;
     }
+
+    /**
+     * Returns the duration in milliseconds of each test class in the previous execution, keyed by class name.
+     */
+    public Map<String, Long> getPreviousTestClassDurations() {
+        return previousTestClassDurations;
+    }
+
+    /**
+     * Returns the names of the top level classes whose tests should run, as selected by test impact analysis, or null when all tests should run.
+     */
+    @Nullable
+    public Set<String> getAffectedTestClasses() {
+        return affectedTestClasses;
+    }
 }
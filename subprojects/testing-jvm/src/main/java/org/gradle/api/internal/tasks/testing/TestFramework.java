@@ -44,4 +44,11 @@ public interface TestFramework {
      * executed before starting each worker process.
      */
     Action<WorkerProcessBuilder> getWorkerConfigurationAction();
+
+    /**
+     * Returns true when the test processor created by {@link #getProcessorFactory()} runs each test class before
+     * {@link TestClassProcessor#processTestClass(TestClassRunInfo)} returns, so that test classes can be handed to whichever worker process becomes
+     * available first. Returns false when the test processor only collects the test classes and runs them all when it is stopped.
+     */
+    boolean runsEachTestClassWhenProcessed();
 }
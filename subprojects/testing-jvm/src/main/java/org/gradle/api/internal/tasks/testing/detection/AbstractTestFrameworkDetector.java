@@ -16,39 +16,47 @@
 
 package org.gradle.api.internal.tasks.testing.detection;
 
-import org.apache.commons.io.IOUtils;
+import com.google.common.io.Files;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.internal.file.RelativeFile;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
-import org.gradle.internal.IoActions;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
+/**
+ * Base class for detectors which find test classes by inspecting class files. Test classes can be processed concurrently.
+ *
+ * <p>When a class file cache factory is set, the result of inspecting a class file is cached by the hash of its content, so that
+ * unchanged class files, including super classes, are not read again by later builds.</p>
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     private static final String JAVA_LANG_OBJECT = "java/lang/Object";
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final ConcurrentMap<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
+    private FileContentCache<TestClass> classFileCache;
 
     private Set<File> testClassesDirectories;
     private Set<File> testClasspath;
@@ -56,7 +64,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new ConcurrentHashMap<String, Boolean>();
     }
 
     protected abstract T createClassVisitor();
@@ -86,7 +94,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
     }
 
-    private void prepareClasspath() {
+    private synchronized void prepareClasspath() {
         if (testClassDirectories != null) {
             return;
         }
@@ -117,20 +125,34 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
+    @Override
+    public void setClassFileCacheFactory(FileContentCacheFactory cacheFactory) {
+        // The result of inspecting a class file depends on the detector, so use a separate cache for each detector
+        classFileCache = cacheFactory.newCache(getClass().getSimpleName() + "ClassFiles", 40000, new FileContentCacheFactory.Calculator<TestClass>() {
+            @Override
+            public TestClass calculate(File file, boolean isRegularFile) {
+                return isRegularFile ? parseClassFile(file) : TestClass.UNPARSEABLE;
+            }
+        }, new TestClassSerializer());
+    }
+
     private TestClass readClassFile(File testClassFile, Factory<String> fallbackClassNameProvider) {
-        final TestClassVisitor classVisitor = createClassVisitor();
+        TestClass testClass = classFileCache != null ? classFileCache.get(testClassFile) : parseClassFile(testClassFile);
+        if (testClass.getClassName() == null) {
+            return TestClass.forUnparseableFile(fallbackClassNameProvider.create());
+        }
+        return testClass;
+    }
 
-        InputStream classStream = null;
+    private TestClass parseClassFile(File testClassFile) {
+        final TestClassVisitor classVisitor = createClassVisitor();
         try {
-            classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
+            final ClassReader classReader = new ClassReader(Files.toByteArray(testClassFile));
             classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
             return TestClass.forParseableFile(classVisitor);
         } catch (Throwable e) {
             LOGGER.debug("Failed to read class file " + testClassFile.getAbsolutePath() + "; assuming it's a test class and continuing", e);
-            return TestClass.forUnparseableFile(fallbackClassNameProvider.create());
-        } finally {
-            IoActions.closeQuietly(classStream);
+            return TestClass.UNPARSEABLE;
         }
     }
 
@@ -160,14 +182,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
             } else {
-                File superClassFile = getSuperTestClassFile(superClassName);
-
-                if (superClassFile != null) {
-                    isTest = processSuperClass(superClassFile, superClassName);
-                } else {
-                    LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
-                        superClassName);
-                }
+                isTest = processSuperClass(superClassName);
             }
         }
 
@@ -178,19 +193,23 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     protected abstract boolean isKnownTestCaseClassName(String testCaseClassName);
 
-    private boolean processSuperClass(File testClassFile, String superClassName) {
-        boolean isTest;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
-
-        if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true, Factories.constant(superClassName));
+    private boolean processSuperClass(String superClassName) {
+        // Many test classes share the same super classes, so remember the result for each super class.
+        // When test classes are processed concurrently, a super class may occasionally be processed more than once
+        Boolean isSuperTest = superClasses.get(superClassName);
+        if (isSuperTest != null) {
+            return isSuperTest;
+        }
 
-            superClasses.put(testClassFile, isTest);
+        boolean isTest = false;
+        File superClassFile = getSuperTestClassFile(superClassName);
+        if (superClassFile != null) {
+            isTest = processTestClass(superClassFile, true, Factories.constant(superClassName));
         } else {
-            isTest = isSuperTest;
+            LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
+                superClassName);
         }
-
+        superClasses.put(superClassName, isTest);
         return isTest;
     }
 
@@ -201,7 +220,9 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     private void publishTestClass(boolean isTest, TestClass testClass, boolean superClass) {
         if (isTest && !testClass.isAbstract() && !superClass) {
             String className = Type.getObjectType(testClass.getClassName()).getClassName();
-            testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+            synchronized (this) {
+                testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+            }
         }
     }
 
@@ -210,7 +231,12 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClassProcessor = testClassProcessor;
     }
 
-    private static class TestClass {
+    static class TestClass {
+        /**
+         * The result for a class file that cannot be parsed. The class name is taken from the location of the class file.
+         */
+        static final TestClass UNPARSEABLE = new TestClass(true, false, null, null);
+
         private final boolean test;
         private final boolean isAbstract;
         private final String className;
@@ -248,4 +274,23 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
     }
 
+    private static class TestClassSerializer extends AbstractSerializer<TestClass> {
+        @Override
+        public TestClass read(Decoder decoder) throws Exception {
+            boolean test = decoder.readBoolean();
+            boolean isAbstract = decoder.readBoolean();
+            String className = decoder.readNullableString();
+            String superClassName = decoder.readNullableString();
+            return className == null ? TestClass.UNPARSEABLE : new TestClass(test, isAbstract, className, superClassName);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestClass value) throws Exception {
+            encoder.writeBoolean(value.isTest());
+            encoder.writeBoolean(value.isAbstract());
+            encoder.writeNullableString(value.getClassName());
+            encoder.writeNullableString(value.getSuperClassName());
+        }
+    }
+
 }
@@ -23,24 +23,46 @@ import org.gradle.api.internal.file.RelativeFile;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>When an executor factory is provided, class files are passed to the detector concurrently. The detected test classes are
+ * then passed to the test class processor in the order the class files were found, as for a sequential scan.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
     private static final Pattern ANONYMOUS_CLASS_NAME = Pattern.compile(".*\\$\\d+");
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
+    private final int maxParallelism;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null, 1);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, @Nullable ExecutorFactory executorFactory, int maxParallelism) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
+        this.maxParallelism = maxParallelism;
     }
 
     @Override
@@ -53,6 +75,10 @@ public class DefaultTestClassScanner implements Runnable {
     }
 
     private void detectionScan() {
+        if (executorFactory != null && maxParallelism > 1) {
+            parallelDetectionScan();
+            return;
+        }
         testFrameworkDetector.startDetection(testClassProcessor);
         candidateClassFiles.visit(new ClassFileVisitor() {
             public void visitClassFile(FileVisitDetails fileDetails) {
@@ -61,6 +87,40 @@ public class DefaultTestClassScanner implements Runnable {
         });
     }
 
+    private void parallelDetectionScan() {
+        final List<RelativeFile> classFiles = new ArrayList<RelativeFile>();
+        candidateClassFiles.visit(new ClassFileVisitor() {
+            public void visitClassFile(FileVisitDetails fileDetails) {
+                classFiles.add(new RelativeFile(fileDetails.getFile(), fileDetails.getRelativePath()));
+            }
+        });
+
+        DetectedTestClasses detectedTestClasses = new DetectedTestClasses();
+        testFrameworkDetector.startDetection(detectedTestClasses);
+        ManagedExecutor executor = executorFactory.create("Test class detection", maxParallelism);
+        try {
+            for (final RelativeFile classFile : classFiles) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        testFrameworkDetector.processTestClass(classFile);
+                    }
+                });
+            }
+        } finally {
+            // Waits for detection to complete, and rethrows any failure
+            executor.stop();
+        }
+
+        Map<String, Integer> classFileOrder = new HashMap<String, Integer>(classFiles.size());
+        for (RelativeFile classFile : classFiles) {
+            classFileOrder.put(getClassName(classFile.getRelativePath().getPathString()), classFileOrder.size());
+        }
+        for (TestClassRunInfo testClass : detectedTestClasses.inOrder(classFileOrder)) {
+            testClassProcessor.processTestClass(testClass);
+        }
+    }
+
     private void filenameScan() {
         candidateClassFiles.visit(new ClassFileVisitor() {
             public void visitClassFile(FileVisitDetails fileDetails) {
@@ -90,6 +150,58 @@ public class DefaultTestClassScanner implements Runnable {
     }
 
     private String getClassName(FileVisitDetails fileDetails) {
-        return fileDetails.getRelativePath().getPathString().replaceAll("\\.class", "").replace('/', '.');
+        return getClassName(fileDetails.getRelativePath().getPathString());
+    }
+
+    private static String getClassName(String classFilePath) {
+        return classFilePath.replaceAll("\\.class", "").replace('/', '.');
+    }
+
+    /**
+     * Collects the test classes found by concurrent detection.
+     */
+    private static class DetectedTestClasses implements TestClassProcessor {
+        private final List<TestClassRunInfo> testClasses = new ArrayList<TestClassRunInfo>();
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+        }
+
+        @Override
+        public synchronized void processTestClass(TestClassRunInfo testClass) {
+            testClasses.add(testClass);
+        }
+
+        /**
+         * Returns the test classes in the order of their class files. Test classes whose name does not match the class file come last.
+         */
+        synchronized List<TestClassRunInfo> inOrder(final Map<String, Integer> classFileOrder) {
+            List<TestClassRunInfo> sorted = new ArrayList<TestClassRunInfo>(testClasses);
+            Collections.sort(sorted, new Comparator<TestClassRunInfo>() {
+                @Override
+                public int compare(TestClassRunInfo o1, TestClassRunInfo o2) {
+                    int index1 = indexOf(o1);
+                    int index2 = indexOf(o2);
+                    if (index1 != index2) {
+                        return index1 < index2 ? -1 : 1;
+                    }
+                    return o1.getTestClassName().compareTo(o2.getTestClassName());
+                }
+
+                private int indexOf(TestClassRunInfo testClass) {
+                    Integer index = classFileOrder.get(testClass.getTestClassName());
+                    return index == null ? Integer.MAX_VALUE : index;
+                }
+            });
+            return sorted;
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void stopNow() {
+        }
     }
 }
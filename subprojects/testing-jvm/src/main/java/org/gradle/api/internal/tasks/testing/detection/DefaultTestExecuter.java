@@ -27,16 +27,20 @@ import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.impact.AffectedTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.PatternMatchTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RunPreviousFailedFirstTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.time.Clock;
 import org.gradle.internal.work.WorkerLeaseRegistry;
@@ -61,11 +65,15 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
     private final Clock clock;
     private final DocumentationRegistry documentationRegistry;
     private final DefaultTestFilter testFilter;
+    private final ExecutorFactory executorFactory;
+    private final FileContentCacheFactory fileContentCacheFactory;
+    private final TestWorkerPool workerPool;
     private TestClassProcessor processor;
 
     public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
                                WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, int maxWorkerCount,
-                               Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter) {
+                               Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter,
+                               ExecutorFactory executorFactory, FileContentCacheFactory fileContentCacheFactory, TestWorkerPool workerPool) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
@@ -75,6 +83,9 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
         this.clock = clock;
         this.documentationRegistry = documentationRegistry;
         this.testFilter = testFilter;
+        this.executorFactory = executorFactory;
+        this.fileContentCacheFactory = fileContentCacheFactory;
+        this.workerPool = workerPool;
     }
 
     @Override
@@ -83,10 +94,12 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
         final WorkerLeaseRegistry.WorkerLease currentWorkerLease = workerLeaseRegistry.getCurrentWorkerLease();
         final Set<File> classpath = ImmutableSet.copyOf(testExecutionSpec.getClasspath());
+        // A reused worker cannot provide a fresh JVM for every few test classes, or be attached to by a debugger
+        final TestWorkerPool reusableWorkers = testExecutionSpec.getForkEvery() == 0 && !testExecutionSpec.getJavaForkOptions().getDebug() ? workerPool : null;
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(currentWorkerLease, workerFactory, testInstanceFactory, testExecutionSpec.getJavaForkOptions(),
-                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, documentationRegistry);
+                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, documentationRegistry, reusableWorkers);
             }
         };
         final Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -96,8 +109,11 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
         };
         processor =
             new PatternMatchTestClassProcessor(testFilter,
-                new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(),
-                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory)));
+                new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(), testExecutionSpec.getPreviousTestClassDurations(),
+                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory, testFramework.runsEachTestClassWhenProcessed())));
+        if (testExecutionSpec.getAffectedTestClasses() != null) {
+            processor = new AffectedTestClassProcessor(testExecutionSpec.getAffectedTestClasses(), testExecutionSpec.getPreviousFailedTestClasses(), processor);
+        }
 
         final FileTree testClassFiles = testExecutionSpec.getCandidateClassFiles();
 
@@ -106,7 +122,8 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
             TestFrameworkDetector testFrameworkDetector = testFramework.getDetector();
             testFrameworkDetector.setTestClasses(testExecutionSpec.getTestClassesDirs().getFiles());
             testFrameworkDetector.setTestClasspath(classpath);
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            testFrameworkDetector.setClassFileCacheFactory(fileContentCacheFactory);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, executorFactory, maxWorkerCount);
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks.testing.detection;
 
 import org.gradle.api.internal.file.RelativeFile;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.cache.internal.FileContentCacheFactory;
 
 import java.io.File;
 import java.util.Set;
@@ -24,9 +25,17 @@ import java.util.Set;
 public interface TestFrameworkDetector {
     void startDetection(TestClassProcessor testClassProcessor);
 
+    /**
+     * Detects whether the given class file contains a test class, and passes it to the test class processor if so. May be called concurrently.
+     */
     boolean processTestClass(RelativeFile testClassFile);
 
     void setTestClasses(Set<File> testClasses);
 
     void setTestClasspath(Set<File> classpath);
+
+    /**
+     * Sets the factory for the cache used to reuse the analysis of class files across builds.
+     */
+    void setClassFileCacheFactory(FileContentCacheFactory cacheFactory);
 }
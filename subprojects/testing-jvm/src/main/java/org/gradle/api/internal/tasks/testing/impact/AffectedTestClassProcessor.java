@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+import java.util.Set;
+
+/**
+ * Only passes on the test classes selected by {@link TestImpactAnalyzer}, plus the test classes that failed in the previous run.
+ */
+public class AffectedTestClassProcessor implements TestClassProcessor {
+    private final Set<String> affectedClasses;
+    private final Set<String> previousFailedTestClasses;
+    private final TestClassProcessor delegate;
+
+    public AffectedTestClassProcessor(Set<String> affectedClasses, Set<String> previousFailedTestClasses, TestClassProcessor delegate) {
+        this.affectedClasses = affectedClasses;
+        this.previousFailedTestClasses = previousFailedTestClasses;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        String className = testClass.getTestClassName();
+        if (TestSelection.isAffected(affectedClasses, className) || previousFailedTestClasses.contains(className)) {
+            delegate.processTestClass(testClass);
+        }
+    }
+
+    @Override
+    public void stop() {
+        delegate.stop();
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+}
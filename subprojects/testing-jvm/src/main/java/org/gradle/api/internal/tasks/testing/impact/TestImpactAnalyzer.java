@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects the tests affected by the changes to the test runtime classpath since the last time all selected tests passed.
+ *
+ * <p>A test class is affected when it, or any class that it transitively depends on, was added, removed or changed. Dependencies are the class level
+ * dependencies found in the class files of the classpath directories, as used by incremental Java compilation. Changes to jars or to resources
+ * cause all tests to run, as do changes to classes that every other class may depend on, such as annotations with source retention.</p>
+ *
+ * <p>Tests can depend on classes in ways that class files do not show, for example through reflection or service loading, so all tests
+ * run again after the configured number of runs that only ran the affected tests.</p>
+ */
+public class TestImpactAnalyzer {
+    public static final String ENABLED_PROPERTY = "org.gradle.testing.impact-analysis";
+    public static final String FULL_RUN_INTERVAL_PROPERTY = "org.gradle.testing.impact-analysis.full-run-interval";
+    private static final int DEFAULT_FULL_RUN_INTERVAL = 10;
+
+    private final FileHasher fileHasher;
+    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final ClassDependenciesAnalyzer classDependenciesAnalyzer;
+    private final int fullRunInterval;
+
+    public TestImpactAnalyzer(FileHasher fileHasher, DirectoryFileTreeFactory directoryFileTreeFactory, ClassDependenciesAnalyzer classDependenciesAnalyzer, int fullRunInterval) {
+        this.fileHasher = fileHasher;
+        this.directoryFileTreeFactory = directoryFileTreeFactory;
+        this.classDependenciesAnalyzer = classDependenciesAnalyzer;
+        this.fullRunInterval = fullRunInterval;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    public static int getFullRunInterval() {
+        return Integer.getInteger(FULL_RUN_INTERVAL_PROPERTY, DEFAULT_FULL_RUN_INTERVAL);
+    }
+
+    /**
+     * Compares the given classpath with the state recorded in the given file and selects the affected test classes.
+     */
+    public TestSelection select(Iterable<? extends File> classpath, File stateFile) {
+        ClasspathContent current = snapshot(classpath);
+        TestImpactState previous = TestImpactState.read(stateFile);
+        if (previous == null) {
+            return TestSelection.all("no previous test run was recorded", current.toState(0), stateFile);
+        }
+        if (previous.getRunsSinceFullRun() + 1 >= fullRunInterval) {
+            return TestSelection.all("all tests run every " + fullRunInterval + " runs", current.toState(0), stateFile);
+        }
+        if (!previous.getOtherFiles().equals(current.otherFiles)) {
+            return TestSelection.all("a jar or resource on the test runtime classpath has changed", current.toState(0), stateFile);
+        }
+
+        Set<String> changedClasses = new HashSet<String>();
+        for (Map.Entry<String, HashCode> entry : current.classHashes.entrySet()) {
+            if (!entry.getValue().equals(previous.getClasses().get(entry.getKey()))) {
+                changedClasses.add(entry.getKey());
+            }
+        }
+        for (String className : previous.getClasses().keySet()) {
+            if (!current.classHashes.containsKey(className)) {
+                changedClasses.add(className);
+            }
+        }
+        if (changedClasses.isEmpty()) {
+            return TestSelection.all("no class on the test runtime classpath has changed", current.toState(0), stateFile);
+        }
+
+        // Changes to constants do not need special treatment, as the classes that inline them have been recompiled and so have changed as well
+        DependentsSet dependents = analyze(current).getRelevantDependents(changedClasses, IntSets.EMPTY_SET);
+        if (dependents.isDependencyToAll()) {
+            String reason = dependents.getDescription();
+            return TestSelection.all(reason != null ? reason : "a changed class may affect every test", current.toState(0), stateFile);
+        }
+
+        Set<String> affectedClasses = new HashSet<String>();
+        for (String className : changedClasses) {
+            affectedClasses.add(TestSelection.outermostClassName(className));
+        }
+        for (String className : dependents.getDependentClasses()) {
+            affectedClasses.add(TestSelection.outermostClassName(className));
+        }
+        return TestSelection.affected(affectedClasses, changedClasses.size(), current.toState(previous.getRunsSinceFullRun() + 1), stateFile);
+    }
+
+    private ClasspathContent snapshot(Iterable<? extends File> classpath) {
+        final ClasspathContent content = new ClasspathContent();
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                directoryFileTreeFactory.create(file).visit(new EmptyFileVisitor() {
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        String path = fileDetails.getRelativePath().getPathString();
+                        HashCode hash = fileHasher.hash(fileDetails);
+                        if (path.endsWith(".class")) {
+                            String className = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+                            // The first class with a given name hides the others, in the same way as when the tests run
+                            if (!content.classHashes.containsKey(className)) {
+                                content.classHashes.put(className, hash);
+                                content.classFiles.put(className, fileDetails);
+                            }
+                        } else {
+                            content.otherFiles.put(fileDetails.getFile().getAbsolutePath(), hash);
+                        }
+                    }
+                });
+            } else if (file.isFile()) {
+                content.otherFiles.put(file.getAbsolutePath(), fileHasher.hash(file));
+            }
+        }
+        return content;
+    }
+
+    private ClassSetAnalysis analyze(ClasspathContent content) {
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        for (Map.Entry<String, FileVisitDetails> entry : content.classFiles.entrySet()) {
+            accumulator.addClass(classDependenciesAnalyzer.getClassAnalysis(content.classHashes.get(entry.getKey()), entry.getValue()));
+        }
+        return new ClassSetAnalysis(accumulator.getAnalysis());
+    }
+
+    private static class ClasspathContent {
+        final Map<String, HashCode> classHashes = new HashMap<String, HashCode>();
+        final Map<String, FileVisitDetails> classFiles = new LinkedHashMap<String, FileVisitDetails>();
+        final Map<String, HashCode> otherFiles = new HashMap<String, HashCode>();
+
+        TestImpactState toState(int runsSinceFullRun) {
+            return new TestImpactState(classHashes, otherFiles, runsSinceFullRun);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The content of the test runtime classpath the last time all selected tests of a test task passed.
+ */
+class TestImpactState {
+    private static final int STATE_VERSION = 1;
+    private static final HashCodeSerializer HASH_CODE_SERIALIZER = new HashCodeSerializer();
+
+    private final Map<String, HashCode> classes;
+    private final Map<String, HashCode> otherFiles;
+    private final int runsSinceFullRun;
+
+    TestImpactState(Map<String, HashCode> classes, Map<String, HashCode> otherFiles, int runsSinceFullRun) {
+        this.classes = classes;
+        this.otherFiles = otherFiles;
+        this.runsSinceFullRun = runsSinceFullRun;
+    }
+
+    /**
+     * The hash of each class file found in the classpath directories, keyed by class name.
+     */
+    public Map<String, HashCode> getClasses() {
+        return classes;
+    }
+
+    /**
+     * The hash of each jar on the classpath and each resource found in the classpath directories, keyed by absolute path.
+     */
+    public Map<String, HashCode> getOtherFiles() {
+        return otherFiles;
+    }
+
+    /**
+     * The number of test runs that only ran the affected tests since all tests were last run.
+     */
+    public int getRunsSinceFullRun() {
+        return runsSinceFullRun;
+    }
+
+    @Nullable
+    static TestImpactState read(File stateFile) {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(stateFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != STATE_VERSION) {
+                    return null;
+                }
+                Map<String, HashCode> classes = readHashes(decoder);
+                Map<String, HashCode> otherFiles = readHashes(decoder);
+                int runsSinceFullRun = decoder.readSmallInt();
+                return new TestImpactState(classes, otherFiles, runsSinceFullRun);
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            // Treat an unreadable state the same as a missing one, which causes all tests to run
+            return null;
+        }
+    }
+
+    void write(File stateFile) {
+        try {
+            OutputStream outputStream = new FileOutputStream(stateFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(STATE_VERSION);
+                writeHashes(classes, encoder);
+                writeHashes(otherFiles, encoder);
+                encoder.writeSmallInt(runsSinceFullRun);
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, HashCode> readHashes(Decoder decoder) throws Exception {
+        int count = decoder.readSmallInt();
+        Map<String, HashCode> hashes = new HashMap<String, HashCode>(count);
+        for (int i = 0; i < count; i++) {
+            hashes.put(decoder.readString(), HASH_CODE_SERIALIZER.read(decoder));
+        }
+        return hashes;
+    }
+
+    private static void writeHashes(Map<String, HashCode> hashes, Encoder encoder) throws Exception {
+        encoder.writeSmallInt(hashes.size());
+        for (Map.Entry<String, HashCode> entry : hashes.entrySet()) {
+            encoder.writeString(entry.getKey());
+            HASH_CODE_SERIALIZER.write(encoder, entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Set;
+
+/**
+ * The test classes selected by {@link TestImpactAnalyzer} for a test run.
+ */
+public class TestSelection {
+    private final Set<String> affectedClasses;
+    private final String description;
+    private final TestImpactState state;
+    private final File stateFile;
+
+    private TestSelection(@Nullable Set<String> affectedClasses, String description, TestImpactState state, File stateFile) {
+        this.affectedClasses = affectedClasses;
+        this.description = description;
+        this.state = state;
+        this.stateFile = stateFile;
+    }
+
+    static TestSelection all(String reason, TestImpactState state, File stateFile) {
+        return new TestSelection(null, "Running all tests, as " + reason + ".", state, stateFile);
+    }
+
+    static TestSelection affected(Set<String> affectedClasses, int changedClassCount, TestImpactState state, File stateFile) {
+        String description = String.format("Running only the tests affected by %d changed class%s.", changedClassCount, changedClassCount == 1 ? "" : "es");
+        return new TestSelection(affectedClasses, description, state, stateFile);
+    }
+
+    /**
+     * Returns the names of the top level classes whose tests should run, or null when all tests should run.
+     */
+    @Nullable
+    public Set<String> getAffectedClasses() {
+        return affectedClasses;
+    }
+
+    public boolean isAll() {
+        return affectedClasses == null;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Records the current classpath as the one that later runs are compared with. Should only be called when all selected tests have passed.
+     */
+    public void commit() {
+        state.write(stateFile);
+    }
+
+    static String outermostClassName(String className) {
+        int nestedSeparator = className.indexOf('$');
+        return nestedSeparator < 0 ? className : className.substring(0, nestedSeparator);
+    }
+
+    /**
+     * Returns true when the given test class, or any class it is nested in, is affected.
+     */
+    public static boolean isAffected(Set<String> affectedClasses, String testClassName) {
+        return affectedClasses.contains(outermostClassName(testClassName));
+    }
+}
@@ -62,6 +62,11 @@ public class JUnitTestFramework implements TestFramework {
         };
     }
 
+    @Override
+    public boolean runsEachTestClassWhenProcessed() {
+        return true;
+    }
+
     @Override
     public JUnitOptions getOptions() {
         return options;
@@ -64,6 +64,12 @@ public class JUnitPlatformTestFramework implements TestFramework {
         };
     }
 
+    @Override
+    public boolean runsEachTestClassWhenProcessed() {
+        // The test classes are collected and run together as a single launcher request
+        return false;
+    }
+
     @Override
     public JUnitPlatformOptions getOptions() {
         return options;
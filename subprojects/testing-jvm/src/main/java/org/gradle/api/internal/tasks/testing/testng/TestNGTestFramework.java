@@ -120,6 +120,12 @@ public class TestNGTestFramework implements TestFramework {
         };
     }
 
+    @Override
+    public boolean runsEachTestClassWhenProcessed() {
+        // The test classes are collected and run together as a single TestNG suite
+        return false;
+    }
+
     @Override
     public TestNGOptions getOptions() {
         return options;
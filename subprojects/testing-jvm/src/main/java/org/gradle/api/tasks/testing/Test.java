@@ -23,23 +23,33 @@ import org.gradle.api.Action;
 import org.gradle.api.Incubating;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.NonNullApi;
+import org.gradle.api.Task;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalyzer;
+import org.gradle.api.internal.tasks.testing.impact.TestSelection;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
 import org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestFramework;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
@@ -56,9 +66,12 @@ import org.gradle.api.tasks.testing.junit.JUnitOptions;
 import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
 import org.gradle.api.tasks.testing.testng.TestNGOptions;
 import org.gradle.api.tasks.util.PatternFilterable;
+import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.Actions;
 import org.gradle.internal.Cast;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.jvm.UnsupportedJavaRuntimeException;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -74,7 +87,7 @@ import org.gradle.util.ConfigureUtil;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -147,11 +160,18 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     private long forkEvery;
     private int maxParallelForks = 1;
     private TestExecuter<JvmTestExecutionSpec> testExecuter;
+    private TestSelection testSelection;
 
     public Test() {
         patternSet = getFileResolver().getPatternSetFactory().create();
         forkOptions = new DefaultJavaForkOptions(getFileResolver());
         forkOptions.setEnableAssertions(true);
+        getOutputs().doNotCacheIf("Test impact analysis is enabled", new Spec<Task>() {
+            @Override
+            public boolean isSatisfiedBy(Task task) {
+                return TestImpactAnalyzer.isEnabled();
+            }
+        });
     }
 
     @Inject
@@ -551,25 +571,47 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     protected JvmTestExecutionSpec createTestExecutionSpec() {
         DefaultJavaForkOptions javaForkOptions = new DefaultJavaForkOptions(getFileResolver());
         copyTo(javaForkOptions);
-        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), getPreviousFailedTestClasses());
-    }
-
-    private Set<String> getPreviousFailedTestClasses() {
+        final Set<String> previousFailedTestClasses = new HashSet<String>();
+        final Map<String, Long> previousTestClassDurations = new HashMap<String, Long>();
         TestResultSerializer serializer = new TestResultSerializer(getBinResultsDir());
         if (serializer.isHasResults()) {
-            final Set<String> previousFailedTestClasses = new HashSet<String>();
             serializer.read(new Action<TestClassResult>() {
                 @Override
                 public void execute(TestClassResult testClassResult) {
                     if (testClassResult.getFailuresCount() > 0) {
                         previousFailedTestClasses.add(testClassResult.getClassName());
                     }
+                    previousTestClassDurations.put(testClassResult.getClassName(), testClassResult.getDuration());
                 }
             });
-            return previousFailedTestClasses;
+        }
+        testSelection = selectAffectedTests();
+        Set<String> affectedTestClasses = testSelection == null ? null : testSelection.getAffectedClasses();
+        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), previousFailedTestClasses, previousTestClassDurations, affectedTestClasses);
+    }
+
+    /**
+     * Selects the tests affected by the changes since the last successful test run, when test impact analysis is enabled.
+     * Filtered runs always run all matching tests, as the tests they filter out could not be recorded as passing.
+     */
+    @Nullable
+    private TestSelection selectAffectedTests() {
+        DefaultTestFilter filter = (DefaultTestFilter) getFilter();
+        if (!TestImpactAnalyzer.isEnabled()
+            || !filter.getIncludePatterns().isEmpty() || !filter.getExcludePatterns().isEmpty() || !filter.getCommandLineIncludePatterns().isEmpty()) {
+            return null;
+        }
+        ClassDependenciesAnalyzer classDependenciesAnalyzer = new CachingClassDependenciesAnalyzer(
+            new DefaultClassDependenciesAnalyzer(getServices().get(StringInterner.class)),
+            getServices().get(GeneralCompileCaches.class).getClassAnalysisCache());
+        TestImpactAnalyzer analyzer = new TestImpactAnalyzer(getServices().get(FileHasher.class), getServices().get(DirectoryFileTreeFactory.class), classDependenciesAnalyzer, TestImpactAnalyzer.getFullRunInterval());
+        TestSelection selection = analyzer.select(getClasspath(), new File(getTemporaryDir(), "test-impact.bin"));
+        if (selection.isAll()) {
+            getLogger().info(selection.getDescription());
         } else {
-            return Collections.emptySet();
+            getLogger().lifecycle(selection.getDescription());
         }
+        return selection;
     }
 
     @TaskAction
@@ -585,8 +627,12 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
 
         try {
             super.executeTests();
+            if (testSelection != null) {
+                testSelection.commit();
+            }
         } finally {
             testFramework = null;
+            testSelection = null;
         }
     }
 
@@ -599,7 +645,10 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
                 getServices().get(StartParameter.class).getMaxWorkerCount(),
                 getServices().get(Clock.class),
                 getServices().get(DocumentationRegistry.class),
-                (DefaultTestFilter) getFilter());
+                (DefaultTestFilter) getFilter(),
+                getServices().get(ExecutorFactory.class),
+                getServices().get(FileContentCacheFactory.class),
+                getServices().get(TestWorkerPool.class));
         } else {
             return testExecuter;
         }
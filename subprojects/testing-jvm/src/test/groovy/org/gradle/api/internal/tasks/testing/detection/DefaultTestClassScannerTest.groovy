@@ -21,7 +21,10 @@ import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.file.FileVisitor
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.file.RelativeFile
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.junit.Test
 import spock.lang.Specification
 import spock.lang.Subject
@@ -78,6 +81,35 @@ class DefaultTestClassScannerTest extends Specification {
         0 * _._
     }
 
+    def "passes test classes detected concurrently to processor in class file order"() {
+        def processor = Mock(TestClassProcessor)
+        def scanner = new DefaultTestClassScanner(files, detector, processor, new DefaultExecutorFactory(), 4)
+        TestClassProcessor detected = null
+
+        when:
+        scanner.run()
+
+        then:
+        1 * files.visit(_) >> { FileVisitor visitor ->
+            ['Class1', 'Class2', 'Class3', 'Class4'].each { visitor.visitFile(stubFileVisitDetails(it)) }
+        }
+        1 * detector.startDetection(_) >> { TestClassProcessor detectionProcessor -> detected = detectionProcessor }
+        4 * detector.processTestClass(_) >> { RelativeFile classFile ->
+            String className = classFile.relativePath.pathString - '.class'
+            if (className != 'Class2') {
+                detected.processTestClass(new DefaultTestClassRunInfo(className))
+            }
+            true
+        }
+        then:
+        1 * processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * processor.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * processor.processTestClass(new DefaultTestClassRunInfo('Class4'))
+        0 * processor._
+    }
+
     FileVisitDetails stubFileVisitDetails(String className) {
         return new DefaultFileVisitDetails(new File("${className}.class"), new RelativePath(false, "${className}.class"), null, null, null)
     }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import it.unimi.dsi.fastutil.ints.IntSets
+import org.gradle.api.file.FileTreeElement
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestImpactAnalyzerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def classesDir = tmp.createDir("classes")
+    def resourcesDir = tmp.createDir("resources")
+    def stateFile = tmp.file("test-impact.bin")
+    def dependencies = [:]
+    def classDependenciesAnalyzer = Stub(ClassDependenciesAnalyzer) {
+        getClassAnalysis(_, _) >> { HashCode hash, FileTreeElement classFile ->
+            def className = classFile.relativePath.pathString.replace(".class", "").replace("/", ".")
+            new ClassAnalysis(className, dependencies[className] as Set ?: [] as Set, false, IntSets.EMPTY_SET, [] as Set)
+        }
+    }
+    def analyzer = new TestImpactAnalyzer(TestFiles.fileHasher(), TestFiles.directoryFileTreeFactory(), classDependenciesAnalyzer, 3)
+
+    def setup() {
+        classFile("org.Service", "org.Repository")
+        classFile("org.Repository")
+        classFile("org.Other")
+        classFile("org.ServiceTest", "org.Service")
+        classFile("org.ServiceTest\$Nested", "org.Repository")
+        classFile("org.OtherTest", "org.Other")
+        resourcesDir.file("config.properties") << "value=1"
+    }
+
+    def "runs all tests when there is no previous run"() {
+        when:
+        def selection = select()
+
+        then:
+        selection.all
+        selection.description == "Running all tests, as no previous test run was recorded."
+    }
+
+    def "runs the tests that depend on changed classes"() {
+        select().commit()
+
+        when:
+        classFile("org.Repository").text = "changed"
+        def selection = select()
+
+        then:
+        !selection.all
+        selection.affectedClasses == ["org.Repository", "org.Service", "org.ServiceTest"] as Set
+        TestSelection.isAffected(selection.affectedClasses, "org.ServiceTest\$Nested")
+        !TestSelection.isAffected(selection.affectedClasses, "org.OtherTest")
+    }
+
+    def "runs the tests of added classes"() {
+        select().commit()
+
+        when:
+        classFile("org.NewTest", "org.Other")
+        def selection = select()
+
+        then:
+        selection.affectedClasses == ["org.NewTest"] as Set
+    }
+
+    def "runs all tests when a resource has changed"() {
+        select().commit()
+
+        when:
+        classFile("org.Repository").text = "changed"
+        resourcesDir.file("config.properties").text = "value=2"
+        def selection = select()
+
+        then:
+        selection.all
+    }
+
+    def "runs all tests when no class has changed"() {
+        select().commit()
+
+        expect:
+        select().all
+    }
+
+    def "runs all tests periodically"() {
+        select().commit()
+
+        when:
+        classFile("org.Other").text = "changed 1"
+        def first = select()
+        first.commit()
+        classFile("org.Other").text = "changed 2"
+        def second = select()
+        second.commit()
+        classFile("org.Other").text = "changed 3"
+        def third = select()
+
+        then:
+        !first.all
+        !second.all
+        third.all
+    }
+
+    def "compares with the last committed run"() {
+        select().commit()
+
+        when:
+        classFile("org.Repository").text = "changed"
+        select()
+        classFile("org.Other").text = "changed"
+        def selection = select()
+
+        then:
+        selection.affectedClasses == ["org.Repository", "org.Service", "org.ServiceTest", "org.Other", "org.OtherTest"] as Set
+    }
+
+    private TestSelection select() {
+        return analyzer.select([classesDir, resourcesDir], stateFile)
+    }
+
+    private TestFile classFile(String className, String... classDependencies) {
+        dependencies[className] = classDependencies as List
+        def file = classesDir.file(className.replace(".", "/") + ".class")
+        if (!file.exists()) {
+            file.text = className
+        }
+        return file
+    }
+}